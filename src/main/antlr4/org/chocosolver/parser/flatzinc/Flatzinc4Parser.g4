@@ -26,6 +26,12 @@ public Model mModel;
 
 
 public boolean allSolutions, freeSearch;
+
+// when not null, constraints are not posted but postponed in this list
+public List<Runnable> postponed;
+
+// number of lines before the parsed text, when it is a part of a file
+public int lineOffset;
 }
 
 
@@ -242,14 +248,20 @@ constraint
 	    CONSTRAINT IDENTIFIER LP e=expr {exps.add($e.exp);} (CM e=expr{exps.add($e.exp);})* RP anns=annotations SC
     {
     String name = $IDENTIFIER.text;
-    FConstraint.valueOf(name).build(mModel, datas, name, exps, $anns.anns);
+    int line = $IDENTIFIER.line + lineOffset;
+    List<EAnnotation> anns = $anns.anns;
+    if (postponed != null) {
+        postponed.add(() -> FConstraint.make_constraint(mModel, datas, name, line, exps, anns));
+    } else {
+        FConstraint.make_constraint(mModel, datas, name, line, exps, anns);
+    }
     }
 	;
 
 solve_goal
 	:   SOLVE anns=annotations res=resolution SC
 	{
-    FGoal.define_goal(mModel, $anns.anns,$res.rtype,$res.exp);
+    FGoal.define_goal(mModel, datas, $anns.anns,$res.rtype,$res.exp);
     }
 	;
 
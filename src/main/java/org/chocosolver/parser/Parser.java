@@ -10,6 +10,7 @@ package org.chocosolver.parser;
 
 import org.chocosolver.parser.flatzinc.ChocoFZN;
 import org.chocosolver.parser.json.ChocoJSON;
+import org.chocosolver.parser.mps.ChocoMPS;
 import org.chocosolver.parser.xcsp.ChocoXCSP;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.CmdLineException;
@@ -32,7 +33,7 @@ public class Parser {
             "0: automatic -- based on file name extension (compression is allowed), " +
             "1: FlatZinc (.fzn)," +
             "2: XCSP3 (.xml)," +
-            "3: MPS (.mps)," +
+            "3: MPS (.mps, .lp)," +
             "4: JSON (.json).")
     private int pa = 0;
 
@@ -71,22 +72,30 @@ public class Parser {
                     pa = 2;
                     break;
                 }
-                if (parts[i].equals("json")) {
+                if (parts[i].equals("mps") || parts[i].equals("lp")) {
                     pa = 3;
                     break;
                 }
-            }
-            switch (pa) {
-                case 1:
-                    ChocoFZN.main(args);
-                    break;
-                case 2:
-                    ChocoXCSP.main(args);
-                    break;
-                case 3:
-                    ChocoJSON.main(args);
+                if (parts[i].equals("json")) {
+                    pa = 4;
                     break;
+                }
+                i--;
             }
         }
+        switch (pa) {
+            case 1:
+                ChocoFZN.main(args);
+                break;
+            case 2:
+                ChocoXCSP.main(args);
+                break;
+            case 3:
+                ChocoMPS.main(args);
+                break;
+            case 4:
+                ChocoJSON.main(args);
+                break;
+        }
     }
 }
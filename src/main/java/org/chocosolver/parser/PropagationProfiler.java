@@ -0,0 +1,289 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.propagation.PropagationEngine;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.search.loop.monitors.IMonitorDownBranch;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A profiler of propagation, which attributes propagation events, time and fails to the source
+ * constraints (see {@link Provenance}).
+ * <p>
+ * Events and fails are counted exactly: the propagation engine of the solver is replaced by a
+ * monitored one, which is notified of each domain modification with the propagator causing it,
+ * and fails are read from the cause of each contradiction. If the engine cannot be replaced (it is
+ * initialized already), events are not counted and the other columns are still reported.
+ * Propagation time is sampled: every {@link #PERIOD} ms, the stack of the search thread is
+ * inspected and, if a propagator is filtering, the sample is attributed to the source constraint
+ * of the last propagator that modified a domain, or to the class of the filtering propagator if
+ * they differ.
+ * <p>
+ * Propagators with no known source are attributed to the constraint they belong to.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public class PropagationProfiler implements IMonitorContradiction, IMonitorDownBranch {
+
+    /**
+     * Sampling period, in milliseconds
+     */
+    public static final int PERIOD = 2;
+
+    private final Model model;
+    private final TIntIntHashMap prop2source;
+    private final List<String> sources = new ArrayList<>();
+    private final Map<String, Integer> others = new HashMap<>();
+    private final TLongArrayList events = new TLongArrayList();
+    private final TLongArrayList samples = new TLongArrayList();
+    private final TLongArrayList fails = new TLongArrayList();
+    private final Map<String, Class<?>> classes = new HashMap<>();
+    /**
+     * Whether events are counted, see {@link Monitor}
+     */
+    private final boolean monitored;
+    /**
+     * The last propagator that modified a domain
+     */
+    private volatile Propagator current;
+    private volatile Thread searcher;
+    private Thread sampler;
+
+    /**
+     * Create a profiler for <i>model</i>, which has to be built already.
+     *
+     * @param model a model
+     */
+    public PropagationProfiler(Model model) {
+        this.model = model;
+        Provenance provenance = Provenance.of(model);
+        if (provenance != null) {
+            prop2source = provenance.propagators(model);
+            for (int i = 0; i < provenance.size(); i++) {
+                sources.add(provenance.getSource(i));
+                events.add(0);
+                samples.add(0);
+                fails.add(0);
+            }
+        } else {
+            prop2source = new TIntIntHashMap(16, .5f, -1, -1);
+        }
+        Solver solver = model.getSolver();
+        this.monitored = !solver.getEngine().isInitialized();
+        if (monitored) {
+            solver.setEngine(new Monitor(model));
+        }
+    }
+
+    /**
+     * A propagation engine which reports each domain modification made by a propagator
+     */
+    private final class Monitor extends PropagationEngine {
+
+        Monitor(Model model) {
+            super(model);
+        }
+
+        @Override
+        public void onVariableUpdate(Variable variable, IEventType type, ICause cause) {
+            if (cause instanceof Propagator) {
+                Propagator prop = (Propagator) cause;
+                current = prop;
+                synchronized (PropagationProfiler.this) {
+                    int s = sourceOf(prop);
+                    events.set(s, events.get(s) + 1);
+                }
+            }
+            super.onVariableUpdate(variable, type, cause);
+        }
+    }
+
+    /**
+     * Plug the profiler in the solver and start sampling.
+     * The search thread is assumed to be the calling one until the first decision is applied.
+     */
+    public void start() {
+        searcher = Thread.currentThread();
+        model.getSolver().plugMonitor(this);
+        sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(PERIOD);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                sample();
+            }
+        }, "propagation-profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Stop sampling.
+     */
+    public void stop() {
+        if (sampler != null) {
+            sampler.interrupt();
+            try {
+                sampler.join(100);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            sampler = null;
+        }
+    }
+
+    @Override
+    public void beforeDownBranch(boolean left) {
+        if (searcher != Thread.currentThread()) {
+            searcher = Thread.currentThread();
+        }
+    }
+
+    @Override
+    public void afterDownBranch(boolean left) {
+    }
+
+    @Override
+    public void onContradiction(ContradictionException cex) {
+        if (cex.c instanceof Propagator) {
+            synchronized (this) {
+                int s = sourceOf((Propagator) cex.c);
+                fails.set(s, fails.get(s) + 1);
+            }
+        }
+    }
+
+    private void sample() {
+        Thread thread = searcher;
+        if (thread == null) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        Class<?> clazz = null;
+        for (int i = 0; i < stack.length && clazz == null; i++) {
+            if (stack[i].getMethodName().equals("propagate")) {
+                clazz = propagatorClass(stack[i].getClassName());
+            }
+        }
+        if (clazz == null) {
+            return;
+        }
+        Propagator prop = current;
+        synchronized (this) {
+            int s = clazz.isInstance(prop) ? sourceOf(prop) : other(clazz.getSimpleName());
+            samples.set(s, samples.get(s) + 1);
+        }
+    }
+
+    private Class<?> propagatorClass(String name) {
+        if (!classes.containsKey(name)) {
+            Class<?> clazz = null;
+            try {
+                clazz = Class.forName(name, false, Propagator.class.getClassLoader());
+                if (!Propagator.class.isAssignableFrom(clazz)) {
+                    clazz = null;
+                }
+            } catch (ClassNotFoundException | LinkageError ignored) {
+                // not a propagator
+            }
+            classes.put(name, clazz);
+        }
+        return classes.get(name);
+    }
+
+    private int sourceOf(Propagator prop) {
+        int s = prop2source.get(prop.getId());
+        if (s == -1) {
+            s = other(prop.getConstraint().getName());
+            prop2source.put(prop.getId(), s);
+        }
+        return s;
+    }
+
+    private int other(String name) {
+        Integer s = others.get(name);
+        if (s == null) {
+            s = sources.size();
+            others.put(name, s);
+            sources.add("(" + name + ")");
+            events.add(0);
+            samples.add(0);
+            fails.add(0);
+        }
+        return s;
+    }
+
+    /**
+     * @param i index of a source constraint, as in {@link Provenance}
+     * @return number of domain modifications made by the propagators of the <i>i</i>th source
+     * constraint, 0 if events are not counted
+     */
+    public synchronized long getEvents(int i) {
+        return i < events.size() ? events.get(i) : 0;
+    }
+
+    /**
+     * @param i index of a source constraint, as in {@link Provenance}
+     * @return number of fails caused by the propagators of the <i>i</i>th source constraint
+     */
+    public synchronized long getFails(int i) {
+        return i < fails.size() ? fails.get(i) : 0;
+    }
+
+    /**
+     * Print the <i>n</i> source constraints that cost the most, by decreasing propagation time,
+     * then number of events, then number of fails.
+     *
+     * @param n           number of source constraints to print
+     * @param commentChar the character that starts a comment line
+     */
+    public synchronized void print(int n, char commentChar) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            if (events.get(i) > 0 || samples.get(i) > 0 || fails.get(i) > 0) {
+                order.add(i);
+            }
+        }
+        order.sort((i, j) -> samples.get(i) != samples.get(j) ?
+                Long.compare(samples.get(j), samples.get(i)) :
+                events.get(i) != events.get(j) ?
+                        Long.compare(events.get(j), events.get(i)) :
+                        Long.compare(fails.get(j), fails.get(i)));
+        if (!monitored) {
+            System.out.printf("%c events are not counted, the propagation engine was initialized before profiling\n",
+                    commentChar);
+        }
+        System.out.printf("%c %-40s %10s %10s %12s %10s\n", commentChar, "SOURCE", "EVENTS", "SAMPLES",
+                "EST.TIME(ms)", "FAILS");
+        for (int k = 0; k < n && k < order.size(); k++) {
+            int i = order.get(k);
+            System.out.printf("%c %-40s %10d %10d %12d %10d\n", commentChar, sources.get(i), events.get(i),
+                    samples.get(i), samples.get(i) * PERIOD, fails.get(i));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A map from source constraints (as declared in the instance file) to the constraints they
+ * created in a model.
+ * <p>
+ * It is stored in the model as the hook {@link #HOOK} and, once attached, parsers call
+ * {@link #open(Model)} and {@link #close(Model, String)} around the building of each source
+ * constraint. Constraints are identified by their posting index, so the map remains valid as long
+ * as no constraint is removed from the model.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public class Provenance {
+
+    /**
+     * Name of the model hook in which the provenance map is stored
+     */
+    public static final String HOOK = "provenance";
+
+    private final List<String> sources = new ArrayList<>();
+    private final TIntArrayList firsts = new TIntArrayList();
+    private final TIntArrayList lasts = new TIntArrayList();
+    private int depth;
+    private int first;
+
+    /**
+     * @param model a model
+     * @return the provenance map of <i>model</i>, or {@code null} if none was attached
+     */
+    public static Provenance of(Model model) {
+        return (Provenance) model.getHook(HOOK);
+    }
+
+    /**
+     * Attach an empty provenance map to <i>model</i>, which has to be done before building it.
+     *
+     * @param model a model
+     * @return the provenance map of <i>model</i>
+     */
+    public static Provenance attach(Model model) {
+        Provenance provenance = of(model);
+        if (provenance == null) {
+            provenance = new Provenance();
+            model.addHook(HOOK, provenance);
+        }
+        return provenance;
+    }
+
+    /**
+     * Start building a source constraint. Nested calls are merged into the outermost one.
+     *
+     * @param model the model being built
+     */
+    public void open(Model model) {
+        if (depth++ == 0) {
+            first = model.getNbCstrs();
+        }
+    }
+
+    /**
+     * End building a source constraint: constraints posted since the matching call to
+     * {@link #open(Model)} are attributed to <i>source</i>.
+     *
+     * @param model  the model being built
+     * @param source description of the source constraint (e.g., its id or its line)
+     */
+    public void close(Model model, String source) {
+        if (--depth == 0) {
+            sources.add(source);
+            firsts.add(first);
+            lasts.add(model.getNbCstrs());
+        }
+    }
+
+    /**
+     * @return number of source constraints
+     */
+    public int size() {
+        return sources.size();
+    }
+
+    /**
+     * @param i index of a source constraint
+     * @return description of the <i>i</i>th source constraint
+     */
+    public String getSource(int i) {
+        return sources.get(i);
+    }
+
+    /**
+     * @param model the model built
+     * @param i     index of a source constraint
+     * @return constraints created by the <i>i</i>th source constraint
+     */
+    public Constraint[] getConstraints(Model model, int i) {
+        Constraint[] cstrs = model.getCstrs();
+        int from = Math.min(firsts.get(i), cstrs.length);
+        int to = Math.min(lasts.get(i), cstrs.length);
+        return Arrays.copyOfRange(cstrs, from, to);
+    }
+
+    /**
+     * @param model the model built
+     * @return a map from the id of each propagator of <i>model</i> to the index of its source
+     * constraint, propagators with no known source are not in the map
+     */
+    public TIntIntHashMap propagators(Model model) {
+        TIntIntHashMap map = new TIntIntHashMap(16, .5f, -1, -1);
+        Constraint[] cstrs = model.getCstrs();
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = firsts.get(i); j < lasts.get(i) && j < cstrs.length; j++) {
+                for (Propagator p : cstrs[j].getPropagators()) {
+                    map.put(p.getId(), i);
+                }
+            }
+        }
+        return map;
+    }
+}
@@ -14,9 +14,13 @@ import gnu.trove.set.hash.THashSet;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import org.chocosolver.cutoffseq.LubyCutoffStrategy;
 import org.chocosolver.pf4cs.SetUpException;
 import org.chocosolver.solver.Model;
@@ -63,7 +67,7 @@ public abstract class RegParser implements IParser {
         "0: automatic -- based on file name extension (compression is allowed), " +
         "1: FlatZinc (.fzn)," +
         "2: XCSP3 (.xml)," +
-        "3: MPS (.mps)," +
+        "3: MPS (.mps, .lp)," +
         "4: JSON (.json).")
     private int pa = 0;
 
@@ -106,6 +110,12 @@ public abstract class RegParser implements IParser {
     @Option(name = "-s", aliases = {"--settings"}, usage = "Configuration settings.")
     protected File settingsFile = null;
 
+    @Option(name = "-hint", metaVar = "file", usage = "Solution file (possibly partial) to warm-start the resolution with.")
+    protected File hintFile = null;
+
+    @Option(name = "-prof", metaVar = "N", usage = "Profile propagation and print the N source constraints that cost the most (default: 0, no profiling).")
+    protected int prof = 0;
+
     /**
      * Default time limit, as long, in ms
      */
@@ -118,6 +128,14 @@ public abstract class RegParser implements IParser {
      * Default settings to apply
      */
     protected Settings defaultSettings;
+    /**
+     * Hints read from {@link #hintFile}, if any
+     */
+    protected LinkedHashMap<String, int[]> hints;
+    /**
+     * Variables of the current model by name, only used to resolve hints
+     */
+    private Map<String, IntVar> hintNames;
 
     /**
      * The resolution portfolio
@@ -193,6 +211,79 @@ public abstract class RegParser implements IParser {
                 e.printStackTrace();
             }
         }
+        if (hintFile != null) {
+            try {
+                hints = SolutionHint.read(hintFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (prof > 0) {
+            listeners.add(new ProfilerListener());
+        }
+    }
+
+    /**
+     * Find the variable(s) named <i>name</i> in the <i>i</i>th model of the portfolio.
+     * By default, variables are looked up by their name in the model.
+     *
+     * @param i    index of the model in the portfolio
+     * @param name name of a variable, as printed in a solution
+     * @return an {@link IntVar}, an array of {@link IntVar} or {@code null} if no variable matches
+     */
+    protected Object findHinted(int i, String name) {
+        if (hintNames == null) {
+            hintNames = new HashMap<>();
+            for (IntVar var : portfolio.getModels().get(i).retrieveIntVars(true)) {
+                hintNames.putIfAbsent(var.getName(), var);
+            }
+        }
+        return hintNames.get(name);
+    }
+
+    /**
+     * Collect hints of the <i>i</i>th model of the portfolio, from the model itself and from
+     * the hint file, then plug them in: an objective bound and a warm-start dive ahead of the
+     * search strategy of the model, or of the default search if none is set yet.
+     *
+     * @param i index of the model in the portfolio
+     */
+    private void applyHints(int i) {
+        Model model = portfolio.getModels().get(i);
+        if (hints != null) {
+            SolutionHint hint = SolutionHint.of(model);
+            int missing = 0;
+            for (Map.Entry<String, int[]> entry : hints.entrySet()) {
+                Object target = findHinted(i, entry.getKey());
+                if (target instanceof IntVar && entry.getValue().length == 1) {
+                    hint.add((IntVar) target, entry.getValue()[0]);
+                } else if (target instanceof IntVar[]) {
+                    hint.add((IntVar[]) target, entry.getValue());
+                } else {
+                    missing++;
+                }
+            }
+            hintNames = null;
+            if (i == 0 && missing > 0) {
+                System.out.printf("%s %d hint(s) do not match any variable\n", getCommentChar(), missing);
+            }
+        }
+        SolutionHint hint = (SolutionHint) model.getHook(SolutionHint.HOOK);
+        if (hint == null || hint.isEmpty()) {
+            return;
+        }
+        Integer bound = hint.boundObjective(model);
+        if (i == 0) {
+            System.out.printf("%s %d hint(s)%s\n", getCommentChar(), hint.size(),
+                bound == null ? "" : ", initial bound: " + bound);
+        }
+        Solver solver = model.getSolver();
+        if (solver.getSearch() != null) {
+            solver.setSearch(hint.makeStrategy(model), solver.getSearch());
+        } else {
+            // no search set yet (no annotation, or left to the portfolio): dive before the default one
+            solver.setSearch(hint.makeStrategy(model), Search.defaultSearch(model));
+        }
     }
 
     /**
@@ -334,6 +425,7 @@ public abstract class RegParser implements IParser {
                 portfolio.getModels().get(i).getSolver().limitTime(tl);
             }
             makeComplementarySearch(portfolio.getModels().get(i));
+            applyHints(i);
         }
         listeners.forEach(ParserListener::afterConfiguringSearch);
     }
@@ -361,4 +453,73 @@ public abstract class RegParser implements IParser {
         long rtime = (System.currentTimeMillis() - time);
         return tl_ < 0 || rtime < tl_;
     }
+
+    /**
+     * Records the provenance of constraints while building the models, then profiles
+     * propagation while solving them, see {@link PropagationProfiler}.
+     */
+    private class ProfilerListener implements ParserListener {
+
+        private final List<PropagationProfiler> profilers = new ArrayList<>();
+
+        private final Thread printOnKill = new Thread(this::print);
+
+        @Override
+        public void beforeParsingParameters() {
+        }
+
+        @Override
+        public void afterParsingParameters() {
+        }
+
+        @Override
+        public void beforeSolverCreation() {
+        }
+
+        @Override
+        public void afterSolverCreation() {
+            portfolio.getModels().forEach(Provenance::attach);
+        }
+
+        @Override
+        public void beforeParsingFile() {
+        }
+
+        @Override
+        public void afterParsingFile() {
+        }
+
+        @Override
+        public void beforeConfiguringSearch() {
+        }
+
+        @Override
+        public void afterConfiguringSearch() {
+            for (Model model : portfolio.getModels()) {
+                PropagationProfiler profiler = new PropagationProfiler(model);
+                profiler.start();
+                profilers.add(profiler);
+            }
+            Runtime.getRuntime().addShutdownHook(printOnKill);
+        }
+
+        @Override
+        public void beforeSolving() {
+        }
+
+        @Override
+        public void afterSolving() {
+            Runtime.getRuntime().removeShutdownHook(printOnKill);
+            print();
+        }
+
+        private void print() {
+            profilers.forEach(PropagationProfiler::stop);
+            int best = Math.max(0, bestModelID());
+            if (best < profilers.size()) {
+                System.out.printf("%c %d most costly constraints\n", getCommentChar(), prof);
+                profilers.get(best).print(prof, getCommentChar());
+            }
+        }
+    }
 }
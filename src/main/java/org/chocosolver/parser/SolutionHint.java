@@ -0,0 +1,292 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ResolutionPolicy;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
+import org.chocosolver.solver.search.strategy.selectors.variables.InputOrder;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.search.strategy.strategy.IntStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+/**
+ * A (partial) assignment of integer variables used to warm-start the resolution.
+ * <p>
+ * Hints come either from a file (see {@link #read(File)}) or from the model itself (e.g.,
+ * FlatZinc <i>warm_start</i> annotations), and are stored in the model as the hook {@link #HOOK}.
+ * They seed value selection of the first dive and, when they form a complete and feasible
+ * assignment, an initial bound on the objective variable.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public class SolutionHint implements IntValueSelector {
+
+    /**
+     * Name of the model hook in which hints are stored
+     */
+    public static final String HOOK = "hints";
+
+    private static final int NO_ENTRY = Integer.MAX_VALUE;
+
+    private final List<IntVar> vars = new ArrayList<>();
+    private final TIntArrayList values = new TIntArrayList();
+    private final TIntIntHashMap id2val = new TIntIntHashMap(16, .5f, -1, NO_ENTRY);
+
+    /**
+     * Get the hint of the model, create it if none was declared yet.
+     *
+     * @param model a model
+     * @return the hint stored in <i>model</i>
+     */
+    public static SolutionHint of(Model model) {
+        SolutionHint hint = (SolutionHint) model.getHook(HOOK);
+        if (hint == null) {
+            hint = new SolutionHint();
+            model.addHook(HOOK, hint);
+        }
+        return hint;
+    }
+
+    /**
+     * Add a hint: <i>var</i> should preferably be assigned to <i>value</i>.
+     * Constants are ignored, the last hint declared on a variable wins.
+     *
+     * @param var   a variable
+     * @param value its expected value
+     */
+    public void add(IntVar var, int value) {
+        if ((var.getTypeAndKind() & Variable.TYPE) == Variable.CSTE) {
+            return;
+        }
+        if (id2val.put(var.getId(), value) == NO_ENTRY) {
+            vars.add(var);
+            values.add(value);
+        } else {
+            values.set(vars.indexOf(var), value);
+        }
+    }
+
+    /**
+     * Add hints on an array of variables.
+     *
+     * @param vars   variables
+     * @param values their expected values, same size as <i>vars</i>
+     */
+    public void add(IntVar[] vars, int[] values) {
+        if (vars.length != values.length) {
+            throw new ParserException("Hint: " + vars.length + " variables but " + values.length + " values");
+        }
+        for (int i = 0; i < vars.length; i++) {
+            add(vars[i], values[i]);
+        }
+    }
+
+    public boolean isEmpty() {
+        return vars.isEmpty();
+    }
+
+    public int size() {
+        return vars.size();
+    }
+
+    @Override
+    public int selectValue(IntVar var) {
+        int value = id2val.get(var.getId());
+        if (value != NO_ENTRY && var.contains(value)) {
+            return value;
+        }
+        return var.getLB();
+    }
+
+    /**
+     * Create a strategy that assigns hinted variables to their hinted value, in declaration order.
+     * The strategy is only active in the very first dive: it stops branching as soon as a solution
+     * is found or a restart occurs, so that the main strategy takes over.
+     *
+     * @param model the model hinted variables belong to
+     * @return a warm-start strategy
+     */
+    public AbstractStrategy<IntVar> makeStrategy(Model model) {
+        Solver solver = model.getSolver();
+        return new IntStrategy(vars.toArray(new IntVar[0]), new InputOrder<>(model), this) {
+            @Override
+            public Decision<IntVar> getDecision() {
+                if (solver.getRestartCount() > 0 || solver.getSolutionCount() > 0) {
+                    return null;
+                }
+                return super.getDecision();
+            }
+        };
+    }
+
+    /**
+     * If the hint is a complete and feasible assignment, post a (non-strict) bound on the objective
+     * variable. Feasibility is checked by propagation, all changes are undone afterwards.
+     *
+     * @param model the model hinted variables belong to
+     * @return the objective value of the hint, or {@code null} if it is partial, infeasible or
+     * the model has no integer objective
+     */
+    public Integer boundObjective(Model model) {
+        if (model.getResolutionPolicy() == ResolutionPolicy.SATISFACTION
+            || !(model.getObjective() instanceof IntVar)
+            || model.getNbRealVar() > 0 || model.getNbSetVar() > 0) {
+            return null;
+        }
+        IntVar objective = (IntVar) model.getObjective();
+        Solver solver = model.getSolver();
+        Integer bound = null;
+        model.getEnvironment().worldPush();
+        try {
+            for (int i = 0; i < vars.size(); i++) {
+                vars.get(i).instantiateTo(values.get(i), Cause.Null);
+            }
+            solver.propagate();
+            boolean complete = true;
+            for (IntVar v : model.retrieveIntVars(true)) {
+                complete &= v.isInstantiated();
+            }
+            if (complete && objective.isInstantiated()) {
+                bound = objective.getValue();
+            }
+        } catch (ContradictionException ignored) {
+            // infeasible hint
+        }
+        model.getEnvironment().worldPop();
+        solver.getEngine().flush();
+        if (bound != null) {
+            model.arithm(objective, model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE ? ">=" : "<=",
+                bound).post();
+        }
+        return bound;
+    }
+
+    /**
+     * Read a solution file and return, for each variable name, its value(s).
+     * Supported formats are those printed by the parsers:
+     * <ul>
+     * <li>FlatZinc: <i>name = value;</i> and <i>name = arraynd(..., [v1, ..., vn]);</i></li>
+     * <li>XCSP3: <i>&lt;instantiation&gt;&lt;list&gt;...&lt;/list&gt;&lt;values&gt;...&lt;/values&gt;&lt;/instantiation&gt;</i></li>
+     * <li>MPS (or any other): one <i>name value</i> per line</li>
+     * </ul>
+     * Comment and status lines are ignored, as are non-integral values.
+     *
+     * @param file a solution file
+     * @return a map from variable names to values
+     * @throws IOException if the file cannot be read
+     */
+    public static LinkedHashMap<String, int[]> read(File file) throws IOException {
+        LinkedHashMap<String, int[]> hints = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        StringBuilder xml = new StringBuilder();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.startsWith("v ")) {
+                line = line.substring(2).trim();
+            }
+            if (line.isEmpty() || isComment(line)) {
+                continue;
+            }
+            if (line.startsWith("<") || xml.length() > 0) {
+                xml.append(line).append(' ');
+            } else if (line.indexOf('=') > 0) {
+                int eq = line.indexOf('=');
+                String rhs = line.substring(eq + 1).trim();
+                if (rhs.endsWith(";")) {
+                    rhs = rhs.substring(0, rhs.length() - 1);
+                }
+                if (rhs.startsWith("array")) {
+                    rhs = rhs.substring(rhs.lastIndexOf('[') + 1, rhs.lastIndexOf(']'));
+                }
+                int[] vals = values(rhs.split(","));
+                if (vals != null) {
+                    hints.put(line.substring(0, eq).trim(), vals);
+                }
+            } else {
+                String[] tokens = line.split("\\s+");
+                if (tokens.length == 2) {
+                    int[] vals = values(tokens[1]);
+                    if (vals != null) {
+                        hints.put(tokens[0], vals);
+                    }
+                }
+            }
+        }
+        if (xml.length() > 0) {
+            String[] names = between(xml, "list").split("\\s+");
+            String[] vals = between(xml, "values").split("\\s+");
+            for (int i = 0; i < names.length && i < vals.length; i++) {
+                int[] val = values(vals[i]);
+                if (val != null && !names[i].isEmpty()) {
+                    hints.put(names[i], val);
+                }
+            }
+        }
+        return hints;
+    }
+
+    private static boolean isComment(String line) {
+        char c = line.charAt(0);
+        return c == '%' || c == '#' || c == '-' || c == '='
+            || ((c == 'c' || c == 's' || c == 'o' || c == 'd') && (line.length() == 1 || line.charAt(1) == ' '));
+    }
+
+    private static String between(StringBuilder xml, String tag) {
+        int from = xml.indexOf("<" + tag + ">");
+        int to = xml.indexOf("</" + tag + ">");
+        if (from < 0 || to < from) {
+            return "";
+        }
+        return xml.substring(from + tag.length() + 2, to).trim();
+    }
+
+    private static int[] values(String... tokens) {
+        int[] vals = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i].trim();
+            switch (token) {
+                case "true":
+                    vals[i] = 1;
+                    break;
+                case "false":
+                    vals[i] = 0;
+                    break;
+                default:
+                    try {
+                        double d = Double.parseDouble(token);
+                        if (d != Math.rint(d)) {
+                            return null;
+                        }
+                        vals[i] = (int) d;
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+            }
+        }
+        return vals;
+    }
+}
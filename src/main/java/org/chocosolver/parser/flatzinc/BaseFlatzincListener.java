@@ -9,6 +9,7 @@
 package org.chocosolver.parser.flatzinc;
 
 import org.chocosolver.parser.ParserListener;
+import org.chocosolver.parser.flatzinc.ast.FProfiler;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Propagator;
 
@@ -60,6 +61,10 @@ public class BaseFlatzincListener implements ParserListener {
 
     @Override
     public void afterParsingFile() {
+        FProfiler profiler = fznparser.datas[0].profiler();
+        if (profiler != null) {
+            profiler.print(fznparser.getModel());
+        }
 
         if (((FznSettings) fznparser.getModel().getSettings()).printConstraints()) {
             ArrayList<String> l = new ArrayList<>();
@@ -8,28 +8,40 @@
  */
 package org.chocosolver.parser.flatzinc;
 
+import gnu.trove.list.array.TIntArrayList;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.UnbufferedCharStream;
 import org.antlr.v4.runtime.UnbufferedTokenStream;
 import org.antlr.v4.runtime.atn.PredictionMode;
+import org.chocosolver.parser.ParserException;
 import org.chocosolver.parser.ParserListener;
 import org.chocosolver.parser.RegParser;
 import org.chocosolver.parser.flatzinc.ast.Datas;
+import org.chocosolver.parser.flatzinc.ast.FProfiler;
+import org.chocosolver.parser.flatzinc.ast.FTemplate;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.ResolutionPolicy;
 import org.chocosolver.solver.Settings;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
 import org.kohsuke.args4j.Option;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * A Flatzinc to Choco parser.
@@ -47,6 +59,17 @@ public class Flatzinc extends RegParser {
     @Option(name = "-cum", aliases = {"--cumulative"}, usage = "Cumulative decomposition (default: GLB).")
     protected String cumDecomp = "GLB";
 
+    @Option(name = "-pp", aliases = {"--parallel-parsing"}, usage = "Parse constraints in parallel (default: false).")
+    protected boolean parallelParsing = false;
+
+    /**
+     * Approximate size, in bytes, of the chunks of constraints parsed in parallel
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final byte[] SOLVE = "solve".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONSTRAINT = "constraint".getBytes(StandardCharsets.US_ASCII);
+
     // Contains mapping with variables and output prints
     public Datas[] datas;
 
@@ -110,6 +133,9 @@ public class Flatzinc extends RegParser {
             Model threadModel = new Model(iname + "_" + (i + 1), defaultSettings);
             portfolio.addModel(threadModel);
             datas[i] = new Datas(threadModel, all, stat);
+            if (((FznSettings) defaultSettings).profileConstraints()) {
+                datas[i].profileIn(new FProfiler());
+            }
             threadModel.addHook("CUMULATIVE", cumDecomp);
         }
         listeners.forEach(ParserListener::afterSolverCreation);
@@ -119,17 +145,120 @@ public class Flatzinc extends RegParser {
     public void buildModel() {
         listeners.forEach(ParserListener::beforeParsingFile);
         List<Model> models = portfolio.getModels();
+        byte[] bytes = null;
         for (int i = 0; i < models.size(); i++) {
             try {
-                parse(models.get(i), datas[i], new FileInputStream(new File(instance)));
-            } catch (FileNotFoundException e) {
+                if (parallelParsing) {
+                    if (bytes == null) {
+                        bytes = Files.readAllBytes(Paths.get(instance));
+                    }
+                    parseInParallel(models.get(i), datas[i], bytes);
+                } else {
+                    parse(models.get(i), datas[i], new FileInputStream(new File(instance)));
+                }
+            } catch (IOException e) {
                 throw new Error(e.getMessage());
             }
         }
         listeners.forEach(ParserListener::afterParsingFile);
     }
 
+    @Override
+    protected Object findHinted(int i, String name) {
+        Object target = datas[i].get(name);
+        if (target instanceof IntVar || target instanceof IntVar[]) {
+            return target;
+        }
+        return super.findHinted(i, name);
+    }
+
     public void parse(Model target, Datas data, InputStream is) {
+        Flatzinc4Parser parser = makeParser(is);
+        parser.flatzinc_model(target, data, all, free);
+    }
+
+    /**
+     * Parse an instance in two phases.
+     * First, declarations are parsed sequentially.
+     * Then, the constraints section is split into chunks, at items boundaries, which are lexed
+     * and parsed in parallel on the common fork-join pool.
+     * Constraints are posted in the file order, in the calling thread, so that the model is the
+     * same as the one built by {@link #parse(Model, Datas, InputStream)}.
+     *
+     * @param target the model to build
+     * @param data   the map of objects of <i>target</i>
+     * @param bytes  content of the instance
+     */
+    public void parseInParallel(Model target, Datas data, byte[] bytes) {
+        parseInParallel(target, data, bytes, CHUNK_SIZE);
+    }
+
+    void parseInParallel(Model target, Datas data, byte[] bytes, int size) {
+        int[] offsets = split(bytes, size);
+        // 1. declarations
+        Flatzinc4Parser parser = makeParser(target, data, bytes, 0, offsets[0]);
+        TokenStream tokens = parser.getTokenStream();
+        while (tokens.LA(1) != Token.EOF) {
+            int index = tokens.index();
+            switch (tokens.LA(1)) {
+                case Flatzinc4Parser.PREDICATE:
+                    parser.pred_decl();
+                    break;
+                case Flatzinc4Parser.VAR:
+                    parser.var_decl();
+                    break;
+                case Flatzinc4Parser.ARRAY:
+                    int k = 2;
+                    while (tokens.LA(k) != Flatzinc4Parser.OF && tokens.LA(k) != Token.EOF) {
+                        k++;
+                    }
+                    if (tokens.LA(k + 1) == Flatzinc4Parser.VAR) {
+                        parser.var_decl();
+                    } else {
+                        parser.param_decl();
+                    }
+                    break;
+                default:
+                    parser.param_decl();
+                    break;
+            }
+            if (tokens.index() == index) {
+                throw new ParserException("Unexpected declaration: " + tokens.LT(1).getText());
+            }
+        }
+        // 2. constraints
+        List<ForkJoinTask<List<Runnable>>> chunks = new ArrayList<>(offsets.length - 1);
+        int lines = 0;
+        for (int c = 0; c < offsets.length - 1; c++) {
+            int from = offsets[c];
+            int to = offsets[c + 1];
+            for (int j = c == 0 ? 0 : offsets[c - 1]; j < from; j++) {
+                if (bytes[j] == '\n') {
+                    lines++;
+                }
+            }
+            int lineOffset = lines;
+            chunks.add(ForkJoinPool.commonPool().submit(() -> {
+                Flatzinc4Parser cparser = makeParser(target, data, bytes, from, to);
+                cparser.postponed = new ArrayList<>();
+                cparser.lineOffset = lineOffset;
+                while (cparser.getTokenStream().LA(1) == Flatzinc4Parser.CONSTRAINT) {
+                    cparser.constraint();
+                }
+                if (cparser.getTokenStream().LA(1) != Token.EOF) {
+                    throw new ParserException("Unexpected item: " + cparser.getTokenStream().LT(1).getText());
+                }
+                return cparser.postponed;
+            }));
+        }
+        for (ForkJoinTask<List<Runnable>> chunk : chunks) {
+            chunk.join().forEach(Runnable::run);
+        }
+        // 3. solve item
+        makeParser(target, data, bytes, offsets[offsets.length - 1], bytes.length).solve_goal();
+    }
+
+    private Flatzinc4Parser makeParser(InputStream is) {
         CharStream input = new UnbufferedCharStream(is);
         Flatzinc4Lexer lexer = new Flatzinc4Lexer(input);
         lexer.setTokenFactory(new CommonTokenFactory(true));
@@ -138,7 +267,100 @@ public class Flatzinc extends RegParser {
         parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
         parser.setBuildParseTree(false);
         parser.setTrimParseTree(false);
-        parser.flatzinc_model(target, data, all, free);
+        return parser;
+    }
+
+    private Flatzinc4Parser makeParser(Model target, Datas data, byte[] bytes, int from, int to) {
+        Flatzinc4Parser parser = makeParser(new ByteArrayInputStream(bytes, from, to - from));
+        parser.mModel = target;
+        parser.datas = data;
+        parser.allSolutions = all;
+        parser.freeSearch = free;
+        return parser;
+    }
+
+    /**
+     * Locate the constraints section of a FlatZinc instance and split it into chunks of about
+     * <i>size</i> bytes, at items boundaries.
+     *
+     * @param bytes content of the instance
+     * @param size  approximate size of a chunk
+     * @return offsets <i>o</i> such that declarations are in [0, o[0]), chunks of constraints in
+     * [o[i], o[i+1]) and the solve item in [o[o.length - 1], bytes.length)
+     */
+    static int[] split(byte[] bytes, int size) {
+        TIntArrayList offsets = new TIntArrayList();
+        boolean start = true;
+        int i = 0;
+        while (i < bytes.length) {
+            byte b = bytes[i];
+            if (b == '%') {
+                while (i < bytes.length && bytes[i] != '\n') {
+                    i++;
+                }
+            } else if (b == '"') {
+                i++;
+                while (i < bytes.length && bytes[i] != '"') {
+                    i += bytes[i] == '\\' ? 2 : 1;
+                }
+            } else if (b == ';') {
+                start = true;
+            } else if (start && b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                start = false;
+                if (isKeyword(bytes, i, SOLVE)) {
+                    if (offsets.isEmpty()) {
+                        offsets.add(i);
+                    }
+                    offsets.add(i);
+                    return offsets.toArray();
+                }
+                if (isKeyword(bytes, i, CONSTRAINT)
+                        && (offsets.isEmpty() || i - offsets.get(offsets.size() - 1) >= size)) {
+                    offsets.add(i);
+                }
+            }
+            i++;
+        }
+        // no solve item, let the parser complain
+        if (offsets.isEmpty()) {
+            offsets.add(bytes.length);
+        }
+        offsets.add(bytes.length);
+        return offsets.toArray();
+    }
+
+    private static boolean isKeyword(byte[] bytes, int from, byte[] keyword) {
+        if (from + keyword.length >= bytes.length) {
+            return false;
+        }
+        for (int j = 0; j < keyword.length; j++) {
+            if (bytes[from + j] != keyword[j]) {
+                return false;
+            }
+        }
+        byte next = bytes[from + keyword.length];
+        return !Character.isLetterOrDigit(next) && next != '_';
+    }
+
+    /**
+     * Parse an instance in <i>target</i> and record it as a template.
+     * The template can then build the same instance, with other parameters values,
+     * without parsing it again (see {@link FTemplate#build(Model, Datas, java.util.Map)}).
+     *
+     * @param target the model to build
+     * @param data   the map of objects of <i>target</i>
+     * @param is     the instance
+     * @return the recorded instance
+     */
+    public FTemplate parseTemplate(Model target, Datas data, InputStream is) {
+        FTemplate template = new FTemplate();
+        data.recordIn(template);
+        try {
+            parse(target, data, is);
+        } finally {
+            data.recordIn(null);
+        }
+        return template;
     }
 
     @Override
@@ -76,6 +76,12 @@ public class Flatzinc4Parser extends Parser {
 
 	public boolean allSolutions, freeSearch;
 
+	// when not null, constraints are not posted but postponed in this list
+	public List<Runnable> postponed;
+
+	// number of lines before the parsed text, when it is a part of a file
+	public int lineOffset;
+
 	public Flatzinc4Parser(TokenStream input) {
 		super(input);
 		_interp = new ParserATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
@@ -1156,7 +1162,13 @@ public class Flatzinc4Parser extends Parser {
 			setState(294); match(SC);
 
 			    String name = (((ConstraintContext)_localctx).IDENTIFIER!=null?((ConstraintContext)_localctx).IDENTIFIER.getText():null);
-			    FConstraint.valueOf(name).build(mModel, datas, name, exps, ((ConstraintContext)_localctx).anns.anns);
+			    int line = (((ConstraintContext)_localctx).IDENTIFIER!=null?((ConstraintContext)_localctx).IDENTIFIER.getLine():0) + lineOffset;
+			    List<EAnnotation> anns = ((ConstraintContext)_localctx).anns.anns;
+			    if (postponed != null) {
+			        postponed.add(() -> FConstraint.make_constraint(mModel, datas, name, line, exps, anns));
+			    } else {
+			        FConstraint.make_constraint(mModel, datas, name, line, exps, anns);
+			    }
 			    
 			}
 		}
@@ -1199,7 +1211,7 @@ public class Flatzinc4Parser extends Parser {
 			setState(299); ((Solve_goalContext)_localctx).res = resolution();
 			setState(300); match(SC);
 
-			    FGoal.define_goal(mModel, ((Solve_goalContext)_localctx).anns.anns,((Solve_goalContext)_localctx).res.rtype,((Solve_goalContext)_localctx).res.exp);
+			    FGoal.define_goal(mModel, datas, ((Solve_goalContext)_localctx).anns.anns,((Solve_goalContext)_localctx).res.rtype,((Solve_goalContext)_localctx).res.exp);
 			    
 			}
 		}
@@ -24,6 +24,8 @@ public class FznSettings extends DefaultSettings {
 
     private boolean adhocReification = true;
 
+    private boolean profile = false;
+
     public FznSettings() {
         this.setCheckDeclaredConstraints(false);
 //        this.setModelChecker(solver -> true);
@@ -42,6 +44,15 @@ public class FznSettings extends DefaultSettings {
         return this;
     }
 
+    public boolean profileConstraints() {
+        return profile;
+    }
+
+    public Settings setProfileConstraints(boolean profile) {
+        this.profile = profile;
+        return this;
+    }
+
     public boolean adhocReification() {
         return adhocReification;
     }
@@ -56,6 +67,7 @@ public class FznSettings extends DefaultSettings {
         super.load(properties);
         this.setPrintConstraints(Boolean.valueOf(properties.get("constraints.print").toString()));
         this.setAdHocReification(Boolean.valueOf(properties.get("reification.adhoc").toString()));
+        this.setProfileConstraints(Boolean.valueOf(properties.getProperty("constraints.profile", "false")));
         return this;
     }
 
@@ -64,6 +76,7 @@ public class FznSettings extends DefaultSettings {
         Properties properties = super.store();
         properties.setProperty("constraints.print", Boolean.toString(print));
         properties.setProperty("reification.adhoc", Boolean.toString(adhocReification));
+        properties.setProperty("constraints.profile", Boolean.toString(profile));
         return properties;
     }
 }
@@ -59,6 +59,12 @@ public class Datas {
     private Model model;
     private Solution solution;
 
+    // when not null, records the parsed items
+    private FTemplate template;
+
+    // when not null, profiles constraints building
+    private FProfiler profiler;
+
     //***********************************************************************************
     // VARIABLES
     //***********************************************************************************
@@ -92,6 +98,32 @@ public class Datas {
         return map.get(id);
     }
 
+    /**
+     * Record the items parsed from now on in <i>template</i>
+     *
+     * @param template a template, or {@code null} to stop recording
+     */
+    public void recordIn(FTemplate template) {
+        this.template = template;
+    }
+
+    FTemplate template() {
+        return template;
+    }
+
+    /**
+     * Profile constraints building from now on in <i>profiler</i>
+     *
+     * @param profiler a profiler, or {@code null} to stop profiling
+     */
+    public void profileIn(FProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public FProfiler profiler() {
+        return profiler;
+    }
+
     void declareOutput(String name, Variable variable, Declaration type) {
         output_names.add(name);
         output_vars.add(variable);
@@ -13,6 +13,7 @@ import gnu.trove.set.hash.TIntHashSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import org.chocosolver.parser.Provenance;
 import org.chocosolver.parser.flatzinc.FznSettings;
 import org.chocosolver.parser.flatzinc.ast.expression.EAnnotation;
 import org.chocosolver.parser.flatzinc.ast.expression.ESetBounds;
@@ -1587,4 +1588,25 @@ public enum FConstraint {
     };
 
     public abstract void build(Model model, Datas datas, String id, List<Expression> exps, List<EAnnotation> annotations);
+
+    public static void make_constraint(Model model, Datas datas, String id, int line, List<Expression> exps, List<EAnnotation> annotations) {
+        if (datas.template() != null) {
+            datas.template().constraint(id, exps, annotations);
+        }
+        FConstraint constraint = valueOf(id);
+        Provenance provenance = Provenance.of(model);
+        if (provenance != null) {
+            provenance.open(model);
+        }
+        if (datas.profiler() != null) {
+            datas.profiler().start(model);
+            constraint.build(model, datas, id, exps, annotations);
+            datas.profiler().stop(model, constraint);
+        } else {
+            constraint.build(model, datas, id, exps, annotations);
+        }
+        if (provenance != null) {
+            provenance.close(model, "l." + line + " " + id);
+        }
+    }
 }
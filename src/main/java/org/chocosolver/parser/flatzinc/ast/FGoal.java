@@ -9,6 +9,7 @@
 package org.chocosolver.parser.flatzinc.ast;
 
 import org.chocosolver.parser.ParserException;
+import org.chocosolver.parser.SolutionHint;
 import org.chocosolver.parser.flatzinc.ast.expression.EAnnotation;
 import org.chocosolver.parser.flatzinc.ast.expression.EArray;
 import org.chocosolver.parser.flatzinc.ast.expression.EIdentifier;
@@ -25,8 +26,11 @@ import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.SetVar;
 import org.chocosolver.solver.variables.Variable;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.chocosolver.parser.IParser.PRINT_LOG;
+
 /*
 * User : CPRUDHOM
 * Mail : cprudhom(a)emn.fr
@@ -49,6 +53,13 @@ public class FGoal {
         set_search
     }
 
+    public static void define_goal(Model aModel, Datas datas, List<EAnnotation> annotations, ResolutionPolicy type, Expression expr) {
+        if (datas.template() != null) {
+            datas.template().goal(annotations, type, expr);
+        }
+        define_goal(aModel, annotations, type, expr);
+    }
+
     public static void define_goal(Model aModel, List<EAnnotation> annotations, ResolutionPolicy type, Expression expr) {
         // First define solving process
         if (type != ResolutionPolicy.SATISFACTION) {
@@ -63,6 +74,8 @@ public class FGoal {
         }
 
         StringBuilder description = new StringBuilder();
+        // Warm start annotations are hints, not search strategies
+        annotations = readWarmStartAnnotations(annotations, aModel);
         // Always read the search strategies, if any
         if (annotations.size() > 0) {
             AbstractStrategy strategy;
@@ -86,6 +99,67 @@ public class FGoal {
         }
     }
 
+    /**
+     * Extract <i>warm_start</i> annotations (at top level or nested in a <i>seq_search</i>),
+     * store them as {@link SolutionHint} and return the remaining annotations.
+     *
+     * @param annotations solve annotations
+     * @param aModel      the model
+     * @return annotations that are not warm start ones
+     */
+    private static List<EAnnotation> readWarmStartAnnotations(List<EAnnotation> annotations, Model aModel) {
+        List<EAnnotation> others = new ArrayList<>(annotations.size());
+        for (EAnnotation annotation : annotations) {
+            if (isWarmStart(annotation)) {
+                readWarmStart(annotation, aModel);
+            } else if (annotation.id.value.equals("seq_search")) {
+                EArray earray = (EArray) annotation.exps.get(0);
+                List<Expression> searches = new ArrayList<>(earray.what.size());
+                for (Expression e : earray.what) {
+                    if (isWarmStart((EAnnotation) e)) {
+                        readWarmStart((EAnnotation) e, aModel);
+                    } else {
+                        searches.add(e);
+                    }
+                }
+                if (searches.size() > 0) {
+                    List<Expression> exps = new ArrayList<>(1);
+                    exps.add(new EArray(searches));
+                    others.add(new EAnnotation(annotation.id, exps));
+                }
+            } else {
+                others.add(annotation);
+            }
+        }
+        return others;
+    }
+
+    private static boolean isWarmStart(EAnnotation annotation) {
+        return annotation.id.value.startsWith("warm_start");
+    }
+
+    private static void readWarmStart(EAnnotation annotation, Model aModel) {
+        switch (annotation.id.value) {
+            case "warm_start_array": {
+                EArray earray = (EArray) annotation.exps.get(0);
+                for (Expression e : earray.what) {
+                    readWarmStart((EAnnotation) e, aModel);
+                }
+            }
+            break;
+            case "warm_start":
+            case "warm_start_int":
+            case "warm_start_bool": {
+                IntVar[] scope = annotation.exps.get(0).toIntVarArray(aModel);
+                int[] values = annotation.exps.get(1).toIntArray();
+                SolutionHint.of(aModel).add(scope, values);
+            }
+            break;
+            default:
+                if (PRINT_LOG) System.out.println("% Ignored warm start annotation " + annotation.toString());
+        }
+    }
+
     /**
      * Read search annotation and build corresponding strategy
      *
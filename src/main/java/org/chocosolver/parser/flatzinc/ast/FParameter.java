@@ -30,27 +30,30 @@ public final class FParameter {
     public static void make_parameter(Datas datas, Declaration type, String identifier, Expression expression) {
         switch (type.typeOf) {
             case BOOL:
-                buildBool(identifier, (EBool) expression, datas);
+                buildBool(identifier, expression, datas);
                 break;
             case INT:
             case INT2:
             case INTN:
-                buildInt(identifier, (EInt) expression, datas);
+                buildInt(identifier, expression, datas);
                 break;
             case SET:
             case SETOFINT:
-                buildSet(identifier, (ESet) expression, datas);
+                buildSet(identifier, expression, datas);
                 break;
             case ARRAY:
                 DArray arr = (DArray) type;
                 if (arr.getDimension() == 1) {
                     DInt2 index = (DInt2) arr.getIndex(0);
-                    buildArray(identifier, index, arr.getWhat(), (EArray) expression, datas);
+                    buildArray(identifier, index, arr.getWhat(), expression, datas);
                 } else {
                     Exit.log("cannot handle more than one dimension!");
                 }
                 break;
         }
+        if (datas.template() != null) {
+            datas.template().parameter(type, identifier, expression, datas.get(identifier));
+        }
 
     }
 
@@ -58,12 +61,13 @@ public final class FParameter {
      * Build a boolean primitive and add it to the {@code flatzinc.parser.FZNParser.map}.
      *
      * @param name  key name
-     * @param value {@link org.chocosolver.parser.flatzinc.ast.expression.EBool} storing the value
+     * @param value {@link org.chocosolver.parser.flatzinc.ast.expression.EBool} storing the value,
+     *              or an identifier of another parameter
      * @param datas map from Model to Solver
      * @return {@link boolean}
      */
-    private static boolean buildBool(String name, EBool value, Datas datas) {
-        boolean b = value.value;
+    private static boolean buildBool(String name, Expression value, Datas datas) {
+        boolean b = value.boolValue();
         datas.register(name, b);
         return b;
     }
@@ -72,12 +76,13 @@ public final class FParameter {
      * Build a int primitive and add it to the {@code flatzinc.parser.FZNParser.map}.
      *
      * @param name  key name
-     * @param value {@link org.chocosolver.parser.flatzinc.ast.expression.EInt} storing the value.
+     * @param value {@link org.chocosolver.parser.flatzinc.ast.expression.EInt} storing the value,
+     *              or an identifier of another parameter
      * @param datas map from Model to Solver
      * @return {@link int}
      */
-    private static int buildInt(String name, EInt value, Datas datas) {
-        int i = value.value;
+    private static int buildInt(String name, Expression value, Datas datas) {
+        int i = value.intValue();
         datas.register(name, i);
         return i;
     }
@@ -91,7 +96,7 @@ public final class FParameter {
      * @param datas map from Model to Solver
      * @return {@link Variable}
      */
-    private static int[] buildSet(String name, ESet set, Datas datas) {
+    private static int[] buildSet(String name, Expression set, Datas datas) {
         final int[] s;
         switch (set.getTypeOf()) {
             case SET_B:
@@ -102,6 +107,9 @@ public final class FParameter {
                 ESetList lset = (ESetList) set;
                 s = lset.enumVal();
                 break;
+            case IDE:
+                s = set.toIntArray().clone();
+                break;
             default:
                 s = null;
                 Exit.log("Unknown expression");
@@ -121,14 +129,17 @@ public final class FParameter {
      * @param value input declaration
      * @param datas map from Model to Solver
      */
-    private static void buildArray(String name, DInt2 index, Declaration what, EArray value, Datas datas) {
+    private static void buildArray(String name, DInt2 index, Declaration what, Expression value, Datas datas) {
         // no need to get lowB, it is always 1 (see specification of FZN for more informations)
         int size = index.getUpp();
+        // either a list of values (possibly identifiers of parameters) or an identifier of an array
+        EArray list = value.getTypeOf() == Expression.EType.ARR ? (EArray) value : null;
         switch (what.typeOf) {
             case BOOL:
                 boolean[] barr = new boolean[size];
+                boolean[] bvalues = list == null ? value.toBoolArray() : null;
                 for (int i = 0; i < size; i++) {
-                    barr[i] = ((EBool) value.getWhat_i(i)).value;
+                    barr[i] = list == null ? bvalues[i] : list.getWhat_i(i).boolValue();
                 }
                 datas.register(name, barr);
                 break;
@@ -136,23 +147,18 @@ public final class FParameter {
             case INT2:
             case INTN:
                 int[] iarr = new int[size];
+                int[] ivalues = list == null ? value.toIntArray() : null;
                 for (int i = 0; i < size; i++) {
-                    iarr[i] = ((EInt) value.getWhat_i(i)).value;
+                    iarr[i] = list == null ? ivalues[i] : list.getWhat_i(i).intValue();
                 }
                 datas.register(name, iarr);
                 break;
-            case SET: {
-                int[][] sarr = new int[size][];
-                for (int i = 0; i < size; i++) {
-                    sarr[i] = ((ESet) value.getWhat_i(i)).enumVal();
-                }
-                datas.register(name, sarr);
-            }
-            break;
+            case SET:
             case SETOFINT: {
                 int[][] sarr = new int[size][];
+                int[][] svalues = list == null ? value.toIntMatrix() : null;
                 for (int i = 0; i < size; i++) {
-                    sarr[i] = ((ESet) value.getWhat_i(i)).enumVal();
+                    sarr[i] = list == null ? svalues[i].clone() : list.getWhat_i(i).toIntArray();
                 }
                 datas.register(name, sarr);
             }
@@ -0,0 +1,198 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.flatzinc.ast;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A profiler of constraints building.
+ * <p>
+ * For each {@link FConstraint}, it accumulates the number of calls, the building time, the memory
+ * allocated and the number of variables, constraints and propagators created. Counters are
+ * primitive arrays indexed by {@link FConstraint#ordinal()}, so that profiling a call does not
+ * allocate any object.
+ * <p>
+ * The memory allocated is read from the allocation counter of the building thread, which does not
+ * depend on garbage collections, see {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * If the JVM does not provide it, the memory allocated is not reported.
+ * <p>
+ * Enabled with the property <i>constraints.profile</i> of {@link org.chocosolver.parser.flatzinc.FznSettings}.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class FProfiler {
+
+    private static final FConstraint[] CONSTRAINTS = FConstraint.values();
+
+    private final long[] calls = new long[CONSTRAINTS.length];
+    private final long[] nanos = new long[CONSTRAINTS.length];
+    private final long[] vars = new long[CONSTRAINTS.length];
+    private final long[] cstrs = new long[CONSTRAINTS.length];
+    private final long[] bytes = new long[CONSTRAINTS.length];
+    // for each posted constraint, ordinal of the FConstraint that created it, -1 if none
+    private final TIntArrayList owners = new TIntArrayList();
+    // null if the memory allocated per thread cannot be measured
+    private final com.sun.management.ThreadMXBean threads = threads();
+
+    private long time;
+    // bytes allocated by the building thread when the current constraint was started
+    private long allocated;
+    private int nbVars;
+    private int nbCstrs;
+
+    void start(Model model) {
+        nbVars = model.getNbVars();
+        nbCstrs = model.getNbCstrs();
+        if (threads != null) {
+            allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        time = System.nanoTime();
+    }
+
+    void stop(Model model, FConstraint constraint) {
+        long duration = System.nanoTime() - time;
+        int o = constraint.ordinal();
+        if (threads != null) {
+            bytes[o] += threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        }
+        calls[o]++;
+        nanos[o] += duration;
+        vars[o] += model.getNbVars() - nbVars;
+        int n = model.getNbCstrs();
+        cstrs[o] += n - nbCstrs;
+        while (owners.size() < nbCstrs) {
+            owners.add(-1);
+        }
+        for (int i = nbCstrs; i < n; i++) {
+            owners.add(o);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        try {
+            if (!threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+        return threads;
+    }
+
+    /**
+     * @return {@code true} if the memory allocated while building constraints is measured
+     */
+    public boolean measuresBytes() {
+        return threads != null;
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return number of times <i>constraint</i> was built
+     */
+    public long getCalls(FConstraint constraint) {
+        return calls[constraint.ordinal()];
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return total time spent building <i>constraint</i>, in nanoseconds
+     */
+    public long getNanos(FConstraint constraint) {
+        return nanos[constraint.ordinal()];
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return number of variables created while building <i>constraint</i>
+     */
+    public long getVars(FConstraint constraint) {
+        return vars[constraint.ordinal()];
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return number of constraints posted while building <i>constraint</i>
+     */
+    public long getCstrs(FConstraint constraint) {
+        return cstrs[constraint.ordinal()];
+    }
+
+    /**
+     * @param model the model built
+     * @param constraint a constraint
+     * @return number of propagators of the constraints posted while building <i>constraint</i>
+     */
+    public long getProps(Model model, FConstraint constraint) {
+        return props(model)[constraint.ordinal()];
+    }
+
+    /**
+     * @param constraint a constraint
+     * @return memory allocated while building <i>constraint</i>, in bytes, 0 if it is not measured
+     * (see {@link #measuresBytes()})
+     */
+    public long getBytes(FConstraint constraint) {
+        return bytes[constraint.ordinal()];
+    }
+
+    private long[] props(Model model) {
+        long[] props = new long[CONSTRAINTS.length];
+        Constraint[] posted = model.getCstrs();
+        for (int i = 0; i < posted.length && i < owners.size(); i++) {
+            if (owners.get(i) > -1) {
+                props[owners.get(i)] += posted[i].getPropagators().length;
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Print the profile of the constraints built in <i>model</i>, sorted by decreasing building time.
+     *
+     * @param model the model built
+     */
+    public void print(Model model) {
+        long[] props = props(model);
+        List<FConstraint> built = new ArrayList<>();
+        for (FConstraint c : CONSTRAINTS) {
+            if (calls[c.ordinal()] > 0) {
+                built.add(c);
+            }
+        }
+        built.sort((c1, c2) -> Long.compare(nanos[c2.ordinal()], nanos[c1.ordinal()]));
+        System.out.printf("%% %-40s %10s %10s %12s %10s %10s %10s\n",
+                "CONSTRAINT", "CALLS", "TIME(ms)", "ALLOC(KB)", "VARS", "CSTRS", "PROPS");
+        for (FConstraint c : built) {
+            int o = c.ordinal();
+            System.out.printf("%% %-40s %10d %10.3f %12s %10d %10d %10d\n",
+                    c.name(), calls[o], nanos[o] / 1_000_000d,
+                    threads != null ? String.format("%.1f", bytes[o] / 1024d) : "n/a",
+                    vars[o], cstrs[o], props[o]);
+        }
+    }
+}
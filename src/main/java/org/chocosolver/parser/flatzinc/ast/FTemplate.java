@@ -0,0 +1,153 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.flatzinc.ast;
+
+import org.chocosolver.parser.ParserException;
+import org.chocosolver.parser.flatzinc.ast.declaration.Declaration;
+import org.chocosolver.parser.flatzinc.ast.expression.EAnnotation;
+import org.chocosolver.parser.flatzinc.ast.expression.Expression;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ResolutionPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A FlatZinc instance recorded item by item during parsing, that can be replayed to build
+ * other models without lexing nor parsing the file again.
+ * <p>
+ * Parameters can be given new values on replay, as primitives (<i>int</i>, <i>boolean</i>),
+ * primitive arrays (<i>int[]</i>, <i>boolean[]</i>, <i>int[]</i> for a set) or array of sets
+ * (<i>int[][]</i>). The structure of the instance is kept as is: variables' domains, constraints
+ * and search annotations are the recorded ones, and a new value must have the same type and size
+ * as the recorded one.
+ * <p>
+ * To record a template, call {@link Datas#recordIn(FTemplate)} before parsing.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class FTemplate {
+
+    private final List<Item> items = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    void parameter(Declaration type, String identifier, Expression expression, Object value) {
+        parameters.put(identifier, value);
+        boolean array = type.typeOf == Declaration.DType.ARRAY;
+        items.add((model, datas, values) -> {
+            Object other = values.get(identifier);
+            if (other == null) {
+                // rebound, so that a parameter defined from a new value gets a new value too
+                FParameter.make_parameter(datas, type, identifier, expression.rebind(datas));
+            } else {
+                datas.register(identifier, copy(identifier, array, value, other));
+            }
+        });
+    }
+
+    void variable(Declaration type, String identifier, List<EAnnotation> annotations, Expression expression) {
+        items.add((model, datas, values) -> FVariable.make_variable(datas, type, identifier,
+                rebind(annotations, datas), expression == null ? null : expression.rebind(datas), model));
+    }
+
+    void constraint(String id, List<Expression> exps, List<EAnnotation> annotations) {
+        FConstraint constraint = FConstraint.valueOf(id);
+        items.add((model, datas, values) -> constraint.build(model, datas, id,
+                rebind(exps, datas), rebind(annotations, datas)));
+    }
+
+    void goal(List<EAnnotation> annotations, ResolutionPolicy type, Expression expression) {
+        items.add((model, datas, values) -> FGoal.define_goal(model, rebind(annotations, datas), type,
+                expression == null ? null : expression.rebind(datas)));
+    }
+
+    /**
+     * @return names of the parameters of the instance, in declaration order
+     */
+    public Set<String> parameters() {
+        return Collections.unmodifiableSet(parameters.keySet());
+    }
+
+    /**
+     * @return number of recorded items (parameters, variables, constraints and goal)
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Build the recorded instance in <i>model</i>.
+     *
+     * @param model  the target model, expected to be empty
+     * @param datas  the map of objects of <i>model</i>
+     * @param values new values of (some) parameters, the other ones keep their recorded value
+     * @throws ParserException if a parameter is unknown or a value does not match the recorded one
+     */
+    public void build(Model model, Datas datas, Map<String, Object> values) {
+        for (String name : values.keySet()) {
+            if (!parameters.containsKey(name)) {
+                throw new ParserException("Unknown parameter: " + name);
+            }
+        }
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).build(model, datas, values);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Expression> List<E> rebind(List<E> exps, Datas datas) {
+        List<E> others = new ArrayList<>(exps.size());
+        for (E e : exps) {
+            others.add((E) e.rebind(datas));
+        }
+        return others;
+    }
+
+    private static Object copy(String name, boolean array, Object recorded, Object value) {
+        if (recorded.getClass() != value.getClass()) {
+            throw new ParserException("Parameter " + name + ": expected " + recorded.getClass().getSimpleName()
+                    + " but was " + value.getClass().getSimpleName());
+        }
+        if (recorded instanceof int[]) {
+            if (array) {
+                check(name, ((int[]) recorded).length, ((int[]) value).length);
+            }
+            return ((int[]) value).clone();
+        } else if (recorded instanceof boolean[]) {
+            check(name, ((boolean[]) recorded).length, ((boolean[]) value).length);
+            return ((boolean[]) value).clone();
+        } else if (recorded instanceof int[][]) {
+            check(name, ((int[][]) recorded).length, ((int[][]) value).length);
+            int[][] sets = new int[((int[][]) value).length][];
+            for (int i = 0; i < sets.length; i++) {
+                sets[i] = ((int[][]) value)[i].clone();
+            }
+            return sets;
+        }
+        return value;
+    }
+
+    private static void check(String name, int expected, int actual) {
+        if (expected != actual) {
+            throw new ParserException("Parameter " + name + ": expected " + expected + " values but was " + actual);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Item {
+        void build(Model model, Datas datas, Map<String, Object> values);
+    }
+}
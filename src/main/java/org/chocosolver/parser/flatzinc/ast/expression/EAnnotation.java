@@ -9,6 +9,9 @@
 package org.chocosolver.parser.flatzinc.ast.expression;
 
 
+import org.chocosolver.parser.flatzinc.ast.Datas;
+
+import java.util.ArrayList;
 import java.util.List;
 
 /*
@@ -30,6 +33,18 @@ public final class EAnnotation extends Expression {
         this.exps = exps;
     }
 
+    @Override
+    public EAnnotation rebind(Datas datas) {
+        if (exps == null) {
+            return new EAnnotation(id.rebind(datas), null);
+        }
+        List<Expression> others = new ArrayList<>(exps.size());
+        for (Expression e : exps) {
+            others.add(e.rebind(datas));
+        }
+        return new EAnnotation(id.rebind(datas), others);
+    }
+
     @Override
     public String toString() {
         StringBuilder st = new StringBuilder(id.value);
@@ -8,11 +8,13 @@
  */
 package org.chocosolver.parser.flatzinc.ast.expression;
 
+import org.chocosolver.parser.flatzinc.ast.Datas;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.SetVar;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -42,6 +44,15 @@ public final class EArray extends Expression {
         return what.get(i);
     }
 
+    @Override
+    public EArray rebind(Datas datas) {
+        List<Expression> others = new ArrayList<>(what.size());
+        for (Expression e : what) {
+            others.add(e.rebind(datas));
+        }
+        return new EArray(others);
+    }
+
     @Override
     public String toString() {
         StringBuilder st = new StringBuilder("[");
@@ -49,6 +49,11 @@ public final class EIdArray extends Expression {
         return name + '[' + index + ']';
     }
 
+    @Override
+    public EIdArray rebind(Datas datas) {
+        return new EIdArray(datas, name, index);
+    }
+
     @Override
     public int intValue() {
         return (Integer) object;
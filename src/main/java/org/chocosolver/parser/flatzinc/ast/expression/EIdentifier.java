@@ -41,6 +41,11 @@ public final class EIdentifier extends Expression {
         return value;
     }
 
+    @Override
+    public EIdentifier rebind(Datas datas) {
+        return new EIdentifier(datas, value);
+    }
+
     @Override
     public int intValue() {
         return (Integer) object;
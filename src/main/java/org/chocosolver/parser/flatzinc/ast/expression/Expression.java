@@ -10,6 +10,7 @@ package org.chocosolver.parser.flatzinc.ast.expression;
 
 
 import org.chocosolver.parser.Exit;
+import org.chocosolver.parser.flatzinc.ast.Datas;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
@@ -45,6 +46,17 @@ public abstract class Expression {
         return typeOf;
     }
 
+    /**
+     * Resolve again the identifiers of this {@link Expression} against <i>datas</i>.
+     * Identifiers are resolved on creation, this is needed to reuse an expression with another model.
+     *
+     * @param datas the map of objects of the target model
+     * @return an expression equivalent to this one in <i>datas</i>, this one if it holds no identifier
+     */
+    public Expression rebind(Datas datas) {
+        return this;
+    }
+
     /**
      * Get the int value of the {@link Expression}
      *
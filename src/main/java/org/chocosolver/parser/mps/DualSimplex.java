@@ -0,0 +1,611 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A bounded dual simplex, to solve the linear relaxation of an {@link MPSProblem}:
+ * <pre>
+ *     min c.x  s.t.  lo &le; A.x &le; up,  l &le; x &le; u
+ * </pre>
+ * where the bounds <i>l</i> and <i>u</i> of the columns are finite, as they are taken from the
+ * domains of variables. Each row gets a slack <i>s = A.x</i>, bounded by the row bounds and the
+ * activity of the row, so that all variables are boxed and any basis is made dual feasible by
+ * setting the non-basic variables to the right bound.
+ * <p>
+ * The inverse of the basis is stored densely and updated at each pivot, then refactorized from
+ * time to time. When too many pivots in a row are degenerate, the costs used to pivot are
+ * slightly perturbed, to avoid stalling. The basis is kept from one call of {@link #solve(double[], double[], int)} to the
+ * next, only the bounds change, which is a warm start of the dual simplex.
+ * <p>
+ * Whatever the status of the resolution, {@link #bound()} is a valid lower bound of the objective:
+ * it is computed from the duals of the last basis, as a Lagrangian bound, and is not subject to
+ * the dual feasibility of the basis.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class DualSimplex {
+
+    /**
+     * Status of a resolution
+     */
+    public enum Status {
+        OPTIMAL, INFEASIBLE, LIMIT
+    }
+
+    private static final double PRIMAL_TOL = 1e-7;
+    private static final double DUAL_TOL = 1e-9;
+    private static final double PIVOT_TOL = 1e-9;
+    private static final int REFACTOR = 100;
+    private static final int STALL = 50;
+
+    private final int m;
+    private final int n;
+    private final int[] colStart;
+    private final int[] colRows;
+    private final double[] colValues;
+    private final double[] cost;
+    private double[] work;
+    private final double[] rowLo;
+    private final double[] rowUp;
+
+    // bounds, values and reduced costs of the n columns followed by the m slacks
+    private final double[] lb;
+    private final double[] ub;
+    private final double[] x;
+    private final double[] d;
+    private final boolean[] atUb;
+    private final int[] head;
+    private final int[] pos;
+    private final double[][] binv;
+    // work matrix of the refactorization, allocated once
+    private final double[][] factor;
+    private final double[] y;
+    private final double[] alpha;
+    private final double[] column;
+    private int pivots;
+    private int degenerate;
+    private int iterations;
+    private double bound;
+
+    /**
+     * Create the relaxation of <i>m</i> rows over <i>n</i> columns.
+     *
+     * @param colStart  start of each column in <i>colRows</i> and <i>colValues</i>, CSC
+     * @param colRows   row of each entry
+     * @param colValues coefficient of each entry
+     * @param cost      cost of each column
+     * @param rowLo     lower bound of each row, possibly infinite
+     * @param rowUp     upper bound of each row, possibly infinite
+     */
+    public DualSimplex(int m, int n, int[] colStart, int[] colRows, double[] colValues, double[] cost,
+                       double[] rowLo, double[] rowUp) {
+        this.m = m;
+        this.n = n;
+        this.colStart = colStart;
+        this.colRows = colRows;
+        this.colValues = colValues;
+        this.cost = Arrays.copyOf(cost, n + m);
+        this.work = this.cost;
+        this.rowLo = rowLo;
+        this.rowUp = rowUp;
+        lb = new double[n + m];
+        ub = new double[n + m];
+        x = new double[n + m];
+        d = new double[n + m];
+        atUb = new boolean[n + m];
+        head = new int[m];
+        pos = new int[n + m];
+        y = new double[m];
+        alpha = new double[n + m];
+        column = new double[m];
+        binv = new double[m][m];
+        factor = new double[m][m];
+        slackBasis();
+    }
+
+    /**
+     * Create the relaxation of the rows of <i>p</i>, with the objective row as cost.
+     *
+     * @param p        a problem
+     * @param maximize set to true to maximize the objective, the cost is then negated
+     * @return the relaxation
+     */
+    public static DualSimplex of(MPSProblem p, boolean maximize) {
+        int[] index = new int[p.nbRows()];
+        int m = 0;
+        int obj = -1;
+        for (int r = 0; r < p.nbRows(); r++) {
+            index[r] = -1;
+            if (p.rowTypes[r] == MPSProblem.N) {
+                if (obj == -1 && p.rowSize(r) > 0) {
+                    obj = r;
+                }
+            } else if (p.rowSize(r) > 0) {
+                index[r] = m++;
+            }
+        }
+        double[] lo = new double[m], up = new double[m];
+        for (int r = 0; r < p.nbRows(); r++) {
+            if (index[r] >= 0) {
+                lo[index[r]] = p.lower(r);
+                up[index[r]] = p.upper(r);
+            }
+        }
+        int n = p.nbCols();
+        int[] colStart = new int[n + 1];
+        int[] colRows = new int[p.nbEntries()];
+        double[] colValues = new double[p.nbEntries()];
+        double[] cost = new double[n];
+        int e = 0;
+        for (int c = 0; c < n; c++) {
+            for (int k = p.colStart[c]; k < p.colStart[c + 1]; k++) {
+                int r = p.colRows[k];
+                if (r == obj) {
+                    cost[c] = maximize ? -p.colValues[k] : p.colValues[k];
+                } else if (index[r] >= 0) {
+                    colRows[e] = index[r];
+                    colValues[e++] = p.colValues[k];
+                }
+            }
+            colStart[c + 1] = e;
+        }
+        return new DualSimplex(m, n, colStart, Arrays.copyOf(colRows, e), Arrays.copyOf(colValues, e), cost, lo, up);
+    }
+
+    public int nbRows() {
+        return m;
+    }
+
+    public int nbCols() {
+        return n;
+    }
+
+    /**
+     * @return the total number of pivots
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return a lower bound of the objective, computed by the last resolution
+     */
+    public double bound() {
+        return bound;
+    }
+
+    /**
+     * @return the reduced cost of column <i>j</i>, computed by the last resolution
+     */
+    public double reducedCost(int j) {
+        return d[j];
+    }
+
+    /**
+     * @return the value of column <i>j</i> in the last basic solution
+     */
+    public double value(int j) {
+        return x[j];
+    }
+
+    private void slackBasis() {
+        for (int i = 0; i < m; i++) {
+            head[i] = n + i;
+            Arrays.fill(binv[i], 0);
+            binv[i][i] = -1;
+        }
+        Arrays.fill(pos, -1);
+        for (int i = 0; i < m; i++) {
+            pos[n + i] = i;
+        }
+        pivots = 0;
+    }
+
+    /**
+     * Solve the relaxation with new bounds of the columns, starting from the last basis.
+     *
+     * @param lbs     lower bounds of the columns, finite
+     * @param ubs     upper bounds of the columns, finite
+     * @param maxIter maximum number of pivots
+     * @return the status of the resolution; in any case but {@link Status#INFEASIBLE},
+     * {@link #bound()} is then a lower bound of the objective
+     */
+    public Status solve(double[] lbs, double[] ubs, int maxIter) {
+        System.arraycopy(lbs, 0, lb, 0, n);
+        System.arraycopy(ubs, 0, ub, 0, n);
+        // bounds of the slacks, restricted to the activity of the rows
+        for (int i = 0; i < m; i++) {
+            lb[n + i] = 0;
+            ub[n + i] = 0;
+        }
+        for (int j = 0; j < n; j++) {
+            for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                double a = colValues[k];
+                lb[n + colRows[k]] += a * (a > 0 ? lb[j] : ub[j]);
+                ub[n + colRows[k]] += a * (a > 0 ? ub[j] : lb[j]);
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            lb[n + i] = Math.max(lb[n + i], rowLo[i]);
+            ub[n + i] = Math.min(ub[n + i], rowUp[i]);
+            if (lb[n + i] > ub[n + i] + tolerance(ub[n + i])) {
+                return Status.INFEASIBLE;
+            } else if (lb[n + i] > ub[n + i]) {
+                ub[n + i] = lb[n + i];
+            }
+        }
+        duals(work);
+        for (int j = 0; j < n + m; j++) {
+            if (pos[j] < 0) {
+                atUb[j] = d[j] < 0;
+            }
+        }
+        primal();
+        Status status = Status.LIMIT;
+        for (int it = 0; it < maxIter; it++) {
+            int r = leaving();
+            if (r < 0) {
+                status = Status.OPTIMAL;
+                break;
+            }
+            int q = entering(r);
+            if (q == -2) {
+                return Status.INFEASIBLE;
+            } else if (q < 0) {
+                break;
+            }
+            if (!pivot(r, q)) {
+                break;
+            }
+            iterations++;
+            primal();
+        }
+        duals(cost);
+        lagrangian();
+        return status;
+    }
+
+    private static double tolerance(double v) {
+        return PRIMAL_TOL * Math.max(1, Math.abs(v));
+    }
+
+    /**
+     * Compute the duals <i>y = c_B.B^-1</i> and the reduced costs <i>d = c - y.A</i>
+     */
+    private void duals(double[] cost) {
+        Arrays.fill(y, 0);
+        for (int i = 0; i < m; i++) {
+            double c = cost[head[i]];
+            if (c != 0) {
+                double[] row = binv[i];
+                for (int k = 0; k < m; k++) {
+                    y[k] += c * row[k];
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            double v = cost[j];
+            for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                v -= y[colRows[k]] * colValues[k];
+            }
+            d[j] = v;
+        }
+        for (int i = 0; i < m; i++) {
+            // the column of a slack is -e_i
+            d[n + i] = y[i];
+        }
+        for (int i = 0; i < m; i++) {
+            d[head[i]] = 0;
+        }
+    }
+
+    /**
+     * Set the non-basic variables to their bounds, then compute the basic ones: <i>x_B = -B^-1.N.x_N</i>
+     */
+    private void primal() {
+        double[] v = column;
+        Arrays.fill(v, 0);
+        for (int j = 0; j < n; j++) {
+            if (pos[j] < 0) {
+                x[j] = atUb[j] ? ub[j] : lb[j];
+                if (x[j] != 0) {
+                    for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                        v[colRows[k]] += colValues[k] * x[j];
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            if (pos[n + i] < 0) {
+                x[n + i] = atUb[n + i] ? ub[n + i] : lb[n + i];
+                v[i] -= x[n + i];
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            double[] row = binv[i];
+            double s = 0;
+            for (int k = 0; k < m; k++) {
+                s += row[k] * v[k];
+            }
+            x[head[i]] = -s;
+        }
+    }
+
+    /**
+     * @return the row of the basic variable with the largest infeasibility, -1 if none
+     */
+    private int leaving() {
+        int r = -1;
+        double worst = 0;
+        for (int i = 0; i < m; i++) {
+            int j = head[i];
+            double v = Math.max(lb[j] - x[j] - tolerance(lb[j]), x[j] - ub[j] - tolerance(ub[j]));
+            if (v > worst) {
+                worst = v;
+                r = i;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Dual ratio test, with Harris' tolerance.
+     *
+     * @return the entering variable, -1 if the resolution should stop, -2 if the problem is
+     * proven infeasible
+     */
+    private int entering(int r) {
+        double[] rho = binv[r];
+        double s = x[head[r]] < lb[head[r]] ? 1 : -1;
+        for (int j = 0; j < n; j++) {
+            if (pos[j] < 0) {
+                double a = 0;
+                for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                    a += rho[colRows[k]] * colValues[k];
+                }
+                alpha[j] = a;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            alpha[n + i] = -rho[i];
+        }
+        double max = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < n + m; j++) {
+            if (candidate(j, s)) {
+                max = Math.min(max, (Math.abs(d[j]) + DUAL_TOL) / Math.abs(alpha[j]));
+            }
+        }
+        if (max == Double.POSITIVE_INFINITY) {
+            return infeasible(r) ? -2 : -1;
+        }
+        int q = -1;
+        double best = 0;
+        for (int j = 0; j < n + m; j++) {
+            if (candidate(j, s) && Math.abs(d[j]) / Math.abs(alpha[j]) <= max && Math.abs(alpha[j]) > best) {
+                best = Math.abs(alpha[j]);
+                q = j;
+            }
+        }
+        return q;
+    }
+
+    private boolean candidate(int j, double s) {
+        if (pos[j] >= 0 || lb[j] == ub[j]) {
+            return false;
+        }
+        return atUb[j] ? alpha[j] * s > PIVOT_TOL : alpha[j] * s < -PIVOT_TOL;
+    }
+
+    /**
+     * Check that the basic variable of row <i>r</i> cannot reach its bounds, whatever the values
+     * of the non-basic variables are: <i>x_r = -&sum; alpha_j.x_j</i>.
+     */
+    private boolean infeasible(int r) {
+        int b = head[r];
+        double min = 0, max = 0;
+        for (int j = 0; j < n + m; j++) {
+            if (pos[j] < 0 && alpha[j] != 0) {
+                double a = -alpha[j];
+                min += a * (a > 0 ? lb[j] : ub[j]);
+                max += a * (a > 0 ? ub[j] : lb[j]);
+            }
+        }
+        double slack = 1e-6 * Math.max(1, Math.max(Math.abs(min), Math.abs(max)));
+        return max < lb[b] - slack || min > ub[b] + slack;
+    }
+
+    /**
+     * Make <i>q</i> enter the basis in place of the variable of row <i>r</i>
+     *
+     * @return {@code false} if the pivot is numerically unsafe
+     */
+    private boolean pivot(int r, int q) {
+        // column of q in the current basis
+        Arrays.fill(column, 0);
+        if (q < n) {
+            for (int k = colStart[q]; k < colStart[q + 1]; k++) {
+                double a = colValues[k];
+                int row = colRows[k];
+                for (int i = 0; i < m; i++) {
+                    column[i] += binv[i][row] * a;
+                }
+            }
+        } else {
+            for (int i = 0; i < m; i++) {
+                column[i] = -binv[i][q - n];
+            }
+        }
+        double p = column[r];
+        if (Math.abs(p) < PIVOT_TOL || Math.abs(p - alpha[q]) > 1e-6 * Math.max(1, Math.abs(p))) {
+            refactor();
+            return false;
+        }
+        // dual update
+        double theta = d[q] / alpha[q];
+        if (Math.abs(theta) > DUAL_TOL) {
+            degenerate = 0;
+        } else if (++degenerate > STALL && work == cost) {
+            perturb();
+        }
+        for (int j = 0; j < n + m; j++) {
+            if (pos[j] < 0) {
+                d[j] -= theta * alpha[j];
+            }
+        }
+        int leave = head[r];
+        d[q] = 0;
+        d[leave] = -theta;
+        atUb[leave] = x[leave] > ub[leave];
+        // basis update
+        double[] pr = binv[r];
+        for (int k = 0; k < m; k++) {
+            pr[k] /= p;
+        }
+        for (int i = 0; i < m; i++) {
+            double f = column[i];
+            if (i != r && f != 0) {
+                double[] row = binv[i];
+                for (int k = 0; k < m; k++) {
+                    row[k] -= f * pr[k];
+                }
+            }
+        }
+        pos[leave] = -1;
+        head[r] = q;
+        pos[q] = r;
+        // keep non-basic variables at the bound that matches their reduced cost
+        for (int j = 0; j < n + m; j++) {
+            if (pos[j] < 0 && lb[j] != ub[j]) {
+                if (atUb[j] ? d[j] > 0 : d[j] < 0) {
+                    if (Math.abs(d[j]) <= DUAL_TOL) {
+                        d[j] = 0;
+                    } else {
+                        atUb[j] = !atUb[j];
+                    }
+                }
+            }
+        }
+        if (++pivots >= REFACTOR) {
+            refactor();
+        }
+        return true;
+    }
+
+    /**
+     * Perturb the costs used to pivot; the reduced costs are recomputed on the next refactorization.
+     */
+    private void perturb() {
+        work = new double[n + m];
+        Random random = new Random(0);
+        for (int j = 0; j < n + m; j++) {
+            work[j] = cost[j] + (1 + random.nextDouble()) * 1e-7 * Math.max(1, Math.abs(cost[j]));
+        }
+        pivots = REFACTOR;
+    }
+
+    /**
+     * Recompute the inverse of the basis, by Gauss-Jordan elimination, and the reduced costs.
+     * The basis is copied in {@link #factor} and the inverse is built in place, no matrix is
+     * allocated. The slack basis is restored if the basis is singular.
+     *
+     * @return {@code true} if the basis is kept
+     */
+    private boolean refactor() {
+        double[][] b = factor;
+        for (int i = 0; i < m; i++) {
+            Arrays.fill(b[i], 0);
+            Arrays.fill(binv[i], 0);
+            binv[i][i] = 1;
+        }
+        for (int i = 0; i < m; i++) {
+            int j = head[i];
+            if (j < n) {
+                for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                    b[colRows[k]][i] = colValues[k];
+                }
+            } else {
+                b[j - n][i] = -1;
+            }
+        }
+        boolean regular = true;
+        for (int c = 0; c < m && regular; c++) {
+            int p = c;
+            for (int i = c + 1; i < m; i++) {
+                if (Math.abs(b[i][c]) > Math.abs(b[p][c])) {
+                    p = i;
+                }
+            }
+            if (Math.abs(b[p][c]) < PIVOT_TOL) {
+                regular = false;
+                break;
+            }
+            double[] t = b[p];
+            b[p] = b[c];
+            b[c] = t;
+            double[] s = binv[p];
+            binv[p] = binv[c];
+            binv[c] = s;
+            double f = t[c];
+            for (int k = c; k < m; k++) {
+                t[k] /= f;
+            }
+            for (int k = 0; k < m; k++) {
+                s[k] /= f;
+            }
+            for (int i = 0; i < m; i++) {
+                double g = b[i][c];
+                if (i != c && g != 0) {
+                    double[] row = b[i];
+                    for (int k = c; k < m; k++) {
+                        row[k] -= g * t[k];
+                    }
+                    row = binv[i];
+                    for (int k = 0; k < m; k++) {
+                        row[k] -= g * s[k];
+                    }
+                }
+            }
+        }
+        if (regular) {
+            pivots = 0;
+        } else {
+            slackBasis();
+        }
+        duals(work);
+        for (int j = 0; j < n + m; j++) {
+            if (pos[j] < 0 && lb[j] != ub[j] && (atUb[j] ? d[j] > DUAL_TOL : d[j] < -DUAL_TOL)) {
+                atUb[j] = !atUb[j];
+            }
+        }
+        return regular;
+    }
+
+    /**
+     * Compute the Lagrangian bound of the duals: for any <i>y</i>,
+     * <i>c.x = y.s + d.x &ge; &sum; min(d_j.l_j, d_j.u_j)</i>, over columns and slacks.
+     */
+    private void lagrangian() {
+        double sum = 0, abs = 0;
+        for (int j = 0; j < n + m; j++) {
+            double v = d[j] >= 0 ? d[j] * lb[j] : d[j] * ub[j];
+            if (d[j] != 0) {
+                sum += v;
+                abs += Math.abs(v);
+            }
+        }
+        // rounding errors
+        bound = sum - 1e-9 * Math.max(1, abs);
+    }
+}
@@ -0,0 +1,448 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.parser.ParserException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A reader of CPLEX LP files, which fills the same {@link MPSProblem.Builder} as MPS files.
+ * <p>
+ * The objective becomes an objective row (named "obj" unless labelled) whose right-hand side is
+ * the opposite of its constant, and its sense is recorded by {@link MPSProblem#maximize}.
+ * Constraints, lazy constraints and user cuts become rows (named "R1", "R2", ... unless
+ * labelled); ranged constraints <i>l &le; expr &le; u</i> are G rows with a range. The terms of a
+ * column in an expression are summed. Columns are declared in the order they appear, and the
+ * "bounds", "generals" and "binaries" sections are read as their MPS counterparts.
+ * Section keywords are case-insensitive and must start a line. Semi-continuous columns and
+ * SOS are not supported.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+final class LPReader {
+
+    private enum Section {
+        MAXIMIZE, MINIMIZE, ROWS, BOUNDS, GENERALS, BINARIES, UNSUPPORTED, END
+    }
+
+    private final LPTokenizer tok;
+    private final MPSProblem.Builder builder;
+
+    // terms of the current expression, a column appears at most once
+    private int[] cols = new int[16];
+    private double[] values = new double[16];
+    private boolean[] integrals = new boolean[16];
+    private int size;
+    // position + 1 of each column in the current expression, 0 if absent
+    private int[] where = new int[16];
+    private double constant;
+    private boolean constantIntegral;
+    private boolean constantRead;
+    // integrality of the last value read
+    private boolean integral;
+    private int unnamed;
+
+    private LPReader(LPTokenizer tok, MPSProblem.Builder builder) {
+        this.tok = tok;
+        this.builder = builder;
+    }
+
+    /**
+     * Read an LP file into <i>builder</i>.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static void read(LPTokenizer tok, MPSProblem.Builder builder) throws IOException {
+        new LPReader(tok, builder).read();
+    }
+
+    /**
+     * @return {@code true} if <i>file</i> is an LP file, that is, its name ends with ".lp",
+     * possibly followed by ".gz"
+     */
+    static boolean accept(String file) {
+        String name = file.toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.endsWith(".lp");
+    }
+
+    private void read() throws IOException {
+        tok.next();
+        Section section = section();
+        if (section != Section.MAXIMIZE && section != Section.MINIMIZE) {
+            throw tok.error("Objective section expected");
+        }
+        while (section != Section.END) {
+            switch (section) {
+                case MAXIMIZE:
+                case MINIMIZE:
+                    builder.setMaximize(section == Section.MAXIMIZE);
+                    objective();
+                    section = section();
+                    if (section == null) {
+                        throw tok.error("Unexpected token in the objective");
+                    }
+                    break;
+                case ROWS:
+                    while ((section = section()) == null) {
+                        row();
+                    }
+                    break;
+                case BOUNDS:
+                    while ((section = section()) == null) {
+                        bound();
+                    }
+                    break;
+                case GENERALS:
+                case BINARIES:
+                    boolean binary = section == Section.BINARIES;
+                    while ((section = section()) == null) {
+                        if (tok.kind() != LPTokenizer.Kind.NAME) {
+                            throw tok.error("Column name expected");
+                        }
+                        int c = col();
+                        builder.setInt(c);
+                        if (binary) {
+                            builder.setLb(c, 0);
+                            builder.setUb(c, 1);
+                        }
+                        tok.next();
+                    }
+                    break;
+                default:
+                    throw tok.error("Unsupported section");
+            }
+        }
+    }
+
+    /**
+     * @return the section started by the current token, without reading it, {@code null} if none
+     */
+    private Section keyword() {
+        if (tok.kind() == LPTokenizer.Kind.EOF) {
+            return Section.END;
+        }
+        if (tok.kind() != LPTokenizer.Kind.NAME || !tok.first()) {
+            return null;
+        }
+        if (tok.isIgnoreCase("maximize") || tok.isIgnoreCase("maximise")
+                || tok.isIgnoreCase("maximum") || tok.isIgnoreCase("max")) {
+            return Section.MAXIMIZE;
+        }
+        if (tok.isIgnoreCase("minimize") || tok.isIgnoreCase("minimise")
+                || tok.isIgnoreCase("minimum") || tok.isIgnoreCase("min")) {
+            return Section.MINIMIZE;
+        }
+        if (tok.isIgnoreCase("subject") || tok.isIgnoreCase("such") || tok.isIgnoreCase("st")
+                || tok.isIgnoreCase("s.t.") || tok.isIgnoreCase("st.")
+                || tok.isIgnoreCase("lazy") || tok.isIgnoreCase("user")) {
+            return Section.ROWS;
+        }
+        if (tok.isIgnoreCase("bounds") || tok.isIgnoreCase("bound")) {
+            return Section.BOUNDS;
+        }
+        if (tok.isIgnoreCase("generals") || tok.isIgnoreCase("general") || tok.isIgnoreCase("gen")
+                || tok.isIgnoreCase("integers") || tok.isIgnoreCase("integer")) {
+            return Section.GENERALS;
+        }
+        if (tok.isIgnoreCase("binaries") || tok.isIgnoreCase("binary") || tok.isIgnoreCase("bin")) {
+            return Section.BINARIES;
+        }
+        if (tok.isIgnoreCase("semi-continuous") || tok.isIgnoreCase("semis")
+                || tok.isIgnoreCase("semi") || tok.isIgnoreCase("sos")) {
+            return Section.UNSUPPORTED;
+        }
+        if (tok.isIgnoreCase("end")) {
+            return Section.END;
+        }
+        return null;
+    }
+
+    /**
+     * Read the keywords of a section, if the current token starts one.
+     *
+     * @return the section, {@code null} if the current token starts none
+     */
+    private Section section() throws IOException {
+        Section section = keyword();
+        if (section == null || tok.kind() == LPTokenizer.Kind.EOF) {
+            return section;
+        }
+        if (section == Section.UNSUPPORTED) {
+            throw tok.error("Section \"" + tok.string() + "\" is not supported");
+        }
+        String second = tok.isIgnoreCase("subject") ? "to" : tok.isIgnoreCase("such") ? "that"
+                : tok.isIgnoreCase("lazy") ? "constraints" : tok.isIgnoreCase("user") ? "cuts" : null;
+        tok.next();
+        if (second != null) {
+            if (tok.kind() != LPTokenizer.Kind.NAME || !tok.isIgnoreCase(second)) {
+                throw tok.error("\"" + second + "\" expected");
+            }
+            tok.next();
+        }
+        return section;
+    }
+
+    private void objective() throws IOException {
+        String name = "obj";
+        if (tok.kind() == LPTokenizer.Kind.LABEL) {
+            name = tok.string();
+            tok.next();
+        }
+        int r = builder.addRow(name, MPSProblem.N);
+        expression();
+        flush(r);
+        if (constant != 0) {
+            builder.setRhs(r, -constant, constantIntegral);
+        }
+    }
+
+    private void row() throws IOException {
+        String name = null;
+        if (tok.kind() == LPTokenizer.Kind.LABEL) {
+            name = tok.string();
+            tok.next();
+        }
+        expression();
+        char sense = sense();
+        double lo;
+        double up;
+        boolean integral;
+        if (size == 0 && constantRead) {
+            // left sense expression [sense right]
+            double left = constant;
+            boolean leftIntegral = constantIntegral;
+            expression();
+            left -= constant;
+            if (tok.kind() == LPTokenizer.Kind.SENSE) {
+                if (tok.sense() != sense || sense == MPSProblem.E) {
+                    throw tok.error("Wrong ranged constraint");
+                }
+                tok.next();
+                double right = value() - constant;
+                integral = leftIntegral && this.integral && constantIntegral;
+                lo = sense == MPSProblem.L ? left : right;
+                up = sense == MPSProblem.L ? right : left;
+            } else {
+                integral = leftIntegral && constantIntegral;
+                lo = sense == MPSProblem.G ? Double.NEGATIVE_INFINITY : left;
+                up = sense == MPSProblem.L ? Double.POSITIVE_INFINITY : left;
+            }
+        } else {
+            double right = value() - constant;
+            integral = this.integral && constantIntegral;
+            lo = sense == MPSProblem.L ? Double.NEGATIVE_INFINITY : right;
+            up = sense == MPSProblem.G ? Double.POSITIVE_INFINITY : right;
+        }
+        if (name == null) {
+            do {
+                name = "R" + (++unnamed);
+            } while (builder.findRow(name) >= 0);
+        }
+        if (lo == Double.NEGATIVE_INFINITY && up == Double.POSITIVE_INFINITY) {
+            // a free row constrains nothing
+            clear();
+            return;
+        }
+        if (lo > up) {
+            throw tok.error("Empty range of row \"" + name + "\"");
+        }
+        int r;
+        if (lo == up) {
+            r = builder.addRow(name, MPSProblem.E);
+            builder.setRhs(r, lo, integral);
+        } else if (lo == Double.NEGATIVE_INFINITY) {
+            r = builder.addRow(name, MPSProblem.L);
+            builder.setRhs(r, up, integral);
+        } else {
+            r = builder.addRow(name, MPSProblem.G);
+            builder.setRhs(r, lo, integral);
+            if (up != Double.POSITIVE_INFINITY) {
+                builder.setRange(r, up - lo, integral);
+            }
+        }
+        flush(r);
+    }
+
+    private void bound() throws IOException {
+        if (tok.kind() == LPTokenizer.Kind.NAME && !infinity()) {
+            // column sense value, or column free
+            int c = col();
+            tok.next();
+            if (tok.kind() == LPTokenizer.Kind.NAME && tok.isIgnoreCase("free")) {
+                builder.setLb(c, Double.NEGATIVE_INFINITY);
+                builder.setUb(c, Double.POSITIVE_INFINITY);
+                tok.next();
+                return;
+            }
+            char sense = sense();
+            bound(c, sense, value());
+            return;
+        }
+        // value sense column [sense value]
+        double left = value();
+        char sense = sense();
+        if (tok.kind() != LPTokenizer.Kind.NAME) {
+            throw tok.error("Column name expected");
+        }
+        int c = col();
+        tok.next();
+        bound(c, sense == MPSProblem.L ? MPSProblem.G : sense == MPSProblem.G ? MPSProblem.L : sense, left);
+        if (tok.kind() == LPTokenizer.Kind.SENSE) {
+            sense = sense();
+            bound(c, sense, value());
+        }
+    }
+
+    private void bound(int c, char sense, double value) {
+        if (sense != MPSProblem.L) {
+            builder.setLb(c, value);
+        }
+        if (sense != MPSProblem.G) {
+            builder.setUb(c, value);
+        }
+    }
+
+    /**
+     * Read a linear expression, terms are stored in {@link #cols} and {@link #values}, and
+     * constants are summed in {@link #constant}.
+     */
+    private void expression() throws IOException {
+        clear();
+        constant = 0;
+        constantIntegral = true;
+        constantRead = false;
+        term();
+        while (tok.kind() == LPTokenizer.Kind.PLUS || tok.kind() == LPTokenizer.Kind.MINUS) {
+            term();
+        }
+    }
+
+    private void term() throws IOException {
+        double sign = 1;
+        boolean signed = false;
+        while (tok.kind() == LPTokenizer.Kind.PLUS || tok.kind() == LPTokenizer.Kind.MINUS) {
+            sign = tok.kind() == LPTokenizer.Kind.MINUS ? -sign : sign;
+            signed = true;
+            tok.next();
+        }
+        if (tok.kind() == LPTokenizer.Kind.NUMBER) {
+            double coefficient = sign * tok.value();
+            boolean integral = tok.integral();
+            tok.next();
+            if (tok.kind() == LPTokenizer.Kind.NAME && keyword() == null) {
+                add(col(), coefficient, integral);
+                tok.next();
+            } else {
+                constant += coefficient;
+                constantIntegral &= integral;
+                constantRead = true;
+            }
+        } else if (tok.kind() == LPTokenizer.Kind.NAME && keyword() == null) {
+            add(col(), sign, true);
+            tok.next();
+        } else if (signed) {
+            throw tok.error("Term expected");
+        }
+    }
+
+    private char sense() throws IOException {
+        if (tok.kind() != LPTokenizer.Kind.SENSE) {
+            throw tok.error("Sense expected");
+        }
+        char sense = tok.sense();
+        tok.next();
+        return sense;
+    }
+
+    /**
+     * Read a signed number or infinity, its integrality is stored in {@link #integral}.
+     */
+    private double value() throws IOException {
+        double sign = 1;
+        while (tok.kind() == LPTokenizer.Kind.PLUS || tok.kind() == LPTokenizer.Kind.MINUS) {
+            sign = tok.kind() == LPTokenizer.Kind.MINUS ? -sign : sign;
+            tok.next();
+        }
+        double value;
+        if (tok.kind() == LPTokenizer.Kind.NUMBER) {
+            value = tok.value();
+            integral = tok.integral();
+        } else if (tok.kind() == LPTokenizer.Kind.NAME && infinity()) {
+            value = Double.POSITIVE_INFINITY;
+            integral = true;
+        } else {
+            throw tok.error("Number expected");
+        }
+        tok.next();
+        return sign * value;
+    }
+
+    private boolean infinity() {
+        return tok.isIgnoreCase("inf") || tok.isIgnoreCase("infinity");
+    }
+
+    /**
+     * @return the column named by the current token, declared if it is unknown
+     */
+    private int col() {
+        int c = builder.findCol(tok);
+        if (c == -1) {
+            c = builder.addCol(tok.string());
+        }
+        if (c >= where.length) {
+            where = Arrays.copyOf(where, Math.max(c + 1, where.length * 2));
+        }
+        return c;
+    }
+
+    private void add(int c, double value, boolean integral) {
+        int p = where[c] - 1;
+        if (p >= 0) {
+            values[p] += value;
+            integrals[p] &= integral;
+            return;
+        }
+        if (size == cols.length) {
+            cols = Arrays.copyOf(cols, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            integrals = Arrays.copyOf(integrals, size * 2);
+        }
+        cols[size] = c;
+        values[size] = value;
+        integrals[size] = integral;
+        where[c] = ++size;
+    }
+
+    /**
+     * Add the terms of the current expression to row <i>r</i>, terms which cancel out are dropped.
+     */
+    private void flush(int r) {
+        for (int k = 0; k < size; k++) {
+            if (values[k] != 0) {
+                builder.addEntry(r, cols[k], values[k], integrals[k]);
+            }
+        }
+        clear();
+    }
+
+    private void clear() {
+        for (int k = 0; k < size; k++) {
+            where[cols[k]] = 0;
+        }
+        size = 0;
+    }
+}
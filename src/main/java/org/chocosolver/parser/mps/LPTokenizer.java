@@ -0,0 +1,335 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.parser.ParserException;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A byte-level tokenizer of CPLEX LP files.
+ * <p>
+ * Tokens are read one at a time from a buffered input, as names, labels (a name followed by ':'),
+ * numbers, senses ({@code <}, {@code <=}, {@code =<}, {@code >}, {@code >=}, {@code =>} and
+ * {@code =}) and signs. Numbers are parsed straight from the bytes, with no intermediate String.
+ * Names are only turned into Strings on demand. Comments, from '\' to the end of the line, are
+ * skipped. Quadratic terms are not supported.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+final class LPTokenizer implements Closeable {
+
+    /**
+     * Kinds of tokens
+     */
+    enum Kind {
+        NAME, LABEL, NUMBER, SENSE, PLUS, MINUS, EOF
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+    private int number = 1;
+    // set when a new line is reached since the last token
+    private boolean newline = true;
+
+    private byte[] text = new byte[64];
+    private int length;
+    private Kind kind;
+    private boolean first;
+    private char sense;
+    private double value;
+    private boolean integral;
+
+    LPTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Open an LP file, possibly gzipped (the name ends with ".gz").
+     *
+     * @param file path to a file
+     * @return a tokenizer of the file
+     * @throws IOException if the file cannot be opened
+     */
+    static LPTokenizer open(String file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new LPTokenizer(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Read the next token.
+     *
+     * @return its kind, {@link Kind#EOF} if the end of the input is reached
+     * @throws IOException if the input cannot be read
+     */
+    Kind next() throws IOException {
+        skip();
+        first = newline;
+        newline = false;
+        length = 0;
+        int b = peek();
+        if (b == -1) {
+            return kind = Kind.EOF;
+        }
+        switch (b) {
+            case '+':
+                position++;
+                return kind = Kind.PLUS;
+            case '-':
+                position++;
+                return kind = Kind.MINUS;
+            case '<':
+            case '>':
+            case '=':
+                position++;
+                sense = b == '<' ? MPSProblem.L : b == '>' ? MPSProblem.G : MPSProblem.E;
+                int c = peek();
+                if (b == '=' && (c == '<' || c == '>')) {
+                    position++;
+                    sense = c == '<' ? MPSProblem.L : MPSProblem.G;
+                } else if (b != '=' && c == '=') {
+                    position++;
+                }
+                return kind = Kind.SENSE;
+            case ':':
+                throw error("Unexpected ':'");
+            case '[':
+            case ']':
+            case '^':
+            case '*':
+                throw error("Quadratic terms are not supported");
+            default:
+                break;
+        }
+        if (digit(b) || b == '.') {
+            return kind = number();
+        }
+        while ((b = peek()) != -1 && !delimiter(b)) {
+            append(b);
+        }
+        skip();
+        if (peek() == ':') {
+            position++;
+            return kind = Kind.LABEL;
+        }
+        return kind = Kind.NAME;
+    }
+
+    private Kind number() throws IOException {
+        boolean digits = true;
+        int b;
+        while ((b = peek()) != -1 && (digit(b) || b == '.')) {
+            digits &= b != '.';
+            append(b);
+        }
+        if (b == 'e' || b == 'E') {
+            // the exponent belongs to the number only if digits follow
+            append(b);
+            int mark = length;
+            if ((b = peek()) == '+' || b == '-') {
+                append(b);
+            }
+            while ((b = peek()) != -1 && digit(b)) {
+                append(b);
+            }
+            if (length == mark || !digit(text[length - 1])) {
+                throw error("Wrong exponent");
+            }
+            digits = false;
+        }
+        value = MPSTokenizer.parseDouble(text, 0, length);
+        if (Double.isNaN(value)) {
+            throw error("Number expected");
+        }
+        integral = digits && value <= Integer.MAX_VALUE;
+        return Kind.NUMBER;
+    }
+
+    /**
+     * Skip blanks and comments, the end of a line sets {@link #newline}.
+     */
+    private void skip() throws IOException {
+        int b;
+        while ((b = peek()) != -1) {
+            if (b == '\n') {
+                number++;
+                newline = true;
+            } else if (b == '\\') {
+                while ((b = peek()) != -1 && b != '\n') {
+                    position++;
+                }
+                continue;
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private void append(int b) {
+        if (length == text.length) {
+            text = Arrays.copyOf(text, length * 2);
+        }
+        text[length++] = (byte) b;
+        position++;
+    }
+
+    private static boolean digit(int b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean delimiter(int b) {
+        switch (b) {
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+            case '\\':
+            case ':':
+            case '+':
+            case '-':
+            case '<':
+            case '>':
+            case '=':
+            case '[':
+            case ']':
+            case '^':
+            case '*':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return {@code true} if the current token is the first one of its line
+     */
+    boolean first() {
+        return first;
+    }
+
+    /**
+     * @return the sense of a {@link Kind#SENSE} token, one of {@link MPSProblem#L},
+     * {@link MPSProblem#G} and {@link MPSProblem#E}
+     */
+    char sense() {
+        return sense;
+    }
+
+    /**
+     * @return the value of a {@link Kind#NUMBER} token
+     */
+    double value() {
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the current number is written as an integer which fits an int
+     */
+    boolean integral() {
+        return integral;
+    }
+
+    /**
+     * @return the current line number, 1-based
+     */
+    int lineNumber() {
+        return number;
+    }
+
+    /**
+     * @return {@code true} if the current name is equal to <i>s</i>, an ASCII string
+     */
+    boolean is(String s) {
+        if (length != s.length()) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (text[k] != s.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the current name is equal to <i>s</i>, a lower case ASCII string,
+     * ignoring case
+     */
+    boolean isIgnoreCase(String s) {
+        if (length != s.length()) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            int b = text[k] >= 'A' && text[k] <= 'Z' ? text[k] + ('a' - 'A') : text[k];
+            if (b != s.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the current name, as a String
+     */
+    String string() {
+        return new String(text, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the hash of the current name, equal to the {@link String#hashCode()} of
+     * {@link #string()}
+     */
+    int hash() {
+        int h = 0;
+        for (int k = 0; k < length; k++) {
+            h = 31 * h + text[k];
+        }
+        return h;
+    }
+
+    ParserException error(String message) {
+        return new ParserException(message + " at line " + number);
+    }
+}
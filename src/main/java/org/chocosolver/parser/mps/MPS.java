@@ -49,8 +49,20 @@ public class MPS extends RegParser {
     @Option(name = "-noeq", usage = "Split EQ constraints into a LQ and a GQ constraint.")
     private boolean noeq = false;
 
-    @Option(name = "-split", usage = "Split any contraints of cardinality greater than this value (default: 100).")
-    int split = 100;
+    @Option(name = "-split", usage = "Split any constraints of cardinality greater than this value (default: none).")
+    int split = 0;
+
+    @Option(name = "-presolve", usage = "Presolve passes to apply: all, none, or a comma-separated list among " +
+            "empty, singleton, fixed, scale, bounds, duplicate, coefficient, implied and objective (default: all).")
+    private String presolve = "all";
+
+    @Option(name = "-generic", usage = "Post every row as a generic scalar constraint, with no detection of " +
+            "partitioning, packing, covering, cardinality, clause, knapsack or variable upper bound rows.")
+    private boolean generic = false;
+
+    @Option(name = "-lp", usage = "Solve the linear relaxation on the root node and then every this number " +
+            "of nodes, to bound the objective and filter variables (default: 0, disabled).")
+    private int lp = 0;
 
 
     /**
@@ -99,6 +111,11 @@ public class MPS extends RegParser {
             threadModel.setPrecision(precision);
             portfolio.addModel(threadModel);
             parsers[i] = new MPSParser();
+            if (split > 0) {
+                parsers[i].setSplit(split);
+            }
+            parsers[i].setClassify(!generic);
+            parsers[i].setRelaxation(lp);
         }
         listeners.forEach(ParserListener::afterSolverCreation);
     }
@@ -107,21 +124,23 @@ public class MPS extends RegParser {
     public void buildModel() {
         listeners.forEach(ParserListener::beforeParsingFile);
         List<Model> models = portfolio.getModels();
-        for (int i = 0; i < models.size(); i++) {
-            try {
-                parse(models.get(i), parsers[i], i);
-            } catch (Exception e) {
-                System.out.printf("s UNSUPPORTED\n");
-                System.out.printf("%c %s\n", getCommentChar(), e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("UNSUPPORTED");
+        try {
+            // the file is read and presolved once, then shared by the models
+            MPSPresolve shared = new MPSPresolve(MPSParser.read(instance), MPSPresolve.passes(presolve));
+            for (int i = 0; i < models.size(); i++) {
+                parse(models.get(i), parsers[i], shared, i);
             }
+        } catch (Exception e) {
+            System.out.printf("s UNSUPPORTED\n");
+            System.out.printf("%c %s\n", getCommentChar(), e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("UNSUPPORTED");
         }
         listeners.forEach(ParserListener::afterParsingFile);
     }
 
-    public void parse(Model target, MPSParser parser, int i) throws Exception {
-        parser.model(target, instance, maximize, ninf, pinf, ibex, noeq);
+    public void parse(Model target, MPSParser parser, MPSPresolve presolve, int i) throws Exception {
+        parser.model(target, presolve, maximize, ninf, pinf, ibex, noeq);
         if (i == 0) {
             Solver solver = target.getSolver();
             if (target.getNbRealVar() == 0) {
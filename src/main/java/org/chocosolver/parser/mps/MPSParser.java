@@ -8,29 +8,25 @@
  */
 package org.chocosolver.parser.mps;
 
+import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.parser.ParserException;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Operator;
 import org.chocosolver.solver.constraints.real.PropScalarMixed;
+import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.RealVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.tools.ArrayUtils;
 import org.chocosolver.util.tools.VariableUtils;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
 
 /**
  * <p> Project: choco-parsers.
@@ -40,29 +36,52 @@ import java.util.zip.GZIPInputStream;
  */
 public class MPSParser {
 
-    private static Pattern twopart = Pattern.compile("");
-
-    private static String TAG_NAME = "NAME";
-    private static String TAG_ROWS = "ROWS";
-    private static String TAG_COLUMNS = "COLUMNS";
-    private static String TAG_RHS = "RHS";
-    private static String TAG_BOUNDS = "BOUNDS"; // optional
-    private static String TAG_RANGES = "RANGES"; // optional
-    private static String TAG_ENDATA = "ENDATA";
-    private static String TAG_MARKER = "'MARKER'";
-    private static String TAG_INTORG = "'INTORG'";
-
-    private static final int CACHING = 12 * 5;
-
-    private HashMap<String, String> ope4eq;
-    private HashMap<String, List<Number>> coeffs4eq;
-    private HashMap<String, ArrayList<String>> vars4eq;
-    private HashMap<String, Number> rhs4eq;
-    private HashMap<String, Number> range4eq;
-    private List<String> allvars;
-    private HashMap<String, Variable> decVars;
-    private HashMap<String, Boolean> varsIsInt;
-    private HashMap<String, Number[]> varsDom;
+    private static final String TAG_NAME = "NAME";
+    private static final String TAG_ROWS = "ROWS";
+    private static final String TAG_COLUMNS = "COLUMNS";
+    private static final String TAG_RHS = "RHS";
+    private static final String TAG_BOUNDS = "BOUNDS"; // optional
+    private static final String TAG_RANGES = "RANGES"; // optional
+    private static final String TAG_ENDATA = "ENDATA";
+    private static final String TAG_MARKER = "'MARKER'";
+    private static final String TAG_INTORG = "'INTORG'";
+    /**
+     * The basis of the linear relaxation is inverted densely, in two m x m matrices (16MB at this
+     * bound), beyond this number of rows, it is not posted
+     */
+    private static final int MAX_LP_ROWS = 1000;
+
+    /**
+     * The problem read
+     */
+    private MPSProblem problem;
+    /**
+     * The problem posted, after presolve
+     */
+    private MPSProblem presolved;
+    /**
+     * Passes of the presolve to apply
+     */
+    private EnumSet<MPSPresolve.Pass> passes = EnumSet.allOf(MPSPresolve.Pass.class);
+    private MPSPresolve presolve;
+    /**
+     * Rows with more entries than this are split into partial sums
+     */
+    private int split = Integer.MAX_VALUE;
+    private int nbPartialSums;
+    /**
+     * Set to false to post every row as a generic scalar constraint
+     */
+    private boolean classify = true;
+    private final int[] kinds = new int[MPSRowKind.values().length];
+    /**
+     * The linear relaxation is solved every this number of nodes, 0 to disable it
+     */
+    private int relaxation;
+    /**
+     * Variables of the model, indexed as the columns of {@link #problem}
+     */
+    private Variable[] decVars;
 
     private double POS_INF;
 
@@ -72,477 +91,847 @@ public class MPSParser {
                       double ninf, double pinf,
                       boolean ibex,
                       boolean noeq) throws IOException {
-        ope4eq = new HashMap<>();
-        coeffs4eq = new HashMap<>();
-        vars4eq = new HashMap<>();
-        rhs4eq = new HashMap<>();
-        range4eq = new HashMap<>();
-        decVars = new HashMap<>();
-        allvars = new ArrayList<>();
-        varsIsInt = new HashMap<>();
-        varsDom = new HashMap<>();
+        model(model, new MPSPresolve(read(instance), passes), maximize, ninf, pinf, ibex, noeq);
+    }
 
+    /**
+     * Build a model from a problem already read and presolved. The problem and its presolved
+     * version are not modified, so they can be shared between models.
+     *
+     * @param model    the model to build
+     * @param presolve presolve of the problem, applied if it is not already
+     * @param maximize set to true to maximize, whatever the sense declared by the problem
+     */
+    public void model(Model model, MPSPresolve presolve, boolean maximize,
+                      double ninf, double pinf,
+                      boolean ibex,
+                      boolean noeq) {
         this.POS_INF = pinf;
         this.NEG_INF = ninf;
+        this.problem = presolve.getProblem();
+        this.passes = presolve.getPasses();
+        this.presolve = presolve;
+        this.presolved = presolve.apply();
+        System.out.printf("c %s\n", presolve);
+        build(model, maximize || problem.maximize, ibex, noeq);
+        if (presolve.isInfeasible()) {
+            model.falseConstraint().post();
+        }
+    }
 
-        Reader reader = null;
-        if (instance.endsWith("mps.gz")) {
-            FileInputStream fin = new FileInputStream(instance);
-            GZIPInputStream gzis = new GZIPInputStream(fin);
-            reader = new InputStreamReader(gzis);
+    /**
+     * Read an MPS file, or a CPLEX LP file if its name ends with ".lp", once for all the models to
+     * build from it.
+     *
+     * @param instance path to the file, possibly gzipped
+     * @return the problem read
+     */
+    public static MPSProblem read(String instance) throws IOException {
+        MPSProblem.Builder builder = new MPSProblem.Builder();
+        if (LPReader.accept(instance)) {
+            try (LPTokenizer tokenizer = LPTokenizer.open(instance)) {
+                LPReader.read(tokenizer, builder);
+            }
         } else {
-            reader = new FileReader(instance);
-        }
-        try (BufferedReader br = new BufferedReader(reader)) {
-            readName(br);
-            readRows(br);
-            readColumns(br);
-            readRHS(br);
-            // optional tags
-            br.reset();
-            String line = br.readLine();
-            while (line != null && !line.startsWith(TAG_ENDATA)) {
-                if (line.startsWith(TAG_RANGES)) {
-                    readRanges(br);
-                }
-                if (line.startsWith(TAG_BOUNDS)) {
-                    readBounds(br);
-                }
-                br.mark(CACHING);
-                line = br.readLine();
+            try (MPSTokenizer tokenizer = MPSTokenizer.open(instance)) {
+                read(tokenizer, builder);
             }
         }
-        build(model, maximize, ibex, noeq);
+        return builder.build();
     }
 
-    private void readName(BufferedReader br) throws IOException {
-        String line = br.readLine();
-        // read NAME
-        while (line != null && !line.startsWith(TAG_NAME)) {
-            line = br.readLine();
-        }
-        if (line == null) {
-            throw new ParserException("No tag \"NAME\" found");
+    /**
+     * Set the passes of the presolve, all of them are applied by default.
+     *
+     * @param passes passes to apply, see {@link MPSPresolve#passes(String)}
+     */
+    public void setPresolve(EnumSet<MPSPresolve.Pass> passes) {
+        this.passes = passes;
+    }
+
+    /**
+     * Split rows with more than <i>split</i> entries into a tree of partial sums, each of them
+     * over at most <i>split</i> terms, none by default.
+     */
+    public void setSplit(int split) {
+        if (split < 2) {
+            throw new ParserException("Cannot split rows into partial sums of less than 2 terms");
         }
-        br.mark(CACHING);
-        line = br.readLine();
-        assert line.startsWith(TAG_ROWS);
+        this.split = split;
     }
 
-    private void readRows(BufferedReader br) throws IOException {
-        br.reset();
-        String line = br.readLine();
-        if (line == null || !line.startsWith(TAG_ROWS)) {
-            throw new ParserException("No tag \"ROWS\" found");
+    /**
+     * Enable or disable the detection of the kind of rows (see {@link MPSRowKind}), enabled by
+     * default. When disabled, every row is posted as a generic scalar constraint.
+     */
+    public void setClassify(boolean classify) {
+        this.classify = classify;
+    }
+
+    /**
+     * Post a global propagator over the linear relaxation of the problem (see
+     * {@link PropLPRelaxation}), solved every <i>frequency</i> nodes of the search, and on the
+     * root node. Disabled by default, that is, when <i>frequency</i> is 0.
+     */
+    public void setRelaxation(int frequency) {
+        if (frequency < 0) {
+            throw new ParserException("Negative frequency for the linear relaxation");
         }
-        line = br.readLine();
-        String[] values;
-        // read the next one, which contains the name of the first constraint
-        while (line != null && !line.startsWith(TAG_COLUMNS)) {
-            // Fields start in column 2, 5, 15, 25, 40 and 50
-            values = Arrays.stream(line.split(" ")).filter(v -> v.length() > 0).toArray(String[]::new);
-            switch (values[0]) {
-                case "N":
+        this.relaxation = frequency;
+    }
+
+    /**
+     * @return the number of rows of kind <i>kind</i> posted
+     */
+    public int count(MPSRowKind kind) {
+        return kinds[kind.ordinal()];
+    }
+
+    /**
+     * @return the number of partial sums introduced to split rows, see {@link #setSplit(int)}
+     */
+    public int getPartialSums() {
+        return nbPartialSums;
+    }
+
+    /**
+     * @return the problem read, see {@link #model(Model, String, boolean, double, double, boolean, boolean)}
+     */
+    public MPSProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return the problem posted, that is, the problem read once presolved
+     */
+    public MPSProblem getPresolved() {
+        return presolved;
+    }
+
+    /**
+     * @return the presolve applied, and its statistics
+     */
+    public MPSPresolve getPresolve() {
+        return presolve;
+    }
+
+    /**
+     * Read the sections of an MPS file, in a single pass.
+     * Lines are split at blanks (free format), unless their fields do not match the section they
+     * belong to, in which case they are split at the columns of the fixed format.
+     */
+    private static void read(MPSTokenizer tok, MPSProblem.Builder builder) throws IOException {
+        String section = null;
+        boolean isInt = false;
+        boolean rows = false, columns = false;
+        int col = -1;
+        BitSet rhs = new BitSet(), ranges = new BitSet();
+        while (tok.next()) {
+            if (tok.header()) {
+                if (tok.is(0, TAG_ENDATA)) {
+                    break;
+                }
+                section = section(tok);
+                rows |= section.equals(TAG_ROWS);
+                columns |= section.equals(TAG_COLUMNS);
+                if (section.equals(TAG_NAME) && tok.count() > 1) {
+                    builder.setName(tok.string(1));
+                }
+                continue;
+            }
+            if (section == null) {
+                throw new ParserException("No tag \"" + TAG_NAME + "\" found");
+            }
+            switch (section) {
+                case TAG_ROWS:
+                    if (tok.count() != 2) {
+                        tok.fixed();
+                    }
+                    readRow(tok, builder);
                     break;
-                case "E":
-                    ope4eq.put(values[1], "=");
+                case TAG_COLUMNS:
+                    if (tok.count() == 3 && tok.is(1, TAG_MARKER)) {
+                        isInt = tok.is(2, TAG_INTORG);
+                        break;
+                    }
+                    if (!entries(tok, 1)) {
+                        tok.fixed();
+                        if (!entries(tok, 1)) {
+                            throw new ParserException("Wrong column entry at line " + tok.lineNumber());
+                        }
+                    }
+                    // entries of a column are usually consecutive
+                    if (col == -1 || !tok.is(0, builder.colName(col))) {
+                        col = builder.findCol(tok, 0);
+                        if (col == -1) {
+                            col = builder.addCol(tok.string(0));
+                        }
+                    }
+                    builder.setType(col, isInt);
+                    for (int k = 1; k < tok.count(); k += 2) {
+                        int row = builder.findRow(tok, k);
+                        if (row == -1) {
+                            throw new ParserException("Unknown row \"" + tok.string(k) + "\" at line " + tok.lineNumber());
+                        }
+                        builder.addEntry(row, col, tok.parseDouble(k + 1), tok.isInt(k + 1));
+                    }
                     break;
-                case "L":
-                    ope4eq.put(values[1], "<=");
+                case TAG_RHS:
+                case TAG_RANGES:
+                    // the name of the set is optional
+                    int o = entries(tok, 1) ? 1 : entries(tok, 0) ? 0 : -1;
+                    if (o == -1) {
+                        tok.fixed();
+                        o = entries(tok, 1) ? 1 : 0;
+                        if (!entries(tok, o)) {
+                            throw new ParserException("Wrong " + section + " entry at line " + tok.lineNumber());
+                        }
+                    }
+                    for (int k = o; k < tok.count(); k += 2) {
+                        int row = builder.findRow(tok, k);
+                        // only the first value of a row is kept
+                        if (section.equals(TAG_RHS)) {
+                            if (row >= 0 && !rhs.get(row)) {
+                                rhs.set(row);
+                                builder.setRhs(row, tok.parseDouble(k + 1), tok.isInt(k + 1));
+                            }
+                        } else if (row >= 0 && !ranges.get(row)) {
+                            ranges.set(row);
+                            builder.setRange(row, tok.parseDouble(k + 1), tok.isInt(k + 1));
+                        }
+                    }
                     break;
-                case "G":
-                    ope4eq.put(values[1], ">=");
+                case TAG_BOUNDS:
+                    if (tok.count() > 4 || (tok.count() == 4 && !tok.isNumber(3))) {
+                        tok.fixed();
+                    }
+                    readBound(tok, builder);
                     break;
                 default:
-                    throw new ParserException("Unknown identifier \"" + values[0] + "\"");
+                    // NAME
+                    break;
             }
-            br.mark(CACHING);
-            line = br.readLine();
+        }
+        if (!rows) {
+            throw new ParserException("No tag \"" + TAG_ROWS + "\" found");
+        }
+        if (!columns) {
+            throw new ParserException("No tag \"" + TAG_COLUMNS + "\" found");
         }
     }
 
-    private void readColumns(BufferedReader br) throws IOException {
-        br.reset();
-        String line = br.readLine();
-        if (line == null || !line.startsWith(TAG_COLUMNS)) {
-            throw new ParserException("No tag \"COLUMNS\" found");
-        }
-        line = br.readLine();
-        boolean isInt = false;
-        String[] values;
-        // read the next one, which contains the first instruction
-        while (line != null && !line.startsWith(TAG_RHS)) {
-            values = Arrays.stream(line.split(" ")).filter(v -> v.length() > 0).toArray(String[]::new);
-            if (values[1].equals(TAG_MARKER)) {
-                isInt = values[2].equals(TAG_INTORG);
-            } else {
-                if (!decVars.containsKey(values[0])) {
-                    decVars.put(values[0], null);
-                    allvars.add(values[0]);
-                }
-                addElement(values[1], values[0], values[2], isInt);
-                if (values.length == 5) {
-                    addElement(values[3], values[0], values[4], isInt);
-                }
+    private static String section(MPSTokenizer tok) {
+        for (String tag : new String[]{TAG_NAME, TAG_ROWS, TAG_COLUMNS, TAG_RHS, TAG_RANGES, TAG_BOUNDS}) {
+            if (tok.is(0, tag)) {
+                return tag;
             }
-            br.mark(CACHING);
-            line = br.readLine();
         }
+        throw new ParserException("Unknown section \"" + tok.string(0) + "\" at line " + tok.lineNumber());
     }
 
-    private void addElement(String cnam, String vnam, String coeff, boolean isInt) {
-        List<Number> coeffs = coeffs4eq.get(cnam);
-        ArrayList<String> vars = vars4eq.get(cnam);
-        if (coeffs == null) {
-            coeffs = new ArrayList<>();
-            vars = new ArrayList<>();
-            coeffs4eq.put(cnam, coeffs);
-            vars4eq.put(cnam, vars);
+    /**
+     * @return {@code true} if the fields of the current line, from <i>o</i>, are pairs of a name
+     * and a number, one or two of them
+     */
+    private static boolean entries(MPSTokenizer tok, int o) {
+        int n = tok.count() - o;
+        return (n == 2 || n == 4) && tok.isNumber(o + 1) && (n == 2 || tok.isNumber(o + 3));
+    }
+
+    private static void readRow(MPSTokenizer tok, MPSProblem.Builder builder) {
+        if (tok.count() != 2) {
+            throw new ParserException("Wrong row at line " + tok.lineNumber());
         }
-        if (coeff.matches("-?\\d+")) {
-            coeffs.add(Integer.parseInt(coeff));
+        char type;
+        if (tok.is(0, "N")) {
+            type = MPSProblem.N;
+        } else if (tok.is(0, "E")) {
+            type = MPSProblem.E;
+        } else if (tok.is(0, "L")) {
+            type = MPSProblem.L;
+        } else if (tok.is(0, "G")) {
+            type = MPSProblem.G;
         } else {
-            coeffs.add(Double.parseDouble(coeff));
+            throw new ParserException("Unknown identifier \"" + tok.string(0) + "\"");
+        }
+        builder.addRow(tok.string(1), type);
+    }
+
+    private static void readBound(MPSTokenizer tok, MPSProblem.Builder builder) {
+        if (tok.count() < 2) {
+            throw new ParserException("Wrong bound at line " + tok.lineNumber());
+        }
+        String type = tok.string(0);
+        boolean valued = !(type.equals("FR") || type.equals("MI") || type.equals("PL") || type.equals("BV"));
+        // the name of the set is optional
+        int v = tok.count() == 4 || (tok.count() == 3 && !valued) ? 2 : 1;
+        int val = v + 1;
+        if (valued && val >= tok.count()) {
+            throw new ParserException("Bound value expected at line " + tok.lineNumber());
         }
-        vars.add(vnam);
-        Boolean vint = varsIsInt.get(vnam);
-        if (vint == null) {
-            vint = isInt;
-            varsIsInt.put(vnam, vint);
-        } else if (vint != isInt) {
-            throw new ParserException("Incorrect type found");
+        int c = builder.findCol(tok, v);
+        if (c == -1) {
+            // bound of a column which appears in no row
+            return;
+        }
+        switch (type) {
+            case "LO":
+                builder.setLb(c, tok.parseDouble(val));
+                break;
+            case "UP":
+                builder.setUb(c, tok.parseDouble(val));
+                break;
+            case "FX":
+                builder.setLb(c, tok.parseDouble(val));
+                builder.setUb(c, tok.parseDouble(val));
+                break;
+            case "FR":
+                builder.setLb(c, Double.NEGATIVE_INFINITY);
+                builder.setUb(c, Double.POSITIVE_INFINITY);
+                break;
+            case "MI":
+                builder.setLb(c, Double.NEGATIVE_INFINITY);
+                builder.setUb(c, 0);
+                break;
+            case "PL":
+                builder.setLb(c, 0);
+                builder.setUb(c, Double.POSITIVE_INFINITY);
+                break;
+            case "BV":
+                builder.setInt(c);
+                builder.setLb(c, 0);
+                builder.setUb(c, 1);
+                break;
+            case "UI":
+                builder.setInt(c);
+                if (!tok.isInt(val)) {
+                    throw new ParserException("UI refers to double instead of int");
+                }
+                builder.setUb(c, tok.parseInt(val));
+                break;
+            case "LI":
+                builder.setInt(c);
+                if (!tok.isInt(val)) {
+                    throw new ParserException("LI refers to double instead of int");
+                }
+                builder.setLb(c, tok.parseInt(val));
+                break;
+            case "SC":
+                throw new ParserException("semi-continuous not supported");
+            default:
+                throw new ParserException("Unknown identifier \"" + type + "\"");
         }
     }
 
-    private void readRHS(BufferedReader br) throws IOException {
-        br.reset();
-        String line = br.readLine();
-        if (line == null || !line.startsWith(TAG_RHS)) {
-            throw new ParserException("No tag \"RHS\" found");
+    /**
+     * @return lower bound of column <i>c</i>, restricted to [NEG_INF, POS_INF], as finite bounds
+     * set by the presolve may be out of the domain of an integer variable
+     */
+    private double lb(int c) {
+        return Math.min(Math.max(presolved.lbs[c], NEG_INF), POS_INF);
+    }
+
+    /**
+     * @return upper bound of column <i>c</i>, restricted to [NEG_INF, POS_INF]
+     */
+    private double ub(int c) {
+        return Math.max(Math.min(presolved.ubs[c], POS_INF), NEG_INF);
+    }
+
+    private static String op(char type) {
+        switch (type) {
+            case MPSProblem.E:
+                return "=";
+            case MPSProblem.L:
+                return "<=";
+            case MPSProblem.G:
+                return ">=";
+            default:
+                return null;
         }
-        line = br.readLine();
-        String[] values;
-        while (line != null
-                && !line.startsWith(TAG_RANGES)
-                && !line.startsWith(TAG_BOUNDS)
-                && !line.startsWith(TAG_ENDATA)) {
-            values = Arrays.stream(line.split(" ")).filter(v -> v.length() > 0).toArray(String[]::new);
-            addRhs(values[1], values[2]);
-            if (values.length == 5) {
-                addRhs(values[3], values[4]);
-            }
-            br.mark(CACHING);
-            line = br.readLine();
+    }
+
+    /**
+     * @return the bounds of <i>a.x - rhs</i> of row <i>r</i>, given the bounds of the columns,
+     * restricted to [NEG_INF, POS_INF]
+     */
+    private double[] objective(MPSProblem p, int r) {
+        if (!passes.contains(MPSPresolve.Pass.OBJECTIVE)) {
+            return new double[]{NEG_INF, POS_INF};
         }
+        double min = -p.rhs[r], max = -p.rhs[r];
+        for (int k = p.rowStart[r]; k < p.rowStart[r + 1]; k++) {
+            double a = p.rowValues[k];
+            int c = p.rowCols[k];
+            min += a * (a > 0 ? lb(c) : ub(c));
+            max += a * (a > 0 ? ub(c) : lb(c));
+        }
+        min = Math.max(min, NEG_INF);
+        max = Math.min(max, POS_INF);
+        return min <= max ? new double[]{min, max} : new double[]{NEG_INF, POS_INF};
     }
 
-    private void addRhs(String cnam, String rhsv) {
-        Number rhs = rhs4eq.get(cnam);
-        if (rhs == null) {
-            if (rhsv.matches("-?\\d+")) {
-                rhs = Integer.parseInt(rhsv);
+    private void build(Model model, boolean maximize, boolean ibex, boolean noeq) {
+        MPSProblem p = presolved;
+        // First, create variables
+        decVars = new Variable[p.nbCols()];
+        for (int c = 0; c < p.nbCols(); c++) {
+            if (p.colInt[c] && lb(c) == 0 && ub(c) == 1) {
+                decVars[c] = model.boolVar(p.colNames[c]);
+            } else if (p.colInt[c]) {
+                decVars[c] = model.intVar(p.colNames[c], (int) lb(c), (int) ub(c));
             } else {
-                rhs = Double.parseDouble(rhsv);
+                decVars[c] = model.realVar(p.colNames[c], lb(c), ub(c), model.getPrecision());
             }
-            rhs4eq.put(cnam, rhs);
         }
-    }
-
-    private void readRanges(BufferedReader br) throws IOException {
-        br.reset();
-        String line = br.readLine();
-        if (line == null || !line.startsWith(TAG_RANGES)) {
-            throw new ParserException("No tag \"RANGES\" found");
+        // then classify rows
+        MPSRowKind[] rowKinds = new MPSRowKind[p.nbRows()];
+        int obj = -1;
+        boolean unimod = true;
+        for (int r = 0; r < p.nbRows(); r++) {
+            if (p.rowSize(r) == 0) {
+                continue;
+            }
+            for (int k = p.rowStart[r]; k < p.rowStart[r + 1] && unimod; k++) {
+                unimod = Math.abs(p.rowValues[k]) == 1;
+            }
+            if (p.rowTypes[r] == MPSProblem.N) {
+                if (obj >= 0) {
+                    throw new ParserException("More than one objective function found");
+                }
+                obj = r;
+            } else {
+                rowKinds[r] = classify ? MPSRowKind.of(p, r) : p.isIntRow(r) ? MPSRowKind.INTEGER : MPSRowKind.MIXED;
+                kinds[rowKinds[r].ordinal()]++;
+            }
+        }
+        boolean[] consumed = new boolean[p.nbCols()];
+        int[] profits = profits(p, obj, maximize);
+        IntVar[] energies = energies(model, p, profits, rowKinds, consumed);
+        // then create constraints, in declaration order
+        for (int r = 0; r < p.nbRows(); r++) {
+            if (r == obj) {
+                postObjective(model, p, r, energies, consumed, maximize, ibex, noeq);
+            } else if (rowKinds[r] != null && !postStructured(model, p, r, rowKinds[r], energies[r], profits)) {
+                postRow(model, p, r, ibex, noeq);
+            }
+        }
+        if (relaxation > 0 && p.nbRows() > MAX_LP_ROWS) {
+            System.out.printf("c LP relaxation: skipped, more than %d rows\n", MAX_LP_ROWS);
+        } else if (relaxation > 0) {
+            DualSimplex lp = DualSimplex.of(p, maximize);
+            new Constraint("LPRELAXATION", new PropLPRelaxation(decVars,
+                    obj >= 0 ? model.getObjective() : null, obj >= 0 ? p.rhs[obj] : 0,
+                    lp, maximize, relaxation)).post();
+            System.out.printf("c LP relaxation: %d rows, %d columns\n", lp.nbRows(), lp.nbCols());
         }
-        line = br.readLine();
-        String[] values;
-        while (line != null
-                && !line.startsWith(TAG_BOUNDS)
-                && !line.startsWith(TAG_ENDATA)) {
-            values = Arrays.stream(line.split(" ")).filter(v -> v.length() > 0).toArray(String[]::new);
-            addRange(values[1], values[2]);
-            if (values.length > 3) {
-                addRange(values[3], values[4]);
+        System.out.printf("c Unimodular: %s\n", unimod);
+        if (classify) {
+            StringBuilder st = new StringBuilder("c Rows:");
+            for (MPSRowKind kind : MPSRowKind.values()) {
+                st.append(' ').append(kind.name().toLowerCase()).append('=').append(kinds[kind.ordinal()]);
             }
-            br.mark(CACHING);
-            line = br.readLine();
+            System.out.println(st);
         }
     }
 
-    private void addRange(String cnam, String range) {
-        Number rng = range4eq.get(cnam);
-        if (rng == null) {
-            if (range.matches("-?\\d+")) {
-                rng = Integer.parseInt(range);
+    /**
+     * Post a row, which is not an objective row, as a generic scalar constraint
+     */
+    private void postRow(Model model, MPSProblem p, int r, boolean ibex, boolean noeq) {
+        int from = p.rowStart[r], to = p.rowStart[r + 1];
+        String op = op(p.rowTypes[r]);
+        double rhs = p.rhs[r];
+        double rng = p.ranges[r];
+        boolean ranged = !Double.isNaN(rng);
+        if (p.isIntRow(r)) {
+            IntVar[] vars = new IntVar[to - from];
+            int[] coefs = new int[to - from];
+            for (int k = from; k < to; k++) {
+                vars[k - from] = (IntVar) decVars[p.rowCols[k]];
+                coefs[k - from] = (int) p.rowValues[k];
+            }
+            IntVar[] sums = intPartialSums(model, vars, coefs);
+            if (sums != null) {
+                vars = sums;
+                coefs = new int[sums.length];
+                Arrays.fill(coefs, 1);
+            }
+            postIntEquation(model, vars, coefs, op, (int) rhs, ranged, (int) rng, noeq);
+        } else {
+            Variable[] vars = new Variable[to - from];
+            double[] coefs = Arrays.copyOfRange(p.rowValues, from, to);
+            for (int k = from; k < to; k++) {
+                vars[k - from] = decVars[p.rowCols[k]];
+            }
+            if (ibex) {
+                // ibex function, not split
+                postIbexEquation(model, vars, coefs, op, rhs, ranged, rng);
             } else {
-                rng = Double.parseDouble(range);
-            }
-            range4eq.put(cnam, rng);
-        }
-    }
-
-    private void readBounds(BufferedReader br) throws IOException {
-        br.reset();
-        String line = br.readLine();
-        if (line == null || !line.startsWith(TAG_BOUNDS)) {
-            throw new ParserException("No tag \"BOUNDS\" found");
-        }
-        line = br.readLine();
-        String[] values;
-        while (line != null
-                && !line.startsWith(TAG_ENDATA)) {
-            values = Arrays.stream(line.split(" ")).filter(v -> v.length() > 0).toArray(String[]::new);
-            String var = values[2];
-            Number[] bounds = varsDom.get(var);
-            if (bounds == null) {
-                bounds = new Number[]{0, POS_INF};
-                varsDom.put(var, bounds);
-            }
-            String val = values.length > 3 ? values[3] : "--";
-            switch (values[0]) {
-                case "LO":
-                    if (val.matches("-?\\d+")) {
-                        bounds[0] = Integer.parseInt(val);
-                    } else {
-                        bounds[0] = Double.parseDouble(val);
-                    }
-                    break;
-                case "UP":
-                    if (val.matches("-?\\d+")) {
-                        bounds[1] = Integer.parseInt(val);
-                    } else {
-                        bounds[1] = Double.parseDouble(val);
-                    }
-                    break;
-                case "FX":
-                    if (val.matches("-?\\d+")) {
-                        bounds[0] = bounds[1] = Integer.parseInt(val);
-                    } else {
-                        bounds[0] = bounds[1] = Double.parseDouble(val);
-                    }
-                    break;
-                case "FR":
-                    bounds[0] = NEG_INF;
-                    bounds[1] = POS_INF;
-                    break;
-                case "MI":
-                    bounds[0] = NEG_INF;
-                    bounds[1] = 0;
-                    break;
-                case "PL":
-                    bounds[0] = 0;
-                    bounds[1] = POS_INF;
-                    break;
-                case "BV":
-                    varsIsInt.put(var, true);
-                    bounds[0] = 0;
-                    bounds[1] = 1;
-                    break;
-                case "UI":
-                    varsIsInt.put(var, true);
-                    if (val.matches("-?\\d+")) {
-                        bounds[1] = Integer.parseInt(val);
-                    } else {
-                        throw new ParserException("UI refers to double instead of int");
-                    }
-                    break;
-                case "LI":
-                    varsIsInt.put(var, true);
-                    if (val.matches("-?\\d+")) {
-                        bounds[0] = Integer.parseInt(val);
-                    } else {
-                        throw new ParserException("LI refers to double instead of int");
-                    }
-                    break;
-                case "SC":
-                    throw new ParserException("semi-continuous not supported");
-                default:
-                    throw new ParserException("Unknown identifier \"" + values[0] + "\"");
+                Variable[] sums = partialSums(model, vars, coefs);
+                if (sums != null) {
+                    vars = sums;
+                    coefs = new double[sums.length];
+                    Arrays.fill(coefs, 1d);
+                }
+                postEquation(model, vars, coefs, op, rhs, ranged, rng);
             }
-            br.mark(CACHING);
-            line = br.readLine();
         }
     }
 
-
-    private void build(Model model, boolean maximize, boolean ibex, boolean noeq) {
-        // First, create variables
-        for (int i = 0; i < allvars.size(); i++) {
-            String vnam = allvars.get(i);
-            Number[] bounds = varsDom.get(vnam);
-            if (varsIsInt.get(vnam)) {
-                if (bounds == null) {
-                    bounds = new Number[]{0, POS_INF};
+    /**
+     * Post the objective row <i>r</i>. The terms of the columns consumed by knapsacks are
+     * replaced by the energies of the knapsacks (see {@link #energies}).
+     */
+    private void postObjective(Model model, MPSProblem p, int r, IntVar[] energies, boolean[] consumed,
+                               boolean maximize, boolean ibex, boolean noeq) {
+        int from = p.rowStart[r], to = p.rowStart[r + 1];
+        double rhs = p.rhs[r];
+        boolean ranged = !Double.isNaN(p.ranges[r]);
+        if (p.isIntRow(r)) {
+            List<IntVar> vars = new ArrayList<>();
+            TIntArrayList coefs = new TIntArrayList();
+            for (int k = from; k < to; k++) {
+                if (!consumed[p.rowCols[k]]) {
+                    vars.add((IntVar) decVars[p.rowCols[k]]);
+                    coefs.add((int) p.rowValues[k]);
                 }
-                IntVar ivar = model.intVar(vnam, bounds[0].intValue(), bounds[1].intValue());
-                decVars.put(vnam, ivar);
+            }
+            for (IntVar energy : energies) {
+                if (energy != null) {
+                    vars.add(energy);
+                    coefs.add(maximize ? 1 : -1);
+                }
+            }
+            IntVar[] ivars = vars.toArray(new IntVar[0]);
+            int[] icoefs = coefs.toArray();
+            IntVar[] sums = intPartialSums(model, ivars, icoefs);
+            if (sums != null) {
+                ivars = sums;
+                icoefs = new int[sums.length];
+                Arrays.fill(icoefs, 1);
+            }
+            postIntObectiveFunction(model, ivars, icoefs, (int) rhs, ranged, objective(p, r),
+                    maximize, noeq);
+        } else {
+            Variable[] vars = new Variable[to - from];
+            double[] coefs = Arrays.copyOfRange(p.rowValues, from, to);
+            for (int k = from; k < to; k++) {
+                vars[k - from] = decVars[p.rowCols[k]];
+            }
+            if (ibex) {
+                postIbexObjectiveFunction(model, vars, coefs, rhs, ranged, objective(p, r), maximize);
             } else {
-                if (bounds == null) {
-                    bounds = new Number[]{0, POS_INF};
+                Variable[] sums = partialSums(model, vars, coefs);
+                if (sums != null) {
+                    vars = sums;
+                    coefs = new double[sums.length];
+                    Arrays.fill(coefs, 1d);
                 }
-                RealVar rvar = model.realVar(vnam, bounds[0].doubleValue(), bounds[1].doubleValue(), model.getPrecision());
-                decVars.put(vnam, rvar);
+                postObjectiveFunction(model, vars, coefs, rhs, ranged, objective(p, r), maximize);
             }
         }
-        // then create constraints
-        String[] cnames = vars4eq.keySet().toArray(new String[vars4eq.size()]);
-        Arrays.sort(cnames); // preserve order for determinism
-        boolean foundObj = false;
-        boolean unimod = true;
-        for (int i = 0; i < cnames.length; i++) {
-            String cnam = cnames[i];
-            List<Number> coefs = coeffs4eq.get(cnam);
-            unimod &= coefs.stream().allMatch(n -> (n.getClass() == Integer.class) && Math.abs(n.intValue()) == 1);
-            String op = ope4eq.get(cnam);
-            Number rhs = rhs4eq.get(cnam);
-            Number rng = range4eq.get(cnam);
-            if (rhs == null) rhs = 0;
-            List<String> vars = vars4eq.get(cnam);
-            if (vars.stream().allMatch(v -> varsIsInt.get(v))
-                    && coefs.stream().allMatch(n -> n.getClass() == Integer.class)
-                    && rhs.getClass() == Integer.class
-                    && (rng == null || rng.getClass() == Integer.class)) {
-                if (op == null) {
-                    foundObj = postIntObectiveFunction(model, vars, coefs, rhs, rng, maximize, foundObj, noeq);
-                } else {
-                    postIntEquation(model, vars, coefs, op, rhs, rng, noeq);
+    }
+
+    /**
+     * @return the profit of each column, that is, its objective coefficient, negated when
+     * minimizing, or {@code null} if there is no integer objective row
+     */
+    private static int[] profits(MPSProblem p, int obj, boolean maximize) {
+        if (obj < 0 || !p.isIntRow(obj)) {
+            return null;
+        }
+        int[] profits = new int[p.nbCols()];
+        for (int k = p.rowStart[obj]; k < p.rowStart[obj + 1]; k++) {
+            profits[p.rowCols[k]] = (maximize ? 1 : -1) * (int) p.rowValues[k];
+        }
+        return profits;
+    }
+
+    /**
+     * Link knapsack rows to an integer objective: when the profits of the columns of a knapsack
+     * are all non-negative, and these columns are not linked to another knapsack yet, they are
+     * the energies of the knapsack, and their part of the objective is replaced by the energy
+     * variable of the knapsack. Only knapsacks which are posted as such are linked, see
+     * {@link #weights}.
+     *
+     * @param consumed set to true for the columns linked to a knapsack
+     * @return the energy variable of each row, null if the row is not a linked knapsack
+     */
+    private static IntVar[] energies(Model model, MPSProblem p, int[] profits, MPSRowKind[] rowKinds,
+                                     boolean[] consumed) {
+        IntVar[] energies = new IntVar[p.nbRows()];
+        if (profits == null) {
+            return energies;
+        }
+        for (int r = 0; r < p.nbRows(); r++) {
+            if (rowKinds[r] != MPSRowKind.KNAPSACK) {
+                continue;
+            }
+            long sum = 0;
+            boolean linkable = true;
+            for (int k = p.rowStart[r]; k < p.rowStart[r + 1] && linkable; k++) {
+                int c = p.rowCols[k];
+                linkable = !consumed[c] && profits[c] >= 0;
+                sum += profits[c];
+            }
+            double[] weights = linkable ? weights(p, r) : null;
+            if (weights != null && weights[0] <= weights[1] && sum > 0 && sum <= IntVar.MAX_INT_BOUND) {
+                for (int k = p.rowStart[r]; k < p.rowStart[r + 1]; k++) {
+                    consumed[p.rowCols[k]] = true;
                 }
-            } else {
-                if (ibex) {
-                    // ibex function
-                    if (op == null) {
-                        // objective function
-                        foundObj = postIbexObjectiveFunction(model, vars, coefs, rhs, rng, maximize, foundObj);
-                    } else {
-                        postIbexEquation(model, vars, coefs, op, rhs, rng);
-                    }
+                energies[r] = model.intVar("KE_" + p.rowNames[r], 0, (int) sum, true);
+            }
+        }
+        return energies;
+    }
+
+    /**
+     * @return the bounds of the weight of knapsack row <i>r</i>, its coefficients taken in absolute
+     * value, or {@code null} if the sum of its weights does not fit an integer variable
+     */
+    private static double[] weights(MPSProblem p, int r) {
+        int from = p.rowStart[r], to = p.rowStart[r + 1];
+        long total = 0;
+        for (int k = from; k < to; k++) {
+            total += (long) Math.abs(p.rowValues[k]);
+        }
+        if (total > IntVar.MAX_INT_BOUND) {
+            return null;
+        }
+        // coefficients all have the same sign
+        boolean positive = p.rowValues[from] > 0;
+        double lo = p.lower(r), up = p.upper(r);
+        return new double[]{Math.max(0, positive ? lo : -up), Math.min(total, positive ? up : -lo)};
+    }
+
+    /**
+     * Post row <i>r</i> with a constraint dedicated to its kind.
+     *
+     * @param energy  energy of the row, if it is a knapsack linked to the objective
+     * @param profits profits of the columns, see {@link #profits}
+     * @return {@code false} if the row is to be posted as a generic scalar constraint
+     */
+    private boolean postStructured(Model model, MPSProblem p, int r, MPSRowKind kind, IntVar energy, int[] profits) {
+        int from = p.rowStart[r], to = p.rowStart[r + 1];
+        int n = to - from;
+        double lo = p.lower(r), up = p.upper(r);
+        switch (kind) {
+            case PARTITIONING:
+            case PACKING:
+            case COVERING:
+            case CARDINALITY: {
+                BoolVar[] vars = new BoolVar[n];
+                for (int k = from; k < to; k++) {
+                    vars[k - from] = (BoolVar) decVars[p.rowCols[k]];
+                }
+                // coefficients are all 1 or all -1
+                double l = p.rowValues[from] > 0 ? lo : -up;
+                double u = p.rowValues[from] > 0 ? up : -lo;
+                if (kind == MPSRowKind.COVERING) {
+                    model.addClausesBoolOrArrayEqualTrue(vars);
+                } else if (l == u) {
+                    model.sum(vars, "=", (int) l).post();
                 } else {
-                    if (op == null) {
-                        foundObj = postObjectiveFunction(model, vars, coefs, rhs, rng, maximize, foundObj);
-                    } else {
-                        postEquation(model, vars, coefs, op, rhs, rng);
+                    if (l > 0) {
+                        model.sum(vars, ">=", (int) l).post();
                     }
+                    if (u < n) {
+                        model.sum(vars, "<=", (int) u).post();
+                    }
+                }
+                return true;
+            }
+            case CLAUSE:
+            case IMPLICATION: {
+                List<BoolVar> pos = new ArrayList<>(), neg = new ArrayList<>();
+                for (int k = from; k < to; k++) {
+                    (p.rowValues[k] > 0 ? pos : neg).add((BoolVar) decVars[p.rowCols[k]]);
+                }
+                BoolVar[] ps = pos.toArray(new BoolVar[0]), ns = neg.toArray(new BoolVar[0]);
+                if (MPSRowKind.clause(lo, up, ps.length, ns.length) > 0) {
+                    model.addClauses(ps, ns);
+                } else {
+                    model.addClauses(ns, ps);
+                }
+                return true;
+            }
+            case KNAPSACK: {
+                if (energy == null) {
+                    // not linked to the objective, see energies()
+                    return false;
+                }
+                double[] bounds = weights(p, r);
+                IntVar[] vars = new IntVar[n];
+                int[] weights = new int[n];
+                int[] energies = new int[n];
+                for (int k = from; k < to; k++) {
+                    vars[k - from] = (IntVar) decVars[p.rowCols[k]];
+                    weights[k - from] = (int) Math.abs(p.rowValues[k]);
+                    energies[k - from] = profits[p.rowCols[k]];
                 }
+                IntVar weight = model.intVar("KW_" + p.rowNames[r], (int) bounds[0], (int) bounds[1], true);
+                model.knapsack(vars, weight, energy, weights, energies).post();
+                return true;
+            }
+            case VARIABLE_UPPER_BOUND: {
+                int i = MPSRowKind.vub(p, r);
+                IntVar x = (IntVar) decVars[p.rowCols[from + i]];
+                IntVar y = (IntVar) decVars[p.rowCols[from + 1 - i]];
+                // x <= u.y
+                int u = (int) Math.floor(Math.abs(p.rowValues[from + 1 - i] / p.rowValues[from + i]));
+                model.arithm(x, "<=", u).post();
+                model.ifThen(model.arithm(y, "=", 0), model.arithm(x, "=", 0));
+                return true;
             }
+            default:
+                return false;
         }
-        System.out.printf("c Unimodular: %s\n", unimod);
     }
 
-    private void postIntEquation(Model model, List<String> vars, List<Number> coefs, String op,
-                                 Number rhs, Number rng, boolean noeq) {
+    /**
+     * Replace the terms of a long integer row by partial sums over at most {@link #split} terms,
+     * recursively. Each partial sum is a variable bounded by the activity of its terms.
+     *
+     * @return the partial sums, or {@code null} if the row is not split
+     */
+    private IntVar[] intPartialSums(Model model, IntVar[] vars, int[] coefs) {
+        if (vars.length <= split) {
+            return null;
+        }
+        int n = (vars.length + split - 1) / split;
+        long[] mins = new long[n];
+        long[] maxs = new long[n];
+        for (int k = 0; k < vars.length; k++) {
+            long a = coefs[k];
+            mins[k / split] += a * (a > 0 ? vars[k].getLB() : vars[k].getUB());
+            maxs[k / split] += a * (a > 0 ? vars[k].getUB() : vars[k].getLB());
+        }
+        for (int i = 0; i < n; i++) {
+            if (mins[i] < IntVar.MIN_INT_BOUND || maxs[i] > IntVar.MAX_INT_BOUND) {
+                return null;
+            }
+        }
+        IntVar[] sums = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            int from = i * split, to = Math.min(from + split, vars.length);
+            if (to - from == 1 && coefs[from] == 1) {
+                sums[i] = vars[from];
+                continue;
+            }
+            sums[i] = model.intVar("PS_" + nbPartialSums++, (int) mins[i], (int) maxs[i], true);
+            model.scalar(
+                    ArrayUtils.append(Arrays.copyOfRange(vars, from, to), new IntVar[]{sums[i]}),
+                    ArrayUtils.concat(Arrays.copyOfRange(coefs, from, to), -1),
+                    "=", 0).post();
+        }
+        int[] ones = new int[n];
+        Arrays.fill(ones, 1);
+        IntVar[] upper = intPartialSums(model, sums, ones);
+        return upper != null ? upper : sums;
+    }
+
+    /**
+     * Replace the terms of a long row by partial sums over at most {@link #split} terms,
+     * recursively. Each partial sum is a real variable bounded by the activity of its terms.
+     *
+     * @return the partial sums, or {@code null} if the row is not split
+     */
+    private Variable[] partialSums(Model model, Variable[] vars, double[] coefs) {
+        if (vars.length <= split) {
+            return null;
+        }
+        int n = (vars.length + split - 1) / split;
+        Variable[] sums = new Variable[n];
+        for (int i = 0; i < n; i++) {
+            int from = i * split, to = Math.min(from + split, vars.length);
+            if (to - from == 1 && coefs[from] == 1) {
+                sums[i] = vars[from];
+                continue;
+            }
+            double min = 0, max = 0;
+            for (int k = from; k < to; k++) {
+                double a = coefs[k];
+                min += a * (a > 0 ? lb(vars[k]) : ub(vars[k]));
+                max += a * (a > 0 ? ub(vars[k]) : lb(vars[k]));
+            }
+            double prec = model.getPrecision();
+            sums[i] = model.realVar("PS_" + nbPartialSums++, min - prec, max + prec, prec);
+            mixedScalar(
+                    ArrayUtils.append(Arrays.copyOfRange(vars, from, to), new Variable[]{sums[i]}),
+                    concat(Arrays.copyOfRange(coefs, from, to), -1d),
+                    "=", 0).post();
+        }
+        double[] ones = new double[n];
+        Arrays.fill(ones, 1d);
+        Variable[] upper = partialSums(model, sums, ones);
+        return upper != null ? upper : sums;
+    }
+
+    private static double lb(Variable var) {
+        return VariableUtils.isReal(var) ? var.asRealVar().getLB() : var.asIntVar().getLB();
+    }
+
+    private static double ub(Variable var) {
+        return VariableUtils.isReal(var) ? var.asRealVar().getUB() : var.asIntVar().getUB();
+    }
+
+    private static void postIntEquation(Model model, IntVar[] vars, int[] coefs, String op,
+                                        int rhs, boolean ranged, int rng, boolean noeq) {
         switch (op) {
             case "=":
-                if (rng == null) {
+                if (!ranged) {
                     // only made of int var, and all coeffs are int
-                    if(noeq) {
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), "<=", rhs.intValue()
-                        ).post();
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), ">=", rhs.intValue()
-                        ).post();
-                    }else{
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), op, rhs.intValue()
-                        ).post();
+                    if (noeq) {
+                        model.scalar(vars, coefs, "<=", rhs).post();
+                        model.scalar(vars, coefs, ">=", rhs).post();
+                    } else {
+                        model.scalar(vars, coefs, op, rhs).post();
                     }
                 } else {
-                    if (rng.intValue() > 0) {
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), ">=", rhs.intValue()
-                        ).post();
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), "<=",
-                                rhs.intValue() + rng.intValue()
-                        ).post();
+                    if (rng > 0) {
+                        model.scalar(vars, coefs, ">=", rhs).post();
+                        model.scalar(vars, coefs, "<=", rhs + rng).post();
                     } else {
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), "<=", rhs.intValue()
-                        ).post();
-                        model.scalar(vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new),
-                                coefs.stream().mapToInt(Number::intValue).toArray(), ">=",
-                                rhs.intValue() + rng.intValue()
-                        ).post();
+                        model.scalar(vars, coefs, "<=", rhs).post();
+                        model.scalar(vars, coefs, ">=", rhs + rng).post();
                     }
                 }
                 break;
             default:
                 // only made of int var, and all coeffs are int
-                model.scalar(
-                        vars.stream()
-                                .map(s -> (IntVar) decVars.get(s))
-                                .toArray(IntVar[]::new),
-                        coefs.stream()
-                                .mapToInt(Number::intValue)
-                                .toArray(),
-                        op,
-                        rhs.intValue()
-                ).post();
-                if (rng != null) {
+                model.scalar(vars, coefs, op, rhs).post();
+                if (ranged) {
                     String nop = ">=";
-                    int b = rhs.intValue();
+                    int b = rhs;
                     if (op.equals(">=")) {
                         nop = "<=";
-                        b += Math.abs(rng.intValue());
+                        b += Math.abs(rng);
                     } else {
-                        b -= Math.abs(rng.intValue());
+                        b -= Math.abs(rng);
                     }
-                    model.scalar(
-                            vars.stream()
-                                    .map(s -> (IntVar) decVars.get(s))
-                                    .toArray(IntVar[]::new),
-                            coefs.stream()
-                                    .mapToInt(Number::intValue)
-                                    .toArray(),
-                            nop,
-                            b
-                    ).post();
+                    model.scalar(vars, coefs, nop, b).post();
                 }
-
                 break;
         }
     }
 
-    private boolean postIntObectiveFunction(Model model, List<String> vars, List<Number> coefs,
-                                            Number rhs, Number rng,
-                                            boolean maximize, boolean foundObj, boolean noeq) {
-        if (foundObj) {
-            throw new ParserException("More than one objective function found");
-        } else if (rng != null) {
+    private void postIntObectiveFunction(Model model, IntVar[] vars, int[] coefs, int rhs, boolean ranged,
+                                         double[] bounds, boolean maximize, boolean noeq) {
+        if (ranged) {
             throw new ParserException("Range found for objective function");
         } else {
-            IntVar objective = model.intVar("OBJ", (int) Math.ceil(NEG_INF), (int) Math.floor(POS_INF));
+            IntVar objective = model.intVar("OBJ", (int) Math.ceil(bounds[0]), (int) Math.floor(bounds[1]));
             model.setObjective(maximize, objective);
-            IntVar[] ivars = vars.stream().map(s -> (IntVar) decVars.get(s)).toArray(IntVar[]::new);
-            if(noeq) {
-                model.scalar(
-                        ArrayUtils.append(ivars, new IntVar[]{objective}),
-                        ArrayUtils.concat(coefs.stream()
-                                .mapToInt(Number::intValue)
-                                .toArray(), -1),
-                        "<=",
-                        rhs.intValue()
-                ).post();
-                model.scalar(
-                        ArrayUtils.append(ivars, new IntVar[]{objective}),
-                        ArrayUtils.concat(coefs.stream()
-                                .mapToInt(Number::intValue)
-                                .toArray(), -1),
-                        ">=",
-                        rhs.intValue()
-                ).post();
-            }else{
-                model.scalar(
-                        ArrayUtils.append(ivars, new IntVar[]{objective}),
-                        ArrayUtils.concat(coefs.stream()
-                                .mapToInt(Number::intValue)
-                                .toArray(), -1),
-                        "=",
-                        rhs.intValue()
-                ).post();
-            }
-        }
-        return true;
+            IntVar[] ivars = ArrayUtils.append(vars, new IntVar[]{objective});
+            int[] icoefs = ArrayUtils.concat(coefs, -1);
+            if (noeq) {
+                model.scalar(ivars, icoefs, "<=", rhs).post();
+                model.scalar(ivars, icoefs, ">=", rhs).post();
+            } else {
+                model.scalar(ivars, icoefs, "=", rhs).post();
+            }
+        }
     }
 
     private static Constraint mixedScalar(Variable[] vars, double[] coefs, String op, double b) {
@@ -551,178 +940,126 @@ public class MPSParser {
     }
 
 
-    private void postEquation(Model model, List<String> vars, List<Number> coefs, String op,
-                              Number rhs, Number rng) {
+    private static void postEquation(Model model, Variable[] vars, double[] coefs, String op,
+                                     double rhs, boolean ranged, double rng) {
         switch (op) {
             case "=":
-                if (rng == null) {
-                    // only made of int var, and all coeffs are int
-                    mixedScalar(vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new),
-                            coefs.stream().mapToDouble(Number::doubleValue).toArray(), op, rhs.doubleValue()
-                    ).post();
+                if (!ranged) {
+                    mixedScalar(vars, coefs, op, rhs).post();
                 } else {
-                    if (rng.intValue() > 0) {
-                        mixedScalar(vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new),
-                                coefs.stream().mapToDouble(Number::doubleValue).toArray(), ">=", rhs.doubleValue()
-                        ).post();
-                        mixedScalar(vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new),
-                                coefs.stream().mapToDouble(Number::doubleValue).toArray(), "<=",
-                                rhs.doubleValue() + rng.doubleValue()
-                        ).post();
+                    if (rng > 0) {
+                        mixedScalar(vars, coefs, ">=", rhs).post();
+                        mixedScalar(vars, coefs, "<=", rhs + rng).post();
                     } else {
-                        mixedScalar(vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new),
-                                coefs.stream().mapToDouble(Number::doubleValue).toArray(), "<=", rhs.doubleValue()
-                        ).post();
-                        mixedScalar(vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new),
-                                coefs.stream().mapToDouble(Number::doubleValue).toArray(), ">=",
-                                rhs.doubleValue() + rng.doubleValue()
-                        ).post();
+                        mixedScalar(vars, coefs, "<=", rhs).post();
+                        mixedScalar(vars, coefs, ">=", rhs + rng).post();
                     }
                 }
                 break;
             default:
-                // only made of int var, and all coeffs are int
-                mixedScalar(
-                        vars.stream()
-                                .map(s -> decVars.get(s))
-                                .toArray(Variable[]::new),
-                        coefs.stream()
-                                .mapToDouble(Number::doubleValue)
-                                .toArray(),
-                        op,
-                        rhs.doubleValue()
-                ).post();
-                if (rng != null) {
+                mixedScalar(vars, coefs, op, rhs).post();
+                if (ranged) {
                     String nop = ">=";
-                    double b = rhs.doubleValue();
+                    double b = rhs;
                     if (op.equals(">=")) {
                         nop = "<=";
-                        b += Math.abs(rng.doubleValue());
+                        b += Math.abs(rng);
                     } else {
-                        b -= Math.abs(rng.doubleValue());
+                        b -= Math.abs(rng);
                     }
-                    mixedScalar(
-                            vars.stream()
-                                    .map(s -> decVars.get(s))
-                                    .toArray(Variable[]::new),
-                            coefs.stream()
-                                    .mapToDouble(Number::doubleValue)
-                                    .toArray(),
-                            nop,
-                            b
-                    ).post();
+                    mixedScalar(vars, coefs, nop, b).post();
                 }
                 break;
         }
     }
 
-    private boolean postObjectiveFunction(Model model, List<String> vars, List<Number> coefs,
-                                          Number rhs, Number rng,
-                                          boolean maximize, boolean foundObj) {
-        if (foundObj) {
-            throw new ParserException("More than one objective function found");
-        } else if (rng != null) {
+    private void postObjectiveFunction(Model model, Variable[] vars, double[] coefs, double rhs, boolean ranged,
+                                       double[] bounds, boolean maximize) {
+        if (ranged) {
             throw new ParserException("Range found for objective function");
         } else {
-            RealVar objective = model.realVar("OBJ", NEG_INF, POS_INF, model.getPrecision());
+            RealVar objective = model.realVar("OBJ", bounds[0], bounds[1], model.getPrecision());
             model.setObjective(maximize, objective);
-            Variable[] svars = vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new);
-            coefs.add(-1d);
             mixedScalar(
-                    ArrayUtils.append(svars, new RealVar[]{objective}),
-                    coefs.stream().mapToDouble(Number::doubleValue)
-                            .toArray(),
+                    ArrayUtils.append(vars, new RealVar[]{objective}),
+                    concat(coefs, -1d),
                     "=",
-                    rhs.doubleValue()).post();
-            coefs.remove(coefs.size() - 1);
+                    rhs).post();
         }
-        return true;
     }
 
-    private void postIbexEquation(Model model, List<String> vars, List<Number> coefs, String op,
-                                  Number rhs, Number rng) {
+    private static double[] concat(double[] coefs, double coef) {
+        double[] all = Arrays.copyOf(coefs, coefs.length + 1);
+        all[coefs.length] = coef;
+        return all;
+    }
+
+    private static void postIbexEquation(Model model, Variable[] vars, double[] coefs, String op,
+                                         double rhs, boolean ranged, double rng) {
         StringBuilder fct = new StringBuilder();
-        for (int j = 0; j < vars.size(); j++) {
+        for (int j = 0; j < vars.length; j++) {
             if (j > 0) fct.append('+');
-            fct.append('{').append(j).append('}').append("*").append(coefs.get(j).doubleValue());
+            fct.append('{').append(j).append('}').append("*").append(coefs[j]);
         }
         switch (op) {
             case "=":
-                if (rng == null) {
-                    fct.append(op).append(rhs.doubleValue());
-                    model.realIbexGenericConstraint(fct.toString(), vars.stream()
-                            .map(s -> decVars.get(s))
-                            .toArray(Variable[]::new)).post();
+                if (!ranged) {
+                    fct.append(op).append(rhs);
+                    model.realIbexGenericConstraint(fct.toString(), vars).post();
                 } else {
-                    if (rng.intValue() > 0) {
-                        model.realIbexGenericConstraint(fct.toString() + ">=" + rhs.doubleValue(),
-                                vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new)).post();
-                        model.realIbexGenericConstraint(fct.toString() + "<=" +
-                                        rhs.doubleValue() + rng.doubleValue(),
-                                vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new)).post();
+                    if (rng > 0) {
+                        model.realIbexGenericConstraint(fct.toString() + ">=" + rhs, vars).post();
+                        model.realIbexGenericConstraint(fct.toString() + "<=" + (rhs + rng), vars).post();
                     } else {
-                        model.realIbexGenericConstraint(fct.toString() + "<=" + rhs.doubleValue(),
-                                vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new)).post();
-                        model.realIbexGenericConstraint(fct.toString() + ">=" +
-                                        rhs.doubleValue() + rng.doubleValue(),
-                                vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new)).post();
+                        model.realIbexGenericConstraint(fct.toString() + "<=" + rhs, vars).post();
+                        model.realIbexGenericConstraint(fct.toString() + ">=" + (rhs + rng), vars).post();
                     }
                 }
                 break;
             default:
-                fct.append(op).append(rhs.doubleValue());
-                model.realIbexGenericConstraint(fct.toString(), vars.stream()
-                        .map(s -> decVars.get(s))
-                        .toArray(Variable[]::new)).post();
-                if (rng != null) {
+                fct.append(op).append(rhs);
+                model.realIbexGenericConstraint(fct.toString(), vars).post();
+                if (ranged) {
                     String nop = ">=";
-                    double b = rhs.doubleValue();
+                    double b = rhs;
                     if (op.equals(">=")) {
                         nop = "<=";
-                        b += Math.abs(rng.doubleValue());
+                        b += Math.abs(rng);
                     } else {
-                        b -= Math.abs(rng.doubleValue());
+                        b -= Math.abs(rng);
                     }
                     fct.append(nop).append(b);
-                    model.realIbexGenericConstraint(fct.toString(), vars.stream()
-                            .map(s -> decVars.get(s))
-                            .toArray(Variable[]::new)).post();
+                    model.realIbexGenericConstraint(fct.toString(), vars).post();
                 }
                 break;
         }
 
     }
 
-    private boolean postIbexObjectiveFunction(Model model, List<String> vars, List<Number> coefs,
-                                              Number rhs, Number rng,
-                                              boolean maximize, boolean foundObj) {
-        if (foundObj) {
-            throw new ParserException("More than one objective function found");
-        } else if (rng != null) {
+    private void postIbexObjectiveFunction(Model model, Variable[] vars, double[] coefs, double rhs, boolean ranged,
+                                           double[] bounds, boolean maximize) {
+        if (ranged) {
             throw new ParserException("Range found for objective function");
         } else {
             StringBuilder fct = new StringBuilder();
-            for (int j = 0; j < vars.size(); j++) {
+            for (int j = 0; j < vars.length; j++) {
                 if (j > 0) fct.append('+');
-                fct.append('{').append(j).append('}').append("*").append(coefs.get(j).doubleValue());
+                fct.append('{').append(j).append('}').append("*").append(coefs[j]);
             }
-            RealVar objective = model.realVar("OBJ", NEG_INF, POS_INF, model.getPrecision());
+            RealVar objective = model.realVar("OBJ", bounds[0], bounds[1], model.getPrecision());
             model.setObjective(maximize, objective);
-            fct.append('=').append('{').append(vars.size()).append('}').append('+').append(rhs.doubleValue());
-            Variable[] svars = vars.stream().map(s -> decVars.get(s)).toArray(Variable[]::new);
+            fct.append('=').append('{').append(vars.length).append('}').append('+').append(rhs);
             model.realIbexGenericConstraint(fct.toString(),
-                    ArrayUtils.append(svars, new Variable[]{objective})).post();
+                    ArrayUtils.append(vars, new Variable[]{objective})).post();
         }
-        return true;
     }
 
 
     public String printSolution() {
         StringBuilder st = new StringBuilder();
-        for (int i = 0; i < allvars.size(); i++) {
-            String vnam = allvars.get(i);
-            st.append(vnam).append('\t');
-            Variable var = decVars.get(vnam);
+        for (int c = 0; c < decVars.length; c++) {
+            st.append(problem.colNames[c]).append('\t');
+            Variable var = decVars[c];
             if (VariableUtils.isReal(var)) {
                 st.append(var.asRealVar().getLB());
             } else {
@@ -733,5 +1070,3 @@ public class MPSParser {
         return st.toString();
     }
 }
-
-
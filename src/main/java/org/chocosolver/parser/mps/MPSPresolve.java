@@ -0,0 +1,752 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.parser.ParserException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Presolve of an {@link MPSProblem}, before it is posted to a model.
+ * <p>
+ * Rows are turned into <i>lo &le; a.x &le; up</i>, then passes are applied in rounds, until
+ * nothing changes:
+ * <ul>
+ * <li>{@link Pass#FIXED}: fixed columns are substituted in the rows,</li>
+ * <li>{@link Pass#SCALE}: rows over integer columns are scaled to integer coefficients, when
+ * their coefficients are exact fractions, then divided by the GCD of their coefficients, and
+ * their bounds are rounded,</li>
+ * <li>{@link Pass#EMPTY}: empty rows are checked and removed,</li>
+ * <li>{@link Pass#SINGLETON}: rows with one entry are turned into bounds of their column,</li>
+ * <li>{@link Pass#BOUNDS}: the bounds of integer columns are tightened from the activity of
+ * the rows, and rows which cannot be violated are removed,</li>
+ * <li>{@link Pass#DUPLICATE}: parallel rows are merged into the one declared first, which keeps
+ * the tightest bounds, so duplicate and dominated rows are removed,</li>
+ * <li>{@link Pass#COEFFICIENT}: coefficients of binary columns in one-sided integer rows are
+ * tightened,</li>
+ * <li>{@link Pass#IMPLIED}: continuous columns which can only take integral values are made
+ * integer.</li>
+ * </ul>
+ * Bounds of continuous columns are only changed by singleton rows, which is exact.
+ * Columns are never removed, so that solutions can be printed as declared; objective rows are
+ * left untouched. The last pass, {@link Pass#OBJECTIVE}, is applied by {@link MPSParser}: the
+ * domain of the objective variable is computed from the bounds of the columns.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class MPSPresolve {
+
+    /**
+     * Passes of the presolve, each of them can be disabled
+     */
+    public enum Pass {
+        EMPTY, SINGLETON, FIXED, SCALE, BOUNDS, DUPLICATE, COEFFICIENT, IMPLIED, OBJECTIVE
+    }
+
+    private static final double EPS = 1e-9;
+    /**
+     * Tolerance on bounds of integer columns, before rounding
+     */
+    private static final double INT_EPS = 1e-6;
+    /**
+     * Bounds of integer columns are not tightened beyond this value, to fit in an int
+     */
+    private static final double MAX_INT = 1e9;
+    /**
+     * Rows are not scaled by a larger factor
+     */
+    private static final long MAX_SCALE = 1_000_000;
+    private static final int MAX_ROUNDS = 20;
+
+    private final MPSProblem problem;
+    private final EnumSet<Pass> passes;
+
+    private final int[][] cols;
+    private final double[][] vals;
+    private final int[] size;
+    private final double[] lo;
+    private final double[] up;
+    private final boolean[] alive;
+    private final double[] lbs;
+    private final double[] ubs;
+    private final boolean[] colInt;
+    private boolean infeasible;
+    private MPSProblem result;
+
+    private int rounds;
+    private int fixed;
+    private int bounds;
+    private int empty;
+    private int singleton;
+    private int redundant;
+    private int duplicate;
+    private int coefficients;
+    private int scaled;
+    private int implied;
+
+    /**
+     * Prepare the presolve of <i>problem</i>, which is not modified.
+     *
+     * @param problem a problem
+     * @param passes  passes to apply
+     */
+    public MPSPresolve(MPSProblem problem, EnumSet<Pass> passes) {
+        this.problem = problem;
+        this.passes = passes;
+        int n = problem.nbRows();
+        cols = new int[n][];
+        vals = new double[n][];
+        size = new int[n];
+        lo = new double[n];
+        up = new double[n];
+        alive = new boolean[n];
+        for (int r = 0; r < n; r++) {
+            int from = problem.rowStart[r], to = problem.rowStart[r + 1];
+            cols[r] = Arrays.copyOfRange(problem.rowCols, from, to);
+            vals[r] = Arrays.copyOfRange(problem.rowValues, from, to);
+            size[r] = to - from;
+            alive[r] = true;
+            lo[r] = problem.lower(r);
+            up[r] = problem.upper(r);
+        }
+        lbs = problem.lbs.clone();
+        ubs = problem.ubs.clone();
+        colInt = problem.colInt.clone();
+    }
+
+    /**
+     * Parse a list of passes.
+     *
+     * @param list "all", "none" or comma-separated names of passes, case insensitive
+     * @return the passes
+     */
+    public static EnumSet<Pass> passes(String list) {
+        String l = list.trim().toUpperCase(Locale.ROOT);
+        if (l.equals("ALL")) {
+            return EnumSet.allOf(Pass.class);
+        }
+        EnumSet<Pass> passes = EnumSet.noneOf(Pass.class);
+        if (l.equals("NONE") || l.isEmpty()) {
+            return passes;
+        }
+        for (String name : l.split(",")) {
+            try {
+                passes.add(Pass.valueOf(name.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new ParserException("Unknown presolve pass \"" + name.trim() + "\"");
+            }
+        }
+        return passes;
+    }
+
+    /**
+     * Apply the passes, once: later calls return the same problem.
+     *
+     * @return the presolved problem, or the problem itself if it is proven infeasible
+     */
+    public MPSProblem apply() {
+        if (result != null) {
+            return result;
+        }
+        boolean changed = true;
+        while (changed && !infeasible && rounds < MAX_ROUNDS) {
+            rounds++;
+            changed = false;
+            for (int r = 0; r < problem.nbRows() && !infeasible; r++) {
+                if (alive[r] && problem.rowTypes[r] != MPSProblem.N) {
+                    changed |= row(r);
+                }
+            }
+            if (passes.contains(Pass.DUPLICATE) && !infeasible) {
+                changed |= duplicates();
+            }
+            if (passes.contains(Pass.IMPLIED) && !infeasible) {
+                changed |= implied();
+            }
+        }
+        for (int c = 0; c < problem.nbCols(); c++) {
+            if (lbs[c] == ubs[c]) {
+                fixed++;
+            }
+        }
+        result = infeasible ? problem : reduce();
+        return result;
+    }
+
+    /**
+     * @return the problem to presolve
+     */
+    public MPSProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return the passes to apply
+     */
+    public EnumSet<Pass> getPasses() {
+        return EnumSet.copyOf(passes);
+    }
+
+    /**
+     * @return {@code true} if the problem is proven infeasible
+     */
+    public boolean isInfeasible() {
+        return infeasible;
+    }
+
+    private boolean row(int r) {
+        boolean changed = false;
+        if (passes.contains(Pass.FIXED)) {
+            changed = substitute(r);
+        }
+        if (passes.contains(Pass.SCALE)) {
+            changed |= scale(r);
+            if (infeasible) {
+                return false;
+            }
+        }
+        if (size[r] == 0 && passes.contains(Pass.EMPTY)) {
+            if (lo[r] > tolerance(lo[r]) || up[r] < -tolerance(up[r])) {
+                infeasible = true;
+            }
+            alive[r] = false;
+            empty++;
+            return true;
+        }
+        if (size[r] == 1 && passes.contains(Pass.SINGLETON)) {
+            int c = cols[r][0];
+            double a = vals[r][0];
+            boolean exact = a > 0 ? tighten(c, lo[r] / a, up[r] / a) : tighten(c, up[r] / a, lo[r] / a);
+            if (exact) {
+                alive[r] = false;
+                singleton++;
+                return true;
+            }
+        }
+        if (passes.contains(Pass.BOUNDS)) {
+            changed |= activity(r);
+        }
+        if (alive[r] && passes.contains(Pass.COEFFICIENT)) {
+            changed |= coefficients(r);
+        }
+        return changed;
+    }
+
+    /**
+     * Substitute the fixed columns of row <i>r</i>
+     */
+    private boolean substitute(int r) {
+        int k = 0;
+        for (int i = 0; i < size[r]; i++) {
+            int c = cols[r][i];
+            if (lbs[c] == ubs[c]) {
+                double v = vals[r][i] * lbs[c];
+                lo[r] -= v;
+                up[r] -= v;
+            } else {
+                cols[r][k] = c;
+                vals[r][k++] = vals[r][i];
+            }
+        }
+        boolean changed = k < size[r];
+        size[r] = k;
+        return changed;
+    }
+
+    /**
+     * Scale row <i>r</i>, if all its columns are integer: its coefficients are multiplied by the
+     * least common multiple of their denominators, then divided by their GCD; its bounds are
+     * rounded, as the activity of the row is integral.
+     */
+    private boolean scale(int r) {
+        long lcm = 1;
+        for (int i = 0; i < size[r]; i++) {
+            long q = colInt[cols[r][i]] ? denominator(vals[r][i]) : 0;
+            if (q == 0) {
+                return false;
+            }
+            lcm = lcm / gcd(lcm, q) * q;
+            if (lcm > MAX_SCALE) {
+                return false;
+            }
+        }
+        long[] a = new long[size[r]];
+        long gcd = 0;
+        for (int i = 0; i < size[r]; i++) {
+            double v = Math.rint(vals[r][i] * lcm);
+            if (Math.abs(v) > MAX_INT) {
+                return false;
+            }
+            a[i] = (long) v;
+            gcd = gcd(gcd, Math.abs(a[i]));
+        }
+        if (gcd == 0) {
+            // all coefficients are rounded to 0
+            return false;
+        }
+        double f = (double) lcm / gcd;
+        double l = Math.ceil(lo[r] * f - INT_EPS);
+        double u = Math.floor(up[r] * f + INT_EPS);
+        if (Math.abs(l) > MAX_INT && l != Double.NEGATIVE_INFINITY
+                || Math.abs(u) > MAX_INT && u != Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        boolean changed = f != 1 || l != lo[r] || u != up[r];
+        for (int i = 0; i < size[r]; i++) {
+            vals[r][i] = a[i] / gcd;
+        }
+        lo[r] = l;
+        up[r] = u;
+        if (l > u) {
+            infeasible = true;
+        }
+        if (changed) {
+            scaled++;
+        }
+        return changed;
+    }
+
+    /**
+     * @return the smallest <i>q &le; {@link #MAX_SCALE}</i> such that <i>a.q</i> is integral, found
+     * among the convergents of the continued fraction of <i>a</i>, 0 if none
+     */
+    private static long denominator(double a) {
+        double x = Math.abs(a);
+        if (x > MAX_INT) {
+            return 0;
+        }
+        long p0 = 0, q0 = 1, p1 = 1, q1 = 0;
+        double f = x;
+        while (true) {
+            long n = (long) Math.floor(f);
+            long p = n * p1 + p0, q = n * q1 + q0;
+            if (q > MAX_SCALE) {
+                return 0;
+            }
+            if (Math.abs(x * q - p) <= EPS * Math.max(1, x * q)) {
+                return q;
+            }
+            p0 = p1;
+            q0 = q1;
+            p1 = p;
+            q1 = q;
+            if (f == n) {
+                return 0;
+            }
+            f = 1 / (f - n);
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Restrict the bounds of column <i>c</i> to [<i>l</i>, <i>u</i>]
+     *
+     * @return {@code false} if a bound is too large to be set
+     */
+    private boolean tighten(int c, double l, double u) {
+        boolean isInt = colInt[c];
+        if (isInt) {
+            l = Math.ceil(l - INT_EPS);
+            u = Math.floor(u + INT_EPS);
+        }
+        boolean exact = true;
+        boolean changed = false;
+        if (l > lbs[c] + EPS) {
+            if (isInt && l > MAX_INT) {
+                exact = false;
+            } else {
+                lbs[c] = l;
+                changed = true;
+            }
+        }
+        if (u < ubs[c] - EPS) {
+            if (isInt && u < -MAX_INT) {
+                exact = false;
+            } else {
+                ubs[c] = u;
+                changed = true;
+            }
+        }
+        if (lbs[c] > ubs[c] + EPS) {
+            infeasible = true;
+        } else if (lbs[c] > ubs[c]) {
+            ubs[c] = lbs[c];
+        }
+        if (changed) {
+            bounds++;
+        }
+        return exact;
+    }
+
+    /**
+     * Tighten the bounds of the integer columns of row <i>r</i> from its activity,
+     * or remove the row if it cannot be violated
+     */
+    private boolean activity(int r) {
+        double min = 0, max = 0;
+        int minInf = 0, maxInf = 0;
+        for (int i = 0; i < size[r]; i++) {
+            int c = cols[r][i];
+            double a = vals[r][i];
+            double l = a > 0 ? lbs[c] : ubs[c];
+            double u = a > 0 ? ubs[c] : lbs[c];
+            if (Double.isInfinite(l)) minInf++;
+            else min += a * l;
+            if (Double.isInfinite(u)) maxInf++;
+            else max += a * u;
+        }
+        if ((minInf == 0 && min > up[r] + tolerance(up[r])) || (maxInf == 0 && max < lo[r] - tolerance(lo[r]))) {
+            infeasible = true;
+            return false;
+        }
+        if ((lo[r] == Double.NEGATIVE_INFINITY || (minInf == 0 && min >= lo[r] - EPS))
+                && (up[r] == Double.POSITIVE_INFINITY || (maxInf == 0 && max <= up[r] + EPS))) {
+            alive[r] = false;
+            redundant++;
+            return true;
+        }
+        int before = bounds;
+        for (int i = 0; i < size[r] && !infeasible; i++) {
+            int c = cols[r][i];
+            if (!colInt[c]) {
+                continue;
+            }
+            double a = vals[r][i];
+            double l = a > 0 ? lbs[c] : ubs[c];
+            double u = a > 0 ? ubs[c] : lbs[c];
+            // activity of the other entries
+            double rmin = residual(min, minInf, a, l);
+            double rmax = residual(max, maxInf, a, u);
+            double nl = Double.NEGATIVE_INFINITY, nu = Double.POSITIVE_INFINITY;
+            if (a > 0) {
+                if (up[r] != Double.POSITIVE_INFINITY && !Double.isNaN(rmin)) nu = (up[r] - rmin) / a;
+                if (lo[r] != Double.NEGATIVE_INFINITY && !Double.isNaN(rmax)) nl = (lo[r] - rmax) / a;
+            } else {
+                if (lo[r] != Double.NEGATIVE_INFINITY && !Double.isNaN(rmax)) nu = (lo[r] - rmax) / a;
+                if (up[r] != Double.POSITIVE_INFINITY && !Double.isNaN(rmin)) nl = (up[r] - rmin) / a;
+            }
+            tighten(c, nl, nu);
+        }
+        return bounds > before;
+    }
+
+    /**
+     * @return the activity of a row without an entry <i>a.b</i>, NaN if it is unbounded
+     */
+    private static double residual(double act, int inf, double a, double b) {
+        if (Double.isInfinite(b)) {
+            return inf == 1 ? act : Double.NaN;
+        }
+        return inf == 0 ? act - a * b : Double.NaN;
+    }
+
+    private static double tolerance(double v) {
+        return 1e-6 * Math.max(1, Math.abs(v));
+    }
+
+    /**
+     * Tighten the coefficients of the binary columns of row <i>r</i>, when it is a one-sided
+     * integer row <i>a.x &le; b</i>: if <i>a_j &gt; 0</i> and the row is satisfied whatever the
+     * others are when <i>x_j = 0</i>, <i>a_j</i> and <i>b</i> are decreased by the slack <i>d</i>;
+     * if <i>a_j &lt; 0</i> and the row is satisfied when <i>x_j = 1</i>, <i>a_j</i> is increased
+     * by <i>d</i>.
+     */
+    private boolean coefficients(int r) {
+        double sign;
+        double b;
+        if (lo[r] == Double.NEGATIVE_INFINITY && up[r] != Double.POSITIVE_INFINITY) {
+            sign = 1;
+            b = up[r];
+        } else if (up[r] == Double.POSITIVE_INFINITY && lo[r] != Double.NEGATIVE_INFINITY) {
+            sign = -1;
+            b = -lo[r];
+        } else {
+            return false;
+        }
+        if (!integral(b)) {
+            return false;
+        }
+        double max = 0;
+        for (int i = 0; i < size[r]; i++) {
+            int c = cols[r][i];
+            double a = sign * vals[r][i];
+            if (!colInt[c] || !integral(a)) {
+                return false;
+            }
+            double u = a > 0 ? ubs[c] : lbs[c];
+            if (Double.isInfinite(u)) {
+                return false;
+            }
+            max += a * u;
+        }
+        int before = coefficients;
+        int k = 0;
+        for (int i = 0; i < size[r]; i++) {
+            int c = cols[r][i];
+            double a = sign * vals[r][i];
+            if (lbs[c] == 0 && ubs[c] == 1 && max > b) {
+                if (a > 0 && max - a < b) {
+                    double d = b - (max - a);
+                    a -= d;
+                    b -= d;
+                    max -= d;
+                    coefficients++;
+                } else if (a < 0 && max + a < b) {
+                    a += b - (max + a);
+                    coefficients++;
+                }
+            }
+            if (a != 0) {
+                cols[r][k] = c;
+                vals[r][k++] = sign * a;
+            }
+        }
+        size[r] = k;
+        if (sign > 0) {
+            up[r] = b;
+        } else {
+            lo[r] = -b;
+        }
+        return coefficients > before;
+    }
+
+    private static boolean integral(double v) {
+        return v == Math.rint(v);
+    }
+
+    /**
+     * Merge parallel rows: the first one declared keeps the intersection of their bounds
+     */
+    private boolean duplicates() {
+        Map<Parallel, Integer> rows = new HashMap<>();
+        boolean changed = false;
+        for (int r = 0; r < problem.nbRows() && !infeasible; r++) {
+            if (!alive[r] || problem.rowTypes[r] == MPSProblem.N || size[r] == 0) {
+                continue;
+            }
+            Integer s = rows.putIfAbsent(new Parallel(r), r);
+            if (s == null) {
+                continue;
+            }
+            // r = t.s
+            double t = vals[r][0] / vals[s][0];
+            double l = t > 0 ? lo[r] / t : up[r] / t;
+            double u = t > 0 ? up[r] / t : lo[r] / t;
+            if (isIntRow(s)) {
+                l = Math.ceil(l - INT_EPS);
+                u = Math.floor(u + INT_EPS);
+            }
+            lo[s] = Math.max(lo[s], l);
+            up[s] = Math.min(up[s], u);
+            if (lo[s] > up[s] + tolerance(up[s])) {
+                infeasible = true;
+            } else if (lo[s] > up[s]) {
+                up[s] = lo[s];
+            }
+            alive[r] = false;
+            duplicate++;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Make integer the continuous columns which are implied integer: in an equality row whose
+     * other columns are integer, a column <i>x</i> of coefficient <i>a</i> is integral if the other
+     * coefficients and the right-hand side are multiples of <i>a</i>.
+     */
+    private boolean implied() {
+        boolean changed = false;
+        for (int r = 0; r < problem.nbRows() && !infeasible; r++) {
+            if (!alive[r] || problem.rowTypes[r] == MPSProblem.N || lo[r] != up[r]) {
+                continue;
+            }
+            int k = -1;
+            for (int i = 0; i < size[r] && k > -2; i++) {
+                if (!colInt[cols[r][i]]) {
+                    k = k == -1 ? i : -2;
+                }
+            }
+            if (k < 0) {
+                continue;
+            }
+            int c = cols[r][k];
+            double a = vals[r][k];
+            boolean multiple = nearlyIntegral(lo[r] / a)
+                    && (Double.isInfinite(lbs[c]) || Math.abs(lbs[c]) <= MAX_INT)
+                    && (Double.isInfinite(ubs[c]) || Math.abs(ubs[c]) <= MAX_INT);
+            for (int i = 0; i < size[r] && multiple; i++) {
+                multiple = nearlyIntegral(vals[r][i] / a);
+            }
+            if (multiple) {
+                colInt[c] = true;
+                tighten(c, lbs[c], ubs[c]);
+                implied++;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean nearlyIntegral(double v) {
+        return Math.abs(v - Math.rint(v)) <= EPS * Math.max(1, Math.abs(v));
+    }
+
+    private boolean isIntRow(int r) {
+        for (int i = 0; i < size[r]; i++) {
+            if (!colInt[cols[r][i]] || !integral(vals[r][i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the problem made of the remaining rows and the tightened bounds
+     */
+    private MPSProblem reduce() {
+        MPSProblem.Builder builder = new MPSProblem.Builder();
+        builder.setName(problem.name);
+        builder.setMaximize(problem.maximize);
+        for (int c = 0; c < problem.nbCols(); c++) {
+            builder.addCol(problem.colNames[c]);
+            builder.setType(c, colInt[c]);
+            builder.setLb(c, lbs[c]);
+            builder.setUb(c, ubs[c]);
+        }
+        for (int r = 0; r < problem.nbRows(); r++) {
+            if (!alive[r]) {
+                continue;
+            }
+            char type = problem.rowTypes[r];
+            if (type == MPSProblem.N) {
+                int i = builder.addRow(problem.rowNames[r], type);
+                builder.setRhs(i, problem.rhs[r], problem.rowIntegral[r]);
+                for (int k = 0; k < size[r]; k++) {
+                    builder.addEntry(i, cols[r][k], vals[r][k], problem.rowIntegral[r]);
+                }
+                continue;
+            }
+            boolean lower = lo[r] != Double.NEGATIVE_INFINITY;
+            boolean upper = up[r] != Double.POSITIVE_INFINITY;
+            if (!lower && !upper) {
+                continue;
+            }
+            double rhs;
+            double rng = Double.NaN;
+            if (lower && upper && lo[r] == up[r]) {
+                type = MPSProblem.E;
+                rhs = lo[r];
+            } else if (lower) {
+                type = MPSProblem.G;
+                rhs = lo[r];
+                if (upper) {
+                    rng = up[r] - lo[r];
+                }
+            } else {
+                type = MPSProblem.L;
+                rhs = up[r];
+            }
+            int i = builder.addRow(problem.rowNames[r], type);
+            builder.setRhs(i, rhs, integral(rhs));
+            if (!Double.isNaN(rng)) {
+                builder.setRange(i, rng, integral(rng));
+            }
+            for (int k = 0; k < size[r]; k++) {
+                builder.addEntry(i, cols[r][k], vals[r][k], integral(vals[r][k]));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return presolve statistics, on a single line
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "presolve rounds=%d fixed=%d bounds=%d empty=%d singleton=%d "
+                        + "redundant=%d duplicate=%d coefficients=%d scaled=%d implied=%d%s",
+                rounds, fixed, bounds, empty, singleton, redundant, duplicate, coefficients, scaled, implied,
+                infeasible ? " infeasible" : "");
+    }
+
+    /**
+     * @return the number of rows changed by {@link Pass#SCALE}
+     */
+    public int getScaledRows() {
+        return scaled;
+    }
+
+    /**
+     * @return the number of continuous columns made integer by {@link Pass#IMPLIED}
+     */
+    public int getImpliedIntegers() {
+        return implied;
+    }
+
+    public int getRemovedRows() {
+        return empty + singleton + redundant + duplicate;
+    }
+
+    /**
+     * Key of a row, equal to the key of the rows which are parallel to it,
+     * that is, over the same columns with proportional coefficients
+     */
+    private final class Parallel {
+        final int r;
+        final int hash;
+
+        Parallel(int r) {
+            this.r = r;
+            int h = size[r];
+            for (int i = 0; i < size[r]; i++) {
+                h = 31 * h + cols[r][i];
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Parallel)) {
+                return false;
+            }
+            int s = ((Parallel) o).r;
+            if (size[r] != size[s]) {
+                return false;
+            }
+            double t = vals[r][0] / vals[s][0];
+            for (int i = 0; i < size[r]; i++) {
+                if (cols[r][i] != cols[s][i] || Math.abs(vals[r][i] - t * vals[s][i]) > EPS * Math.abs(vals[r][i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
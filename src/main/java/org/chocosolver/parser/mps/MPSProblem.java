@@ -0,0 +1,510 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.parser.ParserException;
+
+import java.util.Arrays;
+
+/**
+ * A mixed integer linear program, as declared in an MPS file.
+ * <p>
+ * Rows and columns are indexed densely, in declaration order. The matrix of coefficients is
+ * stored twice, in primitive arrays: by rows (CSR: {@link #rowStart}, {@link #rowCols},
+ * {@link #rowValues}) and by columns (CSC: {@link #colStart}, {@link #colRows},
+ * {@link #colValues}). The entries of row <i>r</i> are at indices
+ * <i>rowStart[r]</i> to <i>rowStart[r+1]</i> (exclusive), in column order.
+ * <p>
+ * A row is said integral when its coefficients, right-hand side and range are all written as
+ * integers in the file. Unbounded values are infinite doubles.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class MPSProblem {
+
+    /**
+     * Type of objective rows
+     */
+    public static final char N = 'N';
+    /**
+     * Type of equality rows
+     */
+    public static final char E = 'E';
+    /**
+     * Type of less-or-equal rows
+     */
+    public static final char L = 'L';
+    /**
+     * Type of greater-or-equal rows
+     */
+    public static final char G = 'G';
+
+    /**
+     * Absolute values from which a bound is considered infinite
+     */
+    public static final double INFINITY = 1e30;
+
+    public final String name;
+    /**
+     * Set to true if the objective is declared to be maximized, as in LP files
+     */
+    public final boolean maximize;
+
+    public final String[] rowNames;
+    public final char[] rowTypes;
+    public final double[] rhs;
+    /**
+     * Range of each row, {@code NaN} if none
+     */
+    public final double[] ranges;
+    public final boolean[] rowIntegral;
+
+    public final String[] colNames;
+    public final boolean[] colInt;
+    public final double[] lbs;
+    public final double[] ubs;
+
+    public final int[] rowStart;
+    public final int[] rowCols;
+    public final double[] rowValues;
+
+    public final int[] colStart;
+    public final int[] colRows;
+    public final double[] colValues;
+
+    MPSProblem(String name, boolean maximize, String[] rowNames, char[] rowTypes, double[] rhs, double[] ranges, boolean[] rowIntegral,
+               String[] colNames, boolean[] colInt, double[] lbs, double[] ubs,
+               int[] rowStart, int[] rowCols, double[] rowValues,
+               int[] colStart, int[] colRows, double[] colValues) {
+        this.name = name;
+        this.maximize = maximize;
+        this.rowNames = rowNames;
+        this.rowTypes = rowTypes;
+        this.rhs = rhs;
+        this.ranges = ranges;
+        this.rowIntegral = rowIntegral;
+        this.colNames = colNames;
+        this.colInt = colInt;
+        this.lbs = lbs;
+        this.ubs = ubs;
+        this.rowStart = rowStart;
+        this.rowCols = rowCols;
+        this.rowValues = rowValues;
+        this.colStart = colStart;
+        this.colRows = colRows;
+        this.colValues = colValues;
+    }
+
+    /**
+     * @return the number of rows, objective rows included
+     */
+    public int nbRows() {
+        return rowNames.length;
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int nbCols() {
+        return colNames.length;
+    }
+
+    /**
+     * @return the number of non-zero coefficients
+     */
+    public int nbEntries() {
+        return rowCols.length;
+    }
+
+    /**
+     * @return the number of entries of row <i>r</i>
+     */
+    public int rowSize(int r) {
+        return rowStart[r + 1] - rowStart[r];
+    }
+
+    /**
+     * @return the lower bound of the activity of row <i>r</i>, as set by its type, right-hand side
+     * and range, {@link Double#NEGATIVE_INFINITY} if none
+     */
+    public double lower(int r) {
+        boolean ranged = !Double.isNaN(ranges[r]);
+        switch (rowTypes[r]) {
+            case E:
+                return ranged && ranges[r] < 0 ? rhs[r] + ranges[r] : rhs[r];
+            case L:
+                return ranged ? rhs[r] - Math.abs(ranges[r]) : Double.NEGATIVE_INFINITY;
+            case G:
+                return rhs[r];
+            default:
+                return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * @return the upper bound of the activity of row <i>r</i>, as set by its type, right-hand side
+     * and range, {@link Double#POSITIVE_INFINITY} if none
+     */
+    public double upper(int r) {
+        boolean ranged = !Double.isNaN(ranges[r]);
+        switch (rowTypes[r]) {
+            case E:
+                return ranged && ranges[r] > 0 ? rhs[r] + ranges[r] : rhs[r];
+            case L:
+                return rhs[r];
+            case G:
+                return ranged ? rhs[r] + Math.abs(ranges[r]) : Double.POSITIVE_INFINITY;
+            default:
+                return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * @return {@code true} if row <i>r</i> is integral and only made of integer columns
+     */
+    public boolean isIntRow(int r) {
+        if (!rowIntegral[r]) {
+            return false;
+        }
+        for (int k = rowStart[r]; k < rowStart[r + 1]; k++) {
+            if (!colInt[rowCols[k]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build a problem incrementally. Names are interned to dense indices, entries are stored in
+     * primitive arrays and the matrix is compressed by {@link #build()}.
+     */
+    public static final class Builder {
+
+        private String name = "";
+        private boolean maximize;
+        private final Names rows = new Names();
+        private char[] rowTypes = new char[16];
+        private double[] rhs = new double[16];
+        private double[] ranges = new double[16];
+        private boolean[] rowIntegral = new boolean[16];
+
+        private final Names cols = new Names();
+        private boolean[] colInt = new boolean[16];
+        private boolean[] typed = new boolean[16];
+        private double[] lbs = new double[16];
+        private double[] ubs = new double[16];
+
+        private int[] eRows = new int[64];
+        private int[] eCols = new int[64];
+        private double[] eValues = new double[64];
+        private int entries;
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setMaximize(boolean maximize) {
+            this.maximize = maximize;
+        }
+
+        /**
+         * Declare a row.
+         *
+         * @param name name of the row
+         * @param type one of {@link #N}, {@link #E}, {@link #L} and {@link #G}
+         * @return the index of the row
+         */
+        public int addRow(String name, char type) {
+            if (rows.find(name) >= 0) {
+                throw new ParserException("Row \"" + name + "\" declared twice");
+            }
+            int r = rows.add(name);
+            if (r == rowTypes.length) {
+                int n = r * 2;
+                rowTypes = Arrays.copyOf(rowTypes, n);
+                rhs = Arrays.copyOf(rhs, n);
+                ranges = Arrays.copyOf(ranges, n);
+                rowIntegral = Arrays.copyOf(rowIntegral, n);
+            }
+            rowTypes[r] = type;
+            rhs[r] = 0;
+            ranges[r] = Double.NaN;
+            rowIntegral[r] = true;
+            return r;
+        }
+
+        /**
+         * @return the index of row <i>name</i>, -1 if it is unknown
+         */
+        public int findRow(String name) {
+            return rows.find(name);
+        }
+
+        int findRow(MPSTokenizer tok, int i) {
+            return rows.find(tok, i);
+        }
+
+        /**
+         * @return the index of column <i>name</i>, -1 if it is unknown
+         */
+        public int findCol(String name) {
+            return cols.find(name);
+        }
+
+        int findCol(MPSTokenizer tok, int i) {
+            return cols.find(tok, i);
+        }
+
+        int findCol(LPTokenizer tok) {
+            return cols.find(tok);
+        }
+
+        String colName(int c) {
+            return cols.get(c);
+        }
+
+        /**
+         * Declare a column, continuous with bounds [0, +inf) by default.
+         *
+         * @return the index of the column
+         */
+        public int addCol(String name) {
+            int c = cols.add(name);
+            if (c == colInt.length) {
+                int n = c * 2;
+                colInt = Arrays.copyOf(colInt, n);
+                typed = Arrays.copyOf(typed, n);
+                lbs = Arrays.copyOf(lbs, n);
+                ubs = Arrays.copyOf(ubs, n);
+            }
+            colInt[c] = false;
+            typed[c] = false;
+            lbs[c] = 0;
+            ubs[c] = Double.POSITIVE_INFINITY;
+            return c;
+        }
+
+        /**
+         * Set the type of a column from the section it is declared in. A column cannot be declared
+         * both integer and continuous.
+         */
+        public void setType(int c, boolean isInt) {
+            if (typed[c] && colInt[c] != isInt) {
+                throw new ParserException("Incorrect type found");
+            }
+            typed[c] = true;
+            colInt[c] = isInt;
+        }
+
+        /**
+         * Make column <i>c</i> integer, whatever its declared type
+         */
+        public void setInt(int c) {
+            colInt[c] = true;
+        }
+
+        public void setLb(int c, double lb) {
+            lbs[c] = infinite(lb);
+        }
+
+        public void setUb(int c, double ub) {
+            ubs[c] = infinite(ub);
+        }
+
+        private static double infinite(double v) {
+            if (v >= INFINITY) {
+                return Double.POSITIVE_INFINITY;
+            } else if (v <= -INFINITY) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return v;
+        }
+
+        /**
+         * Add the coefficient <i>value</i> of column <i>c</i> in row <i>r</i>, a zero coefficient is
+         * ignored.
+         *
+         * @param integral set to true if the coefficient is written as an integer
+         */
+        public void addEntry(int r, int c, double value, boolean integral) {
+            if (value == 0) {
+                return;
+            }
+            if (entries == eRows.length) {
+                int n = entries * 2;
+                eRows = Arrays.copyOf(eRows, n);
+                eCols = Arrays.copyOf(eCols, n);
+                eValues = Arrays.copyOf(eValues, n);
+            }
+            eRows[entries] = r;
+            eCols[entries] = c;
+            eValues[entries] = value;
+            entries++;
+            rowIntegral[r] &= integral;
+        }
+
+        public void setRhs(int r, double value, boolean integral) {
+            rhs[r] = value;
+            rowIntegral[r] &= integral;
+        }
+
+        public void setRange(int r, double value, boolean integral) {
+            ranges[r] = value;
+            rowIntegral[r] &= integral;
+        }
+
+        /**
+         * @return the problem, with its matrix compressed by rows and by columns
+         */
+        public MPSProblem build() {
+            int nr = rows.size();
+            int nc = cols.size();
+            int[] rowStart = new int[nr + 1];
+            int[] colStart = new int[nc + 1];
+            for (int k = 0; k < entries; k++) {
+                rowStart[eRows[k] + 1]++;
+                colStart[eCols[k] + 1]++;
+            }
+            for (int r = 0; r < nr; r++) {
+                rowStart[r + 1] += rowStart[r];
+            }
+            for (int c = 0; c < nc; c++) {
+                colStart[c + 1] += colStart[c];
+            }
+            // counting sort by column, then by row, so that both are ordered
+            int[] colRows = new int[entries];
+            double[] colValues = new double[entries];
+            int[] fill = Arrays.copyOf(colStart, nc);
+            for (int k = 0; k < entries; k++) {
+                int p = fill[eCols[k]]++;
+                colRows[p] = eRows[k];
+                colValues[p] = eValues[k];
+            }
+            int[] rowCols = new int[entries];
+            double[] rowValues = new double[entries];
+            fill = Arrays.copyOf(rowStart, nr);
+            for (int c = 0; c < nc; c++) {
+                for (int p = colStart[c]; p < colStart[c + 1]; p++) {
+                    int q = fill[colRows[p]]++;
+                    rowCols[q] = c;
+                    rowValues[q] = colValues[p];
+                }
+            }
+            // the column order of the rows sorts the entries of each column by row
+            fill = Arrays.copyOf(colStart, nc);
+            for (int r = 0; r < nr; r++) {
+                for (int q = rowStart[r]; q < rowStart[r + 1]; q++) {
+                    int p = fill[rowCols[q]]++;
+                    colRows[p] = r;
+                    colValues[p] = rowValues[q];
+                }
+            }
+            return new MPSProblem(name, maximize, rows.toArray(), Arrays.copyOf(rowTypes, nr), Arrays.copyOf(rhs, nr),
+                    Arrays.copyOf(ranges, nr), Arrays.copyOf(rowIntegral, nr),
+                    cols.toArray(), Arrays.copyOf(colInt, nc), Arrays.copyOf(lbs, nc), Arrays.copyOf(ubs, nc),
+                    rowStart, rowCols, rowValues, colStart, colRows, colValues);
+        }
+    }
+
+    /**
+     * Interning of names to dense indices, by open addressing.
+     * Names can be looked up from the bytes of a field, without creating a String.
+     */
+    static final class Names {
+        private String[] names = new String[16];
+        private int[] hashes = new int[16];
+        private int size;
+        // index + 1 of the name in each slot, 0 if the slot is empty
+        private int[] table = new int[64];
+
+        int size() {
+            return size;
+        }
+
+        String get(int i) {
+            return names[i];
+        }
+
+        String[] toArray() {
+            return Arrays.copyOf(names, size);
+        }
+
+        int find(String name) {
+            int h = name.hashCode();
+            int mask = table.length - 1;
+            for (int s = mix(h) & mask; table[s] != 0; s = (s + 1) & mask) {
+                int i = table[s] - 1;
+                if (hashes[i] == h && names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int find(MPSTokenizer tok, int f) {
+            int h = tok.hash(f);
+            int mask = table.length - 1;
+            for (int s = mix(h) & mask; table[s] != 0; s = (s + 1) & mask) {
+                int i = table[s] - 1;
+                if (hashes[i] == h && tok.is(f, names[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int find(LPTokenizer tok) {
+            int h = tok.hash();
+            int mask = table.length - 1;
+            for (int s = mix(h) & mask; table[s] != 0; s = (s + 1) & mask) {
+                int i = table[s] - 1;
+                if (hashes[i] == h && tok.is(names[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int add(String name) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            names[size] = name;
+            hashes[size] = name.hashCode();
+            size++;
+            if (size * 2 > table.length) {
+                table = new int[table.length * 2];
+                for (int i = 0; i < size; i++) {
+                    insert(i);
+                }
+            } else {
+                insert(size - 1);
+            }
+            return size - 1;
+        }
+
+        private void insert(int i) {
+            int mask = table.length - 1;
+            int s = mix(hashes[i]) & mask;
+            while (table[s] != 0) {
+                s = (s + 1) & mask;
+            }
+            table[s] = i + 1;
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
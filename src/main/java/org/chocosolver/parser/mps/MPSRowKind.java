@@ -0,0 +1,134 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+/**
+ * Kinds of rows of an {@link MPSProblem}, from the most specific to the most generic.
+ * Rows over binary columns with unit coefficients, <i>l &le; &sum;x &le; u</i>, are set
+ * partitioning (<i>l = u = 1</i>), set packing (<i>u = 1</i>), set covering (<i>l = 1</i>) or
+ * cardinality rows; with mixed signs, they may be clauses or implications. Rows over binary
+ * columns with coefficients of the same sign are knapsacks. Rows <i>x &le; u.y</i>, with <i>y</i>
+ * binary, are variable upper bounds.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public enum MPSRowKind {
+    PARTITIONING, PACKING, COVERING, CARDINALITY, CLAUSE, IMPLICATION, VARIABLE_UPPER_BOUND, KNAPSACK,
+    /**
+     * Any other integral row over integer columns
+     */
+    INTEGER,
+    /**
+     * Any other row
+     */
+    MIXED;
+
+    /**
+     * Classify a row, which is not an objective row.
+     *
+     * @param p a problem
+     * @param r index of a row of <i>p</i>
+     * @return the kind of row <i>r</i>
+     */
+    public static MPSRowKind of(MPSProblem p, int r) {
+        if (!p.isIntRow(r)) {
+            return MIXED;
+        }
+        double lo = p.lower(r), up = p.upper(r);
+        int n = p.rowSize(r);
+        int pos = 0, neg = 0;
+        boolean binary = true, unit = true;
+        for (int k = p.rowStart[r]; k < p.rowStart[r + 1]; k++) {
+            binary &= isBinary(p, p.rowCols[k]);
+            unit &= Math.abs(p.rowValues[k]) == 1;
+            if (p.rowValues[k] > 0) {
+                pos++;
+            } else {
+                neg++;
+            }
+        }
+        if (binary && unit) {
+            if (pos == 0 || neg == 0) {
+                double l = pos > 0 ? lo : -up;
+                double u = pos > 0 ? up : -lo;
+                if (l == 1 && u == 1) {
+                    return PARTITIONING;
+                } else if (l <= 0 && u == 1) {
+                    return PACKING;
+                } else if (l == 1 && u >= n) {
+                    return COVERING;
+                }
+                return CARDINALITY;
+            }
+            if (clause(lo, up, pos, neg) != 0) {
+                return n == 2 ? IMPLICATION : CLAUSE;
+            }
+            return INTEGER;
+        }
+        if (binary && (pos == 0 || neg == 0)) {
+            return KNAPSACK;
+        }
+        if (n == 2 && vub(p, r) >= 0) {
+            return VARIABLE_UPPER_BOUND;
+        }
+        return INTEGER;
+    }
+
+    static boolean isBinary(MPSProblem p, int c) {
+        return p.colInt[c] && p.lbs[c] == 0 && p.ubs[c] == 1;
+    }
+
+    /**
+     * A row over binary columns with unit coefficients is a clause if it reads
+     * <i>&sum;pos - &sum;neg &ge; 1 - |neg|</i> or <i>&sum;pos - &sum;neg &le; |pos| - 1</i>.
+     *
+     * @return 1 in the first case (positive columns are positive literals), -1 in the second case,
+     * 0 if the row is not a clause
+     */
+    static int clause(double lo, double up, int pos, int neg) {
+        if (lo == 1 - neg && up >= pos) {
+            return 1;
+        } else if (up == pos - 1 && lo <= -neg) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * A row of two entries is a variable upper bound if it reads <i>a.x - b.y &le; 0</i>, or its
+     * opposite, with <i>a, b &gt; 0</i>, <i>y</i> binary and <i>x</i> a non-negative integer
+     * column.
+     *
+     * @return the index of the entry of <i>x</i> in the row, -1 if the row is not a variable
+     * upper bound
+     */
+    static int vub(MPSProblem p, int r) {
+        int k = p.rowStart[r];
+        double lo = p.lower(r), up = p.upper(r);
+        double sign;
+        if (lo == Double.NEGATIVE_INFINITY && up == 0) {
+            sign = 1;
+        } else if (up == Double.POSITIVE_INFINITY && lo == 0) {
+            sign = -1;
+        } else {
+            return -1;
+        }
+        for (int i = 0; i < 2; i++) {
+            int x = p.rowCols[k + i], y = p.rowCols[k + 1 - i];
+            if (sign * p.rowValues[k + i] > 0 && sign * p.rowValues[k + 1 - i] < 0
+                    && isBinary(p, y) && !isBinary(p, x) && p.lbs[x] >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
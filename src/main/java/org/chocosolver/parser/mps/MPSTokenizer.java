@@ -0,0 +1,398 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.parser.ParserException;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A byte-level tokenizer of MPS files.
+ * <p>
+ * Lines are read from a buffered input, and the fields of a line are located in place: only their
+ * bounds are stored. Numbers are parsed straight from the bytes, with no intermediate String.
+ * Names are only turned into Strings on demand.
+ * <p>
+ * By default, fields are separated by blanks (free MPS format). In fixed MPS format, names may
+ * contain blanks: {@link #fixed()} splits the current line at the standard columns instead
+ * (2-3, 5-12, 15-22, 25-36, 40-47 and 50-61). Comment lines, which start with '*', and blank
+ * lines are skipped.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+final class MPSTokenizer implements Closeable {
+
+    /**
+     * Start and end (exclusive) columns of the fields of the fixed format, the last one extends
+     * to the end of the line
+     */
+    private static final int[][] COLUMNS = {{1, 3}, {4, 12}, {14, 22}, {24, 36}, {39, 47}, {49, Integer.MAX_VALUE}};
+
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    private byte[] line = new byte[256];
+    private int length;
+    private int number;
+
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int count;
+
+    MPSTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Open an MPS file, possibly gzipped (the name ends with ".gz").
+     *
+     * @param file path to a file
+     * @return a tokenizer of the file
+     * @throws IOException if the file cannot be opened
+     */
+    static MPSTokenizer open(String file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new MPSTokenizer(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Read the next line which is neither blank nor a comment, and split it at blanks.
+     *
+     * @return {@code false} if the end of the input is reached
+     * @throws IOException if the input cannot be read
+     */
+    boolean next() throws IOException {
+        while (readLine()) {
+            if (length > 0 && line[0] == '*') {
+                continue;
+            }
+            split();
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean readLine() throws IOException {
+        length = 0;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (read) {
+                        number++;
+                    }
+                    return read;
+                }
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++; // skip '\n'
+                number++;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int to) {
+        int n = to - from;
+        if (length + n > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + n));
+        }
+        System.arraycopy(buffer, from, line, length, n);
+        length += n;
+    }
+
+    private void split() {
+        count = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && blank(line[i])) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            while (i < length && !blank(line[i])) {
+                i++;
+            }
+            add(start, i);
+        }
+    }
+
+    private static boolean blank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * Split the current line at the columns of the fixed MPS format, instead of blanks.
+     * Empty fields are ignored, and fields are trimmed.
+     */
+    void fixed() {
+        if (header()) {
+            return;
+        }
+        count = 0;
+        for (int[] column : COLUMNS) {
+            int start = column[0];
+            int end = Math.min(column[1], length);
+            while (start < end && blank(line[start])) {
+                start++;
+            }
+            while (end > start && blank(line[end - 1])) {
+                end--;
+            }
+            if (start < end) {
+                add(start, end);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the current line is a section header, that is, it does not start
+     * with a blank
+     */
+    boolean header() {
+        return length > 0 && !blank(line[0]);
+    }
+
+    /**
+     * @return the number of fields of the current line
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of the current line, starting at 1
+     */
+    int lineNumber() {
+        return number;
+    }
+
+    /**
+     * @return {@code true} if the <i>i</i>th field is equal to <i>s</i>, an ASCII string
+     */
+    boolean is(int i, String s) {
+        int start = starts[i];
+        if (ends[i] - start != s.length()) {
+            return false;
+        }
+        for (int k = 0; k < s.length(); k++) {
+            if (line[start + k] != s.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the <i>i</i>th field, as a String
+     */
+    String string(int i) {
+        return new String(line, starts[i], ends[i] - starts[i], StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the hash of the <i>i</i>th field, equal to the {@link String#hashCode()} of
+     * {@link #string(int)}
+     */
+    int hash(int i) {
+        int h = 0;
+        for (int k = starts[i]; k < ends[i]; k++) {
+            h = 31 * h + line[k];
+        }
+        return h;
+    }
+
+    /**
+     * @return {@code true} if the <i>i</i>th field is an integer, that is, an optional '-'
+     * followed by digits, which fits an int
+     */
+    boolean isInt(int i) {
+        int k = starts[i];
+        int end = ends[i];
+        boolean negative = k < end && line[k] == '-';
+        if (negative) {
+            k++;
+        }
+        if (k == end || end - k > 10) {
+            return false;
+        }
+        long value = 0;
+        for (; k < end; k++) {
+            byte b = line[k];
+            if (b < '0' || b > '9') {
+                return false;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value >= Integer.MIN_VALUE : value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return the <i>i</i>th field, parsed as an int, see {@link #isInt(int)}
+     */
+    int parseInt(int i) {
+        if (!isInt(i)) {
+            throw error("Integer expected", i);
+        }
+        int k = starts[i];
+        boolean negative = line[k] == '-';
+        if (negative) {
+            k++;
+        }
+        long value = 0;
+        for (; k < ends[i]; k++) {
+            value = value * 10 + (line[k] - '0');
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * @return {@code true} if the <i>i</i>th field looks like a number
+     */
+    boolean isNumber(int i) {
+        byte b = line[starts[i]];
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    /**
+     * Parse the <i>i</i>th field as a double, see {@link #parseDouble(byte[], int, int)}.
+     *
+     * @return the value of the field
+     */
+    double parseDouble(int i) {
+        double value = parseDouble(line, starts[i], ends[i]);
+        if (Double.isNaN(value)) {
+            throw error("Number expected", i);
+        }
+        return value;
+    }
+
+    /**
+     * Parse ASCII bytes as a double. Decimal numbers with at most 15 significant digits and small
+     * exponents are computed exactly from the bytes, the others are delegated to
+     * {@link Double#parseDouble(String)}.
+     *
+     * @return the value of <i>bytes[from..end)</i>, {@code NaN} if it is not a number
+     */
+    static double parseDouble(byte[] bytes, int from, int end) {
+        int k = from;
+        boolean negative = false;
+        if (k < end && (bytes[k] == '-' || bytes[k] == '+')) {
+            negative = bytes[k] == '-';
+            k++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        for (; k < end && bytes[k] >= '0' && bytes[k] <= '9'; k++) {
+            any = true;
+            if (mantissa != 0 || bytes[k] != '0') {
+                mantissa = mantissa * 10 + (bytes[k] - '0');
+                digits++;
+            }
+        }
+        if (k < end && bytes[k] == '.') {
+            k++;
+            for (; k < end && bytes[k] >= '0' && bytes[k] <= '9'; k++) {
+                any = true;
+                if (mantissa != 0 || bytes[k] != '0') {
+                    mantissa = mantissa * 10 + (bytes[k] - '0');
+                    digits++;
+                }
+                scale--;
+            }
+        }
+        if (any && k < end && (bytes[k] == 'e' || bytes[k] == 'E')) {
+            k++;
+            boolean negexp = false;
+            if (k < end && (bytes[k] == '-' || bytes[k] == '+')) {
+                negexp = bytes[k] == '-';
+                k++;
+            }
+            int exp = 0;
+            boolean expDigits = false;
+            for (; k < end && bytes[k] >= '0' && bytes[k] <= '9' && exp < 10000; k++) {
+                exp = exp * 10 + (bytes[k] - '0');
+                expDigits = true;
+            }
+            if (!expDigits) {
+                any = false;
+            }
+            scale += negexp ? -exp : exp;
+        }
+        if (any && k == end && digits <= 15 && Math.abs(scale) < POW10.length) {
+            double value = scale >= 0 ? mantissa * POW10[scale] : mantissa / POW10[-scale];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(bytes, from, end - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    ParserException error(String message, int i) {
+        return new ParserException(message + " at line " + number + ": \"" + string(i) + "\"");
+    }
+}
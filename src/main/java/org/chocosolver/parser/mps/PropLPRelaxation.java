@@ -0,0 +1,174 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.mps;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.RealVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.RealEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.VariableUtils;
+
+/**
+ * Global propagator over the linear relaxation of an {@link MPSProblem}, solved by a
+ * {@link DualSimplex} warm-started from one call to the next.
+ * The bound of the relaxation prunes the objective variable, an infeasible relaxation fails,
+ * and the reduced costs filter the columns: a column whose reduced cost is <i>d &gt; 0</i> cannot
+ * exceed its lower bound by more than <i>(U - LB) / d</i>, where <i>LB</i> is the bound of the
+ * relaxation and <i>U</i> the upper bound of the objective.
+ * <p>
+ * Being slow, the propagator is only run on fixpoints, at most once per node of the search and
+ * every <i>frequency</i> nodes.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public class PropLPRelaxation extends Propagator<Variable> {
+
+    private static final double EPS = 1e-6;
+
+    private final DualSimplex lp;
+    private final int n;
+    private final boolean maximize;
+    private final double rhs;
+    private final int frequency;
+    private final int maxIter;
+    private final double[] lbs;
+    private final double[] ubs;
+    private long last = -1;
+
+    /**
+     * @param cols      variables of the columns of the relaxation
+     * @param objective objective variable, equal to <i>c.x - rhs</i>, or {@code null} if none
+     * @param rhs       right-hand side of the objective row
+     * @param lp        the relaxation, whose cost is <i>c</i>, or <i>-c</i> when maximizing
+     * @param maximize  set to true if the objective is maximized
+     * @param frequency the relaxation is solved every <i>frequency</i> nodes
+     */
+    public PropLPRelaxation(Variable[] cols, Variable objective, double rhs, DualSimplex lp,
+                            boolean maximize, int frequency) {
+        super(objective == null ? cols : append(cols, objective), PropagatorPriority.VERY_SLOW, false);
+        this.lp = lp;
+        this.n = cols.length;
+        this.maximize = maximize;
+        this.rhs = rhs;
+        this.frequency = frequency;
+        this.maxIter = Math.max(1000, 2 * (lp.nbRows() + lp.nbCols()));
+        this.lbs = new double[n];
+        this.ubs = new double[n];
+    }
+
+    private static Variable[] append(Variable[] cols, Variable objective) {
+        Variable[] all = new Variable[cols.length + 1];
+        System.arraycopy(cols, 0, all, 0, cols.length);
+        all[cols.length] = objective;
+        return all;
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        if (VariableUtils.isReal(vars[vIdx])) {
+            return RealEventType.BOUND.getMask();
+        }
+        return IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        long node = model.getSolver().getNodeCount();
+        if (node == last || node % frequency != 0) {
+            return;
+        }
+        last = node;
+        for (int j = 0; j < n; j++) {
+            lbs[j] = lb(vars[j]);
+            ubs[j] = ub(vars[j]);
+        }
+        if (lp.solve(lbs, ubs, maxIter) == DualSimplex.Status.INFEASIBLE) {
+            fails();
+        }
+        double bound = lp.bound();
+        if (vars.length == n) {
+            return;
+        }
+        // bound the objective, then compute the upper bound of the cost
+        Variable objective = vars[n];
+        double limit;
+        if (maximize) {
+            updateUpperBound(objective, -bound - rhs);
+            limit = -lb(objective) - rhs;
+        } else {
+            updateLowerBound(objective, bound - rhs);
+            limit = ub(objective) + rhs;
+        }
+        double gap = limit - bound;
+        if (Double.isInfinite(gap) || gap > 1e12) {
+            return;
+        }
+        // reduced-cost fixing
+        for (int j = 0; j < n; j++) {
+            double d = lp.reducedCost(j);
+            if (d > EPS && lbs[j] < ubs[j]) {
+                updateUpperBound(vars[j], lbs[j] + gap / d);
+            } else if (d < -EPS && lbs[j] < ubs[j]) {
+                updateLowerBound(vars[j], ubs[j] + gap / d);
+            }
+        }
+    }
+
+    private void updateLowerBound(Variable var, double value) throws ContradictionException {
+        if (VariableUtils.isReal(var)) {
+            RealVar r = var.asRealVar();
+            if (value > r.getLB()) {
+                r.updateLowerBound(value, this);
+            }
+        } else {
+            IntVar i = var.asIntVar();
+            double v = Math.ceil(value - EPS);
+            if (v > i.getLB()) {
+                i.updateLowerBound(v > IntVar.MAX_INT_BOUND ? IntVar.MAX_INT_BOUND + 1 : (int) v, this);
+            }
+        }
+    }
+
+    private void updateUpperBound(Variable var, double value) throws ContradictionException {
+        if (VariableUtils.isReal(var)) {
+            RealVar r = var.asRealVar();
+            if (value < r.getUB()) {
+                r.updateUpperBound(value, this);
+            }
+        } else {
+            IntVar i = var.asIntVar();
+            double v = Math.floor(value + EPS);
+            if (v < i.getUB()) {
+                i.updateUpperBound(v < IntVar.MIN_INT_BOUND ? IntVar.MIN_INT_BOUND - 1 : (int) v, this);
+            }
+        }
+    }
+
+    private static double lb(Variable var) {
+        return VariableUtils.isReal(var) ? var.asRealVar().getLB() : var.asIntVar().getLB();
+    }
+
+    private static double ub(Variable var) {
+        return VariableUtils.isReal(var) ? var.asRealVar().getUB() : var.asIntVar().getUB();
+    }
+
+    @Override
+    public ESat isEntailed() {
+        // the relaxation is implied by the rows, which are posted apart
+        return isCompletelyInstantiated() ? ESat.TRUE : ESat.UNDEFINED;
+    }
+}
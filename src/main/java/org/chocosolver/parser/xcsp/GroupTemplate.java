@@ -0,0 +1,146 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.xcsp.parser.entries.XVariables;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The template of a group, analyzed once from its first instance into a builder over its
+ * parameters.
+ * <p>
+ * The first instance is loaded as usual and ends in a single {@link Callback} over a scope (e.g.,
+ * an intension constraint extended as a table, or an extension constraint). Each variable of this
+ * scope is mapped to the parameter <i>%i</i> it comes from, if any, so that the scope of any other
+ * instance is filled from its arguments, and the callback replayed on it, without concretizing the
+ * template. An instance whose arguments differ in nature (a variable instead of a value, another
+ * value, the same variable twice, ...) does not fit and has to be loaded as usual.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+final class GroupTemplate {
+
+    /**
+     * Arguments of the first instance
+     */
+    private final Object[] args;
+    /**
+     * Scope of the first instance
+     */
+    private final XVariables.XVarInteger[] scope;
+    /**
+     * For each variable of {@link #scope}, the index of the argument it comes from, -1 if it is
+     * not an argument
+     */
+    private final int[] slots;
+    private final Callback callback;
+
+    /**
+     * A callback of the parser over a scope, which can be replayed on another scope
+     */
+    static final class Callback {
+        final XVariables.XVarInteger[] scope;
+        /**
+         * Prepare the callback on a scope, return {@code null} if it cannot be replayed on it
+         */
+        final Function<XVariables.XVarInteger[], Runnable> replay;
+
+        Callback(XVariables.XVarInteger[] scope, Function<XVariables.XVarInteger[], Runnable> replay) {
+            this.scope = scope;
+            this.replay = replay;
+        }
+    }
+
+    private GroupTemplate(Object[] args, int[] slots, Callback callback) {
+        this.args = args;
+        // the loaders may reuse the array of the scope for the next concretized instance
+        this.scope = callback.scope.clone();
+        this.slots = slots;
+        this.callback = callback;
+    }
+
+    /**
+     * Analyze the template of a group from its first instance.
+     *
+     * @param args     arguments of the first instance
+     * @param callback the callback the first instance ended in
+     * @return the builder of the next instances, or {@code null} if the arguments are not all
+     * variables and values, or are not mapped one-to-one to the scope of the callback
+     */
+    static GroupTemplate analyze(Object[] args, Callback callback) {
+        XVariables.XVarInteger[] scope = callback.scope;
+        int[] slots = new int[scope.length];
+        int variables = 0;
+        for (int j = 0; j < scope.length; j++) {
+            slots[j] = -1;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof XVariables.XVarInteger) {
+                variables++;
+                for (int j = 0; j < scope.length; j++) {
+                    if (scope[j] == args[i]) {
+                        if (slots[j] >= 0) {
+                            // the same variable given twice
+                            return null;
+                        }
+                        slots[j] = i;
+                    }
+                }
+            } else if (!(args[i] instanceof Number)) {
+                return null;
+            }
+        }
+        int mapped = 0;
+        for (int j = 0; j < scope.length; j++) {
+            if (slots[j] >= 0) {
+                mapped++;
+            }
+        }
+        // each variable argument has to appear exactly once in the scope
+        return mapped == variables ? new GroupTemplate(args, slots, callback) : null;
+    }
+
+    /**
+     * Prepare an instance of the group.
+     *
+     * @param other arguments of the instance
+     * @return the posting of the instance, or {@code null} if it does not fit the template
+     */
+    Runnable instance(Object[] other) {
+        if (other.length != args.length) {
+            return null;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof XVariables.XVarInteger
+                    ? !(other[i] instanceof XVariables.XVarInteger)
+                    : !Objects.equals(args[i], other[i])) {
+                return null;
+            }
+        }
+        XVariables.XVarInteger[] instance = scope.clone();
+        for (int j = 0; j < slots.length; j++) {
+            if (slots[j] >= 0) {
+                instance[j] = (XVariables.XVarInteger) other[slots[j]];
+            }
+        }
+        for (int j = 1; j < instance.length; j++) {
+            for (int k = 0; k < j; k++) {
+                if (instance[j] == instance[k]) {
+                    return null;
+                }
+            }
+        }
+        return callback.replay.apply(instance);
+    }
+}
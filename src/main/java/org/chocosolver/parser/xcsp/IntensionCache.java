@@ -0,0 +1,646 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.chocosolver.solver.variables.IntVar;
+import org.xcsp.common.Types;
+import org.xcsp.common.predicates.XNode;
+import org.xcsp.common.predicates.XNodeParent;
+import org.xcsp.parser.entries.XVariables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+
+/**
+ * A cache of the supports of intension constraints, computed by enumeration.
+ * <p>
+ * Supports are keyed by the canonical form of the predicate, in which variables are replaced by
+ * their position in the scope and operands of commutative operators are sorted, and by the domains
+ * of the variables of the scope. The constraints of a group, which post the same predicate over
+ * many scopes with identical domains, share a single table; the signature of an instance of a group
+ * is derived from the one of the first instance, see {@link #signature(Signature, IntVar[])}.
+ * <p>
+ * Whether a predicate is worth enumerating is decided by a cost model, which compares the cost of
+ * the table (the evaluations needed to enumerate the Cartesian product of the domains, plus the
+ * size of the table, estimated by sampling the product) with the cost of the decomposition
+ * (an auxiliary variable and a propagator per node of the tree, over domains of the order of the
+ * ones of the scope, see {@link #NODE_COST}). A predicate already cached is always extended.
+ * <p>
+ * The tables are referenced by the constraints posted, the cache itself can be released with
+ * {@link #release()} once the models are built.
+ * <p>
+ * Enumerations are independent from the model: the supports of many predicates can be computed in
+ * parallel with {@link #prefetch(List)} before posting them sequentially, large enumerations
+ * being split themselves into several tasks.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class IntensionCache {
+
+    /**
+     * Cost of a node of a decomposed predicate, per value of the domains of its scope, expressed in
+     * evaluations of a node
+     */
+    public static final double NODE_COST = 1 << 12;
+    /**
+     * Number of tuples of the Cartesian product evaluated to estimate the size of a table
+     */
+    public static final int SAMPLES = 64;
+    /**
+     * Number of nodes evaluated by a task of {@link #prefetch(List)}, larger enumerations are split
+     * over the values of their first variable
+     */
+    public static final long TASK_EVALUATIONS = 1 << 18;
+
+    /**
+     * Thrown when a tuple makes the predicate undefined (division by 0), such a tuple is no support
+     */
+    private static final ArithmeticException UNDEFINED = new ArithmeticException("undefined") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private Map<String, int[][]> supports = new HashMap<>();
+    private int tables;
+    private int hits;
+    private int tasks;
+
+    /**
+     * Get the supports of a predicate over a scope, enumerating them if they are not cached yet.
+     *
+     * @param tree  a predicate
+     * @param scope the variables of <i>tree</i>, in order
+     * @param vars  the model variables of <i>scope</i>
+     * @return the supports of <i>tree</i>, with values ordered as <i>scope</i>, or {@code null} if
+     * the predicate is better decomposed
+     */
+    public int[][] supports(XNodeParent<XVariables.XVarInteger> tree, XVariables.XVarInteger[] scope, IntVar[] vars) {
+        Signature signature = signature(tree, scope, vars);
+        return signature == null ? null : supports(signature);
+    }
+
+    /**
+     * Get the supports of a predicate, enumerating them if they are not cached yet.
+     *
+     * @param signature the signature of a predicate, see {@link #signature(XNodeParent, XVariables.XVarInteger[], IntVar[])}
+     * @return the supports of the predicate, or {@code null} if the predicate is better decomposed
+     */
+    public int[][] supports(Signature signature) {
+        int[][] cached = supports.get(signature.key);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        if (!signature.affordable()) {
+            return null;
+        }
+        cached = enumerate(signature.fn, signature.domains);
+        supports.put(signature.key, cached);
+        tables++;
+        return cached;
+    }
+
+    /**
+     * Compute the signature of a predicate over a scope: its canonical form and the domains of the
+     * scope. Domains are copied, so that supports can be enumerated in any thread.
+     *
+     * @param tree  a predicate
+     * @param scope the variables of <i>tree</i>, in order
+     * @param vars  the model variables of <i>scope</i>
+     * @return the signature of <i>tree</i>, or {@code null} if it cannot be extended
+     */
+    public Signature signature(XNodeParent<XVariables.XVarInteger> tree, XVariables.XVarInteger[] scope, IntVar[] vars) {
+        if (vars.length == 0) {
+            return null;
+        }
+        Map<XVariables.XVarInteger, Integer> positions = new HashMap<>();
+        for (int i = 0; i < scope.length; i++) {
+            positions.putIfAbsent(scope[i], i);
+        }
+        StringBuilder key = new StringBuilder();
+        Fn fn = compile(tree, positions, key);
+        return fn == null ? null : signature(fn, key.toString(), vars);
+    }
+
+    /**
+     * Compute the signature of the same predicate as <i>shape</i>, over another scope: only the
+     * domains of the scope are read, the predicate is neither compiled nor walked again.
+     *
+     * @param shape the signature of a predicate
+     * @param vars  the model variables of another scope, in the order of the scope of <i>shape</i>
+     * @return the signature of the predicate over <i>vars</i>, or {@code null} if it cannot be
+     * extended
+     */
+    public Signature signature(Signature shape, IntVar[] vars) {
+        return signature(shape.fn, shape.shape, vars);
+    }
+
+    private static Signature signature(Fn fn, String shape, IntVar[] vars) {
+        double tuples = 1;
+        double values = 0;
+        for (IntVar var : vars) {
+            tuples *= var.getDomainSize();
+            values += var.getDomainSize();
+        }
+        int nodes = fn.size();
+        double decomposition = NODE_COST * nodes * values;
+        if (tuples * nodes > decomposition) {
+            // not even enumerated, whatever the size of the table
+            return null;
+        }
+        StringBuilder key = new StringBuilder(shape);
+        int[][] domains = new int[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            IntVar var = vars[i];
+            domains[i] = new int[var.getDomainSize()];
+            int j = 0;
+            for (int v = var.getLB(); v <= var.getUB(); v = var.nextValue(v)) {
+                domains[i][j++] = v;
+            }
+            key.append('|').append(var.getLB());
+            if (var.getDomainSize() < var.getUB() - var.getLB() + 1) {
+                for (int k = 1; k < domains[i].length; k++) {
+                    key.append(',').append(domains[i][k]);
+                }
+            } else {
+                key.append("..").append(var.getUB());
+            }
+        }
+        return new Signature(key.toString(), shape, fn, domains, tuples, decomposition);
+    }
+
+    /**
+     * Enumerate the supports of predicates not cached yet, in parallel: each distinct signature is
+     * enumerated in the common fork-join pool, by tasks of about {@link #TASK_EVALUATIONS}
+     * evaluations, each one in charge of a slice of the values of the first variable.
+     *
+     * @param signatures signatures of predicates, possibly {@code null} or duplicated
+     */
+    public void prefetch(List<Signature> signatures) {
+        Map<String, List<ForkJoinTask<int[][]>>> slices = new LinkedHashMap<>();
+        for (Signature signature : signatures) {
+            if (signature != null && !supports.containsKey(signature.key)
+                    && !slices.containsKey(signature.key) && signature.affordable()) {
+                int[] first = signature.domains[0];
+                double evaluations = signature.tuples * signature.fn.size();
+                int n = (int) Math.min(first.length, Math.ceil(evaluations / TASK_EVALUATIONS));
+                List<ForkJoinTask<int[][]>> parts = new ArrayList<>(n);
+                for (int k = 0; k < n; k++) {
+                    int[][] domains = signature.domains.clone();
+                    domains[0] = Arrays.copyOfRange(first, k * first.length / n, (k + 1) * first.length / n);
+                    parts.add(ForkJoinPool.commonPool().submit(() -> enumerate(signature.fn, domains)));
+                }
+                tasks += n;
+                slices.put(signature.key, parts);
+            }
+        }
+        for (Map.Entry<String, List<ForkJoinTask<int[][]>>> slice : slices.entrySet()) {
+            List<ForkJoinTask<int[][]>> parts = slice.getValue();
+            int size = 0;
+            for (ForkJoinTask<int[][]> part : parts) {
+                size += part.join().length;
+            }
+            // slices are joined in order, so are tuples
+            int[][] tuples = new int[size][];
+            size = 0;
+            for (ForkJoinTask<int[][]> part : parts) {
+                System.arraycopy(part.join(), 0, tuples, size, part.join().length);
+                size += part.join().length;
+            }
+            supports.put(slice.getKey(), tuples);
+            tables++;
+        }
+    }
+
+    /**
+     * Release the tables computed so far, which remain referenced by the constraints posted. The
+     * statistics are kept.
+     */
+    public void release() {
+        supports = new HashMap<>();
+    }
+
+    /**
+     * @return number of predicates whose supports were found in the cache
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of enumeration tasks run by {@link #prefetch(List)}
+     */
+    public int getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return number of distinct tables computed, including released ones
+     */
+    public int size() {
+        return tables;
+    }
+
+    /**
+     * @return the ratio of supports among {@link #SAMPLES} tuples spread over the Cartesian product
+     * of <i>domains</i>, or among all of them if there are fewer
+     */
+    private static double sample(Fn fn, int[][] domains) {
+        double tuples = 1;
+        for (int[] domain : domains) {
+            tuples *= domain.length;
+        }
+        int n = (int) Math.min(SAMPLES, tuples);
+        long[] values = new long[domains.length];
+        int supports = 0;
+        for (int s = 0; s < n; s++) {
+            // the index of the tuple in the product, decoded in mixed radix
+            double index = Math.floor((s + .5) * tuples / n);
+            for (int i = domains.length - 1; i >= 0; i--) {
+                int d = domains[i].length;
+                double q = Math.floor(index / d);
+                values[i] = domains[i][(int) (index - q * d)];
+                index = q;
+            }
+            if (holds(fn, values)) {
+                supports++;
+            }
+        }
+        return (double) supports / n;
+    }
+
+    private static int[][] enumerate(Fn fn, int[][] domains) {
+        int n = domains.length;
+        int[] index = new int[n];
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = domains[i][0];
+        }
+        int[] buffer = new int[n * 16];
+        int size = 0;
+        while (true) {
+            if (holds(fn, values)) {
+                if (size + n > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                for (int i = 0; i < n; i++) {
+                    buffer[size++] = (int) values[i];
+                }
+            }
+            int i = n - 1;
+            while (i >= 0 && index[i] == domains[i].length - 1) {
+                index[i] = 0;
+                values[i] = domains[i][0];
+                i--;
+            }
+            if (i < 0) {
+                break;
+            }
+            values[i] = domains[i][++index[i]];
+        }
+        int[][] tuples = new int[size / n][];
+        for (int t = 0; t < tuples.length; t++) {
+            tuples[t] = Arrays.copyOfRange(buffer, t * n, (t + 1) * n);
+        }
+        return tuples;
+    }
+
+    /**
+     * Compile a predicate into a test over the values of its scope, whatever its domains.
+     *
+     * @param tree  a predicate
+     * @param scope the variables of <i>tree</i>, in order
+     * @return a test of the values of <i>scope</i>, or {@code null} if the predicate cannot be
+     * evaluated
+     */
+    public static Predicate<long[]> predicate(XNodeParent<XVariables.XVarInteger> tree, XVariables.XVarInteger[] scope) {
+        Map<XVariables.XVarInteger, Integer> positions = new HashMap<>();
+        for (int i = 0; i < scope.length; i++) {
+            positions.putIfAbsent(scope[i], i);
+        }
+        Fn fn = compile(tree, positions, new StringBuilder());
+        return fn == null ? null : values -> holds(fn, values);
+    }
+
+    private static boolean holds(Fn fn, long[] values) {
+        try {
+            return fn.eval(values) != 0;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compile a node into an evaluable function and append its canonical form to <i>key</i>.
+     *
+     * @return the function, or {@code null} if the node cannot be evaluated
+     */
+    private static Fn compile(XNode<XVariables.XVarInteger> node, Map<XVariables.XVarInteger, Integer> positions,
+                              StringBuilder key) {
+        Types.TypeExpr type = node.type;
+        if (type == Types.TypeExpr.VAR) {
+            Integer position = positions.get(node.var(0));
+            if (position == null) {
+                return null;
+            }
+            key.append('%').append(position);
+            return new Fn(type, null, position, 0, null);
+        } else if (type == Types.TypeExpr.LONG) {
+            key.append(node.val(0));
+            return new Fn(type, null, -1, node.val(0), null);
+        } else if (type == Types.TypeExpr.SET) {
+            int[] set = node.arrayOfVals().clone();
+            Arrays.sort(set);
+            key.append(Arrays.toString(set));
+            return new Fn(type, null, -1, 0, set);
+        } else if (!(node instanceof XNodeParent) || !supported(type)) {
+            return null;
+        }
+        XNode<XVariables.XVarInteger>[] nodes = ((XNodeParent<XVariables.XVarInteger>) node).sons;
+        Fn[] sons = new Fn[nodes.length];
+        String[] keys = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            StringBuilder son = new StringBuilder();
+            sons[i] = compile(nodes[i], positions, son);
+            if (sons[i] == null) {
+                return null;
+            }
+            keys[i] = son.toString();
+        }
+        if (commutative(type)) {
+            Arrays.sort(keys);
+        }
+        key.append(type.name().toLowerCase()).append('(').append(String.join(",", keys)).append(')');
+        return new Fn(type, sons, -1, 0, null);
+    }
+
+    private static boolean commutative(Types.TypeExpr type) {
+        switch (type) {
+            case ADD:
+            case MUL:
+            case MIN:
+            case MAX:
+            case DIST:
+            case EQ:
+            case NE:
+            case AND:
+            case OR:
+            case XOR:
+            case IFF:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean supported(Types.TypeExpr type) {
+        switch (type) {
+            case NEG:
+            case ABS:
+            case SQR:
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+            case POW:
+            case DIST:
+            case MIN:
+            case MAX:
+            case LT:
+            case LE:
+            case GE:
+            case GT:
+            case NE:
+            case EQ:
+            case IN:
+            case NOT:
+            case AND:
+            case OR:
+            case XOR:
+            case IFF:
+            case IMP:
+            case IF:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The canonical form of a predicate and the domains of its scope
+     */
+    public static final class Signature {
+        final String key;
+        /**
+         * The canonical form of the predicate alone, prefix of the key
+         */
+        final String shape;
+        final Fn fn;
+        final int[][] domains;
+        final double tuples;
+        /**
+         * Estimated cost of the decomposition of the predicate
+         */
+        final double decomposition;
+        /**
+         * 1 if the predicate is worth enumerating, -1 if not, 0 if not known yet
+         */
+        private int affordable;
+
+        Signature(String key, String shape, Fn fn, int[][] domains, double tuples, double decomposition) {
+            this.key = key;
+            this.shape = shape;
+            this.fn = fn;
+            this.domains = domains;
+            this.tuples = tuples;
+            this.decomposition = decomposition;
+        }
+
+        /**
+         * @return {@code true} if enumerating the predicate and storing its table costs less than
+         * decomposing it
+         */
+        boolean affordable() {
+            if (affordable == 0) {
+                double cells = tuples * sample(fn, domains) * domains.length;
+                affordable = tuples * fn.size() + cells <= decomposition ? 1 : -1;
+            }
+            return affordable > 0;
+        }
+    }
+
+    /**
+     * A compiled node, booleans are evaluated as 0/1
+     */
+    private static final class Fn {
+        final Types.TypeExpr type;
+        final Fn[] sons;
+        final int position;
+        final long value;
+        final int[] set;
+
+        Fn(Types.TypeExpr type, Fn[] sons, int position, long value, int[] set) {
+            this.type = type;
+            this.sons = sons;
+            this.position = position;
+            this.value = value;
+            this.set = set;
+        }
+
+        int size() {
+            int size = 1;
+            if (sons != null) {
+                for (Fn son : sons) {
+                    size += son.size();
+                }
+            }
+            return size;
+        }
+
+        long eval(long[] values) {
+            switch (type) {
+                case VAR:
+                    return values[position];
+                case LONG:
+                    return value;
+                case NEG:
+                    return -sons[0].eval(values);
+                case ABS:
+                    return Math.abs(sons[0].eval(values));
+                case SQR: {
+                    long a = sons[0].eval(values);
+                    return a * a;
+                }
+                case ADD: {
+                    long r = 0;
+                    for (Fn son : sons) {
+                        r += son.eval(values);
+                    }
+                    return r;
+                }
+                case MUL: {
+                    long r = 1;
+                    for (Fn son : sons) {
+                        r *= son.eval(values);
+                    }
+                    return r;
+                }
+                case MIN: {
+                    long r = Long.MAX_VALUE;
+                    for (Fn son : sons) {
+                        r = Math.min(r, son.eval(values));
+                    }
+                    return r;
+                }
+                case MAX: {
+                    long r = Long.MIN_VALUE;
+                    for (Fn son : sons) {
+                        r = Math.max(r, son.eval(values));
+                    }
+                    return r;
+                }
+                case SUB:
+                    return sons[0].eval(values) - sons[1].eval(values);
+                case DIV: {
+                    long d = sons[1].eval(values);
+                    if (d == 0) {
+                        throw UNDEFINED;
+                    }
+                    return sons[0].eval(values) / d;
+                }
+                case MOD: {
+                    long d = sons[1].eval(values);
+                    if (d == 0) {
+                        throw UNDEFINED;
+                    }
+                    return sons[0].eval(values) % d;
+                }
+                case POW:
+                    return (long) Math.pow(sons[0].eval(values), sons[1].eval(values));
+                case DIST:
+                    return Math.abs(sons[0].eval(values) - sons[1].eval(values));
+                case LT:
+                    return sons[0].eval(values) < sons[1].eval(values) ? 1 : 0;
+                case LE:
+                    return sons[0].eval(values) <= sons[1].eval(values) ? 1 : 0;
+                case GE:
+                    return sons[0].eval(values) >= sons[1].eval(values) ? 1 : 0;
+                case GT:
+                    return sons[0].eval(values) > sons[1].eval(values) ? 1 : 0;
+                case NE:
+                    return sons[0].eval(values) != sons[1].eval(values) ? 1 : 0;
+                case EQ: {
+                    long a = sons[0].eval(values);
+                    for (int i = 1; i < sons.length; i++) {
+                        if (sons[i].eval(values) != a) {
+                            return 0;
+                        }
+                    }
+                    return 1;
+                }
+                case IN: {
+                    long a = sons[0].eval(values);
+                    return sons[1].set != null && Arrays.binarySearch(sons[1].set, (int) a) >= 0
+                            && (int) a == a ? 1 : 0;
+                }
+                case NOT:
+                    return sons[0].eval(values) == 0 ? 1 : 0;
+                case AND:
+                    for (Fn son : sons) {
+                        if (son.eval(values) == 0) {
+                            return 0;
+                        }
+                    }
+                    return 1;
+                case OR:
+                    for (Fn son : sons) {
+                        if (son.eval(values) != 0) {
+                            return 1;
+                        }
+                    }
+                    return 0;
+                case XOR: {
+                    long r = 0;
+                    for (Fn son : sons) {
+                        r ^= son.eval(values) != 0 ? 1 : 0;
+                    }
+                    return r;
+                }
+                case IFF: {
+                    boolean a = sons[0].eval(values) != 0;
+                    for (int i = 1; i < sons.length; i++) {
+                        if ((sons[i].eval(values) != 0) != a) {
+                            return 0;
+                        }
+                    }
+                    return 1;
+                }
+                case IMP:
+                    return sons[0].eval(values) == 0 || sons[1].eval(values) != 0 ? 1 : 0;
+                case IF:
+                    return sons[0].eval(values) != 0 ? sons[1].eval(values) : sons[2].eval(values);
+                default:
+                    throw new UnsupportedOperationException("Unknown type : " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.chocosolver.parser.ParserException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of the diagrams of MDD constraints.
+ * <p>
+ * The transitions of an MDD, as declared in the instance, are first layered: state names are
+ * interned to ints, then states are numbered in breadth-first order from the root, the terminal
+ * state being numbered -1. Two MDDs whose layered transitions are equal, even if their states are
+ * named differently, share them. A diagram is then built once per layered transitions and bounds
+ * of the variables, and shared by the constraints that match.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class MddCache {
+
+    // transitions already layered, to skip interning when a table is declared once for many constraints
+    private final Map<Object[][], Layered> declared = new IdentityHashMap<>();
+    private final Map<Layered, Layered> layered = new HashMap<>();
+    private int diagrams;
+    private int hits;
+
+    /**
+     * Get a diagram of <i>transitions</i> over <i>vars</i>, building it if no identical one exists.
+     *
+     * @param vars        variables of the MDD, one per layer
+     * @param transitions transitions of the MDD, as triplets (source, value, target)
+     * @return a diagram
+     */
+    public MultivaluedDecisionDiagram get(IntVar[] vars, Object[][] transitions) {
+        Layered l = declared.get(transitions);
+        if (l == null) {
+            l = layer(transitions);
+            Layered known = layered.putIfAbsent(l, l);
+            if (known != null) {
+                l = known;
+            }
+            declared.put(transitions, l);
+        }
+        int[] bounds = new int[vars.length * 2];
+        for (int i = 0; i < vars.length; i++) {
+            bounds[2 * i] = vars[i].getLB();
+            bounds[2 * i + 1] = vars[i].getUB();
+        }
+        for (int i = 0; i < l.bounds.size(); i++) {
+            if (Arrays.equals(l.bounds.get(i), bounds)) {
+                hits++;
+                return l.diagrams.get(i);
+            }
+        }
+        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(vars, l.transitions);
+        l.bounds.add(bounds);
+        l.diagrams.add(mdd);
+        diagrams++;
+        return mdd;
+    }
+
+    /**
+     * @return the number of diagrams built
+     */
+    public int size() {
+        return diagrams;
+    }
+
+    /**
+     * @return the number of diagrams reused
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    private static Layered layer(Object[][] transitions) {
+        int m = transitions.length;
+        int[] src = new int[m];
+        int[] val = new int[m];
+        int[] tgt = new int[m];
+        TObjectIntHashMap<String> ids = new TObjectIntHashMap<>(16, .5f, -1);
+        for (int t = 0; t < m; t++) {
+            src[t] = intern(ids, (String) transitions[t][0]);
+            val[t] = ((Number) transitions[t][1]).intValue();
+            tgt[t] = intern(ids, (String) transitions[t][2]);
+        }
+        int n = ids.size();
+        // outgoing transitions of each state, in declaration order
+        int[] start = new int[n + 1];
+        boolean[] targeted = new boolean[n];
+        for (int t = 0; t < m; t++) {
+            start[src[t] + 1]++;
+            targeted[tgt[t]] = true;
+        }
+        for (int s = 0; s < n; s++) {
+            start[s + 1] += start[s];
+        }
+        int[] out = new int[m];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int t = 0; t < m; t++) {
+            out[fill[src[t]]++] = t;
+        }
+        int root = -1, terminal = -1;
+        for (int s = 0; s < n; s++) {
+            if (root == -1 && !targeted[s]) {
+                root = s;
+            }
+            if (terminal == -1 && start[s] == start[s + 1]) {
+                terminal = s;
+            }
+        }
+        if (root == -1 || terminal == -1) {
+            throw new ParserException("MDD with no root or no terminal state");
+        }
+        // breadth-first numbering from the root
+        int[] number = new int[n];
+        Arrays.fill(number, -2);
+        number[root] = 0;
+        number[terminal] = -1;
+        int[] queue = new int[n];
+        int head = 0, tail = 0, next = 1;
+        queue[tail++] = root;
+        int[][] layeredTransitions = new int[m][];
+        int k = 0;
+        while (head < tail) {
+            int s = queue[head++];
+            for (int i = start[s]; i < start[s + 1]; i++) {
+                int t = out[i];
+                if (number[tgt[t]] == -2) {
+                    number[tgt[t]] = next++;
+                    queue[tail++] = tgt[t];
+                }
+                layeredTransitions[k++] = new int[]{number[s], val[t], number[tgt[t]]};
+            }
+        }
+        return new Layered(k < m ? Arrays.copyOf(layeredTransitions, k) : layeredTransitions);
+    }
+
+    private static int intern(TObjectIntHashMap<String> ids, String state) {
+        int id = ids.get(state);
+        if (id == -1) {
+            id = ids.size();
+            ids.put(state, id);
+        }
+        return id;
+    }
+
+    /**
+     * Layered transitions, and the diagrams built over them
+     */
+    private static final class Layered {
+        final int[][] transitions;
+        final int hash;
+        final List<int[]> bounds = new ArrayList<>(1);
+        final List<MultivaluedDecisionDiagram> diagrams = new ArrayList<>(1);
+
+        Layered(int[][] transitions) {
+            this.transitions = transitions;
+            this.hash = Arrays.deepHashCode(transitions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Layered && Arrays.deepEquals(transitions, ((Layered) o).transitions);
+        }
+    }
+}
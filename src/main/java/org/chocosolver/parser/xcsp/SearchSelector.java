@@ -0,0 +1,176 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.chocosolver.parser.ParserException;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Selection of a search from the features of an instance (see {@link XCSPFeatures}).
+ * <p>
+ * By default, a small rule table is used. A linear model learned offline can be loaded instead:
+ * each line of the file is a triplet <i>search feature weight</i>, the score of a search is the
+ * weighted sum of the features (the feature {@code bias} is always 1) and the search with the
+ * highest score is selected. Empty lines and lines starting with '#' are ignored.
+ * <p>
+ * When the instance declares decision variables, the selected search branches on them only.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class SearchSelector {
+
+    /**
+     * Choco default search, over decision variables if any
+     */
+    public static final String DEFAULT = "default";
+    /**
+     * dom/wdeg with last conflict
+     */
+    public static final String DOMWDEG = "domwdeg";
+    /**
+     * Activity-based search
+     */
+    public static final String ACTIVITY = "activity";
+
+    /**
+     * Weights of the features, by search, null to use the rule table
+     */
+    private final Map<String, Map<String, Double>> weights;
+
+    /**
+     * Create a selector based on the rule table.
+     */
+    public SearchSelector() {
+        this.weights = null;
+    }
+
+    private SearchSelector(Map<String, Map<String, Double>> weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Load a selector learned offline.
+     *
+     * @param file a file of triplets <i>search feature weight</i>
+     * @return a selector
+     * @throws IOException if the file cannot be read
+     */
+    public static SearchSelector load(File file) throws IOException {
+        Map<String, Map<String, Double>> weights = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens.length != 3) {
+                    throw new ParserException("Expected 'search feature weight': " + line);
+                }
+                check(tokens[0]);
+                try {
+                    weights.computeIfAbsent(tokens[0], k -> new LinkedHashMap<>())
+                            .merge(tokens[1], Double.parseDouble(tokens[2]), Double::sum);
+                } catch (NumberFormatException e) {
+                    throw new ParserException("Wrong weight: " + line);
+                }
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new ParserException("No weight in " + file);
+        }
+        return new SearchSelector(weights);
+    }
+
+    private static void check(String search) {
+        if (!DEFAULT.equals(search) && !DOMWDEG.equals(search) && !ACTIVITY.equals(search)) {
+            throw new ParserException("Unknown search: " + search);
+        }
+    }
+
+    /**
+     * Select a search.
+     *
+     * @param features features of the instance, see {@link XCSPFeatures#compute(IntVar[])}
+     * @return one of {@link #DEFAULT}, {@link #DOMWDEG} and {@link #ACTIVITY}
+     */
+    public String select(Map<String, Double> features) {
+        if (weights == null) {
+            return rules(features);
+        }
+        String best = DEFAULT;
+        double score = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, Map<String, Double>> search : weights.entrySet()) {
+            double s = 0;
+            for (Map.Entry<String, Double> weight : search.getValue().entrySet()) {
+                s += weight.getValue() * ("bias".equals(weight.getKey()) ? 1. :
+                        features.getOrDefault(weight.getKey(), 0.));
+            }
+            if (s > score) {
+                score = s;
+                best = search.getKey();
+            }
+        }
+        return best;
+    }
+
+    private static String rules(Map<String, Double> features) {
+        // tightness is only known for extension constraints
+        double tables = features.getOrDefault("ctr.extension", 0.);
+        if (tables >= .5 && features.get("tightness") >= .5) {
+            // tight tables: failures are informative
+            return DOMWDEG;
+        }
+        if (features.get("bools") >= .9 && features.get("vars") >= 1000) {
+            return ACTIVITY;
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Set the search of <i>model</i>.
+     *
+     * @param search    one of {@link #DEFAULT}, {@link #DOMWDEG} and {@link #ACTIVITY}
+     * @param model     a model
+     * @param decisions decision variables declared in the instance, or {@code null}
+     * @param vars      variables declared in the instance
+     */
+    public static void apply(String search, Model model, IntVar[] decisions, IntVar[] vars) {
+        check(search);
+        IntVar[] dvars = decisions != null ? decisions : vars;
+        switch (search) {
+            case DOMWDEG:
+                model.getSolver().setSearch(Search.lastConflict(Search.domOverWDegSearch(dvars)));
+                break;
+            case ACTIVITY:
+                model.getSolver().setSearch(Search.activityBasedSearch(dvars));
+                break;
+            default:
+                if (decisions != null) {
+                    model.getSolver().setSearch(Search.lastConflict(Search.domOverWDegSearch(decisions)));
+                } else {
+                    model.getSolver().setSearch(Search.defaultSearch(model));
+                }
+                break;
+        }
+    }
+}
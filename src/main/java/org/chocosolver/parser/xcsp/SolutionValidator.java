@@ -0,0 +1,988 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+import org.xcsp.checker.SolutionChecker;
+import org.xcsp.common.Condition;
+import org.xcsp.common.Types;
+import org.xcsp.common.predicates.XNode;
+import org.xcsp.common.predicates.XNodeParent;
+import org.xcsp.parser.entries.XVariables;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.xcsp.common.Constants.STAR_INT;
+
+/**
+ * An in-process checker of the solutions of an XCSP3 instance.
+ * <p>
+ * Evaluators are built once, while the instance is parsed, from the source constraints as
+ * declared in the instance, independently of the way they are posted in the model: a wrong
+ * decomposition is thus detected. Extension constraints are checked against their original tuples
+ * (before filtering and compression) and intension constraints by interpreting their original
+ * predicate.
+ * allDifferent, allEqual, notAllEqual, sum, count, nValues, cardinality, minimum, maximum,
+ * element, ordered, lex, channel, noOverlap, cumulative, instantiation and clause constraints are
+ * checked against their definition. The objective value is computed from the variables and
+ * compared with the bound reported by the solver.
+ * <p>
+ * Any other source constraint, or one whose condition is not supported, is reported as
+ * uncovered; then solutions are also checked by {@link SolutionChecker}, which parses the
+ * instance again.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class SolutionValidator {
+
+    private static final Comparator<int[]> LEX = (t1, t2) -> {
+        for (int i = 0; i < t1.length; i++) {
+            if (t1[i] != t2[i]) {
+                return Integer.compare(t1[i], t2[i]);
+            }
+        }
+        return 0;
+    };
+
+    private final Function<XVariables.XVarInteger, IntVar> var;
+    private final List<Check> checks = new ArrayList<>();
+    /**
+     * Types of the source constraints which are not checked by an evaluator
+     */
+    private final Set<Types.TypeCtr> uncovered = EnumSet.noneOf(Types.TypeCtr.class);
+    private Objective objective;
+
+    /**
+     * @param var maps a variable of the instance to its variable in the model
+     */
+    SolutionValidator(Function<XVariables.XVarInteger, IntVar> var) {
+        this.var = var;
+    }
+
+    /**
+     * Add an extension constraint.
+     *
+     * @param id       identifier of the constraint, may be null
+     * @param vars     the variables of the constraint
+     * @param tuples   the tuples, as declared in the instance, may be starred
+     * @param positive set to true if the tuples are supports, false if they are conflicts
+     */
+    void extension(String id, IntVar[] vars, int[][] tuples, boolean positive) {
+        checks.add(new Extension(id, vars, tuples, positive));
+    }
+
+    /**
+     * Add an intension constraint. The predicate is interpreted node by node, independently of
+     * the way it is compiled to be posted. A predicate which cannot be evaluated adds no check.
+     *
+     * @param id   identifier of the constraint, may be null
+     * @param tree the predicate, as declared in the instance
+     */
+    void intension(String id, XNodeParent<XVariables.XVarInteger> tree) {
+        Set<XVariables.XVarInteger> scope = new LinkedHashSet<>();
+        if (evaluable(tree, scope)) {
+            XVariables.XVarInteger[] list = scope.toArray(new XVariables.XVarInteger[0]);
+            checks.add(new Intension(id, list, vars(list), tree));
+        }
+    }
+
+    /**
+     * Collect the variables of <i>node</i> in <i>scope</i>.
+     *
+     * @return {@code false} if an operator of <i>node</i> cannot be evaluated
+     */
+    private static boolean evaluable(XNode<XVariables.XVarInteger> node, Set<XVariables.XVarInteger> scope) {
+        switch (node.type) {
+            case VAR:
+                scope.add(node.var(0));
+                return true;
+            case LONG:
+                return true;
+            case IN:
+                return arity(node, 2, 2)
+                        && ((XNodeParent<XVariables.XVarInteger>) node).sons[1].type == Types.TypeExpr.SET
+                        && evaluable(((XNodeParent<XVariables.XVarInteger>) node).sons[0], scope);
+            case NEG:
+            case ABS:
+            case SQR:
+            case NOT:
+                return arity(node, 1, 1) && sons(node, scope);
+            case SUB:
+            case DIV:
+            case MOD:
+            case POW:
+            case DIST:
+            case LT:
+            case LE:
+            case GE:
+            case GT:
+            case NE:
+            case IMP:
+                return arity(node, 2, 2) && sons(node, scope);
+            case IF:
+                return arity(node, 3, 3) && sons(node, scope);
+            case ADD:
+            case MUL:
+            case MIN:
+            case MAX:
+            case EQ:
+            case AND:
+            case OR:
+            case XOR:
+            case IFF:
+                return arity(node, 1, Integer.MAX_VALUE) && sons(node, scope);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean arity(XNode<XVariables.XVarInteger> node, int min, int max) {
+        return node instanceof XNodeParent
+                && ((XNodeParent<XVariables.XVarInteger>) node).sons.length >= min
+                && ((XNodeParent<XVariables.XVarInteger>) node).sons.length <= max;
+    }
+
+    private static boolean sons(XNode<XVariables.XVarInteger> node, Set<XVariables.XVarInteger> scope) {
+        for (XNode<XVariables.XVarInteger> son : ((XNodeParent<XVariables.XVarInteger>) node).sons) {
+            if (!evaluable(son, scope)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluate <i>node</i>, Booleans being 0 and 1.
+     *
+     * @param values value of each variable of <i>node</i>
+     * @throws ArithmeticException on a division by zero or an overflow
+     */
+    private static long evaluate(XNode<XVariables.XVarInteger> node, Map<XVariables.XVarInteger, Long> values) {
+        if (node.type == Types.TypeExpr.VAR) {
+            return values.get(node.var(0));
+        } else if (node.type == Types.TypeExpr.LONG) {
+            return node.val(0);
+        }
+        XNode<XVariables.XVarInteger>[] sons = ((XNodeParent<XVariables.XVarInteger>) node).sons;
+        if (node.type == Types.TypeExpr.IN) {
+            long a = evaluate(sons[0], values);
+            for (int w : sons[1].arrayOfVals()) {
+                if (w == a) {
+                    return 1;
+                }
+            }
+            return 0;
+        } else if (node.type == Types.TypeExpr.IF) {
+            return evaluate(sons[0], values) != 0 ? evaluate(sons[1], values) : evaluate(sons[2], values);
+        }
+        long[] v = new long[sons.length];
+        for (int i = 0; i < sons.length; i++) {
+            v[i] = evaluate(sons[i], values);
+        }
+        long r;
+        switch (node.type) {
+            case NEG:
+                return Math.negateExact(v[0]);
+            case ABS:
+                return v[0] < 0 ? Math.negateExact(v[0]) : v[0];
+            case SQR:
+                return Math.multiplyExact(v[0], v[0]);
+            case SUB:
+                return Math.subtractExact(v[0], v[1]);
+            case DIV:
+                return v[0] / v[1];
+            case MOD:
+                return v[0] % v[1];
+            case POW:
+                if (v[1] < 0) {
+                    throw new ArithmeticException("negative exponent");
+                }
+                r = 1;
+                for (long i = 0; i < v[1]; i++) {
+                    r = Math.multiplyExact(r, v[0]);
+                }
+                return r;
+            case DIST:
+                r = Math.subtractExact(v[0], v[1]);
+                return r < 0 ? Math.negateExact(r) : r;
+            case LT:
+                return v[0] < v[1] ? 1 : 0;
+            case LE:
+                return v[0] <= v[1] ? 1 : 0;
+            case GE:
+                return v[0] >= v[1] ? 1 : 0;
+            case GT:
+                return v[0] > v[1] ? 1 : 0;
+            case NE:
+                return v[0] != v[1] ? 1 : 0;
+            case IMP:
+                return v[0] == 0 || v[1] != 0 ? 1 : 0;
+            case NOT:
+                return v[0] == 0 ? 1 : 0;
+            case ADD:
+                r = 0;
+                for (long a : v) {
+                    r = Math.addExact(r, a);
+                }
+                return r;
+            case MUL:
+                r = 1;
+                for (long a : v) {
+                    r = Math.multiplyExact(r, a);
+                }
+                return r;
+            case MIN:
+                return Arrays.stream(v).min().getAsLong();
+            case MAX:
+                return Arrays.stream(v).max().getAsLong();
+            case EQ:
+                return Arrays.stream(v).allMatch(a -> a == v[0]) ? 1 : 0;
+            case AND:
+                return Arrays.stream(v).allMatch(a -> a != 0) ? 1 : 0;
+            case OR:
+                return Arrays.stream(v).anyMatch(a -> a != 0) ? 1 : 0;
+            case XOR:
+                return Arrays.stream(v).filter(a -> a != 0).count() % 2;
+            case IFF:
+                return Arrays.stream(v).allMatch(a -> (a != 0) == (v[0] != 0)) ? 1 : 0;
+            default:
+                throw new UnsupportedOperationException("Unknown type : " + node.type);
+        }
+    }
+
+    void allDifferent(String id, XVariables.XVarInteger[] list, int[] except) {
+        rule(id, "allDifferent", vars(list), v -> {
+            int[] sorted = v.clone();
+            Arrays.sort(sorted);
+            for (int i = 1; i < sorted.length; i++) {
+                if (sorted[i] == sorted[i - 1] && !contains(except, sorted[i])) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    void allDifferentMatrix(String id, XVariables.XVarInteger[][] matrix) {
+        for (XVariables.XVarInteger[] row : matrix) {
+            allDifferent(id, row, new int[0]);
+        }
+        for (XVariables.XVarInteger[] column : ArrayUtils.transpose(matrix)) {
+            allDifferent(id, column, new int[0]);
+        }
+    }
+
+    void allDifferentList(String id, XVariables.XVarInteger[][] lists) {
+        int k = lists.length == 0 ? 0 : lists[0].length;
+        rule(id, "allDifferentList", vars(ArrayUtils.flatten(lists)), v -> {
+            for (int i = 0; i < lists.length; i++) {
+                for (int j = i + 1; j < lists.length; j++) {
+                    boolean same = true;
+                    for (int d = 0; d < k && same; d++) {
+                        same = v[i * k + d] == v[j * k + d];
+                    }
+                    if (same) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    void allEqual(String id, XVariables.XVarInteger[] list) {
+        rule(id, "allEqual", vars(list), v -> Arrays.stream(v).distinct().count() <= 1);
+    }
+
+    void notAllEqual(String id, XVariables.XVarInteger[] list) {
+        rule(id, "notAllEqual", vars(list), v -> Arrays.stream(v).distinct().count() > 1);
+    }
+
+    /**
+     * @param coeffs the coefficients, {@code null} if they are all equal to 1
+     */
+    void sum(String id, XVariables.XVarInteger[] list, int[] coeffs, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            rule(id, "sum", cond.with(vars(list)), v -> {
+                long sum = 0;
+                for (int i = 0; i < list.length; i++) {
+                    sum += (long) v[i] * (coeffs == null ? 1 : coeffs[i]);
+                }
+                return cond.test(sum, v);
+            });
+        }
+    }
+
+    void sum(String id, XVariables.XVarInteger[] list, XVariables.XVarInteger[] coeffs, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            int n = list.length;
+            rule(id, "sum", cond.with(ArrayUtils.append(vars(list), vars(coeffs))), v -> {
+                long sum = 0;
+                for (int i = 0; i < n; i++) {
+                    sum += (long) v[i] * v[n + i];
+                }
+                return cond.test(sum, v);
+            });
+        }
+    }
+
+    void count(String id, XVariables.XVarInteger[] list, int[] values, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            rule(id, "count", cond.with(vars(list)), v -> {
+                int count = 0;
+                for (int i = 0; i < list.length; i++) {
+                    if (contains(values, v[i])) {
+                        count++;
+                    }
+                }
+                return cond.test(count, v);
+            });
+        }
+    }
+
+    /**
+     * Exactly, at least or at most <i>k</i> variables of <i>list</i> are equal to <i>value</i>.
+     *
+     * @param op the comparison of the number of occurrences with <i>k</i>
+     */
+    void occurrences(String id, XVariables.XVarInteger[] list, int value, Types.TypeConditionOperatorRel op, int k) {
+        rule(id, "count", vars(list), v -> rel(op, Arrays.stream(v).filter(x -> x == value).count(), k));
+    }
+
+    void exactly(String id, XVariables.XVarInteger[] list, int value, XVariables.XVarInteger k) {
+        int n = list.length;
+        rule(id, "exactly", ArrayUtils.append(vars(list), new IntVar[]{var.apply(k)}),
+                v -> Arrays.stream(v, 0, n).filter(x -> x == value).count() == v[n]);
+    }
+
+    void nValues(String id, XVariables.XVarInteger[] list, int[] except, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            rule(id, "nValues", cond.with(vars(list)), v ->
+                    cond.test(Arrays.stream(v, 0, list.length).filter(x -> !contains(except, x)).distinct().count(), v));
+        }
+    }
+
+    /**
+     * @param occurs    the variables counting the values, {@code null} if they are bounds
+     * @param occursMin lower bounds of the occurrences, ignored if <i>occurs</i> is not null
+     * @param occursMax upper bounds of the occurrences, ignored if <i>occurs</i> is not null
+     */
+    void cardinality(String id, XVariables.XVarInteger[] list, boolean closed, int[] values,
+                     XVariables.XVarInteger[] occurs, int[] occursMin, int[] occursMax) {
+        int n = list.length;
+        IntVar[] vars = occurs == null ? vars(list) : ArrayUtils.append(vars(list), vars(occurs));
+        rule(id, "cardinality", vars, v -> {
+            for (int j = 0; j < values.length; j++) {
+                int value = values[j];
+                long count = Arrays.stream(v, 0, n).filter(x -> x == value).count();
+                if (occurs != null ? count != v[n + j] : count < occursMin[j] || count > occursMax[j]) {
+                    return false;
+                }
+            }
+            return !closed || Arrays.stream(v, 0, n).allMatch(x -> contains(values, x));
+        });
+    }
+
+    void minimum(String id, XVariables.XVarInteger[] list, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            rule(id, "minimum", cond.with(vars(list)), v ->
+                    cond.test(Arrays.stream(v, 0, list.length).min().getAsInt(), v));
+        }
+    }
+
+    void maximum(String id, XVariables.XVarInteger[] list, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond != null) {
+            rule(id, "maximum", cond.with(vars(list)), v ->
+                    cond.test(Arrays.stream(v, 0, list.length).max().getAsInt(), v));
+        }
+    }
+
+    /**
+     * @param index the index, {@code null} if the value is anywhere in <i>list</i>
+     * @param value the value, {@code null} if it is <i>constant</i>
+     */
+    void element(String id, XVariables.XVarInteger[] list, int startIndex, XVariables.XVarInteger index,
+                 XVariables.XVarInteger value, int constant) {
+        int n = list.length;
+        IntVar[] vars = vars(list);
+        if (index != null) {
+            vars = ArrayUtils.append(vars, new IntVar[]{var.apply(index)});
+        }
+        if (value != null) {
+            vars = ArrayUtils.append(vars, new IntVar[]{var.apply(value)});
+        }
+        rule(id, "element", vars, v -> {
+            int target = value != null ? v[v.length - 1] : constant;
+            if (index == null) {
+                return Arrays.stream(v, 0, n).anyMatch(x -> x == target);
+            }
+            int i = v[n] - startIndex;
+            return i >= 0 && i < n && v[i] == target;
+        });
+    }
+
+    void element(String id, int[] list, int startIndex, XVariables.XVarInteger index, XVariables.XVarInteger value) {
+        rule(id, "element", vars(index, value), v -> {
+            int i = v[0] - startIndex;
+            return i >= 0 && i < list.length && list[i] == v[1];
+        });
+    }
+
+    /**
+     * @param lengths the lengths, {@code null} if they are all equal to 0
+     */
+    void ordered(String id, XVariables.XVarInteger[] list, int[] lengths, Types.TypeOperatorRel op) {
+        rule(id, "ordered", vars(list), v -> {
+            for (int i = 0; i < v.length - 1; i++) {
+                if (!rel(op, Long.compare(v[i] + (lengths == null ? 0L : lengths[i]), v[i + 1]))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    void lex(String id, XVariables.XVarInteger[][] lists, Types.TypeOperatorRel op) {
+        int k = lists.length == 0 ? 0 : lists[0].length;
+        rule(id, "lex", vars(ArrayUtils.flatten(lists)), v -> {
+            for (int i = 0; i < lists.length - 1; i++) {
+                int cmp = 0;
+                for (int d = 0; d < k && cmp == 0; d++) {
+                    cmp = Integer.compare(v[i * k + d], v[(i + 1) * k + d]);
+                }
+                if (!rel(op, cmp)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    void lexMatrix(String id, XVariables.XVarInteger[][] matrix, Types.TypeOperatorRel op) {
+        lex(id, matrix, op);
+        lex(id, ArrayUtils.transpose(matrix), op);
+    }
+
+    /**
+     * <i>list1[i] = j</i> implies <i>list2[j] = i</i>, and conversely if both lists have the same
+     * length. When <i>list2</i> is null, <i>list1</i> is channeled with itself.
+     */
+    void channel(String id, XVariables.XVarInteger[] list1, int startIndex1, XVariables.XVarInteger[] list2, int startIndex2) {
+        int n1 = list1.length;
+        int n2 = list2 == null ? n1 : list2.length;
+        int offset = list2 == null ? 0 : n1;
+        IntVar[] vars = list2 == null ? vars(list1) : ArrayUtils.append(vars(list1), vars(list2));
+        rule(id, "channel", vars, v -> {
+            for (int i = 0; i < n1; i++) {
+                int j = v[i] - startIndex2;
+                if (j < 0 || j >= n2 || v[offset + j] != i + startIndex1) {
+                    return false;
+                }
+            }
+            if (n1 == n2) {
+                for (int j = 0; j < n2; j++) {
+                    int i = v[offset + j] - startIndex1;
+                    if (i < 0 || i >= n1 || v[i] != j + startIndex2) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    void channel(String id, XVariables.XVarInteger[] list, int startIndex, XVariables.XVarInteger value) {
+        int n = list.length;
+        rule(id, "channel", ArrayUtils.append(vars(list), new IntVar[]{var.apply(value)}), v -> {
+            for (int i = 0; i < n; i++) {
+                if ((v[i] == 1) != (v[n] == i + startIndex)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Boxes of any dimension do not overlap.
+     *
+     * @param origins one row of origins per box
+     * @param lvars   one row of length variables per box, {@code null} if they are <i>lengths</i>
+     */
+    void noOverlap(String id, XVariables.XVarInteger[][] origins, XVariables.XVarInteger[][] lvars, int[][] lengths,
+                   boolean zeroIgnored) {
+        int n = origins.length;
+        int k = n == 0 ? 0 : origins[0].length;
+        IntVar[] vars = vars(ArrayUtils.flatten(origins));
+        if (lvars != null) {
+            vars = ArrayUtils.append(vars, vars(ArrayUtils.flatten(lvars)));
+        }
+        rule(id, "noOverlap", vars, v -> {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    boolean ignored = false;
+                    boolean disjoint = false;
+                    for (int d = 0; d < k; d++) {
+                        int oi = v[i * k + d], oj = v[j * k + d];
+                        int li = lvars == null ? lengths[i][d] : v[n * k + i * k + d];
+                        int lj = lvars == null ? lengths[j][d] : v[n * k + j * k + d];
+                        ignored |= zeroIgnored && (li == 0 || lj == 0);
+                        disjoint |= (long) oi + li <= oj || (long) oj + lj <= oi;
+                    }
+                    if (!ignored && !disjoint) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    void noOverlap(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lvars, int[] lengths,
+                   boolean zeroIgnored) {
+        noOverlap(id, column(origins), lvars == null ? null : column(lvars),
+                lengths == null ? null : Arrays.stream(lengths).mapToObj(l -> new int[]{l}).toArray(int[][]::new),
+                zeroIgnored);
+    }
+
+    /**
+     * The heights of the tasks running at any time satisfy <i>condition</i>.
+     *
+     * @param lvars the length variables, {@code null} if they are <i>lengths</i>
+     * @param hvars the height variables, {@code null} if they are <i>heights</i>
+     */
+    void cumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lvars, int[] lengths,
+                    XVariables.XVarInteger[] hvars, int[] heights, Condition condition) {
+        Cond cond = cond(condition);
+        if (cond == null) {
+            return;
+        }
+        int n = origins.length;
+        int l = n;
+        int h = lvars == null ? n : 2 * n;
+        IntVar[] vars = vars(origins);
+        if (lvars != null) {
+            vars = ArrayUtils.append(vars, vars(lvars));
+        }
+        if (hvars != null) {
+            vars = ArrayUtils.append(vars, vars(hvars));
+        }
+        rule(id, "cumulative", cond.with(vars), v -> {
+            // the load only increases at the origin of a task
+            for (int t = 0; t < n; t++) {
+                long load = 0;
+                for (int i = 0; i < n; i++) {
+                    int length = lvars == null ? lengths[i] : v[l + i];
+                    if (v[i] <= v[t] && v[t] < (long) v[i] + length) {
+                        load += hvars == null ? heights[i] : v[h + i];
+                    }
+                }
+                if (!cond.test(load, v)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    void instantiation(String id, XVariables.XVarInteger[] list, int[] values) {
+        rule(id, "instantiation", vars(list), v -> Arrays.equals(v, values));
+    }
+
+    void clause(String id, XVariables.XVarInteger[] pos, XVariables.XVarInteger[] neg) {
+        int n = pos.length;
+        rule(id, "clause", ArrayUtils.append(vars(pos), vars(neg)), v -> {
+            for (int i = 0; i < v.length; i++) {
+                if (i < n ? v[i] == 1 : v[i] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Set the objective.
+     *
+     * @param type   the type of objective, {@code null} if it is the variable <i>list[0]</i>
+     * @param list   the variables of the objective
+     * @param coeffs the coefficients of a sum, {@code null} if they are all equal to 1
+     */
+    void objective(Types.TypeObjective type, XVariables.XVarInteger[] list, int[] coeffs) {
+        this.objective = new Objective(type, vars(list), coeffs);
+    }
+
+    /**
+     * Declare a source constraint with no evaluator, solutions are then also checked by
+     * {@link SolutionChecker}.
+     *
+     * @param type the type of the constraint
+     */
+    void uncovered(Types.TypeCtr type) {
+        uncovered.add(type);
+    }
+
+    /**
+     * Check the current values of the variables of <i>model</i>.
+     *
+     * @param model    the model fed with the instance, in a solution state
+     * @param instance path to the instance, parsed again only if some constraints are uncovered
+     * @param solution supplies the solution, as expected by {@link SolutionChecker}
+     * @return {@code null} if the solution is valid, otherwise a description of the first
+     * constraint which is not satisfied
+     */
+    public String check(Model model, String instance, Supplier<String> solution) {
+        for (Check check : checks) {
+            String wrong = check.check();
+            if (wrong != null) {
+                return wrong;
+            }
+        }
+        if (objective != null && model.getSolver().getObjectiveManager().isOptimization()) {
+            String wrong = objective.check();
+            if (wrong != null) {
+                return wrong;
+            }
+            long value = objective.value();
+            Number bound = model.getSolver().getObjectiveManager().getBestSolutionValue();
+            if (bound.longValue() != value) {
+                return "objective " + value + " differs from the reported bound " + bound;
+            }
+        }
+        if (!uncovered.isEmpty()) {
+            try {
+                new SolutionChecker(true, instance, new ByteArrayInputStream(solution.get().getBytes()));
+            } catch (Exception e) {
+                return "solution rejected by the checker of " + uncovered + " constraints: " + e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of source constraints checked by an evaluator
+     */
+    public int size() {
+        return checks.size();
+    }
+
+    /**
+     * @return the types of the source constraints checked by {@link SolutionChecker}
+     */
+    public Set<Types.TypeCtr> getUncovered() {
+        return uncovered;
+    }
+
+    private IntVar[] vars(XVariables.XVarInteger... list) {
+        IntVar[] vars = new IntVar[list.length];
+        for (int i = 0; i < list.length; i++) {
+            vars[i] = var.apply(list[i]);
+        }
+        return vars;
+    }
+
+    private static XVariables.XVarInteger[][] column(XVariables.XVarInteger[] list) {
+        XVariables.XVarInteger[][] column = new XVariables.XVarInteger[list.length][];
+        for (int i = 0; i < list.length; i++) {
+            column[i] = new XVariables.XVarInteger[]{list[i]};
+        }
+        return column;
+    }
+
+    private void rule(String id, String name, IntVar[] vars, Predicate<int[]> test) {
+        checks.add(new Rule(id, name, vars, test));
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean rel(Types.TypeConditionOperatorRel op, long a, long b) {
+        switch (op) {
+            case LT:
+                return a < b;
+            case LE:
+                return a <= b;
+            case GE:
+                return a >= b;
+            case GT:
+                return a > b;
+            case NE:
+                return a != b;
+            case EQ:
+                return a == b;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean rel(Types.TypeOperatorRel op, int cmp) {
+        switch (op) {
+            case LT:
+                return cmp < 0;
+            case LE:
+                return cmp <= 0;
+            case GE:
+                return cmp >= 0;
+            case GT:
+                return cmp > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the condition, or {@code null} if it is not supported
+     */
+    private Cond cond(Condition condition) {
+        if (condition instanceof Condition.ConditionVar) {
+            return new Cond(condition, var.apply((XVariables.XVarInteger) ((Condition.ConditionVar) condition).x));
+        } else if (condition instanceof Condition.ConditionVal || condition instanceof Condition.ConditionIntvl) {
+            return new Cond(condition, null);
+        }
+        return null;
+    }
+
+    /**
+     * A condition of a global constraint, the value of its variable, if any, is the last one of
+     * the values of the check
+     */
+    private static final class Cond {
+        final Condition condition;
+        final IntVar x;
+
+        Cond(Condition condition, IntVar x) {
+            this.condition = condition;
+            this.x = x;
+        }
+
+        IntVar[] with(IntVar[] vars) {
+            return x == null ? vars : ArrayUtils.append(vars, new IntVar[]{x});
+        }
+
+        boolean test(long value, int[] values) {
+            if (condition instanceof Condition.ConditionVal) {
+                return rel(((Condition.ConditionRel) condition).operator, value, ((Condition.ConditionVal) condition).k);
+            } else if (condition instanceof Condition.ConditionVar) {
+                return rel(((Condition.ConditionRel) condition).operator, value, values[values.length - 1]);
+            }
+            Condition.ConditionIntvl intvl = (Condition.ConditionIntvl) condition;
+            boolean in = intvl.min <= value && value <= intvl.max;
+            return intvl.operator == Types.TypeConditionOperatorSet.IN ? in : !in;
+        }
+    }
+
+    private static abstract class Check {
+        final String id;
+        final IntVar[] vars;
+
+        Check(String id, IntVar[] vars) {
+            this.id = id;
+            this.vars = vars;
+        }
+
+        abstract boolean holds();
+
+        /**
+         * @return {@code null} if the check holds, otherwise the reason why it does not
+         */
+        String check() {
+            for (IntVar var : vars) {
+                if (!var.isInstantiated()) {
+                    return var.getName() + " is not instantiated";
+                }
+            }
+            return holds() ? null : this + " is not satisfied";
+        }
+
+        String name() {
+            return id == null ? "" : id + " ";
+        }
+    }
+
+    private static final class Rule extends Check {
+        final String name;
+        final Predicate<int[]> test;
+        final int[] values;
+
+        Rule(String id, String name, IntVar[] vars, Predicate<int[]> test) {
+            super(id, vars);
+            this.name = name;
+            this.test = test;
+            this.values = new int[vars.length];
+        }
+
+        @Override
+        boolean holds() {
+            for (int i = 0; i < vars.length; i++) {
+                values[i] = vars[i].getValue();
+            }
+            return test.test(values);
+        }
+
+        @Override
+        public String toString() {
+            return name() + name + Arrays.toString(vars);
+        }
+    }
+
+    private static final class Objective extends Check {
+        final Types.TypeObjective type;
+        final int[] coeffs;
+
+        Objective(Types.TypeObjective type, IntVar[] vars, int[] coeffs) {
+            super(null, vars);
+            this.type = type;
+            this.coeffs = coeffs;
+        }
+
+        long value() {
+            if (type == null) {
+                return vars[0].getValue();
+            }
+            switch (type) {
+                case SUM: {
+                    long sum = 0;
+                    for (int i = 0; i < vars.length; i++) {
+                        sum += (long) vars[i].getValue() * (coeffs == null ? 1 : coeffs[i]);
+                    }
+                    return sum;
+                }
+                case MINIMUM:
+                    return Arrays.stream(vars).mapToInt(IntVar::getValue).min().getAsInt();
+                case MAXIMUM:
+                    return Arrays.stream(vars).mapToInt(IntVar::getValue).max().getAsInt();
+                case NVALUES:
+                    return Arrays.stream(vars).mapToInt(IntVar::getValue).distinct().count();
+                default:
+                    throw new UnsupportedOperationException("Unknown objective");
+            }
+        }
+
+        @Override
+        boolean holds() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "objective " + (type == null ? "" : type.name().toLowerCase()) + Arrays.toString(vars);
+        }
+    }
+
+    private static final class Extension extends Check {
+        final int[][] tuples;
+        final boolean positive;
+        final boolean starred;
+        final int[] values;
+        // sorted copy of the tuples, built on the first check
+        int[][] sorted;
+
+        Extension(String id, IntVar[] vars, int[][] tuples, boolean positive) {
+            super(id, vars);
+            this.tuples = tuples;
+            this.positive = positive;
+            this.starred = Arrays.stream(tuples).anyMatch(t -> Arrays.stream(t).anyMatch(v -> v == STAR_INT));
+            this.values = new int[vars.length];
+        }
+
+        @Override
+        boolean holds() {
+            for (int i = 0; i < vars.length; i++) {
+                values[i] = vars[i].getValue();
+            }
+            boolean found;
+            if (starred) {
+                found = false;
+                for (int t = 0; t < tuples.length && !found; t++) {
+                    found = matches(tuples[t]);
+                }
+            } else {
+                if (sorted == null) {
+                    sorted = tuples.clone();
+                    Arrays.sort(sorted, LEX);
+                }
+                found = Arrays.binarySearch(sorted, values, LEX) >= 0;
+            }
+            return found == positive;
+        }
+
+        private boolean matches(int[] tuple) {
+            for (int i = 0; i < tuple.length; i++) {
+                if (tuple[i] != STAR_INT && tuple[i] != values[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return name() + "extension" + Arrays.toString(vars) + (positive ? " supports" : " conflicts");
+        }
+    }
+
+    private static final class Intension extends Check {
+        final XVariables.XVarInteger[] scope;
+        final XNodeParent<XVariables.XVarInteger> tree;
+        final Map<XVariables.XVarInteger, Long> values = new HashMap<>();
+
+        Intension(String id, XVariables.XVarInteger[] scope, IntVar[] vars, XNodeParent<XVariables.XVarInteger> tree) {
+            super(id, vars);
+            this.scope = scope;
+            this.tree = tree;
+        }
+
+        @Override
+        boolean holds() {
+            for (int i = 0; i < vars.length; i++) {
+                values.put(scope[i], (long) vars[i].getValue());
+            }
+            try {
+                return evaluate(tree, values) != 0;
+            } catch (ArithmeticException e) {
+                // undefined, as a division by zero
+                return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name() + "intension " + tree;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.xcsp.common.Constants.STAR_INT;
+
+/**
+ * Reduction of the tuples of extension constraints.
+ * <p>
+ * Tuples are first filtered against the domains of the variables: a tuple with a value out of its
+ * domain can never be satisfied (or violated). Then, large positive tables are compressed into
+ * starred tables: for each position in turn, tuples that only differ at that position and cover the
+ * whole domain of its variable are replaced by a single tuple with {@link org.xcsp.common.Constants#STAR_INT}
+ * at that position. The compressed table is kept only if it is at most {@link #RATIO} times the
+ * filtered one.
+ * <p>
+ * Constraints of a group share their tuples: the last compression is remembered and reused when
+ * the same tuples are posted over the same domains.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class TableCompressor {
+
+    /**
+     * Minimum number of tuples of a table to try to compress it
+     */
+    public static final int MIN_TUPLES = 1000;
+    /**
+     * Maximum ratio between the number of compressed tuples and filtered ones to keep a compression
+     */
+    public static final double RATIO = .5;
+
+    private long tuples;
+    private long filtered;
+    private int tables;
+    private int compressed;
+    private long before;
+    private long after;
+
+    // last compression, reused by the constraints of a group
+    private int[][] lastTuples;
+    private int[][] lastDomains;
+    private int[][] lastResult;
+
+    /**
+     * Remove the tuples that have a value out of the domain of its variable.
+     * Universal values are kept.
+     *
+     * @param tuples tuples over <i>vars</i>
+     * @param vars   variables
+     * @return the tuples that are valid, <i>tuples</i> itself if all are valid
+     */
+    public int[][] filter(int[][] tuples, IntVar[] vars) {
+        tables++;
+        this.tuples += tuples.length;
+        int k = 0;
+        while (k < tuples.length && valid(tuples[k], vars)) {
+            k++;
+        }
+        if (k == tuples.length) {
+            filtered += tuples.length;
+            return tuples;
+        }
+        List<int[]> kept = new ArrayList<>(tuples.length);
+        kept.addAll(Arrays.asList(tuples).subList(0, k));
+        for (int t = k + 1; t < tuples.length; t++) {
+            if (valid(tuples[t], vars)) {
+                kept.add(tuples[t]);
+            }
+        }
+        filtered += kept.size();
+        return kept.toArray(new int[0][]);
+    }
+
+    private static boolean valid(int[] tuple, IntVar[] vars) {
+        for (int i = 0; i < tuple.length; i++) {
+            if (tuple[i] != STAR_INT && !vars[i].contains(tuple[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compress valid positive tuples into starred ones.
+     *
+     * @param tuples valid tuples over <i>vars</i>, with no universal value
+     * @param vars   variables
+     * @return starred tuples, or {@code null} if the table is too small or does not shrink enough
+     */
+    public int[][] compress(int[][] tuples, IntVar[] vars) {
+        if (tuples.length < MIN_TUPLES || vars.length < 2) {
+            return null;
+        }
+        int[][] domains = new int[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            domains[i] = new int[vars[i].getDomainSize()];
+            int j = 0;
+            for (int v = vars[i].getLB(); v <= vars[i].getUB(); v = vars[i].nextValue(v)) {
+                domains[i][j++] = v;
+            }
+        }
+        if (tuples != lastTuples || !Arrays.deepEquals(domains, lastDomains)) {
+            int[][] result = starred(tuples, domains);
+            lastTuples = tuples;
+            lastDomains = domains;
+            lastResult = result.length <= tuples.length * RATIO ? result : null;
+        }
+        if (lastResult != null) {
+            compressed++;
+            before += tuples.length;
+            after += lastResult.length;
+        }
+        return lastResult;
+    }
+
+    private static int[][] starred(int[][] tuples, int[][] domains) {
+        List<int[]> current = Arrays.asList(tuples);
+        for (int p = 0; p < domains.length; p++) {
+            Map<Masked, List<int[]>> groups = new LinkedHashMap<>();
+            for (int[] tuple : current) {
+                groups.computeIfAbsent(new Masked(tuple, p), k -> new ArrayList<>(2)).add(tuple);
+            }
+            List<int[]> next = new ArrayList<>(groups.size());
+            for (List<int[]> group : groups.values()) {
+                if (covers(group, p, domains[p])) {
+                    int[] star = group.get(0).clone();
+                    star[p] = STAR_INT;
+                    next.add(star);
+                } else {
+                    next.addAll(group);
+                }
+            }
+            current = next;
+        }
+        return current.toArray(new int[0][]);
+    }
+
+    /**
+     * @return {@code true} if the values at position <i>p</i> of <i>group</i> cover <i>domain</i>
+     */
+    private static boolean covers(List<int[]> group, int p, int[] domain) {
+        if (group.size() < domain.length) {
+            return false;
+        }
+        boolean[] seen = new boolean[domain.length];
+        int count = 0;
+        for (int[] tuple : group) {
+            if (tuple[p] == STAR_INT) {
+                return true;
+            }
+            int i = Arrays.binarySearch(domain, tuple[p]);
+            if (i >= 0 && !seen[i]) {
+                seen[i] = true;
+                count++;
+            }
+        }
+        return count == domain.length;
+    }
+
+    /**
+     * Print the numbers of tuples read, kept after filtering and compressed.
+     *
+     * @param commentChar the character that starts a comment line
+     */
+    public void print(char commentChar) {
+        System.out.printf("%c %d tables: %d tuples read, %d valid\n", commentChar, tables, tuples, filtered);
+        if (compressed > 0) {
+            System.out.printf("%c %d tables compressed: %d tuples before, %d after\n", commentChar, compressed,
+                    before, after);
+        }
+    }
+
+    /**
+     * A tuple whose value at a given position is ignored by {@link #equals(Object)} and {@link #hashCode()}
+     */
+    private static final class Masked {
+        final int[] tuple;
+        final int p;
+        final int hash;
+
+        Masked(int[] tuple, int p) {
+            this.tuple = tuple;
+            this.p = p;
+            int h = 1;
+            for (int i = 0; i < tuple.length; i++) {
+                if (i != p) {
+                    h = 31 * h + tuple[i];
+                }
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Masked)) {
+                return false;
+            }
+            int[] other = ((Masked) o).tuple;
+            for (int i = 0; i < tuple.length; i++) {
+                if (i != p && tuple[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -8,11 +8,12 @@
  */
 package org.chocosolver.parser.xcsp;
 
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import org.chocosolver.cutoffseq.LubyCutoffStrategy;
 import org.chocosolver.parser.ParserListener;
 import org.chocosolver.parser.RegParser;
@@ -23,7 +24,6 @@ import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.variables.IntVar;
 import org.kohsuke.args4j.Option;
-import org.xcsp.checker.SolutionChecker;
 
 /**
  * Created by cprudhom on 01/09/15.
@@ -34,9 +34,15 @@ public class XCSP extends RegParser {
     // Contains mapping with variables and output prints
     public XCSPParser[] parsers;
 
-    @Option(name = "-cs", usage = "set to true to check solution with org.xcsp.checker.SolutionChecker")
+    @Option(name = "-cs", usage = "set to true to check each solution and its objective value against the constraints of the instance")
     private boolean cs = false;
 
+    @Option(name = "-stream", usage = "set to true to load the instance with a streaming parser (StAX), the DOM parser takes over when an element is not supported")
+    private boolean stream = false;
+
+    @Option(name = "-sel", metaVar = "rules|file", usage = "Select the search from the features of the instance, with built-in rules or with a model learned offline (default: none, Choco default search)")
+    private String sel = null;
+
     @Option(name = "-cst")
     private boolean cst = false;
 
@@ -45,6 +51,11 @@ public class XCSP extends RegParser {
      */
     private final StringBuilder output = new StringBuilder();
 
+    /**
+     * With -cs, the reason why the last solution is wrong, null if it is valid
+     */
+    private String wrong;
+
     public XCSP() {
         super("ChocoXCSP");
         this.defaultSettings = new XCSPSettings(); // todo: rename or create the right one
@@ -86,6 +97,9 @@ public class XCSP extends RegParser {
             Model threadModel = new Model(iname + "_" + (i + 1), defaultSettings);
             portfolio.addModel(threadModel);
             parsers[i] = new XCSPParser();
+            if (cs) {
+                parsers[i].checkSolutions();
+            }
         }
         listeners.forEach(ParserListener::afterSolverCreation);
     }
@@ -94,6 +108,10 @@ public class XCSP extends RegParser {
     public void buildModel() {
         listeners.forEach(ParserListener::beforeParsingFile);
         List<Model> models = portfolio.getModels();
+        if (models.size() > 1) {
+            // parse the instance once, the other models are fed with the recorded callbacks
+            parsers[0].recordCallbacks();
+        }
         for (int i = 0; i < models.size(); i++) {
             try {
                 parse(models.get(i), parsers[i], i);
@@ -104,19 +122,40 @@ public class XCSP extends RegParser {
                 throw new RuntimeException("UNSUPPORTED");
             }
         }
+        parsers[0].releaseCallbacks();
+        if (stat && PRINT_LOG) {
+            parsers[0].getTables().print(getCommentChar());
+        }
         listeners.forEach(ParserListener::afterParsingFile);
     }
 
     public void parse(Model target, XCSPParser parser, int i) throws Exception {
-        parser.model(target, instance);
         if (i == 0) {
-            IntVar[] decVars = (IntVar[]) getModel().getHook("decisions");;
-            if(decVars == null){
-                decVars = parser.mvars.values().toArray(new IntVar[parser.mvars.size()]);
+            parser.model(target, instance, stream);
+        } else {
+            parser.model(target, parsers[0]);
+        }
+        if (i == 0) {
+            IntVar[] vars = parser.getVariables();
+            IntVar[] decVars = (IntVar[]) target.getHook("decisions");
+            if (decVars != null) {
+                decVars = decVars.clone();
+                Arrays.sort(decVars, Comparator.comparingInt(IntVar::getId));
+            }
+            // features are only computed when they are used
+            Map<String, Double> features = sel != null || stat ? parser.getFeatures().compute(vars) : null;
+            if (stat && PRINT_LOG) {
+                XCSPFeatures.print(features, getCommentChar());
             }
-            Arrays.sort(decVars, Comparator.comparingInt(IntVar::getId));
             Solver solver = target.getSolver();
-            solver.setSearch(Search.defaultSearch(target));
+            if (sel != null) {
+                SearchSelector selector = "rules".equals(sel) ? new SearchSelector() : SearchSelector.load(new File(sel));
+                String search = selector.select(features);
+                if (PRINT_LOG) System.out.printf("c search: %s\n", search);
+                SearchSelector.apply(search, target, decVars, vars);
+            } else {
+                solver.setSearch(Search.defaultSearch(target));
+            }
             solver.setNoGoodRecordingFromRestarts();
             solver.setRestarts(count -> solver.getFailCount() >= count, new LubyCutoffStrategy(500), 5000);
         }
@@ -183,10 +222,10 @@ public class XCSP extends RegParser {
             solver.getOut().printf("c %s \n", solver.getMeasures().toOneLineString());
         }
         if(cs) {
-            try {
-                new SolutionChecker(true, instance, new ByteArrayInputStream(output.toString().getBytes()));
-            } catch (Exception e) {
-                throw new RuntimeException("wrong solution found twice");
+            // checked in-process, while the variables are still instantiated
+            wrong = parser.checkSolution();
+            if (wrong != null) {
+                throw new RuntimeException("wrong solution found twice: " + wrong);
             }
         }
     }
@@ -208,12 +247,8 @@ public class XCSP extends RegParser {
         if (stat) {
             solver.getOut().printf("c %s \n", solver.getMeasures().toOneLineString());
         }
-        if(cs) {
-            try {
-                new SolutionChecker(true, instance, new ByteArrayInputStream(output.toString().getBytes()));
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        if(cs && wrong != null) {
+            new RuntimeException("wrong solution found: " + wrong).printStackTrace();
         }
     }
 }
@@ -0,0 +1,144 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import org.chocosolver.solver.variables.IntVar;
+import org.xcsp.common.Types;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Features of an XCSP3 instance, collected while it is parsed: variables and domains, constraint
+ * types, tightness of tables, shape of the objective and presence of decision annotations.
+ * <p>
+ * Features are numeric, named and printed in a fixed order, so that they can be used to select a
+ * search (see {@link SearchSelector}) and logged to learn such a selection offline.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public final class XCSPFeatures {
+
+    /**
+     * Shapes of objective, the first one stands for no objective
+     */
+    private static final String[] OBJECTIVES = {"none", "variable", "sum", "minmax", "nvalues"};
+
+    private final Map<Types.TypeCtr, Integer> constraints = new EnumMap<>(Types.TypeCtr.class);
+    private int nbConstraints;
+    private int tables;
+    private double tightness;
+    private double arity;
+    private String objective = OBJECTIVES[0];
+    private int objectiveSize;
+    private boolean decisions;
+
+    void constraint(Types.TypeCtr type) {
+        constraints.merge(type, 1, Integer::sum);
+        nbConstraints++;
+    }
+
+    /**
+     * Add a table of <i>tuples</i> valid tuples over <i>vars</i>
+     */
+    void table(int tuples, IntVar[] vars, boolean positive) {
+        double product = 1;
+        for (IntVar var : vars) {
+            product *= var.getDomainSize();
+        }
+        double ratio = Math.min(1., tuples / product);
+        tightness += positive ? 1. - ratio : ratio;
+        arity += vars.length;
+        tables++;
+    }
+
+    void objective(Types.TypeObjective type, int size) {
+        if (type == null) {
+            objective = "variable";
+        } else if (type == Types.TypeObjective.SUM) {
+            objective = "sum";
+        } else if (type == Types.TypeObjective.MINIMUM || type == Types.TypeObjective.MAXIMUM) {
+            objective = "minmax";
+        } else {
+            objective = "nvalues";
+        }
+        objectiveSize = size;
+    }
+
+    void decisions() {
+        decisions = true;
+    }
+
+    /**
+     * Compute the features.
+     *
+     * @param vars the variables declared in the instance
+     * @return the features, by name, in a fixed order
+     */
+    public Map<String, Double> compute(IntVar[] vars) {
+        Map<String, Double> features = new LinkedHashMap<>();
+        int bools = 0;
+        long min = Long.MAX_VALUE, max = 0, sum = 0;
+        for (IntVar var : vars) {
+            int size = var.getDomainSize();
+            if (size == 2 && var.getLB() == 0 && var.getUB() == 1) {
+                bools++;
+            }
+            min = Math.min(min, size);
+            max = Math.max(max, size);
+            sum += size;
+        }
+        features.put("vars", (double) vars.length);
+        features.put("bools", vars.length == 0 ? 0. : bools * 1. / vars.length);
+        features.put("domMin", vars.length == 0 ? 0. : (double) min);
+        features.put("domMean", vars.length == 0 ? 0. : sum * 1. / vars.length);
+        features.put("domMax", (double) max);
+        features.put("ctrs", (double) nbConstraints);
+        // every type is present, so that all instances have the same features
+        for (Types.TypeCtr type : Types.TypeCtr.values()) {
+            Integer count = constraints.get(type);
+            features.put("ctr." + type.name(), count == null ? 0. : count * 1. / nbConstraints);
+        }
+        features.put("tables", (double) tables);
+        features.put("tightness", tables == 0 ? 0. : tightness / tables);
+        features.put("tableArity", tables == 0 ? 0. : arity / tables);
+        for (String shape : OBJECTIVES) {
+            features.put("obj." + shape, shape.equals(objective) ? 1. : 0.);
+        }
+        features.put("objSize", (double) objectiveSize);
+        features.put("decisions", decisions ? 1. : 0.);
+        return features;
+    }
+
+    /**
+     * Print features on a single line, as <i>name=value</i> pairs.
+     *
+     * @param features    features, see {@link #compute(IntVar[])}
+     * @param commentChar the character that starts a comment line
+     */
+    public static void print(Map<String, Double> features, char commentChar) {
+        StringBuilder line = new StringBuilder();
+        line.append(commentChar).append(" features");
+        for (Map.Entry<String, Double> feature : features.entrySet()) {
+            line.append(' ').append(feature.getKey()).append('=');
+            double value = feature.getValue();
+            if (value == Math.rint(value)) {
+                line.append((long) value);
+            } else {
+                line.append(String.format(Locale.US, "%.4f", value));
+            }
+        }
+        System.out.println(line);
+    }
+}
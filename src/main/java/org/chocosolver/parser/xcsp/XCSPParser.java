@@ -11,6 +11,7 @@ package org.chocosolver.parser.xcsp;
 import gnu.trove.map.hash.TObjectIntHashMap;
 
 import org.chocosolver.parser.ParserException;
+import org.chocosolver.parser.Provenance;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
@@ -25,7 +26,6 @@ import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Task;
 import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
-import org.chocosolver.util.objects.queues.CircularQueue;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableRangeSet;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableSetUtils;
 import org.chocosolver.util.tools.ArrayUtils;
@@ -42,10 +42,10 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -68,10 +68,23 @@ public class XCSPParser implements XCallbacks2 {
     private static final String S_VALU_OUT = "</values>\n";
 
     /**
-     * Mapping between XCSP vars and Choco vars
+     * Choco vars, densely indexed in declaration order
      */
-    protected HashMap<XVariables.XVarInteger, IntVar> mvars;
-    private ArrayList<IntVar> ovars;
+    private IntVar[] ivars;
+    private int nbVars;
+    /**
+     * XCSP vars, in the same order as {@link #ivars}
+     */
+    private XVariables.XVarInteger[] xvars;
+    /**
+     * Index of the var expected to be referenced next: references mostly follow declaration order
+     * (e.g., <i>x[]</i>), in which case they are resolved with no lookup in {@link #index}
+     */
+    private int cursor;
+    /**
+     * Mapping between XCSP vars and the index of their Choco var
+     */
+    private TObjectIntHashMap<XVariables.XVarInteger> index;
     /**
      * The model to feed
      */
@@ -79,42 +92,422 @@ public class XCSPParser implements XCallbacks2 {
 
     Implem implem;
 
+    /**
+     * Supports of intension constraints, shared by parsers replaying the same callbacks
+     */
+    private IntensionCache intensions = new IntensionCache();
+    /**
+     * Filtering and compression of the tuples of extension constraints
+     */
+    private TableCompressor tables = new TableCompressor();
+    /**
+     * Diagrams of MDD constraints, shared by the constraints with identical transitions
+     */
+    private MddCache mdds = new MddCache();
+    /**
+     * Features of the instance, see {@link #getFeatures()}
+     */
+    private XCSPFeatures features;
+    /**
+     * When not null, consecutive intension constraints are postponed, see {@link #deferIntensions()}
+     */
+    private List<IntensionCache.Signature> signatures;
+    private List<Runnable> postponed;
+    /**
+     * While the first instance of a group is loaded, the callbacks it ends in, see
+     * {@link #loadInstances(String, Types.TypeCtr, Object[][], BiConsumer)}
+     */
+    private List<GroupTemplate.Callback> captured;
+    /**
+     * When not null, evaluators of the source constraints, see {@link #checkSolutions()}
+     */
+    private SolutionValidator validator;
+    /**
+     * Path to the instance, see {@link #checkSolution()}
+     */
+    private String instance;
+
+    /**
+     * When not null, top-level callbacks are recorded in this log, to build other models
+     * without parsing the instance again
+     */
+    private List<Consumer<XCSPParser>> log;
+    /**
+     * Depth of nested loading calls, only top-level ones are recorded
+     */
+    private int depth;
+    /**
+     * While the cells of an array are built and recorded, their callbacks, see
+     * {@link #beginArray(XVariables.XArray)}
+     */
+    private List<Consumer<XCSPParser>> cells;
+    /**
+     * The interval domain shared by all the cells built so far, {@code null} if there is none
+     */
+    private int[] shared;
+
     public void model(Model model, String instance) throws Exception {
+        model(model, instance, false);
+    }
+
+    /**
+     * Feed <i>model</i> with an instance.
+     *
+     * @param model    the model to feed
+     * @param instance path to an XCSP3 instance
+     * @param stream   set to true to load the instance with {@link XCSPStreamer} instead of building
+     *                 the DOM of the whole document, the DOM loader is used if an element is not
+     *                 supported by the streaming loader
+     */
+    public void model(Model model, String instance, boolean stream) throws Exception {
         this.model = model;
-        this.mvars = new HashMap<>();
+        this.instance = instance;
+        this.ivars = new IntVar[64];
+        this.xvars = new XVariables.XVarInteger[64];
+        this.nbVars = 0;
+        this.cursor = 0;
+        this.index = new TObjectIntHashMap<>(64, .5f, -1);
         this.implem = new Implem(this);
+        this.features = new XCSPFeatures();
         File file = new File(instance);
-        if(file.exists()){
-            loadInstance(instance);
-        }else{
+        if(!file.exists()){
             throw new RuntimeException("FILE DOES NOT EXIST");
         }
+        deferIntensions();
+        boolean streamed = false;
+        if (stream) {
+            try {
+                new XCSPStreamer(this).load(file);
+                streamed = true;
+            } catch (XCSPStreamer.Unsupported e) {
+                // nothing is built yet, the DOM loader takes over
+            }
+        }
+        if (!streamed) {
+            loadInstance(instance);
+        }
+        endIntensions();
+        if (log == null) {
+            // the tables are referenced by the constraints, unless they are replayed on other models
+            intensions.release();
+        }
+    }
+
+    /**
+     * Feed <i>model</i> with the callbacks recorded by <i>recorded</i> while it was parsing an
+     * instance. Parsed data (domains, tuples, trees, ...) are shared, not copied.
+     *
+     * @param model    the model to feed
+     * @param recorded a parser which recorded its callbacks, see {@link #recordCallbacks()}
+     */
+    public void model(Model model, XCSPParser recorded) {
+        if (recorded.log == null) {
+            throw new ParserException("No callback recorded");
+        }
+        this.model = model;
+        this.instance = recorded.instance;
+        this.ivars = new IntVar[64];
+        this.xvars = new XVariables.XVarInteger[64];
+        this.nbVars = 0;
+        this.cursor = 0;
+        this.index = new TObjectIntHashMap<>(64, .5f, -1);
+        this.implem = new Implem(this);
+        this.features = new XCSPFeatures();
+        this.intensions = recorded.intensions;
+        deferIntensions();
+        for (int i = 0; i < recorded.log.size(); i++) {
+            recorded.log.get(i).accept(this);
+        }
+        endIntensions();
+    }
+
+    /**
+     * Record the callbacks of the next parsing, see {@link #model(Model, XCSPParser)}.
+     */
+    public void recordCallbacks() {
+        this.log = new ArrayList<>();
+    }
+
+    /**
+     * Release the recorded callbacks, and the parsed data and tables they refer to.
+     */
+    public void releaseCallbacks() {
+        this.log = null;
+        intensions.release();
+    }
+
+    /**
+     * Build evaluators of the source constraints during the next parsing, so that solutions can be
+     * checked with {@link #checkSolution()}.
+     */
+    public void checkSolutions() {
+        this.validator = new SolutionValidator(this::var);
+    }
+
+    /**
+     * Check the current values of the variables against the source constraints,
+     * see {@link #checkSolutions()}.
+     *
+     * @return {@code null} if the solution is valid, otherwise a description of the first
+     * constraint which is not satisfied
+     */
+    public String checkSolution() {
+        if (validator == null) {
+            throw new ParserException("Solution checking not enabled");
+        }
+        return validator.check(model, instance, this::printSolution);
+    }
+
+    void record(Consumer<XCSPParser> callback) {
+        if (log != null && depth == 0) {
+            if (cells != null) {
+                cells.add(callback);
+            } else {
+                log.add(callback);
+            }
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     /////////////////////////////////////////// VARIABLES //////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Start the cells of an array, built in a row: room is made for all of them at once and, when
+     * they share the same interval domain, they are recorded as a single call to
+     * {@link #buildVarIntegers(XVariables.XVarInteger[], int, int)}.
+     */
+    @Override
+    public void beginArray(XVariables.XArray a) {
+        ensureCapacity(a.vars.length);
+        if (log != null && depth == 0) {
+            cells = new ArrayList<>(a.vars.length);
+            shared = null;
+        }
+    }
+
+    @Override
+    public void endArray(XVariables.XArray a) {
+        if (cells == null) {
+            return;
+        }
+        List<Consumer<XCSPParser>> recorded = cells;
+        cells = null;
+        if (shared != null && recorded.size() > 1) {
+            XVariables.XVarInteger[] xs = Arrays.copyOfRange(xvars, nbVars - recorded.size(), nbVars);
+            int minValue = shared[0];
+            int maxValue = shared[1];
+            log.add(p -> p.buildVarIntegers(xs, minValue, maxValue));
+        } else {
+            log.addAll(recorded);
+        }
+    }
+
     @Override
     public void buildVarInteger(XVariables.XVarInteger x, int minValue, int maxValue) {
-        mvars.put(x, model.intVar(x.id, minValue, maxValue));
+        record(p -> p.buildVarInteger(x, minValue, maxValue));
+        if (cells != null) {
+            if (cells.size() == 1) {
+                shared = new int[]{minValue, maxValue};
+            } else if (shared != null && (shared[0] != minValue || shared[1] != maxValue)) {
+                shared = null;
+            }
+        }
+        register(x, model.intVar(x.id, minValue, maxValue));
     }
 
     @Override
     public void buildVarInteger(XVariables.XVarInteger x, int[] values) {
-        mvars.put(x, model.intVar(x.id, values));
+        record(p -> p.buildVarInteger(x, values));
+        shared = null;
+        register(x, model.intVar(x.id, values));
+    }
+
+    /**
+     * Build the variables of an array whose cells share the same interval domain, in one call.
+     *
+     * @param xs       the cells of the array, in declaration order
+     * @param minValue lower bound of the domain
+     * @param maxValue upper bound of the domain
+     */
+    void buildVarIntegers(XVariables.XVarInteger[] xs, int minValue, int maxValue) {
+        record(p -> p.buildVarIntegers(xs, minValue, maxValue));
+        ensureCapacity(xs.length);
+        for (XVariables.XVarInteger x : xs) {
+            register(x, model.intVar(x.id, minValue, maxValue));
+        }
+    }
+
+    private void ensureCapacity(int more) {
+        if (nbVars + more > ivars.length) {
+            ivars = Arrays.copyOf(ivars, Math.max(nbVars + more, ivars.length + (ivars.length >> 1)));
+            xvars = Arrays.copyOf(xvars, ivars.length);
+        }
+    }
+
+    private void register(XVariables.XVarInteger x, IntVar var) {
+        ensureCapacity(1);
+        index.put(x, nbVars);
+        xvars[nbVars] = x;
+        ivars[nbVars++] = var;
+    }
+
+    /**
+     * @return the variables declared in the instance, in declaration order
+     */
+    public IntVar[] getVariables() {
+        return Arrays.copyOf(ivars, nbVars);
     }
 
     @Override
     public void buildCtrIntension(String id, XVariables.XVarInteger[] scope, XNodeParent<XVariables.XVarInteger> tree) {
-        ReExpression exp = buildRe(tree);
-        if(VariableUtils.domainCardinality(vars(scope)) < Integer.MAX_VALUE / 1000){
-            exp.extension().post();
-        }else{
-            exp.decompose().post();
+        IntVar[] vars = vars(scope);
+        IntensionCache.Signature signature = intensions.signature(tree, scope, vars);
+        if (captured != null) {
+            // the next instances are posted from the signature of this one, only when no tree is
+            // needed: neither to check solutions nor to decompose the predicate
+            captured.add(validator == null && signature != null && signature.affordable()
+                    ? new GroupTemplate.Callback(scope, other -> prepareIntension(other, signature))
+                    : null);
+        }
+        postIntension(vars, tree, signature);
+    }
+
+    /**
+     * Prepare an instance of a group of intension constraints, from the signature of the first one.
+     *
+     * @return the posting of the instance, or {@code null} if the predicate cannot be extended over
+     * <i>scope</i>
+     */
+    private Runnable prepareIntension(XVariables.XVarInteger[] scope, IntensionCache.Signature first) {
+        IntVar[] vars = vars(scope);
+        IntensionCache.Signature signature = intensions.signature(first, vars);
+        if (signature == null || !signature.affordable()) {
+            return null;
+        }
+        return () -> postIntension(vars, null, signature);
+    }
+
+    /**
+     * Post an intension constraint, as a table if its supports can be enumerated, or postpone it,
+     * see {@link #deferIntensions()}.
+     *
+     * @param tree      the predicate, only read if it is decomposed
+     * @param signature the signature of the predicate, {@code null} if it cannot be extended
+     */
+    private void postIntension(IntVar[] vars, XNodeParent<XVariables.XVarInteger> tree, IntensionCache.Signature signature) {
+        if (signatures != null) {
+            signatures.add(signature);
+            postponed.add(() -> post(vars, tree, signature));
+        } else {
+            post(vars, tree, signature);
+        }
+    }
+
+    private void post(IntVar[] vars, XNodeParent<XVariables.XVarInteger> tree, IntensionCache.Signature signature) {
+        int[][] supports = signature == null ? null : intensions.supports(signature);
+        if (supports != null) {
+            model.table(vars, new Tuples(supports, true)).post();
+        } else {
+            buildRe(tree).decompose().post();
+        }
+    }
+
+    /**
+     * Postpone the posting of intension constraints, until {@link #endIntensions()} is called. A
+     * batch of consecutive intension constraints (typically, the instances of a group or the
+     * content of a block) is flushed as soon as another constraint or an objective comes, so that
+     * the supports of the batch are enumerated at once but every constraint is posted at its
+     * original position.
+     * <p>
+     * Nothing is postponed when a {@link Provenance} map is attached to the model: constraints are
+     * then attributed to their source as they are posted.
+     */
+    private void deferIntensions() {
+        if (Provenance.of(model) == null) {
+            signatures = new ArrayList<>();
+            postponed = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Enumerate in parallel the supports of the postponed intension constraints, then post them
+     * in their original order. To be called before posting any other constraint, including a
+     * primitive recognized in an intension constraint.
+     */
+    private void flushIntensions() {
+        if (postponed == null || postponed.isEmpty()) {
+            return;
+        }
+        intensions.prefetch(signatures);
+        List<Runnable> todo = postponed;
+        signatures = new ArrayList<>();
+        postponed = new ArrayList<>();
+        for (int i = 0; i < todo.size(); i++) {
+            todo.get(i).run();
         }
     }
 
+    /**
+     * Post the last postponed intension constraints and stop postponing them.
+     */
+    private void endIntensions() {
+        flushIntensions();
+        signatures = null;
+        postponed = null;
+    }
+
+    /**
+     * Load the instances of a group, given by their arguments. The first instance is loaded as
+     * usual by <i>load</i>; when it ends in a single callback that can be replayed (an intension
+     * constraint extended as a table, an extension constraint), the template is analyzed into a
+     * {@link GroupTemplate} and the next instances are posted from their arguments only, without
+     * concretizing them. Instances which do not fit the template are loaded as usual.
+     *
+     * @param source description of the instances, see {@link Provenance}
+     * @param type   type of the instances
+     * @param argss  arguments of the instances
+     * @param load   loads an instance as usual, given its arguments
+     */
+    void loadInstances(String source, Types.TypeCtr type, Object[][] argss, BiConsumer<XCSPParser, Object[]> load) {
+        record(p -> p.loadInstances(source, type, argss, load));
+        depth++;
+        GroupTemplate template = null;
+        for (int k = 0; k < argss.length; k++) {
+            Runnable instance = template != null ? template.instance(argss[k]) : null;
+            if (instance != null) {
+                features.constraint(type);
+                Provenance provenance = Provenance.of(model);
+                if (provenance != null) {
+                    provenance.open(model);
+                }
+                instance.run();
+                if (provenance != null) {
+                    provenance.close(model, source);
+                }
+                continue;
+            }
+            if (k == 0) {
+                captured = new ArrayList<>(1);
+                load.accept(this, argss[k]);
+                if (captured.size() == 1 && captured.get(0) != null) {
+                    template = GroupTemplate.analyze(argss[k], captured.get(0));
+                }
+                captured = null;
+            } else {
+                load.accept(this, argss[k]);
+            }
+        }
+        depth--;
+    }
+
+    /**
+     * @return the supports of intension constraints, enumerated while parsing
+     */
+    public IntensionCache getIntensions() {
+        return intensions;
+    }
+
     private ArExpression[] extractAr(XNode<XVariables.XVarInteger>[] sons){
         return Arrays.stream(sons).map(this::buildAr).toArray(ArExpression[]::new);
     }
@@ -255,43 +648,81 @@ public class XCSPParser implements XCallbacks2 {
 
 
     private IntVar var(XVariables.XVarInteger var) {
-        return mvars.get(var);
+        int i = cursor < nbVars && xvars[cursor] == var ? cursor : index.get(var);
+        if (i < 0) {
+            return null;
+        }
+        cursor = i + 1;
+        return ivars[i];
     }
 
     private IntVar[] vars(XVariables.XVarInteger[] vars) {
-        return Arrays.stream(vars).map(v -> var(v)).toArray(IntVar[]::new);
+        IntVar[] res = new IntVar[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            res[i] = var(vars[i]);
+        }
+        return res;
     }
 
     private IntVar[][] vars(XVariables.XVarInteger[][] vars) {
-        return Arrays.stream(vars).map(v -> vars(v)).toArray(IntVar[][]::new);
+        IntVar[][] res = new IntVar[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            res[i] = vars(vars[i]);
+        }
+        return res;
     }
 
     private BoolVar bool(XVariables.XVarInteger var) {
-        return (BoolVar) mvars.get(var);
+        return (BoolVar) var(var);
     }
 
     private BoolVar[] bools(XVariables.XVarInteger[] vars) {
-        return Arrays.stream(vars).map(v -> bool(v)).toArray(BoolVar[]::new);
+        BoolVar[] res = new BoolVar[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            res[i] = bool(vars[i]);
+        }
+        return res;
     }
 
     private BoolVar[][] bools(XVariables.XVarInteger[][] vars) {
-        return Arrays.stream(vars).map(v -> bools(v)).toArray(BoolVar[][]::new);
+        BoolVar[][] res = new BoolVar[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            res[i] = bools(vars[i]);
+        }
+        return res;
+    }
+
+    /**
+     * @return the filtering and compression statistics of extension constraints
+     */
+    public TableCompressor getTables() {
+        return tables;
+    }
+
+    /**
+     * @return the diagrams of MDD constraints
+     */
+    public MddCache getMdds() {
+        return mdds;
+    }
+
+    /**
+     * @return the features of the instance, collected while parsing
+     */
+    public XCSPFeatures getFeatures() {
+        return features;
     }
 
     public String printSolution() {
         StringBuilder buffer = new StringBuilder();
-        if (ovars == null) {
-            ovars = new ArrayList<>(mvars.values());
-            ovars.sort(IntVar::compareTo);
-        }
         buffer.append(S_INST_IN).append(S_LIST_IN);
-        // list variables
-        for (int i = 0; i < ovars.size(); i++) {
-            buffer.append(ovars.get(i).getName()).append(' ');
+        // list variables, in declaration order
+        for (int i = 0; i < nbVars; i++) {
+            buffer.append(ivars[i].getName()).append(' ');
         }
         buffer.append(S_LIST_OUT).append(S_VALU_IN);
-        for (int i = 0; i < ovars.size(); i++) {
-            buffer.append(ovars.get(i).getValue()).append(' ');
+        for (int i = 0; i < nbVars; i++) {
+            buffer.append(ivars[i].getValue()).append(' ');
         }
         buffer.append(S_VALU_OUT).append(S_INST_OUT);
         return buffer.toString();
@@ -303,29 +734,52 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrExtension(String id, XVariables.XVarInteger[] list, int[][] tuples, boolean positive, Set<Types.TypeFlag> flags) {
-        if (flags.contains(Types.TypeFlag.UNCLEAN_TUPLES)) {
-            // do you have to clean the tuples, so as to remove those that cannot be built from variable domains ?
+        flushIntensions();
+        if (captured != null) {
+            captured.add(new GroupTemplate.Callback(list, other -> () -> buildCtrExtension(id, other, tuples, positive, flags)));
+        }
+        IntVar[] vars = vars(list);
+        if (validator != null) {
+            validator.extension(id, vars, tuples, positive);
         }
-        Tuples mTuples = new Tuples(tuples, positive);
+        // tuples out of the domains are removed, whatever UNCLEAN_TUPLES says
+        int[][] valid = tables.filter(tuples, vars);
+        features.table(valid.length, vars, positive);
+        Tuples mTuples;
         if (flags.contains(Types.TypeFlag.STARRED_TUPLES)) {
             if(!positive){
                 // can you manage tables with symbol * ?
                 throw new ParserException("Negative tables with symbol * are not supported");
             }
+            mTuples = new Tuples(valid, true);
             mTuples.setUniversalValue(STAR_INT);
+        } else {
+            int[][] starred = positive ? tables.compress(valid, vars) : null;
+            if (starred != null) {
+                mTuples = new Tuples(starred, true);
+                mTuples.setUniversalValue(STAR_INT);
+            } else {
+                mTuples = new Tuples(valid, positive);
+            }
         }
-        model.table(vars(list), mTuples).post();
+        model.table(vars, mTuples).post();
     }
 
     @Override
     public void buildCtrExtension(String id, XVariables.XVarInteger x, int[] values, boolean positive, Set<Types.TypeFlag> flags) {
+        flushIntensions();
         if (flags.contains(Types.TypeFlag.STARRED_TUPLES)) {
             // can you manage tables with symbol * ?
             throw new ParserException("Tables with symbol * are not supported");
         }
-        if (flags.contains(Types.TypeFlag.UNCLEAN_TUPLES)) {
-            // do you have to clean the tuples, so as to remove those that cannot be built from variable domains ?
+        if (validator != null) {
+            int[][] tuples = new int[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                tuples[i] = new int[]{values[i]};
+            }
+            validator.extension(id, new IntVar[]{var(x)}, tuples, positive);
         }
+        features.table(values.length, new IntVar[]{var(x)}, positive);
         if(positive){
             model.member(var(x), values).post();
         }else{
@@ -414,6 +868,7 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeConditionOperatorRel op, int k) {
+        flushIntensions();
         switch (op){
             case LT:
                 model.arithm(var(x), "<", k).post();
@@ -441,23 +896,27 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeArithmeticOperator opa, XVariables.XVarInteger y, Types.TypeConditionOperatorRel op, int k) {
+        flushIntensions();
         // TODO
         rel(ari(var(x), opa, var(y)), op, k).post();
     }
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeArithmeticOperator opa, XVariables.XVarInteger y, Types.TypeConditionOperatorRel op, XVariables.XVarInteger z) {
+        flushIntensions();
         // TODO
         rel(ari(var(x), opa, var(y)), op, var(z)).post();
     }
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeArithmeticOperator aop, int p, Types.TypeConditionOperatorRel op, int k) {
+        flushIntensions();
         rel(ari(var(x), aop, model.intVar(p)), op, model.intVar(k)).post();
     }
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeUnaryArithmeticOperator aop, XVariables.XVarInteger y) {
+        flushIntensions();
         switch (aop) {
             case ABS:
                 model.absolute(var(x), var(y)).post();
@@ -476,11 +935,13 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeArithmeticOperator aop, int p, Types.TypeConditionOperatorRel op, XVariables.XVarInteger y) {
+        flushIntensions();
         rel(ari(var(x), aop, model.intVar(p)), op, var(y)).post();
     }
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeConditionOperatorSet op, int[] t) {
+        flushIntensions();
         switch (op){
             case IN:
                 model.member(var(x), t).post();
@@ -493,6 +954,7 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrPrimitive(String id, XVariables.XVarInteger x, Types.TypeConditionOperatorSet op, int min, int max) {
+        flushIntensions();
         switch (op){
             case IN:
                 model.member(var(x), min, max).post();
@@ -508,11 +970,17 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrAtLeast(String id, XVariables.XVarInteger[] list, int value, int k) {
+        if (validator != null) {
+            validator.occurrences(id, list, value, Types.TypeConditionOperatorRel.GE, k);
+        }
         model.count(value, vars(list), model.intVar(k, list.length)).post();
     }
 
     @Override
     public void buildCtrAtMost(String id, XVariables.XVarInteger[] list, int value, int k) {
+        if (validator != null) {
+            validator.occurrences(id, list, value, Types.TypeConditionOperatorRel.LE, k);
+        }
         model.count(value, vars(list), model.intVar(0, k)).post();
     }
 
@@ -528,11 +996,17 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrAllDifferent(String id, XVariables.XVarInteger[] list) {
+        if (validator != null) {
+            validator.allDifferent(id, list, new int[0]);
+        }
         model.allDifferent(vars(list)).post();
     }
 
     @Override
     public void buildCtrAllDifferentMatrix(String id, XVariables.XVarInteger[][] matrix) {
+        if (validator != null) {
+            validator.allDifferentMatrix(id, matrix);
+        }
         for (XVariables.XVarInteger[] list : matrix) {
             model.allDifferent(vars(list)).post();
         }
@@ -544,6 +1018,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrAllDifferentExcept(String id, XVariables.XVarInteger[] list, int[] except) {
+        if (validator != null) {
+            validator.allDifferent(id, list, except);
+        }
         if (except.length == 0) {
             model.allDifferent(vars(list)).post();
         } else if (except.length == 1) {
@@ -556,6 +1033,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrAllDifferentList(String id, XVariables.XVarInteger[][] lists) {
+        if (validator != null) {
+            validator.allDifferentList(id, lists);
+        }
         int d1 = lists.length;
         for (int i = 0; i < d1; i++) {
             for (int j = i + 1 ; j < d1; j++) {
@@ -576,21 +1056,33 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrAllEqual(String id, XVariables.XVarInteger[] list) {
+        if (validator != null) {
+            validator.allEqual(id, list);
+        }
         model.allEqual(vars(list)).post();
     }
 
     @Override
     public void buildCtrNotAllEqual(String id, XVariables.XVarInteger[] list) {
+        if (validator != null) {
+            validator.notAllEqual(id, list);
+        }
         model.notAllEqual(vars(list)).post();
     }
 
     @Override
     public void buildCtrCardinality(String id, XVariables.XVarInteger[] list, boolean closed, int[] values, XVariables.XVarInteger[] occurs) {
+        if (validator != null) {
+            validator.cardinality(id, list, closed, values, occurs, null, null);
+        }
         model.globalCardinality(vars(list), values, vars(occurs), closed).post();
     }
 
     @Override
     public void buildCtrCardinality(String id, XVariables.XVarInteger[] list, boolean closed, int[] values, int[] occurs) {
+        if (validator != null) {
+            validator.cardinality(id, list, closed, values, null, occurs, occurs);
+        }
         model.globalCardinality(
                 vars(list),
                 values,
@@ -603,6 +1095,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCardinality(String id, XVariables.XVarInteger[] list, boolean closed, int[] values, int[] occursMin, int[] occursMax) {
+        if (validator != null) {
+            validator.cardinality(id, list, closed, values, null, occursMin, occursMax);
+        }
         model.globalCardinality(
                 vars(list),
                 values,
@@ -615,6 +1110,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrClause(String id, XVariables.XVarInteger[] pos, XVariables.XVarInteger[] neg) {
+        if (validator != null) {
+            validator.clause(id, pos, neg);
+        }
         model.addClauses(bools(pos), bools(neg));
     }
 
@@ -704,6 +1202,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrSum(String id, XVariables.XVarInteger[] list, Condition condition) {
+        if (validator != null) {
+            validator.sum(id, list, (int[]) null, condition);
+        }
         int[] coeffs = new int[list.length];
         Arrays.fill(coeffs, 1);
         buildSum(vars(list), coeffs, condition);
@@ -711,6 +1212,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrSum(String id, XVariables.XVarInteger[] list, int[] coeffs, Condition condition) {
+        if (validator != null) {
+            validator.sum(id, list, coeffs, condition);
+        }
         buildSum(vars(list), coeffs, condition);
     }
 
@@ -726,6 +1230,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrSum(String id, XVariables.XVarInteger[] list, XVariables.XVarInteger[] _coeffs, Condition condition) {
+        if (validator != null) {
+            validator.sum(id, list, _coeffs, condition);
+        }
         IntVar[] res = new IntVar[list.length];
         for (int i = 0; i < list.length; i++) {
             int[] bounds = VariableUtils.boundsForMultiplication(var(list[i]), var(_coeffs[i]));
@@ -740,6 +1247,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCount(String id, XVariables.XVarInteger[] list, int[] values, Condition condition) {
+        if (validator != null) {
+            validator.count(id, list, values, condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -804,6 +1314,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrNValues(String id, XVariables.XVarInteger[] list, Condition condition) {
+        if (validator != null) {
+            validator.nValues(id, list, new int[0], condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -872,74 +1385,31 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrMDD(String id, XVariables.XVarInteger[] list, Object[][] transitions) {
-        HashMap<String, List<Object[]>>  layers = new HashMap<>();
-        HashSet<String> possibleRoots = new HashSet<>(), notRoots = new HashSet<>();
-        Set<String> possibleWells = new HashSet<>(), notWells = new HashSet<>();
-        for (int t = 0; t < transitions.length; t++) {
-            String src = (String) transitions[t][0], tgt = (String) transitions[t][2];
-            notWells.add(src);
-            notRoots.add(tgt);
-            if (!notRoots.contains(src)){
-                possibleRoots.add(src);
-            }
-            if (!notWells.contains(tgt)){
-                possibleWells.add(tgt);
-            }
-            if (possibleRoots.contains(tgt)){
-                possibleRoots.remove(tgt);
-            }
-            if (possibleWells.contains(src)){
-                possibleWells.remove(src);
-            }
-            List<Object[]> succs = layers.computeIfAbsent(src, k -> new ArrayList<>());
-            succs.add(transitions[t]);
-        }
-
-        String first = possibleRoots.toArray(new String[1])[0];
-        String last =possibleWells.toArray(new String[1])[0];
-        TObjectIntHashMap<String> map = new TObjectIntHashMap<>();
-        map.put(first, 0);
-        map.put(last, -1);
-        possibleRoots.add(last);
-        int n = 1;
-
-        int[][] mtransitions = new int[transitions.length][3];
-        int k = 0;
-        CircularQueue<String> queue = new CircularQueue<>(layers.size());
-        queue.addLast(first);
-        while(!queue.isEmpty()){
-            String src = queue.pollFirst();
-            List<Object[]> succs = layers.get(src);
-            if(succs == null) continue;
-            for(Object[] t : succs){
-                String tgt = (String)t[2];
-                if(!possibleRoots.contains(tgt)){
-                    queue.addLast(tgt);
-                    possibleRoots.add(tgt);
-                    map.put(tgt, n++);
-                }
-                mtransitions[k++] = new int[]{map.get(src), ((Long) t[1]).intValue(),map.get(tgt)};
-            }
-        }
         IntVar[] mVars = vars(list);
-        MultivaluedDecisionDiagram mdd = new MultivaluedDecisionDiagram(mVars, mtransitions);
-        model.mddc(mVars, mdd).post();
-
+        model.mddc(mVars, mdds.get(mVars, transitions)).post();
     }
 
-
     @Override
     public void buildCtrExactly(String id, XVariables.XVarInteger[] list, int value, int k) {
+        if (validator != null) {
+            validator.occurrences(id, list, value, Types.TypeConditionOperatorRel.EQ, k);
+        }
         model.count(value, vars(list), model.intVar(k)).post();
     }
 
     @Override
     public void buildCtrExactly(String id, XVariables.XVarInteger[] list, int value, XVariables.XVarInteger k) {
+        if (validator != null) {
+            validator.exactly(id, list, value, k);
+        }
         model.count(value, vars(list), var(k)).post();
     }
 
     @Override
     public void buildCtrMinimum(String id, XVariables.XVarInteger[] list, Condition condition) {
+        if (validator != null) {
+            validator.minimum(id, list, condition);
+        }
         IntVar[] vars = vars(list);
         int min = Arrays.stream(vars).min(Comparator.comparingInt(IntVar::getLB)).get().getLB();
         int max = Arrays.stream(vars).max(Comparator.comparingInt(IntVar::getUB)).get().getUB();
@@ -1009,16 +1479,25 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrElement(String id, XVariables.XVarInteger[] list, XVariables.XVarInteger value) {
+        if (validator != null) {
+            validator.element(id, list, 0, null, value, 0);
+        }
         model.element(var(value), vars(list), model.intVar(0, list.length), 0).post();
     }
 
     @Override
     public void buildCtrElement(String id, XVariables.XVarInteger[] list, int value) {
+        if (validator != null) {
+            validator.element(id, list, 0, null, null, value);
+        }
         model.element(model.intVar(value), vars(list), model.intVar(0, list.length), 0).post();
     }
 
     @Override
     public void buildCtrElement(String id, XVariables.XVarInteger[] list, int startIndex, XVariables.XVarInteger index, Types.TypeRank rank, XVariables.XVarInteger value) {
+        if (validator != null && rank == Types.TypeRank.ANY) {
+            validator.element(id, list, startIndex, index, value, 0);
+        }
         if (rank == Types.TypeRank.ANY) {
             model.element(var(value), vars(list), var(index), startIndex).post();
         } else XCallbacks2.super.buildCtrElement(id, list, startIndex, index, rank, value);
@@ -1026,6 +1505,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrElement(String id, XVariables.XVarInteger[] list, int startIndex, XVariables.XVarInteger index, Types.TypeRank rank, int value) {
+        if (validator != null && rank == Types.TypeRank.ANY) {
+            validator.element(id, list, startIndex, index, null, value);
+        }
         if (rank == Types.TypeRank.ANY) {
             model.element(model.intVar(value), vars(list), var(index), startIndex).post();
         } else XCallbacks2.super.buildCtrElement(id, list, startIndex, index, rank, value);
@@ -1033,6 +1515,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrElement(String id, int[] list, int startIndex, XVariables.XVarInteger index, Types.TypeRank rank, XVariables.XVarInteger value) {
+        if (validator != null && rank == Types.TypeRank.ANY) {
+            validator.element(id, list, startIndex, index, value);
+        }
         if (rank == Types.TypeRank.ANY) {
             model.element(var(value), list, var(index), startIndex).post();
         } else XCallbacks2.super.buildCtrElement(id, list, startIndex, index, rank, value);
@@ -1040,6 +1525,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrMaximum(String id, XVariables.XVarInteger[] list, Condition condition) {
+        if (validator != null) {
+            validator.maximum(id, list, condition);
+        }
         IntVar[] vars = vars(list);
         int min = Arrays.stream(vars).min(Comparator.comparingInt(IntVar::getLB)).get().getLB();
         int max = Arrays.stream(vars).max(Comparator.comparingInt(IntVar::getUB)).get().getUB();
@@ -1107,6 +1595,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrLexMatrix(String id, XVariables.XVarInteger[][] matrix, Types.TypeOperatorRel operator) {
+        if (validator != null) {
+            validator.lexMatrix(id, matrix, operator);
+        }
         switch (operator) {
             case LT: {
                 model.lexChainLess(vars(matrix)).post();
@@ -1139,6 +1630,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrOrdered(String id, XVariables.XVarInteger[] list, Types.TypeOperatorRel operator) {
+        if (validator != null) {
+            validator.ordered(id, list, null, operator);
+        }
         IntVar[] vars = vars(list);
         IntVar[][] vectors = new IntVar[vars.length][1];
         for (int i = 0; i < vars.length; i++) {
@@ -1149,6 +1643,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrOrdered(String id, XVariables.XVarInteger[] list, int[] lengths, Types.TypeOperatorRel operator) {
+        if (validator != null) {
+            validator.ordered(id, list, lengths, operator);
+        }
         IntVar[] vars = vars(list);
         IntVar[][] vectors = new IntVar[vars.length * 2 - 1][1];
         int k = 0;
@@ -1162,6 +1659,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrLex(String id, XVariables.XVarInteger[][] lists, Types.TypeOperatorRel operator) {
+        if (validator != null) {
+            validator.lex(id, lists, operator);
+        }
         lexCtr(vars(lists), operator);
     }
 
@@ -1188,11 +1688,17 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrChannel(String id, XVariables.XVarInteger[] list, int startIndex) {
+        if (validator != null) {
+            validator.channel(id, list, startIndex, null, startIndex);
+        }
         model.inverseChanneling(vars(list), vars(list), startIndex, startIndex).post();
     }
 
     @Override
     public void buildCtrChannel(String id, XVariables.XVarInteger[] list1, int startIndex1, XVariables.XVarInteger[] list2, int startIndex2) {
+        if (validator != null) {
+            validator.channel(id, list1, startIndex1, list2, startIndex2);
+        }
         if(list1.length == list2.length) {
             model.inverseChanneling(vars(list1), vars(list2), startIndex1, startIndex2).post();
         }else if(list1.length < list2.length){
@@ -1208,6 +1714,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrChannel(String id, XVariables.XVarInteger[] list, int startIndex, XVariables.XVarInteger value) {
+        if (validator != null) {
+            validator.channel(id, list, startIndex, value);
+        }
         model.boolsIntChanneling(bools(list), var(value), startIndex).post();
     }
 
@@ -1215,6 +1724,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrNoOverlap(String id, XVariables.XVarInteger[] origins, int[] lengths, boolean zeroIgnored) {
+        if (validator != null) {
+            validator.noOverlap(id, origins, null, lengths, zeroIgnored);
+        }
         // disjunctive
         model.cumulative(
                 IntStream.range(0, origins.length)
@@ -1227,6 +1739,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrNoOverlap(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths, boolean zeroIgnored) {
+        if (validator != null) {
+            validator.noOverlap(id, origins, lengths, null, zeroIgnored);
+        }
         // disjunctive
         model.cumulative(
                 IntStream.range(0, origins.length)
@@ -1239,6 +1754,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrNoOverlap(String id, XVariables.XVarInteger[][] origins, int[][] lengths, boolean zeroIgnored) {
+        if (validator != null) {
+            validator.noOverlap(id, origins, null, lengths, zeroIgnored);
+        }
         if(origins[0].length == 2){
             IntVar[] X = Arrays.stream(origins).map(o -> var(o[0])).toArray(IntVar[]::new);
             IntVar[] Y = Arrays.stream(origins).map(o -> var(o[1])).toArray(IntVar[]::new);
@@ -1252,6 +1770,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrNoOverlap(String id, XVariables.XVarInteger[][] origins, XVariables.XVarInteger[][] lengths, boolean zeroIgnored) {
+        if (validator != null) {
+            validator.noOverlap(id, origins, lengths, null, zeroIgnored);
+        }
         if(origins[0].length == 2){
             IntVar[] X = Arrays.stream(origins).map(o -> var(o[0])).toArray(IntVar[]::new);
             IntVar[] Y = Arrays.stream(origins).map(o -> var(o[1])).toArray(IntVar[]::new);
@@ -1265,6 +1786,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths, int[] heights, Condition condition) {
+        if (validator != null) {
+            validator.cumulative(id, origins, null, lengths, null, heights, condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -1299,6 +1823,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths, XVariables.XVarInteger[] heights, Condition condition) {
+        if (validator != null) {
+            validator.cumulative(id, origins, null, lengths, heights, null, condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -1329,6 +1856,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths, int[] heights, Condition condition) {
+        if (validator != null) {
+            validator.cumulative(id, origins, lengths, null, null, heights, condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -1363,6 +1893,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths, XVariables.XVarInteger[] heights, Condition condition) {
+        if (validator != null) {
+            validator.cumulative(id, origins, lengths, null, heights, null, condition);
+        }
         if (condition instanceof Condition.ConditionRel) {
             Condition.ConditionRel conditionRel = (Condition.ConditionRel) condition;
             switch (conditionRel.operator) {
@@ -1393,6 +1926,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildCtrInstantiation(String id, XVariables.XVarInteger[] list, int[] values) {
+        if (validator != null) {
+            validator.instantiation(id, list, values);
+        }
         Tuples tuples = new Tuples(true);
         tuples.add(values);
         model.table(vars(list), tuples).post();
@@ -1409,20 +1945,67 @@ public class XCSPParser implements XCallbacks2 {
         return implem;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public void loadCtr(XConstraints.XCtr c) {
+        record(p -> p.loadCtr(c));
+        if (c.getType() != Types.TypeCtr.intension) {
+            flushIntensions();
+        }
+        depth++;
+        features.constraint(c.getType());
+        int checked = validator != null ? validator.size() : 0;
+        if (validator != null && c.getType() == Types.TypeCtr.intension && c.childs[0].value instanceof XNodeParent) {
+            // the source predicate, whether it is recognized as a primitive or not
+            validator.intension(c.id, (XNodeParent<XVariables.XVarInteger>) c.childs[0].value);
+        }
+        Provenance provenance = Provenance.of(model);
+        if (provenance == null) {
+            XCallbacks2.super.loadCtr(c);
+        } else {
+            provenance.open(model);
+            XCallbacks2.super.loadCtr(c);
+            provenance.close(model, c.id != null ? c.id : c.getType().name());
+        }
+        if (validator != null && validator.size() == checked) {
+            validator.uncovered(c.getType());
+        }
+        depth--;
+    }
+
     @Override
     public void loadGroup(XConstraints.XGroup g) {
+        record(p -> p.loadGroup(g));
+        depth++;
         beginGroup(g);
-        if (g.template instanceof XConstraints.XCtr)
+        if (g.template instanceof XConstraints.XCtr && (((XConstraints.XCtr) g.template).type == Types.TypeCtr.intension
+                || ((XConstraints.XCtr) g.template).type == Types.TypeCtr.extension)) {
+            // the first instance is concretized, so that primitives are recognized as usual, the next
+            // ones are posted from their arguments when possible
+            XConstraints.XCtr template = (XConstraints.XCtr) g.template;
+            loadInstances(template.id != null ? template.id : template.getType().name(), template.getType(), g.argss,
+                    (p, args) -> p.loadCtrs(template, new Object[][]{args}, g));
+        } else if (g.template instanceof XConstraints.XCtr)
             loadCtrs((XConstraints.XCtr) g.template, g.argss, g);
         else if (g.template instanceof XConstraints.XLogic && ((XConstraints.XLogic) g.template).getType() == Types.TypeCtr.not) {
+            flushIntensions();
             XConstraints.CEntryReifiable child = ((XConstraints.XLogic) g.template).components[0];
             if (child instanceof XConstraints.XCtr && ((XConstraints.XCtr) child).type == Types.TypeCtr.allEqual) {
                 // http://sofdem.github.io/gccat/aux/pdf/not_all_equal.pdf
-                Stream.of(g.argss).forEach(o -> model.notAllEqual(vars((XVariables.XVarInteger[]) o)).post());
+                Stream.of(g.argss).forEach(o -> {
+                    features.constraint(Types.TypeCtr.notAllEqual);
+                    if (validator != null) {
+                        validator.notAllEqual(g.id, (XVariables.XVarInteger[]) o);
+                    }
+                    model.notAllEqual(vars((XVariables.XVarInteger[]) o)).post();
+                });
+            } else if (validator != null) {
+                validator.uncovered(Types.TypeCtr.not);
             }
         } else
             unimplementedCase(g);
         endGroup(g);
+        depth--;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1431,7 +2014,9 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildAnnotationDecision(XVariables.XVarInteger[] list) {
+        record(p -> p.buildAnnotationDecision(list));
         model.addHook("decisions", vars(list));
+        features.decisions();
     }
 
 
@@ -1442,11 +2027,23 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildObjToMinimize(String id, XVariables.XVarInteger x) {
+        record(p -> p.buildObjToMinimize(id, x));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(null, new XVariables.XVarInteger[]{x}, null);
+        }
+        features.objective(null, 1);
         model.setObjective(false, var(x));
     }
 
     @Override
     public void buildObjToMaximize(String id, XVariables.XVarInteger x) {
+        record(p -> p.buildObjToMaximize(id, x));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(null, new XVariables.XVarInteger[]{x}, null);
+        }
+        features.objective(null, 1);
         model.setObjective(true, var(x));
     }
 
@@ -1491,6 +2088,12 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildObjToMinimize(String id, Types.TypeObjective type, XVariables.XVarInteger[] list) {
+        record(p -> p.buildObjToMinimize(id, type, list));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(type, list, null);
+        }
+        features.objective(type, list.length);
         switch (type) {
             case SUM:
                 model.setObjective(false, optSum(list));
@@ -1513,6 +2116,12 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildObjToMaximize(String id, Types.TypeObjective type, XVariables.XVarInteger[] list) {
+        record(p -> p.buildObjToMaximize(id, type, list));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(type, list, null);
+        }
+        features.objective(type, list.length);
         switch (type) {
             case SUM:
                 model.setObjective(true, optSum(list));
@@ -1535,6 +2144,12 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildObjToMinimize(String id, Types.TypeObjective type, XVariables.XVarInteger[] list, int[] coeffs) {
+        record(p -> p.buildObjToMinimize(id, type, list, coeffs));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(type, list, coeffs);
+        }
+        features.objective(type, list.length);
         switch (type) {
             case SUM:
                 model.setObjective(false, optScalar(list, coeffs));
@@ -1553,6 +2168,12 @@ public class XCSPParser implements XCallbacks2 {
 
     @Override
     public void buildObjToMaximize(String id, Types.TypeObjective type, XVariables.XVarInteger[] list, int[] coeffs) {
+        record(p -> p.buildObjToMaximize(id, type, list, coeffs));
+        flushIntensions();
+        if (validator != null) {
+            validator.objective(type, list, coeffs);
+        }
+        features.objective(type, list.length);
         switch (type) {
             case SUM:
                 model.setObjective(true, optScalar(list, coeffs));
@@ -0,0 +1,1034 @@
+/**
+ * This file is part of choco-parsers, https://github.com/chocoteam/choco-parsers
+ *
+ * Copyright (c) 2019, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.parser.xcsp;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.parser.ParserException;
+import org.chocosolver.parser.Provenance;
+import org.xcsp.common.Types;
+import org.xcsp.common.predicates.XNode;
+import org.xcsp.common.predicates.XNodeLeaf;
+import org.xcsp.common.predicates.XNodeParent;
+import org.xcsp.parser.entries.XConstraints;
+import org.xcsp.parser.entries.XVariables;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.xcsp.common.Constants.STAR_INT;
+
+/**
+ * A streaming loader of XCSP3 instances, based on a pull parser (StAX).
+ * <p>
+ * Unlike {@link org.xcsp.parser.XCallbacks2#loadInstance(String)}, which builds the DOM of the
+ * whole document before any callback fires, elements are read in a single pass and turned into
+ * compact entries: tuples are read chunk by chunk, directly into a primitive buffer, and the
+ * tuples of a group are shared by all its constraints. Peak memory is then close to the size of
+ * the final model.
+ * <p>
+ * Only a subset of XCSP3 is supported: integer variables and arrays with finite domains,
+ * <i>extension</i> and <i>intension</i> constraints, possibly in blocks and groups, objectives over
+ * a variable or a list and <i>decision</i> annotations. Callbacks of the parser are queued while
+ * reading and only fired once the end of the document is reached: as soon as an unsupported
+ * element is met, {@link #load(File)} throws {@link Unsupported} and nothing has been built, so
+ * that the caller can fall back on the DOM loader. Intension constraints go through
+ * {@link XCSPParser#loadCtr(XConstraints.XCtr)}, like with the DOM loader, so that primitives are
+ * recognized the same way.
+ * <p>
+ * Project: choco-parsers.
+ *
+ * @author Charles Prud'homme
+ * @since 19/10/2026.
+ */
+public class XCSPStreamer {
+
+    private final XCSPParser parser;
+    /**
+     * Single variables, by id
+     */
+    private final Map<String, XVariables.XVarInteger> vars = new HashMap<>();
+    /**
+     * Arrays of variables, by id
+     */
+    private final Map<String, Cells> arrays = new HashMap<>();
+    /**
+     * Callbacks of the parser, fired once the whole document is known to be supported
+     */
+    private final List<Runnable> actions = new ArrayList<>();
+
+    /**
+     * Create a streaming loader feeding <i>parser</i>, whose model is set already.
+     *
+     * @param parser the parser to feed
+     */
+    XCSPStreamer(XCSPParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Load an instance and dispatch its elements to the parser.
+     *
+     * @param file an XCSP3 instance, possibly compressed (<i>.lzma</i> or <i>.bz2</i>)
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the file is not well-formed
+     * @throws Unsupported        if the instance is not supported, in which case nothing is built
+     */
+    public void load(File file) throws IOException, XMLStreamException {
+        try (InputStream in = open(file)) {
+            XMLStreamReader r = reader(in);
+            try {
+                while (r.hasNext()) {
+                    if (r.next() == XMLStreamConstants.START_ELEMENT) {
+                        switch (r.getLocalName()) {
+                            case "instance":
+                                String type = r.getAttributeValue(null, "type");
+                                if (type != null && !type.equals("CSP") && !type.equals("COP")) {
+                                    throw unsupported(r);
+                                }
+                                break;
+                            case "variables":
+                                variables(r);
+                                break;
+                            case "constraints":
+                                constraints(r);
+                                break;
+                            case "objectives":
+                                objectives(r);
+                                break;
+                            case "annotations":
+                                annotations(r);
+                                break;
+                            default:
+                                throw unsupported(r);
+                        }
+                    }
+                }
+            } finally {
+                r.close();
+            }
+        }
+        for (int i = 0; i < actions.size(); i++) {
+            actions.get(i).run();
+            // parsed data are released as soon as they are built
+            actions.set(i, null);
+        }
+        actions.clear();
+    }
+
+    /**
+     * Thrown when an instance is met that cannot be streamed, before anything is built
+     */
+    public static final class Unsupported extends ParserException {
+        Unsupported(String message) {
+            super(message);
+        }
+    }
+
+    private static InputStream open(File file) throws IOException {
+        String name = file.getName();
+        if (name.endsWith(".lzma") || name.endsWith(".bz2")) {
+            // same decompression as the DOM loader of xcsp3-tools
+            Process p = Runtime.getRuntime().exec(new String[]{
+                    name.endsWith(".lzma") ? "lzma" : "bunzip2", "-dc", file.getAbsolutePath()});
+            p.getOutputStream().close();
+            return new BufferedInputStream(p.getInputStream(), 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    p.destroy();
+                }
+            };
+        }
+        return new BufferedInputStream(new FileInputStream(file), 1 << 16);
+    }
+
+    private static XMLStreamReader reader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory.createXMLStreamReader(in);
+    }
+
+    private static Unsupported unsupported(XMLStreamReader r) {
+        return new Unsupported("Unsupported element <" + r.getLocalName() + "> (l." +
+                r.getLocation().getLineNumber() + ")");
+    }
+
+    /**
+     * Read the text of the current element, including the one of nested elements, up to its end.
+     */
+    private static String text(XMLStreamReader r) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (r.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                    break;
+            }
+        }
+        return text.toString().trim();
+    }
+
+    private static String[] tokens(String text) {
+        return text.isEmpty() ? new String[0] : text.split("\\s+");
+    }
+
+    private static Types.TypeObjective objective(String type) {
+        try {
+            return Types.TypeObjective.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////// VARIABLES //////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void variables(XMLStreamReader r) throws XMLStreamException {
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String id = r.getAttributeValue(null, "id");
+            String type = r.getAttributeValue(null, "type");
+            if (r.getAttributeValue(null, "as") != null || (type != null && !type.equals("integer"))) {
+                throw unsupported(r);
+            }
+            switch (r.getLocalName()) {
+                case "var":
+                    XVariables.XVarInteger x = variable(id);
+                    vars.put(id, x);
+                    build(x, domain(text(r)));
+                    break;
+                case "array":
+                    array(r, id);
+                    break;
+                default:
+                    throw unsupported(r);
+            }
+        }
+    }
+
+    private void array(XMLStreamReader r, String id) throws XMLStreamException {
+        String size = r.getAttributeValue(null, "size");
+        String[] dims = size.substring(1, size.length() - 1).split("\\]\\s*\\[");
+        int[] sizes = Arrays.stream(dims).mapToInt(d -> Integer.parseInt(d.trim())).toArray();
+        Cells array = new Cells(id, sizes);
+        arrays.put(id, array);
+        // a domain for all cells, or one per subset of cells, possibly "others"
+        int[][] domains = new int[array.cells.length][];
+        int[] others = null;
+        StringBuilder text = new StringBuilder();
+        int event;
+        while ((event = r.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (!r.getLocalName().equals("domain")) {
+                    throw unsupported(r);
+                }
+                String target = r.getAttributeValue(null, "for");
+                int[] domain = domain(text(r));
+                if (target.trim().equals("others")) {
+                    others = domain;
+                } else {
+                    for (String ref : tokens(target.trim())) {
+                        for (int c : array.select(ref)) {
+                            domains[c] = domain;
+                        }
+                    }
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+            }
+        }
+        if (text.toString().trim().length() > 0) {
+            others = domain(text.toString().trim());
+        }
+        if (others != null && others[0] == 0 && Arrays.stream(domains).allMatch(d -> d == null)) {
+            // all cells share the same interval, the array is built in one call
+            for (int c = 0; c < array.cells.length; c++) {
+                array.cells[c] = variable(array.name(c));
+            }
+            int lb = others[1], ub = others[2];
+            actions.add(() -> parser.buildVarIntegers(array.cells, lb, ub));
+            return;
+        }
+        for (int c = 0; c < array.cells.length; c++) {
+            int[] domain = domains[c] != null ? domains[c] : others;
+            if (domain != null) {
+                array.cells[c] = variable(array.name(c));
+                build(array.cells[c], domain);
+            }
+        }
+    }
+
+    private static XVariables.XVarInteger variable(String id) {
+        return (XVariables.XVarInteger) XVariables.XVar.build(id, XVariables.TypeVar.integer, null);
+    }
+
+    /**
+     * @return a domain as {min, max} if it is an interval, as {values...} otherwise, with a
+     * leading flag: 0 for an interval, 1 for values
+     */
+    private static int[] domain(String text) {
+        String[] tokens = tokens(text);
+        if (tokens.length == 1 && tokens[0].contains("..")) {
+            int dots = tokens[0].indexOf("..");
+            return new int[]{0, value(tokens[0].substring(0, dots)), value(tokens[0].substring(dots + 2))};
+        }
+        TIntArrayList values = new TIntArrayList();
+        values.add(1);
+        for (String token : tokens) {
+            int dots = token.indexOf("..");
+            if (dots > 0) {
+                int ub = value(token.substring(dots + 2));
+                for (int v = value(token.substring(0, dots)); v <= ub; v++) {
+                    values.add(v);
+                }
+            } else {
+                values.add(value(token));
+            }
+        }
+        return values.toArray();
+    }
+
+    private void build(XVariables.XVarInteger x, int[] domain) {
+        if (domain[0] == 0) {
+            actions.add(() -> parser.buildVarInteger(x, domain[1], domain[2]));
+        } else {
+            int[] values = Arrays.copyOfRange(domain, 1, domain.length);
+            Arrays.sort(values);
+            actions.add(() -> parser.buildVarInteger(x, values));
+        }
+    }
+
+    /**
+     * @throws Unsupported if <i>token</i> is not an int, like <i>+infinity</i> or a long
+     */
+    private static int value(String token) {
+        try {
+            return Integer.parseInt(token.charAt(0) == '+' ? token.substring(1) : token);
+        } catch (NumberFormatException e) {
+            throw new Unsupported("Unsupported value: " + token);
+        }
+    }
+
+    /**
+     * Resolve a reference to variables (e.g., <i>x</i>, <i>y[2]</i>, <i>y[]</i>, <i>z[0..2][]</i>)
+     * and add them to <i>scope</i>.
+     */
+    private void resolve(String ref, List<Object> scope) {
+        int b = ref.indexOf('[');
+        if (b < 0) {
+            XVariables.XVarInteger x = vars.get(ref);
+            if (x == null) {
+                throw new ParserException("Unknown variable: " + ref);
+            }
+            scope.add(x);
+            return;
+        }
+        Cells array = arrays.get(ref.substring(0, b));
+        if (array == null) {
+            throw new ParserException("Unknown array: " + ref);
+        }
+        for (int c : array.select(ref)) {
+            if (array.cells[c] == null) {
+                throw new ParserException("Undefined variable: " + array.name(c));
+            }
+            scope.add(array.cells[c]);
+        }
+    }
+
+    /**
+     * @return the expansion of a list of references or integers
+     */
+    private List<Object> expand(String text) {
+        List<Object> list = new ArrayList<>();
+        for (String token : tokens(text)) {
+            char c = token.charAt(0);
+            if (c == '-' || c == '+' || Character.isDigit(c)) {
+                list.add((long) value(token));
+            } else {
+                resolve(token, list);
+            }
+        }
+        return list;
+    }
+
+    private static XVariables.XVarInteger[] scope(List<Object> list) {
+        XVariables.XVarInteger[] scope = new XVariables.XVarInteger[list.size()];
+        for (int i = 0; i < scope.length; i++) {
+            if (!(list.get(i) instanceof XVariables.XVarInteger)) {
+                throw new ParserException("Variable expected: " + list.get(i));
+            }
+            scope[i] = (XVariables.XVarInteger) list.get(i);
+        }
+        return scope;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////// CONSTRAINTS ////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void constraints(XMLStreamReader r) throws XMLStreamException {
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String id = r.getAttributeValue(null, "id");
+            switch (r.getLocalName()) {
+                case "block":
+                    constraints(r);
+                    break;
+                case "group":
+                    group(r, id);
+                    break;
+                case "extension":
+                    post(extension(r, id), null);
+                    break;
+                case "intension":
+                    post(intension(r, id), null);
+                    break;
+                default:
+                    throw unsupported(r);
+            }
+        }
+    }
+
+    private void group(XMLStreamReader r, String id) throws XMLStreamException {
+        r.nextTag();
+        Template template;
+        switch (r.getLocalName()) {
+            case "extension":
+                template = extension(r, id);
+                break;
+            case "intension":
+                template = intension(r, id);
+                break;
+            default:
+                throw unsupported(r);
+        }
+        List<Object[]> argss = new ArrayList<>();
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!r.getLocalName().equals("args")) {
+                throw unsupported(r);
+            }
+            if (template.entry != null) {
+                argss.add(expand(text(r)).toArray());
+            } else {
+                post(template, expand(text(r)));
+            }
+        }
+        if (template.entry != null) {
+            // same as the DOM loader: the first instance is concretized, the next ones are posted
+            // from their arguments when possible
+            Object[][] all = argss.toArray(new Object[0][]);
+            String source = template.source();
+            Function<List<Object>, XConstraints.XCtr> entry = template.entry;
+            actions.add(() -> parser.loadInstances(source, Types.TypeCtr.intension, all,
+                    (p, args) -> p.loadCtr(entry.apply(Arrays.asList(args)))));
+        }
+    }
+
+    private void post(Template template, List<Object> args) {
+        actions.add(() -> {
+            Provenance provenance = Provenance.of(parser.model);
+            if (provenance != null) {
+                provenance.open(parser.model);
+            }
+            template.post(args);
+            if (provenance != null) {
+                provenance.close(parser.model, template.source());
+            }
+        });
+    }
+
+    private Template extension(XMLStreamReader r, String id) throws XMLStreamException {
+        int line = r.getLocation().getLineNumber();
+        String list = null;
+        TupleBuffer tuples = null;
+        boolean positive = true;
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (r.getLocalName()) {
+                case "list":
+                    list = text(r);
+                    break;
+                case "supports":
+                case "conflicts":
+                    positive = r.getLocalName().equals("supports");
+                    tuples = new TupleBuffer();
+                    int event;
+                    while ((event = r.next()) != XMLStreamConstants.END_ELEMENT) {
+                        if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                                || event == XMLStreamConstants.SPACE) {
+                            tuples.feed(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                        }
+                    }
+                    tuples.end();
+                    break;
+                default:
+                    throw unsupported(r);
+            }
+        }
+        if (list == null || tuples == null) {
+            throw new ParserException("Incomplete extension constraint");
+        }
+        String[] refs = tokens(list);
+        boolean unary = !tuples.parenthesized && refs.length == 1 && !refs[0].startsWith("%...");
+        Set<Types.TypeFlag> flags = tuples.starred ? EnumSet.of(Types.TypeFlag.STARRED_TUPLES)
+                : EnumSet.noneOf(Types.TypeFlag.class);
+        boolean sign = positive;
+        if (unary) {
+            int[] values = tuples.values();
+            return new Template(id, "extension", line, args -> {
+                XVariables.XVarInteger[] scope = scope(instantiate(refs, args));
+                if (scope.length != 1) {
+                    throw new ParserException("Unary extension constraint expected");
+                }
+                parser.getFeatures().constraint(Types.TypeCtr.extension);
+                dispatch(p -> p.buildCtrExtension(id, scope[0], values, sign, flags));
+            });
+        }
+        int[][] table = tuples.tuples();
+        return new Template(id, "extension", line, args -> {
+            XVariables.XVarInteger[] scope = scope(instantiate(refs, args));
+            if (table.length > 0 && table[0].length != scope.length) {
+                throw new ParserException("Arity of tuples does not match the scope: " + list);
+            }
+            parser.getFeatures().constraint(Types.TypeCtr.extension);
+            dispatch(p -> p.buildCtrExtension(id, scope, table, sign, flags));
+        });
+    }
+
+    /**
+     * @return the expansion of <i>refs</i>, in which parameters <i>%i</i> and <i>%...</i> are
+     * replaced by arguments
+     */
+    private List<Object> instantiate(String[] refs, List<Object> args) {
+        List<Object> list = new ArrayList<>();
+        int next = 0;
+        for (String ref : refs) {
+            if (ref.charAt(0) != '%') {
+                resolve(ref, list);
+            } else if (ref.equals("%...")) {
+                list.addAll(args.subList(next, args.size()));
+            } else {
+                int i = Integer.parseInt(ref.substring(1));
+                list.add(args.get(i));
+                next = Math.max(next, i + 1);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Call back the parser, constraint callbacks are not recorded by the parser itself
+     */
+    private void dispatch(Consumer<XCSPParser> callback) {
+        parser.record(callback);
+        callback.accept(parser);
+    }
+
+    private Template intension(XMLStreamReader r, String id) throws XMLStreamException {
+        int line = r.getLocation().getLineNumber();
+        String function = text(r);
+        Term term = new TermReader(function).read();
+        if (term.sons == null) {
+            throw new ParserException("Predicate expected: " + function);
+        }
+        Function<List<Object>, XConstraints.XCtr> entry = args -> {
+            XNode<XVariables.XVarInteger> tree = node(term, args);
+            // the same entry as the one built by the DOM loader, so that primitives are recognized alike
+            XConstraints.XCtr c = new XConstraints.XCtr(Types.TypeCtr.intension,
+                    new XConstraints.CChild(Types.TypeChild.function, tree));
+            c.id = id;
+            return c;
+        };
+        return new Template(id, "intension", line, args -> parser.loadCtr(entry.apply(args)), entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private XNode<XVariables.XVarInteger> node(Term term, List<Object> args) {
+        if (term.sons != null) {
+            XNode<XVariables.XVarInteger>[] sons = new XNode[term.sons.length];
+            for (int i = 0; i < sons.length; i++) {
+                sons[i] = node(term.sons[i], args);
+            }
+            return new XNodeParent<>(term.type, sons);
+        }
+        Object leaf;
+        if (term.param >= 0) {
+            leaf = args.get(term.param);
+        } else if (term.ref != null) {
+            List<Object> list = new ArrayList<>(1);
+            resolve(term.ref, list);
+            leaf = list.get(0);
+        } else {
+            leaf = term.value;
+        }
+        if (leaf instanceof XVariables.XVarInteger) {
+            return new XNodeLeaf<>(Types.TypeExpr.VAR, leaf);
+        }
+        return new XNodeLeaf<>(Types.TypeExpr.LONG, leaf);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////// OBJECTIVES AND ANNOTATIONS /////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void objectives(XMLStreamReader r) throws XMLStreamException {
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String id = r.getAttributeValue(null, "id");
+            String type = r.getAttributeValue(null, "type");
+            boolean minimize;
+            switch (r.getLocalName()) {
+                case "minimize":
+                    minimize = true;
+                    break;
+                case "maximize":
+                    minimize = false;
+                    break;
+                default:
+                    throw unsupported(r);
+            }
+            if (type == null) {
+                String text = text(r);
+                if (text.indexOf('(') >= 0) {
+                    // an expression, not a single variable
+                    throw new Unsupported("Unsupported objective: " + text);
+                }
+                XVariables.XVarInteger[] x = scope(expand(text));
+                if (minimize) {
+                    actions.add(() -> parser.buildObjToMinimize(id, x[0]));
+                } else {
+                    actions.add(() -> parser.buildObjToMaximize(id, x[0]));
+                }
+                continue;
+            }
+            Types.TypeObjective objective = objective(type);
+            if (objective == null) {
+                throw unsupported(r);
+            }
+            XVariables.XVarInteger[] list = null;
+            int[] coeffs = null;
+            int event;
+            StringBuilder text = new StringBuilder();
+            while ((event = r.next()) != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (r.getLocalName().equals("list")) {
+                        list = scope(expand(text(r)));
+                    } else if (r.getLocalName().equals("coeffs")) {
+                        coeffs = Arrays.stream(tokens(text(r))).mapToInt(XCSPStreamer::value).toArray();
+                    } else {
+                        throw unsupported(r);
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS) {
+                    text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                }
+            }
+            XVariables.XVarInteger[] terms = list != null ? list : scope(expand(text.toString().trim()));
+            int[] weights = coeffs;
+            actions.add(() -> {
+                if (weights == null && minimize) {
+                    parser.buildObjToMinimize(id, objective, terms);
+                } else if (weights == null) {
+                    parser.buildObjToMaximize(id, objective, terms);
+                } else if (minimize) {
+                    parser.buildObjToMinimize(id, objective, terms, weights);
+                } else {
+                    parser.buildObjToMaximize(id, objective, terms, weights);
+                }
+            });
+        }
+    }
+
+    private void annotations(XMLStreamReader r) throws XMLStreamException {
+        while (r.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!r.getLocalName().equals("decision")) {
+                throw unsupported(r);
+            }
+            XVariables.XVarInteger[] list = scope(expand(text(r)));
+            actions.add(() -> parser.buildAnnotationDecision(list));
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////////////// INTERNAL STRUCTURES ////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The variables of an array, in row-major order
+     */
+    private static final class Cells {
+        final String id;
+        final int[] sizes;
+        final XVariables.XVarInteger[] cells;
+
+        Cells(String id, int[] sizes) {
+            this.id = id;
+            this.sizes = sizes;
+            this.cells = new XVariables.XVarInteger[Arrays.stream(sizes).reduce(1, (a, b) -> a * b)];
+        }
+
+        String name(int c) {
+            StringBuilder name = new StringBuilder(id);
+            int[] index = new int[sizes.length];
+            for (int d = sizes.length - 1; d >= 0; d--) {
+                index[d] = c % sizes[d];
+                c /= sizes[d];
+            }
+            for (int i : index) {
+                name.append('[').append(i).append(']');
+            }
+            return name.toString();
+        }
+
+        /**
+         * @return positions of the cells selected by <i>ref</i>, like <i>x[1][]</i> or
+         * <i>x[0..2][3]</i>, in row-major order
+         */
+        int[] select(String ref) {
+            int[] lbs = new int[sizes.length];
+            int[] ubs = new int[sizes.length];
+            int from = ref.indexOf('[');
+            for (int d = 0; d < sizes.length; d++) {
+                int to = ref.indexOf(']', from);
+                if (from < 0 || to < 0) {
+                    throw new ParserException("Wrong reference: " + ref);
+                }
+                String index = ref.substring(from + 1, to).trim();
+                int dots = index.indexOf("..");
+                if (index.isEmpty() || index.equals("*")) {
+                    lbs[d] = 0;
+                    ubs[d] = sizes[d] - 1;
+                } else if (dots > 0) {
+                    lbs[d] = Integer.parseInt(index.substring(0, dots));
+                    ubs[d] = Integer.parseInt(index.substring(dots + 2));
+                } else {
+                    lbs[d] = ubs[d] = Integer.parseInt(index);
+                }
+                if (lbs[d] < 0 || ubs[d] >= sizes[d]) {
+                    throw new ParserException("Index out of bounds: " + ref);
+                }
+                from = ref.indexOf('[', to);
+            }
+            TIntArrayList selected = new TIntArrayList();
+            int[] index = lbs.clone();
+            while (true) {
+                int c = 0;
+                for (int d = 0; d < sizes.length; d++) {
+                    c = c * sizes[d] + index[d];
+                }
+                selected.add(c);
+                int d = sizes.length - 1;
+                while (d >= 0 && index[d] == ubs[d]) {
+                    index[d] = lbs[d];
+                    d--;
+                }
+                if (d < 0) {
+                    return selected.toArray();
+                }
+                index[d]++;
+            }
+        }
+    }
+
+    /**
+     * A constraint, or the template of the constraints of a group, to post given its arguments
+     */
+    private static final class Template {
+        final String id;
+        final String type;
+        /**
+         * Line of the element in the instance
+         */
+        final int line;
+        final Consumer<List<Object>> poster;
+        /**
+         * Builds the entry of an instance, given its arguments, {@code null} for extension
+         * constraints, whose instances are cheap already
+         */
+        final Function<List<Object>, XConstraints.XCtr> entry;
+
+        Template(String id, String type, int line, Consumer<List<Object>> poster) {
+            this(id, type, line, poster, null);
+        }
+
+        Template(String id, String type, int line, Consumer<List<Object>> poster,
+                 Function<List<Object>, XConstraints.XCtr> entry) {
+            this.id = id;
+            this.type = type;
+            this.line = line;
+            this.poster = poster;
+            this.entry = entry;
+        }
+
+        /**
+         * @return the description of the element, see {@link Provenance}
+         */
+        String source() {
+            return "l." + line + " " + (id != null ? id : type);
+        }
+
+        void post(List<Object> args) {
+            poster.accept(args);
+        }
+    }
+
+    /**
+     * A state machine reading tuples, or values for unary constraints, chunk by chunk into a
+     * primitive buffer
+     */
+    static final class TupleBuffer {
+        private int[] data = new int[64];
+        private int size;
+        private int arity = -1;
+        private int length;
+        private boolean parenthesized;
+        private boolean starred;
+        // number being read
+        private boolean reading;
+        private boolean negative;
+        private long number;
+        // number of consecutive dots, a range is pending when it reaches 2
+        private int dots;
+        private boolean range;
+
+        void feed(char[] chars, int from, int len) {
+            for (int i = from; i < from + len; i++) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    if (!reading) {
+                        reading = true;
+                        number = 0;
+                    }
+                    number = number * 10 + (c - '0');
+                    if (number > Integer.MAX_VALUE + 1L) {
+                        throw new ParserException("Value out of bounds in tuples");
+                    }
+                    continue;
+                }
+                end();
+                switch (c) {
+                    case '-':
+                        negative = true;
+                        break;
+                    case '+':
+                        break;
+                    case '.':
+                        if (++dots == 2) {
+                            range = true;
+                        }
+                        break;
+                    case '(':
+                        parenthesized = true;
+                        length = 0;
+                        break;
+                    case ')':
+                        if (arity < 0) {
+                            arity = length;
+                        } else if (arity != length) {
+                            throw new ParserException("Tuples of different arities");
+                        }
+                        break;
+                    case '*':
+                        starred = true;
+                        push(STAR_INT);
+                        break;
+                    case ',':
+                    case ' ':
+                    case '\t':
+                    case '\n':
+                    case '\r':
+                        break;
+                    default:
+                        throw new ParserException("Unexpected character in tuples: " + c);
+                }
+            }
+        }
+
+        /**
+         * Flush the number being read, if any
+         */
+        void end() {
+            if (!reading) {
+                return;
+            }
+            int v = (int) (negative ? -number : number);
+            if (negative ? -number < Integer.MIN_VALUE : number > Integer.MAX_VALUE) {
+                throw new ParserException("Value out of bounds in tuples");
+            }
+            reading = false;
+            negative = false;
+            if (range) {
+                if (parenthesized || size == 0) {
+                    throw new Unsupported("Unsupported range in tuples");
+                }
+                for (int w = data[size - 1] + 1; w <= v; w++) {
+                    push(w);
+                }
+                range = false;
+            } else {
+                push(v);
+            }
+            dots = 0;
+        }
+
+        private void push(int v) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1));
+            }
+            data[size++] = v;
+            length++;
+        }
+
+        int[] values() {
+            return Arrays.copyOf(data, size);
+        }
+
+        int[][] tuples() {
+            if (!parenthesized && size > 0) {
+                throw new ParserException("Tuples expected");
+            }
+            if (arity <= 0) {
+                return new int[0][];
+            }
+            int[][] tuples = new int[size / arity][];
+            for (int i = 0; i < tuples.length; i++) {
+                tuples[i] = Arrays.copyOfRange(data, i * arity, (i + 1) * arity);
+            }
+            data = null;
+            return tuples;
+        }
+    }
+
+    /**
+     * A node of a predicate, in which parameters <i>%i</i> are not replaced yet
+     */
+    private static final class Term {
+        Types.TypeExpr type;
+        Term[] sons;
+        String ref;
+        long value;
+        int param = -1;
+    }
+
+    /**
+     * A recursive-descent reader of functional expressions, like <i>eq(%0,add(x[1],2))</i>
+     */
+    private static final class TermReader {
+        private final String text;
+        private int pos;
+
+        TermReader(String text) {
+            this.text = text;
+        }
+
+        Term read() {
+            Term term = term();
+            skip();
+            if (pos < text.length()) {
+                throw error();
+            }
+            return term;
+        }
+
+        private void skip() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private ParserException error() {
+            return new ParserException("Unexpected character at position " + pos + " in " + text);
+        }
+
+        private Term term() {
+            skip();
+            Term term = new Term();
+            int start = pos;
+            if (pos >= text.length()) {
+                throw error();
+            }
+            char c = text.charAt(pos);
+            if (c == '%') {
+                pos++;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+                term.param = Integer.parseInt(text.substring(start + 1, pos));
+                return term;
+            }
+            if (c == '-' || c == '+' || Character.isDigit(c)) {
+                pos++;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+                term.value = Long.parseLong(text.substring(c == '+' ? start + 1 : start, pos));
+                return term;
+            }
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos))
+                    || text.charAt(pos) == '_' || text.charAt(pos) == '[' || text.charAt(pos) == ']'
+                    || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            skip();
+            if (pos < text.length() && text.charAt(pos) == '(') {
+                pos++;
+                try {
+                    term.type = Types.TypeExpr.valueOf(name.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new Unsupported("Unknown operator: " + name);
+                }
+                List<Term> sons = new ArrayList<>();
+                char separator;
+                do {
+                    sons.add(term());
+                    skip();
+                    if (pos >= text.length()) {
+                        throw error();
+                    }
+                    separator = text.charAt(pos++);
+                } while (separator == ',');
+                if (separator != ')') {
+                    throw error();
+                }
+                term.sons = sons.toArray(new Term[0]);
+            } else if (name.equals("true") || name.equals("false")) {
+                term.value = name.equals("true") ? 1 : 0;
+            } else if (name.isEmpty()) {
+                throw error();
+            } else {
+                term.ref = name;
+            }
+            return term;
+        }
+    }
+}
@@ -9,15 +9,26 @@
 package org.chocosolver.mps;
 
 import org.chocosolver.parser.mps.MPS;
+import org.chocosolver.parser.mps.MPSParser;
+import org.chocosolver.parser.mps.MPSPresolve;
+import org.chocosolver.parser.mps.MPSProblem;
+import org.chocosolver.parser.mps.MPSRowKind;
 import org.chocosolver.pf4cs.SetUpException;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.solver.variables.IntVar;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * <p> Project: choco-parsers.
@@ -35,6 +46,462 @@ public class ParserTest {
         run(file);
     }
 
+    @Test(groups = "1s", timeOut = 60000)
+    public void testFormats() throws Exception {
+        // fixed format, with blanks in names
+        Path fixed = Files.createTempFile("fixed", ".mps");
+        fixed.toFile().deleteOnExit();
+        Files.write(fixed, Arrays.asList(
+                "NAME          FIXED",
+                "ROWS",
+                " N  COST",
+                " L  LIM 1",
+                "COLUMNS",
+                "    MARKER                 'MARKER'                 'INTORG'",
+                "    X ONE     COST                 1   LIM 1                1",
+                "    Y TWO     COST                 2   LIM 1                1",
+                "    MARKER                 'MARKER'                 'INTEND'",
+                "RHS",
+                "    RHS       LIM 1                3",
+                "BOUNDS",
+                " UP BND       X ONE                2",
+                " UP BND       Y TWO                2",
+                "ENDATA"));
+        // free format, with no RHS set name, comments and exponents
+        Path free = Files.createTempFile("free", ".mps");
+        free.toFile().deleteOnExit();
+        Files.write(free, Arrays.asList(
+                "* a comment",
+                "NAME FREE",
+                "ROWS",
+                " N COST",
+                " G LIM",
+                "COLUMNS",
+                " x COST 1.5e0 LIM 1",
+                " y COST -0.25 LIM 2",
+                "RHS",
+                " LIM 2E0",
+                "BOUNDS",
+                " UP BND x 4",
+                " UP y 4.5",
+                "ENDATA"));
+        for (Path file : new Path[]{fixed, free}) {
+            Model model = new Model();
+            MPSParser parser = new MPSParser();
+            parser.model(model, file.toString(), false, -999, 999, false, false);
+            Assert.assertEquals(model.getNbVars(), 3, file.toString());
+            Assert.assertTrue(model.getSolver().solve(), file.toString());
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testLP() throws Exception {
+        // example1, in LP format
+        Path lp = Files.createTempFile("example1", ".lp");
+        lp.toFile().deleteOnExit();
+        Files.write(lp, Arrays.asList(
+                "\\ a comment",
+                "Minimize",
+                " COST: XONE + 4 YTWO + 9 ZTHREE",
+                "Subject To",
+                " LIM1: XONE + YTWO <= 5",
+                " LIM2: XONE",
+                "   + ZTHREE >= 10",
+                " MYEQN: - YTWO + ZTHREE = 7",
+                "Bounds",
+                " XONE <= 4",
+                " -1 <= YTWO <= 1",
+                "End"));
+        ClassLoader cl = this.getClass().getClassLoader();
+        MPSProblem expected = MPSParser.read(cl.getResource("mps/example1.mps").getFile());
+        MPSProblem problem = MPSParser.read(lp.toString());
+        Assert.assertFalse(problem.maximize);
+        Assert.assertEquals(problem.rowNames, expected.rowNames);
+        Assert.assertEquals(problem.rowTypes, expected.rowTypes);
+        Assert.assertEquals(problem.rhs, expected.rhs);
+        Assert.assertEquals(problem.rowIntegral, expected.rowIntegral);
+        Assert.assertEquals(problem.colNames, expected.colNames);
+        Assert.assertEquals(problem.colInt, expected.colInt);
+        Assert.assertEquals(problem.lbs, expected.lbs);
+        Assert.assertEquals(problem.ubs, expected.ubs);
+        Assert.assertEquals(problem.rowStart, expected.rowStart);
+        Assert.assertEquals(problem.rowCols, expected.rowCols);
+        Assert.assertEquals(problem.rowValues, expected.rowValues);
+        // the declared sense is applied, ranged rows and repeated terms are supported
+        Files.write(lp, Arrays.asList(
+                "Maximize",
+                " x + y",
+                "st",
+                " c1: 2 x + 3 y + x <= 18",
+                " 1 <= x - y <= 4",
+                "Generals",
+                " x y",
+                "End"));
+        problem = MPSParser.read(lp.toString());
+        Assert.assertTrue(problem.maximize);
+        Assert.assertEquals(problem.rowNames, new String[]{"obj", "c1", "R1"});
+        Assert.assertEquals(problem.rowValues[problem.rowStart[1]], 3.);
+        Assert.assertEquals(problem.rowTypes[2], MPSProblem.G);
+        Assert.assertEquals(problem.ranges[2], 3.);
+        Model model = new Model();
+        new MPSParser().model(model, lp.toString(), false, -999, 999, false, false);
+        Solver solver = model.getSolver();
+        while (solver.solve()) ;
+        // 3x + 3y <= 18
+        Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().intValue(), 6);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testHint() throws Exception {
+        Path file = Files.createTempFile("hint", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME HINT", "ROWS", " N OBJ", " L R1",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x OBJ 1", " x R1 1", " y OBJ 2", " y R1 1",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " R1 4",
+                "BOUNDS", " UP x 3", " UP y 3",
+                "ENDATA"));
+        Path hint = Files.createTempFile("hint", ".sol");
+        hint.toFile().deleteOnExit();
+        Files.write(hint, Arrays.asList("x 1", "y 1"));
+        MPS mps = new MPS();
+        mps.setUp(file.toString(), "-hint", hint.toString(), "-p", "1");
+        mps.createSolver();
+        mps.buildModel();
+        mps.configureSearch();
+        Model model = mps.getModel();
+        IntVar objective = (IntVar) model.getObjective();
+        // x + 2y <= 3 is posted from the hint
+        model.getSolver().propagate();
+        Assert.assertEquals(objective.getUB(), 3);
+        mps.solve();
+        Assert.assertEquals(model.getSolver().getObjectiveManager().getBestSolutionValue().intValue(), 0);
+
+        // a partial hint does not bound the objective, but still seeds the values
+        Files.write(hint, Arrays.asList("y 2"));
+        mps = new MPS();
+        mps.setUp(file.toString(), "-hint", hint.toString(), "-p", "1");
+        mps.createSolver();
+        mps.buildModel();
+        mps.configureSearch();
+        Assert.assertNotNull(mps.getModel().getSolver().getSearch());
+        Assert.assertTrue(Arrays.stream(mps.getModel().getSolver().getSearch().getVariables())
+                .anyMatch(v -> v.getName().equals("y")));
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testProblem() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource("mps/example1.mps").getFile();
+        MPSParser parser = new MPSParser();
+        parser.model(new Model(), file, false, -999, 999, false, false);
+        MPSProblem problem = parser.getProblem();
+        Assert.assertEquals(problem.nbRows(), 4);
+        Assert.assertEquals(problem.nbCols(), 3);
+        Assert.assertEquals(problem.nbEntries(), 9);
+        Assert.assertEquals(problem.rowNames, new String[]{"COST", "LIM1", "LIM2", "MYEQN"});
+        Assert.assertEquals(problem.colNames, new String[]{"XONE", "YTWO", "ZTHREE"});
+        // MYEQN: -YTWO + ZTHREE = 7
+        Assert.assertEquals(problem.rowTypes[3], MPSProblem.E);
+        Assert.assertEquals(problem.rhs[3], 7.);
+        Assert.assertEquals(Arrays.copyOfRange(problem.rowCols, problem.rowStart[3], problem.rowStart[4]), new int[]{1, 2});
+        Assert.assertEquals(Arrays.copyOfRange(problem.rowValues, problem.rowStart[3], problem.rowStart[4]), new double[]{-1, 1});
+        // YTWO: 4 COST, 1 LIM1, -1 MYEQN
+        Assert.assertEquals(Arrays.copyOfRange(problem.colRows, problem.colStart[1], problem.colStart[2]), new int[]{0, 1, 3});
+        Assert.assertEquals(problem.lbs[1], -1.);
+        Assert.assertEquals(problem.ubs[1], 1.);
+        Assert.assertEquals(problem.ubs[2], Double.POSITIVE_INFINITY);
+        Assert.assertTrue(problem.rowIntegral[3]);
+        Assert.assertFalse(problem.isIntRow(3), "columns are continuous");
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testShared() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource("mps/example1.mps").getFile();
+        MPSPresolve presolve = new MPSPresolve(MPSParser.read(file), MPSPresolve.passes("all"));
+        MPSParser[] parsers = new MPSParser[2];
+        Model[] models = new Model[2];
+        for (int i = 0; i < 2; i++) {
+            parsers[i] = new MPSParser();
+            models[i] = new Model();
+            parsers[i].model(models[i], presolve, false, -999, 999, false, false);
+        }
+        Assert.assertSame(parsers[0].getProblem(), parsers[1].getProblem());
+        Assert.assertSame(parsers[0].getPresolved(), parsers[1].getPresolved());
+        Assert.assertNotSame(parsers[0].getPresolved(), parsers[0].getProblem());
+        Assert.assertEquals(models[0].getNbVars(), models[1].getNbVars());
+        Assert.assertEquals(models[0].getNbCstrs(), models[1].getNbCstrs());
+        for (int i = 0; i < 2; i++) {
+            Assert.assertTrue(models[i].getSolver().solve());
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testPresolve() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource("mps/pigeon-10.mps.gz").getFile();
+        MPSParser none = new MPSParser();
+        none.setPresolve(MPSPresolve.passes("none"));
+        none.setClassify(false);
+        Model m1 = new Model();
+        none.model(m1, file, false, -999, 999, false, false);
+        Assert.assertEquals(none.getPresolved().nbRows(), 932);
+        MPSParser all = new MPSParser();
+        all.setClassify(false);
+        Model m2 = new Model();
+        all.model(m2, file, false, -999, 999, false, false);
+        Assert.assertTrue(all.getPresolved().nbRows() < 600, all.getPresolve().toString());
+        Assert.assertTrue(m2.getNbCstrs() < m1.getNbCstrs());
+        Assert.assertEquals(m2.getNbVars(), m1.getNbVars());
+        // example1: LIM1 cannot be violated
+        file = cl.getResource("mps/example1.mps").getFile();
+        all = new MPSParser();
+        all.setPresolve(MPSPresolve.passes("bounds,objective"));
+        Model m3 = new Model();
+        all.model(m3, file, false, -999, 999, false, false);
+        Assert.assertEquals(all.getPresolve().getRemovedRows(), 1);
+        Assert.assertFalse(Arrays.asList(all.getPresolved().rowNames).contains("LIM1"));
+        Assert.assertTrue(m3.getSolver().solve());
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testScale() throws Exception {
+        Path file = Files.createTempFile("scale", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME SCALE", "ROWS", " N OBJ", " L R1", " G R2", " E R3",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x OBJ 1", " x R1 0.5", " x R2 6", " x R3 0.1",
+                " y OBJ 1", " y R1 0.25", " y R2 9", " y R3 0.3",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " R1 1.3", " R2 4", " R3 0.5",
+                "BOUNDS", " UP x 10", " UP y 10",
+                "ENDATA"));
+        MPSParser parser = new MPSParser();
+        parser.setPresolve(MPSPresolve.passes("scale"));
+        Model model = new Model();
+        parser.model(model, file.toString(), false, -999, 999, false, false);
+        Assert.assertEquals(parser.getPresolve().getScaledRows(), 3);
+        // 2x + y <= 5, 2x + 3y >= 2, x + 3y = 5
+        MPSProblem p = parser.getPresolved();
+        double[][] rows = {{2, 1, 5}, {2, 3, 2}, {1, 3, 5}};
+        for (int r = 1; r < 4; r++) {
+            Assert.assertTrue(p.isIntRow(r), p.rowNames[r]);
+            Assert.assertEquals(Arrays.copyOfRange(p.rowValues, p.rowStart[r], p.rowStart[r + 1]),
+                    Arrays.copyOf(rows[r - 1], 2));
+            Assert.assertEquals(p.rhs[r], rows[r - 1][2]);
+        }
+        Solver solver = model.getSolver();
+        while (solver.solve()) ;
+        Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().intValue(), 3);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testImplied() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource("mps/markshare_5_0.mps.gz").getFile();
+        MPSParser none = new MPSParser();
+        none.setPresolve(MPSPresolve.passes("none"));
+        Model m1 = new Model();
+        none.model(m1, file, false, -999, 999, false, false);
+        Assert.assertTrue(m1.getNbRealVar() > 0);
+        // the slack of each equality is integer, as the other columns are binaries
+        MPSParser implied = new MPSParser();
+        implied.setPresolve(MPSPresolve.passes("implied"));
+        Model m2 = new Model();
+        implied.model(m2, file, false, -999, 999, false, false);
+        Assert.assertEquals(implied.getPresolve().getImpliedIntegers(), 5);
+        Assert.assertEquals(m2.getNbRealVar(), 0);
+        MPSProblem p = implied.getPresolved();
+        for (int r = 0; r < p.nbRows(); r++) {
+            Assert.assertTrue(p.isIntRow(r), p.rowNames[r]);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSplit() throws Exception {
+        // a knapsack over 16 binaries, and a mixed row over the same binaries and a continuous column
+        Path file = Files.createTempFile("split", ".mps");
+        file.toFile().deleteOnExit();
+        List<String> lines = new ArrayList<>(Arrays.asList("NAME SPLIT", "ROWS", " N OBJ", " L KNAP", " G MIX", "COLUMNS",
+                " MARKER 'MARKER' 'INTORG'"));
+        for (int i = 0; i < 16; i++) {
+            lines.add(" x" + i + " OBJ " + (3 + (i * 7) % 11) + " KNAP " + (2 + (i * 5) % 9));
+            lines.add(" x" + i + " MIX 1.5");
+        }
+        lines.addAll(Arrays.asList(" MARKER 'MARKER' 'INTEND'", " y MIX 0.5", "RHS", " KNAP 30", " MIX 2",
+                "BOUNDS", " UP y 1"));
+        for (int i = 0; i < 16; i++) {
+            lines.add(" UP x" + i + " 1");
+        }
+        lines.add("ENDATA");
+        Files.write(file, lines);
+        double[] best = new double[2];
+        for (int s = 0; s < 2; s++) {
+            Model model = new Model();
+            MPSParser parser = new MPSParser();
+            parser.setClassify(false);
+            if (s == 1) {
+                parser.setSplit(4);
+            }
+            parser.model(model, file.toString(), true, -999, 999, false, false);
+            // OBJ and KNAP: 4 sums each, MIX: 5 sums then 1 over them
+            Assert.assertEquals(parser.getPartialSums(), s == 1 ? 14 : 0);
+            Solver solver = model.getSolver();
+            while (solver.solve()) ;
+            best[s] = solver.getObjectiveManager().getBestSolutionValue().doubleValue();
+        }
+        Assert.assertEquals(best[1], best[0]);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testClassify() throws Exception {
+        Path file = Files.createTempFile("classify", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME CLASSIFY", "ROWS", " N OBJ",
+                " E PART", " L PACK", " G COVER", " L IMPL", " G CLAUSE", " L KNAP", " L VUB", " L CARD",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x0 OBJ 2", " x0 PART 1", " x0 IMPL 1", " x0 KNAP 3", " x0 CARD 1",
+                " x1 OBJ 3", " x1 PART 1", " x1 CLAUSE 1", " x1 KNAP 4", " x1 CARD 1",
+                " x2 OBJ 1", " x2 PART 1", " x2 PACK 1", " x2 CLAUSE 1", " x2 CARD 1",
+                " x3 OBJ 4", " x3 PACK 1", " x3 COVER 1", " x3 KNAP 2", " x3 CARD 1",
+                " x4 OBJ 1", " x4 COVER 1", " x4 IMPL -1", " x4 VUB -5", " x4 CARD 1",
+                " x5 OBJ 2", " x5 CLAUSE -1", " x5 KNAP 5", " x5 CARD 1",
+                " z OBJ 1", " z VUB 1",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " PART 1", " PACK 1", " COVER 1", " KNAP 8", " CARD 3",
+                "BOUNDS", " UP x0 1", " UP x1 1", " UP x2 1", " UP x3 1", " UP x4 1", " UP x5 1", " UP z 10",
+                "ENDATA"));
+        double[] best = new double[2];
+        for (int g = 0; g < 2; g++) {
+            Model model = new Model();
+            MPSParser parser = new MPSParser();
+            parser.setPresolve(MPSPresolve.passes("none"));
+            parser.setClassify(g == 0);
+            parser.model(model, file.toString(), true, -999, 999, false, false);
+            if (g == 0) {
+                for (MPSRowKind kind : new MPSRowKind[]{MPSRowKind.PARTITIONING, MPSRowKind.PACKING,
+                        MPSRowKind.COVERING, MPSRowKind.IMPLICATION, MPSRowKind.CLAUSE, MPSRowKind.KNAPSACK,
+                        MPSRowKind.VARIABLE_UPPER_BOUND, MPSRowKind.CARDINALITY}) {
+                    Assert.assertEquals(parser.count(kind), 1, kind.name());
+                }
+            } else {
+                Assert.assertEquals(parser.count(MPSRowKind.INTEGER), 8);
+            }
+            Solver solver = model.getSolver();
+            while (solver.solve()) ;
+            best[g] = solver.getObjectiveManager().getBestSolutionValue().doubleValue();
+        }
+        // x1, x3, x4 and z = 5
+        Assert.assertEquals(best[0], 13.);
+        Assert.assertEquals(best[1], best[0]);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testZeroCoefficient() throws Exception {
+        // explicit zero coefficients are dropped, ZERO is left empty
+        Path file = Files.createTempFile("zero", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME ZERO", "ROWS", " N OBJ", " L R1", " L ZERO",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x0 OBJ 1", " x0 R1 2", " x0 ZERO 0",
+                " x1 OBJ 1", " x1 R1 0",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " R1 4", " ZERO 3",
+                "BOUNDS", " UP x0 5", " UP x1 3",
+                "ENDATA"));
+        Model model = new Model();
+        MPSParser parser = new MPSParser();
+        parser.model(model, file.toString(), true, -999, 999, false, false);
+        Assert.assertEquals(parser.getProblem().nbEntries(), 3);
+        Solver solver = model.getSolver();
+        while (solver.solve()) ;
+        Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().doubleValue(), 5.);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testLargeBound() throws Exception {
+        // the presolve sets ub(x) to 5e7, out of the domain of an integer variable
+        Path file = Files.createTempFile("large", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME LARGE", "ROWS", " N OBJ", " L R1", " L R2",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x OBJ 1", " x R1 1", " x R2 1",
+                " y OBJ 1", " y R2 1",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " R1 50000000", " R2 50000010",
+                "BOUNDS", " UP y 10",
+                "ENDATA"));
+        Model model = new Model();
+        MPSParser parser = new MPSParser();
+        parser.model(model, file.toString(), true, IntVar.MIN_INT_BOUND, IntVar.MAX_INT_BOUND, false, false);
+        IntVar x = (IntVar) Arrays.stream(model.getVars()).filter(v -> v.getName().equals("x")).findFirst().get();
+        Assert.assertEquals(x.getLB(), 0);
+        Assert.assertEquals(x.getUB(), IntVar.MAX_INT_BOUND);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testKnapsackOverflow() throws Exception {
+        // the weights of KNAP do not fit an integer variable: it is posted as a scalar, unlinked
+        Path file = Files.createTempFile("overflow", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME OVERFLOW", "ROWS", " N OBJ", " L KNAP",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x0 OBJ 3", " x0 KNAP 20000000",
+                " x1 OBJ 2", " x1 KNAP 20000000",
+                " x2 OBJ 4", " x2 KNAP 1",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " KNAP 20000001",
+                "BOUNDS", " UP x0 1", " UP x1 1", " UP x2 1",
+                "ENDATA"));
+        Model model = new Model();
+        MPSParser parser = new MPSParser();
+        parser.setPresolve(MPSPresolve.passes("none"));
+        parser.model(model, file.toString(), true, -999, 999, false, false);
+        Assert.assertEquals(parser.count(MPSRowKind.KNAPSACK), 1);
+        Solver solver = model.getSolver();
+        while (solver.solve()) ;
+        // x0 and x2
+        Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().doubleValue(), 7.);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testRelaxation() throws Exception {
+        Path file = Files.createTempFile("relaxation", ".mps");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList("NAME RELAXATION", "ROWS", " N OBJ", " L R1", " L R2", " L R3",
+                "COLUMNS", " MARKER 'MARKER' 'INTORG'",
+                " x0 OBJ 5", " x0 R1 2", " x0 R2 4", " x0 R3 3",
+                " x1 OBJ 4", " x1 R1 3", " x1 R2 1", " x1 R3 4",
+                " x2 OBJ 3", " x2 R1 1", " x2 R2 2", " x2 R3 2",
+                " MARKER 'MARKER' 'INTEND'",
+                "RHS", " R1 5", " R2 11", " R3 8",
+                "BOUNDS", " UP x0 5", " UP x1 5", " UP x2 5",
+                "ENDATA"));
+        double[] best = new double[2];
+        for (int lp = 0; lp < 2; lp++) {
+            Model model = new Model();
+            MPSParser parser = new MPSParser();
+            parser.setPresolve(MPSPresolve.passes("none"));
+            parser.setRelaxation(lp);
+            parser.model(model, file.toString(), true, -999, 999, false, false);
+            Solver solver = model.getSolver();
+            solver.propagate();
+            int ub = ((IntVar) model.getObjective()).getUB();
+            if (lp == 0) {
+                Assert.assertTrue(ub > 13);
+            } else {
+                // the relaxation is optimal at (2, 0, 1)
+                Assert.assertEquals(ub, 13);
+            }
+            while (solver.solve()) ;
+            best[lp] = solver.getObjectiveManager().getBestSolutionValue().doubleValue();
+        }
+        Assert.assertEquals(best[0], 13.);
+        Assert.assertEquals(best[1], best[0]);
+    }
+
     @DataProvider(name = "small")
     public Object[][] mps() throws IOException {
         ClassLoader cl = this.getClass().getClassLoader();
@@ -8,12 +8,25 @@
  */
 package org.chocosolver.parser.flatzinc;
 
+import org.chocosolver.parser.ParserException;
+import org.chocosolver.parser.PropagationProfiler;
+import org.chocosolver.parser.Provenance;
+import org.chocosolver.parser.flatzinc.ast.Datas;
+import org.chocosolver.parser.flatzinc.ast.FConstraint;
+import org.chocosolver.parser.flatzinc.ast.FProfiler;
+import org.chocosolver.parser.flatzinc.ast.FTemplate;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /*
 * User : CPRUDHOM
@@ -94,4 +107,217 @@ public class FlatzincModelTest {
         Assert.assertEquals(model.getSolver().getSolutionCount(), 1);
     }
 
+    @Test(groups = "1s")
+    public void testTemplate() {
+        InputStream in = new ByteArrayInputStream(("array[1 .. 2] of int: c = [2,1];\n" +
+                "int: k = 6;\n" +
+                "var 0 .. 10: x::output_var;\n" +
+                "var 0 .. 10: y::output_var;\n" +
+                "constraint int_lin_le(c, [x,y], k);\n" +
+                "solve maximize x;").getBytes());
+
+        Flatzinc fzn = new Flatzinc(false, false, 1, -1);
+        fzn.addListener(new BaseFlatzincListener(fzn));
+        fzn.createSolver();
+        FTemplate template = fzn.parseTemplate(fzn.getModel(), fzn.datas[0], in);
+        Assert.assertEquals(template.parameters().size(), 2);
+        Assert.assertEquals(template.size(), 6);
+
+        Model model = fzn.getModel();
+        Solution best = model.getSolver().findOptimalSolution((IntVar) model.getObjective(), true);
+        Assert.assertEquals((int) best.getIntVal((IntVar) model.getObjective()), 3);
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("c", new int[]{1, 1});
+        values.put("k", 9);
+        Model other = new Model();
+        template.build(other, new Datas(other, false, false), values);
+        best = other.getSolver().findOptimalSolution((IntVar) other.getObjective(), true);
+        Assert.assertEquals((int) best.getIntVal((IntVar) other.getObjective()), 9);
+    }
+
+    @Test(groups = "1s")
+    public void testTemplateDependentParameter() {
+        InputStream in = new ByteArrayInputStream(("array[1 .. 2] of int: c = [2,1];\n" +
+                "int: k = 6;\n" +
+                "int: m = k;\n" +
+                "array[1 .. 2] of int: d = [m,1];\n" +
+                "var 0 .. 10: x::output_var;\n" +
+                "var 0 .. 10: y::output_var;\n" +
+                "constraint int_lin_le(c, [x,y], m);\n" +
+                "constraint int_le(x, d[1]);\n" +
+                "solve maximize x;").getBytes());
+
+        Flatzinc fzn = new Flatzinc(false, false, 1, -1);
+        fzn.addListener(new BaseFlatzincListener(fzn));
+        fzn.createSolver();
+        FTemplate template = fzn.parseTemplate(fzn.getModel(), fzn.datas[0], in);
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("c", new int[]{1, 1});
+        values.put("k", 9);
+        Model other = new Model();
+        Datas datas = new Datas(other, false, false);
+        template.build(other, datas, values);
+        Assert.assertEquals(datas.get("m"), 9);
+        Assert.assertEquals((int[]) datas.get("d"), new int[]{9, 1});
+        Solution best = other.getSolver().findOptimalSolution((IntVar) other.getObjective(), true);
+        Assert.assertEquals((int) best.getIntVal((IntVar) other.getObjective()), 9);
+    }
+
+    @Test(groups = "1s", expectedExceptions = ParserException.class)
+    public void testTemplateWrongSize() {
+        InputStream in = new ByteArrayInputStream(("array[1 .. 2] of int: c = [2,1];\n" +
+                "var 0 .. 10: x;\n" +
+                "var 0 .. 10: y;\n" +
+                "constraint int_lin_le(c, [x,y], 6);\n" +
+                "solve satisfy;").getBytes());
+
+        Flatzinc fzn = new Flatzinc(false, false, 1, -1);
+        fzn.addListener(new BaseFlatzincListener(fzn));
+        fzn.createSolver();
+        FTemplate template = fzn.parseTemplate(fzn.getModel(), fzn.datas[0], in);
+
+        Model other = new Model();
+        template.build(other, new Datas(other, false, false), Collections.singletonMap("c", new int[]{1, 1, 1}));
+    }
+
+    @Test(groups = "1s")
+    public void testSplit() {
+        byte[] bytes = ("var 1 .. 3: a;\n" +
+                "var 1 .. 3: b::output_var;\n" +
+                "% constraint int_ne(a, b);\n" +
+                "constraint int_ne(a, b);\n" +
+                "constraint int_le(a, b) :: defines_var(\"solve;\");\n" +
+                "constraint int_ne(b, 2);\n" +
+                "solve satisfy;").getBytes();
+        int[] offsets = Flatzinc.split(bytes, 1);
+        Assert.assertEquals(offsets.length, 4);
+        String fzn = new String(bytes);
+        Assert.assertEquals(offsets[0], fzn.indexOf("constraint int_ne(a"));
+        Assert.assertEquals(offsets[1], fzn.indexOf("constraint int_le"));
+        Assert.assertEquals(offsets[2], fzn.indexOf("constraint int_ne(b"));
+        Assert.assertEquals(offsets[3], fzn.indexOf("solve satisfy"));
+    }
+
+    @Test(groups = "1s")
+    public void testParallelParsing() {
+        StringBuilder fzn = new StringBuilder();
+        fzn.append("array[1 .. 2] of int: c = [1,1];\n");
+        fzn.append("array[1 .. 10] of var 1 .. 10: q::output_array([1..10]);\n");
+        for (int i = 1; i < 10; i++) {
+            fzn.append("constraint int_lin_le(c, [q[").append(i).append("],q[").append(i + 1).append("]], 12);\n");
+            fzn.append("constraint int_lt(q[").append(i).append("], q[").append(i + 1).append("]);\n");
+        }
+        fzn.append("solve maximize q[1];");
+
+        Flatzinc fzn1 = new Flatzinc(false, false, 1, -1);
+        fzn1.createSolver();
+        fzn1.parse(fzn1.getModel(), fzn1.datas[0], new ByteArrayInputStream(fzn.toString().getBytes()));
+        Flatzinc fzn2 = new Flatzinc(false, false, 1, -1);
+        fzn2.createSolver();
+        fzn2.parseInParallel(fzn2.getModel(), fzn2.datas[0], fzn.toString().getBytes(), 64);
+
+        Model m1 = fzn1.getModel();
+        Model m2 = fzn2.getModel();
+        Assert.assertEquals(m2.getNbVars(), m1.getNbVars());
+        Assert.assertEquals(m2.getNbCstrs(), m1.getNbCstrs());
+        for (int i = 0; i < m1.getNbCstrs(); i++) {
+            Assert.assertEquals(m2.getCstrs()[i].getName(), m1.getCstrs()[i].getName());
+        }
+        m1.getSolver().findOptimalSolution((IntVar) m1.getObjective(), true);
+        m2.getSolver().findOptimalSolution((IntVar) m2.getObjective(), true);
+        Assert.assertEquals(m2.getSolver().getBestSolutionValue(), m1.getSolver().getBestSolutionValue());
+    }
+
+    @Test(groups = "1s")
+    public void testProfiler() {
+        InputStream in = new ByteArrayInputStream(("var 1 .. 3: a::output_var;\n" +
+                "var 1 .. 3: b::output_var;\n" +
+                "constraint int_ne(a, 1);\n" +
+                "constraint int_ne(a, b);\n" +
+                "constraint int_lin_le([1,1], [a,b], 4);\n" +
+                "solve satisfy;").getBytes());
+
+        Flatzinc fzn = new Flatzinc(false, false, 1, -1);
+        fzn.createSolver();
+        FProfiler profiler = new FProfiler();
+        fzn.datas[0].profileIn(profiler);
+        fzn.parse(fzn.getModel(), fzn.datas[0], in);
+        Assert.assertEquals(profiler.getCalls(FConstraint.int_ne), 2);
+        Assert.assertEquals(profiler.getCalls(FConstraint.int_lin_le), 1);
+        Assert.assertEquals(profiler.getCalls(FConstraint.int_eq), 0);
+        Assert.assertTrue(profiler.getNanos(FConstraint.int_ne) > 0);
+        // each call posts one constraint, and all of them are attributed
+        Assert.assertEquals(profiler.getCstrs(FConstraint.int_ne), 2);
+        Assert.assertEquals(profiler.getCstrs(FConstraint.int_lin_le), 1);
+        Assert.assertEquals(profiler.getCstrs(FConstraint.int_eq), 0);
+        Assert.assertEquals(profiler.getCstrs(FConstraint.int_ne) + profiler.getCstrs(FConstraint.int_lin_le),
+                fzn.getModel().getNbCstrs());
+        Assert.assertTrue(profiler.getProps(fzn.getModel(), FConstraint.int_ne) >= 2);
+        // building a constraint allocates at least the constraint itself
+        if (profiler.measuresBytes()) {
+            Assert.assertTrue(profiler.getBytes(FConstraint.int_ne) > 0);
+            Assert.assertTrue(profiler.getBytes(FConstraint.int_lin_le) > 0);
+        }
+        Assert.assertEquals(profiler.getBytes(FConstraint.int_eq), 0);
+    }
+
+    @Test(groups = "1s")
+    public void testProvenance() {
+        String fzn = "var 1 .. 3: a::output_var;\n" +
+                "var 1 .. 3: b::output_var;\n" +
+                "var 1 .. 3: c::output_var;\n" +
+                "constraint int_ne(a, b);\n" +
+                "constraint int_lin_le([1,1], [b,c], 4);\n" +
+                "constraint int_lt(a, c);\n" +
+                "solve satisfy;";
+        for (int k = 0; k < 2; k++) {
+            Flatzinc fzn1 = new Flatzinc(false, false, 1, -1);
+            fzn1.createSolver();
+            Model model = fzn1.getModel();
+            Provenance provenance = Provenance.attach(model);
+            if (k == 0) {
+                fzn1.parse(model, fzn1.datas[0], new ByteArrayInputStream(fzn.getBytes()));
+            } else {
+                fzn1.parseInParallel(model, fzn1.datas[0], fzn.getBytes(), 1);
+            }
+            Assert.assertEquals(provenance.size(), 3);
+            Assert.assertEquals(provenance.getSource(0), "l.4 int_ne");
+            Assert.assertEquals(provenance.getSource(1), "l.5 int_lin_le");
+            Assert.assertEquals(provenance.getSource(2), "l.6 int_lt");
+            int props = 0;
+            for (int i = 0; i < provenance.size(); i++) {
+                Assert.assertTrue(provenance.getConstraints(model, i).length > 0);
+                for (Constraint c : provenance.getConstraints(model, i)) {
+                    props += c.getPropagators().length;
+                }
+            }
+            Assert.assertEquals(provenance.propagators(model).size(), props);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testPropagationProfiler() {
+        String fzn = "var 1 .. 3: a::output_var;\n" +
+                "var 1 .. 3: b::output_var;\n" +
+                "var 1 .. 3: c::output_var;\n" +
+                "constraint int_ne(a, b);\n" +
+                "constraint int_lt(a, c);\n" +
+                "solve satisfy;";
+        Flatzinc fzn1 = new Flatzinc(false, false, 1, -1);
+        fzn1.createSolver();
+        Model model = fzn1.getModel();
+        Provenance provenance = Provenance.attach(model);
+        fzn1.parse(model, fzn1.datas[0], new ByteArrayInputStream(fzn.getBytes()));
+        PropagationProfiler profiler = new PropagationProfiler(model);
+        profiler.start();
+        Assert.assertEquals(model.getSolver().findAllSolutions().size(), 6);
+        profiler.stop();
+        // int_lt removes 3 from a and 1 from c at the root node
+        Assert.assertEquals(provenance.getSource(1), "l.5 int_lt");
+        Assert.assertTrue(profiler.getEvents(1) >= 2);
+        Assert.assertTrue(profiler.getEvents(0) > 0);
+    }
+
 }
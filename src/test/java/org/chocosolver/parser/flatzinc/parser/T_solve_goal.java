@@ -8,14 +8,22 @@
  */
 package org.chocosolver.parser.flatzinc.parser;
 
+import org.chocosolver.parser.SolutionHint;
 import org.chocosolver.parser.flatzinc.Flatzinc4Parser;
 import org.chocosolver.parser.flatzinc.ast.Datas;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 
 /**
  * <br/>
@@ -77,4 +85,70 @@ public class T_solve_goal extends GrammarTest {
         fp.solve_goal();
     }
 
+    @Test(groups = "1s")
+    public void testWarmStart() throws IOException {
+        datas.register("r", mSolver.intVarArray("r", 3, 0, 10, true));
+        datas.register("o", mSolver.intVar("o", 0, 10, true));
+        Flatzinc4Parser fp = parser(
+                "solve\n" +
+                        "  ::seq_search(\n" +
+                        "    [ warm_start_array([warm_start(r, [1, 2, 3]), warm_start([o], [4])]),\n" +
+                        "      int_search(r, input_order, indomain_min, complete) ])\n" +
+                        "  minimize o;", mSolver, datas
+        );
+        fp.solve_goal();
+        SolutionHint hint = (SolutionHint) mSolver.getHook(SolutionHint.HOOK);
+        Assert.assertNotNull(hint);
+        Assert.assertEquals(hint.size(), 4);
+        Assert.assertNotNull(mSolver.getSolver().getSearch());
+    }
+
+    @Test(groups = "1s")
+    public void testHintFile() throws IOException {
+        Path file = Files.createTempFile("hint", ".sol");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList(
+                "% a comment",
+                "x = 3;",
+                "b = true;",
+                "r = array1d(1..2, [1, 0]);",
+                "z = 1.5;",
+                "----------"));
+        LinkedHashMap<String, int[]> hints = SolutionHint.read(file.toFile());
+        Assert.assertEquals(hints.keySet().toArray(), new String[]{"x", "b", "r"});
+        Assert.assertEquals(hints.get("x"), new int[]{3});
+        Assert.assertEquals(hints.get("b"), new int[]{1});
+        Assert.assertEquals(hints.get("r"), new int[]{1, 0});
+    }
+
+    @Test(groups = "1s")
+    public void testHintBound() throws ContradictionException {
+        // o = x + y, minimized
+        IntVar x = mSolver.intVar("x", 0, 10);
+        IntVar y = mSolver.intVar("y", 0, 10);
+        IntVar o = mSolver.intVar("o", 0, 20);
+        mSolver.arithm(x, "+", y, "=", o).post();
+        mSolver.setObjective(Model.MINIMIZE, o);
+        int nbCstrs = mSolver.getNbCstrs();
+        // a partial hint does not bound the objective
+        SolutionHint hint = SolutionHint.of(mSolver);
+        hint.add(x, 3);
+        Assert.assertNull(hint.boundObjective(mSolver));
+        Assert.assertEquals(mSolver.getNbCstrs(), nbCstrs);
+        // nor does an infeasible one
+        hint.add(y, 11);
+        Assert.assertNull(hint.boundObjective(mSolver));
+        Assert.assertEquals(mSolver.getNbCstrs(), nbCstrs);
+        // a complete one does, and the propagation is undone
+        hint.add(y, 2);
+        Assert.assertEquals(hint.boundObjective(mSolver), Integer.valueOf(5));
+        Assert.assertEquals(mSolver.getNbCstrs(), nbCstrs + 1);
+        Assert.assertFalse(x.isInstantiated());
+        Solver solver = mSolver.getSolver();
+        solver.propagate();
+        Assert.assertEquals(o.getUB(), 5);
+        while (solver.solve()) ;
+        Assert.assertEquals(solver.getObjectiveManager().getBestSolutionValue().intValue(), 0);
+    }
+
 }
@@ -8,12 +8,31 @@
  */
 package org.chocosolver.xscp;
 
+import org.chocosolver.parser.Provenance;
+import org.chocosolver.parser.xcsp.IntensionCache;
+import org.chocosolver.parser.xcsp.SearchSelector;
+import org.chocosolver.parser.xcsp.TableCompressor;
 import org.chocosolver.parser.xcsp.XCSP;
+import org.chocosolver.parser.xcsp.XCSPParser;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.xcsp.common.Types;
+import org.xcsp.common.predicates.XNode;
+import org.xcsp.common.predicates.XNodeLeaf;
+import org.xcsp.common.predicates.XNodeParent;
+import org.xcsp.parser.entries.XVariables;
 
 import java.io.File;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.xcsp.common.Constants.STAR_INT;
 
 /**
  * <p>
@@ -73,6 +92,395 @@ public class FastTest {
         }
     }
 
+    @Test(groups = "1s", timeOut = 60000)
+    public void testReplay() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        for (String name : new String[]{"Sudoku-s01a-alldiff", "testObjective1", "MagicSquare-6-mdd",
+                "Kakuro-easy-000-ext", "Cutstock-small"}) {
+            String file = cl.getResource(basics + name + ".xml.lzma").getFile();
+            XCSPParser recorded = new XCSPParser();
+            recorded.recordCallbacks();
+            Model m1 = new Model();
+            recorded.model(m1, file);
+            Model m2 = new Model();
+            new XCSPParser().model(m2, recorded);
+            Assert.assertEquals(m2.getNbVars(), m1.getNbVars(), name);
+            Assert.assertEquals(m2.getNbCstrs(), m1.getNbCstrs(), name);
+            Assert.assertEquals(m2.getResolutionPolicy(), m1.getResolutionPolicy(), name);
+            Assert.assertEquals(m2.getSolver().findAllSolutions().size(), m1.getSolver().findAllSolutions().size(), name);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testStream() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        for (String name : new String[]{"testExtension1", "testExtension2", "testExtension3",
+                "Kakuro-easy-000-ext", "testObjective1", "Sudoku-s01a-alldiff"}) {
+            String file = cl.getResource(basics + name + ".xml.lzma").getFile();
+            Model m1 = new Model();
+            new XCSPParser().model(m1, file);
+            Model m2 = new Model();
+            new XCSPParser().model(m2, file, true);
+            Assert.assertEquals(m2.getNbVars(), m1.getNbVars(), name);
+            Assert.assertEquals(m2.getNbCstrs(), m1.getNbCstrs(), name);
+            Assert.assertEquals(m2.getResolutionPolicy(), m1.getResolutionPolicy(), name);
+            Assert.assertEquals(m2.getSolver().findAllSolutions().size(), m1.getSolver().findAllSolutions().size(), name);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testStreamFallback() throws Exception {
+        // intension primitives, then an element the streaming loader does not support
+        String[] instances = {
+                "<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                        "<array id=\"x\" size=\"[4]\"> 0..3 </array></variables><constraints>" +
+                        "<intension> eq(x[0],add(x[1],1)) </intension>" +
+                        "<group><intension> ne(%0,%1) </intension><args> x[1] x[2] </args><args> x[2] x[3] </args></group>" +
+                        "</constraints></instance>",
+                "<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                        "<array id=\"x\" size=\"[4]\"> 0..3 </array></variables><constraints>" +
+                        "<intension> eq(x[0],add(x[1],1)) </intension>" +
+                        "<allDifferent> x[] </allDifferent>" +
+                        "</constraints></instance>"};
+        for (String instance : instances) {
+            File file = File.createTempFile("stream", ".xml");
+            file.deleteOnExit();
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writer.println(instance);
+            }
+            Model m1 = new Model();
+            new XCSPParser().model(m1, file.getAbsolutePath());
+            Model m2 = new Model();
+            new XCSPParser().model(m2, file.getAbsolutePath(), true);
+            Assert.assertEquals(m2.getNbVars(), m1.getNbVars());
+            Assert.assertEquals(m2.getNbCstrs(), m1.getNbCstrs());
+            Assert.assertEquals(m2.getSolver().findAllSolutions().size(), m1.getSolver().findAllSolutions().size());
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSolutionValidator() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        for (String name : new String[]{"testExtension1", "testExtension3", "Kakuro-easy-000-ext",
+                "testObjective1", "Sudoku-s01a-alldiff"}) {
+            String file = cl.getResource(basics + name + ".xml.lzma").getFile();
+            XCSPParser parser = new XCSPParser();
+            parser.checkSolutions();
+            Model model = new Model();
+            parser.model(model, file);
+            Solver solver = model.getSolver();
+            int solutions = 0;
+            while (solver.solve()) {
+                Assert.assertNull(parser.checkSolution(), name);
+                solutions++;
+            }
+            Assert.assertTrue(solutions > 0, name);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSolutionValidatorSources() throws Exception {
+        File file = File.createTempFile("validator", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                    "<array id=\"x\" size=\"[3]\"> 0..3 </array></variables><constraints>" +
+                    "<allDifferent> x[] </allDifferent>" +
+                    "<sum><list> x[] </list><condition> (eq,3) </condition></sum>" +
+                    "</constraints></instance>");
+        }
+        XCSPParser parser = new XCSPParser();
+        parser.checkSolutions();
+        Model model = new Model();
+        parser.model(model, file.getAbsolutePath());
+        // the sum is checked from its definition, not from the constraints of the model
+        IntVar[] x = parser.getVariables();
+        model.getEnvironment().worldPush();
+        x[0].instantiateTo(0, Cause.Null);
+        x[1].instantiateTo(1, Cause.Null);
+        x[2].instantiateTo(3, Cause.Null);
+        String wrong = parser.checkSolution();
+        Assert.assertNotNull(wrong);
+        Assert.assertTrue(wrong.contains("sum"), wrong);
+        model.getEnvironment().worldPop();
+        Assert.assertEquals(model.getSolver().findAllSolutions().size(), 6);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSolutionValidatorIntension() throws Exception {
+        File file = File.createTempFile("validator", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                    "<array id=\"x\" size=\"[3]\"> 0..3 </array></variables><constraints>" +
+                    "<intension> eq(x[0],mod(add(x[1],x[2]),3)) </intension>" +
+                    "<intension> ne(div(x[1],x[2]),1) </intension>" +
+                    "</constraints></instance>");
+        }
+        XCSPParser parser = new XCSPParser();
+        parser.checkSolutions();
+        Model model = new Model();
+        parser.model(model, file.getAbsolutePath());
+        // the predicates are interpreted from the instance, a division by zero does not hold
+        IntVar[] x = parser.getVariables();
+        model.getEnvironment().worldPush();
+        x[0].instantiateTo(2, Cause.Null);
+        x[1].instantiateTo(2, Cause.Null);
+        x[2].instantiateTo(0, Cause.Null);
+        String wrong = parser.checkSolution();
+        Assert.assertNotNull(wrong);
+        Assert.assertTrue(wrong.contains("intension"), wrong);
+        model.getEnvironment().worldPop();
+        while (model.getSolver().solve()) {
+            Assert.assertNull(parser.checkSolution());
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    @SuppressWarnings("unchecked")
+    public void testIntensionCache() {
+        Model model = new Model();
+        XVariables.XVarInteger[] xs = new XVariables.XVarInteger[4];
+        IntVar[] vs = new IntVar[4];
+        for (int i = 0; i < 4; i++) {
+            xs[i] = (XVariables.XVarInteger) XVariables.XVar.build("x" + i, XVariables.TypeVar.integer, null);
+            vs[i] = model.intVar("x" + i, 0, 3);
+        }
+        IntensionCache cache = new IntensionCache();
+        // ne(x0, add(x1, 1)) and ne(add(1, x3), x2) share the same canonical form
+        XNodeParent<XVariables.XVarInteger> t1 = new XNodeParent<>(Types.TypeExpr.NE, new XNode[]{
+                new XNodeLeaf<>(Types.TypeExpr.VAR, xs[0]),
+                new XNodeParent<>(Types.TypeExpr.ADD, new XNode[]{
+                        new XNodeLeaf<>(Types.TypeExpr.VAR, xs[1]), new XNodeLeaf<>(Types.TypeExpr.LONG, 1L)})});
+        XNodeParent<XVariables.XVarInteger> t2 = new XNodeParent<>(Types.TypeExpr.NE, new XNode[]{
+                new XNodeLeaf<>(Types.TypeExpr.VAR, xs[2]),
+                new XNodeParent<>(Types.TypeExpr.ADD, new XNode[]{
+                        new XNodeLeaf<>(Types.TypeExpr.LONG, 1L), new XNodeLeaf<>(Types.TypeExpr.VAR, xs[3])})});
+        int[][] s1 = cache.supports(t1, new XVariables.XVarInteger[]{xs[0], xs[1]}, new IntVar[]{vs[0], vs[1]});
+        int[][] s2 = cache.supports(t2, new XVariables.XVarInteger[]{xs[2], xs[3]}, new IntVar[]{vs[2], vs[3]});
+        Assert.assertEquals(s1.length, 13);
+        Assert.assertSame(s2, s1);
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.getHits(), 1);
+        // different domains, different table
+        IntVar other = model.intVar("y", new int[]{0, 2});
+        int[][] s3 = cache.supports(t2, new XVariables.XVarInteger[]{xs[2], xs[3]}, new IntVar[]{other, vs[3]});
+        Assert.assertEquals(s3.length, 7);
+        Assert.assertEquals(cache.size(), 2);
+        // prefetched in parallel, once per distinct signature
+        IntensionCache parallel = new IntensionCache();
+        parallel.prefetch(Arrays.asList(
+                parallel.signature(t1, new XVariables.XVarInteger[]{xs[0], xs[1]}, new IntVar[]{vs[0], vs[1]}),
+                parallel.signature(t2, new XVariables.XVarInteger[]{xs[2], xs[3]}, new IntVar[]{vs[2], vs[3]}),
+                parallel.signature(t2, new XVariables.XVarInteger[]{xs[2], xs[3]}, new IntVar[]{other, vs[3]})));
+        Assert.assertEquals(parallel.size(), 2);
+        Assert.assertEquals(parallel.supports(t1, new XVariables.XVarInteger[]{xs[0], xs[1]},
+                new IntVar[]{vs[0], vs[1]}).length, 13);
+        Assert.assertEquals(parallel.getHits(), 1);
+        // in a group, the signature of an instance is derived from the one of the first instance
+        IntensionCache group = new IntensionCache();
+        IntensionCache.Signature first = group.signature(t1, new XVariables.XVarInteger[]{xs[0], xs[1]},
+                new IntVar[]{vs[0], vs[1]});
+        int[][] g1 = group.supports(first);
+        int[][] g2 = group.supports(group.signature(first, new IntVar[]{vs[2], vs[3]}));
+        int[][] g3 = group.supports(group.signature(first, new IntVar[]{other, vs[3]}));
+        Assert.assertSame(g2, g1);
+        Assert.assertEquals(g3.length, 7);
+        Assert.assertEquals(group.size(), 2);
+        Assert.assertEquals(group.getHits(), 1);
+        // large domains, the decomposition is cheaper than the table
+        IntVar[] large = model.intVarArray("z", 2, 0, 99_999);
+        Assert.assertNull(cache.supports(t1, new XVariables.XVarInteger[]{xs[0], xs[1]}, large));
+        // released tables are computed again, the statistics are kept
+        cache.release();
+        int[][] s4 = cache.supports(t1, new XVariables.XVarInteger[]{xs[0], xs[1]}, new IntVar[]{vs[0], vs[1]});
+        Assert.assertNotSame(s4, s1);
+        Assert.assertEquals(s4.length, 13);
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertEquals(cache.getHits(), 1);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testGroupTemplate() throws Exception {
+        File file = File.createTempFile("group", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                    "<array id=\"x\" size=\"[6]\"> 0..4 </array></variables><constraints>" +
+                    "<group><intension> eq(%0,mod(add(%1,%2),3)) </intension>" +
+                    "<args> x[0] x[1] x[2] </args><args> x[1] x[2] x[3] </args><args> x[2] x[3] x[4] </args>" +
+                    "<args> x[3] x[3] x[4] </args></group>" +
+                    "<group><extension><list> %0 %1 </list><supports> (0,1)(1,2)(2,3)(3,4)(4,0) </supports></extension>" +
+                    "<args> x[4] x[5] </args><args> x[5] x[0] </args></group>" +
+                    "</constraints></instance>");
+        }
+        // instances posted from the template, or concretized one by one to check solutions
+        for (boolean stream : new boolean[]{false, true}) {
+            XCSPParser fast = new XCSPParser();
+            Model m1 = new Model();
+            fast.model(m1, file.getAbsolutePath(), stream);
+            XCSPParser concrete = new XCSPParser();
+            concrete.checkSolutions();
+            Model m2 = new Model();
+            concrete.model(m2, file.getAbsolutePath(), stream);
+            Assert.assertEquals(m1.getNbCstrs(), 6);
+            Assert.assertEquals(m2.getNbCstrs(), m1.getNbCstrs());
+            int solutions = 0;
+            while (m2.getSolver().solve()) {
+                Assert.assertNull(concrete.checkSolution());
+                solutions++;
+            }
+            Assert.assertEquals(m1.getSolver().findAllSolutions().size(), solutions);
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testStreamedProvenance() throws Exception {
+        File file = File.createTempFile("provenance", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("<instance format=\"XCSP3\" type=\"CSP\">");
+            writer.println("<variables><array id=\"x\" size=\"[3]\"> 0..2 </array></variables><constraints>");
+            writer.println("<intension id=\"c1\"> ne(x[0],x[1]) </intension>");
+            writer.println("<group id=\"g\">");
+            writer.println("<extension><list> %0 %1 </list><supports> (0,1)(1,2) </supports></extension>");
+            writer.println("<args> x[1] x[2] </args><args> x[0] x[2] </args></group>");
+            writer.println("<intension> lt(x[0],x[2]) </intension>");
+            writer.println("</constraints></instance>");
+        }
+        XCSPParser parser = new XCSPParser();
+        Model model = new Model();
+        Provenance provenance = Provenance.attach(model);
+        parser.model(model, file.getAbsolutePath(), true);
+        Assert.assertEquals(provenance.size(), 4);
+        Assert.assertEquals(provenance.getSource(0), "l.3 c1");
+        Assert.assertEquals(provenance.getSource(1), "l.5 g");
+        Assert.assertEquals(provenance.getSource(2), "l.5 g");
+        Assert.assertEquals(provenance.getSource(3), "l.7 intension");
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testMddCache() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource(basics + "MagicSquare-6-mdd.xml.lzma").getFile();
+        XCSPParser parser = new XCSPParser();
+        Model model = new Model();
+        parser.model(model, file);
+        // rows, columns and diagonals share the same sum
+        Assert.assertTrue(parser.getMdds().getHits() > 0);
+        Assert.assertTrue(parser.getMdds().size() < parser.getMdds().getHits());
+        Assert.assertTrue(model.getSolver().solve());
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testFeatures() throws Exception {
+        ClassLoader cl = this.getClass().getClassLoader();
+        String file = cl.getResource(basics + "Kakuro-easy-000-ext.xml.lzma").getFile();
+        XCSPParser parser = new XCSPParser();
+        Model model = new Model();
+        parser.model(model, file);
+        Map<String, Double> features = parser.getFeatures().compute(parser.getVariables());
+        Assert.assertEquals(features.get("vars").intValue(), parser.getVariables().length);
+        Assert.assertTrue(features.get("ctr.extension") > 0);
+        // absent types are counted as 0, so that all instances have the same features
+        Assert.assertEquals(features.get("ctr.allDifferent"), 0.);
+        XCSPParser other = new XCSPParser();
+        other.model(new Model(), cl.getResource(basics + "Sudoku-s01a-alldiff.xml.lzma").getFile());
+        Assert.assertEquals(other.getFeatures().compute(other.getVariables()).keySet(), features.keySet());
+        Assert.assertTrue(features.get("tables") > 0);
+        Assert.assertTrue(features.get("tightness") >= 0 && features.get("tightness") <= 1);
+        Assert.assertEquals(features.get("obj.none"), 1.);
+        Assert.assertEquals(features.get("decisions"), 0.);
+        String search = new SearchSelector().select(features);
+        SearchSelector.apply(search, model, null, parser.getVariables());
+        Assert.assertTrue(model.getSolver().solve());
+
+        File weights = File.createTempFile("selector", ".txt");
+        weights.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(weights)) {
+            writer.println("# learned offline");
+            writer.println("default bias 1");
+            writer.println("activity tables 1");
+        }
+        Assert.assertEquals(SearchSelector.load(weights).select(features), SearchSelector.ACTIVITY);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    @SuppressWarnings("unchecked")
+    public void testIntensionPrefetch() throws Exception {
+        Model model = new Model();
+        XVariables.XVarInteger[] xs = new XVariables.XVarInteger[3];
+        IntVar[] vs = new IntVar[3];
+        for (int i = 0; i < 3; i++) {
+            xs[i] = (XVariables.XVarInteger) XVariables.XVar.build("x" + i, XVariables.TypeVar.integer, null);
+            vs[i] = model.intVar("x" + i, 0, 63);
+        }
+        // eq(x0, mod(mul(x1, x2), 7)): 2^18 tuples, 7 nodes
+        XNodeParent<XVariables.XVarInteger> tree = new XNodeParent<>(Types.TypeExpr.EQ, new XNode[]{
+                new XNodeLeaf<>(Types.TypeExpr.VAR, xs[0]),
+                new XNodeParent<>(Types.TypeExpr.MOD, new XNode[]{
+                        new XNodeParent<>(Types.TypeExpr.MUL, new XNode[]{
+                                new XNodeLeaf<>(Types.TypeExpr.VAR, xs[1]), new XNodeLeaf<>(Types.TypeExpr.VAR, xs[2])}),
+                        new XNodeLeaf<>(Types.TypeExpr.LONG, 7L)})});
+        IntensionCache parallel = new IntensionCache();
+        parallel.prefetch(Arrays.asList(parallel.signature(tree, xs, vs)));
+        Assert.assertEquals(parallel.getTasks(), 7);
+        int[][] sequential = new IntensionCache().supports(tree, xs, vs);
+        Assert.assertEquals(sequential.length, 64 * 64);
+        Assert.assertEquals(parallel.supports(tree, xs, vs), sequential);
+
+        // consecutive intension constraints are enumerated in a batch, but posted in place
+        File file = File.createTempFile("intension", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("<instance format=\"XCSP3\" type=\"CSP\"><variables>" +
+                    "<array id=\"x\" size=\"[4]\"> 0..63 </array></variables><constraints>" +
+                    "<intension> eq(x[0],mod(mul(x[1],x[2]),7)) </intension>" +
+                    "<intension> eq(x[3],mod(add(x[1],x[2]),5)) </intension>" +
+                    "<allDifferent> x[] </allDifferent>" +
+                    "<intension> eq(x[0],mod(add(x[2],x[3]),3)) </intension>" +
+                    "</constraints></instance>");
+        }
+        XCSPParser parser = new XCSPParser();
+        Model m = new Model();
+        parser.model(m, file.getAbsolutePath());
+        Assert.assertEquals(parser.getIntensions().size(), 3);
+        Assert.assertTrue(parser.getIntensions().getTasks() > 1);
+        Assert.assertEquals(m.getNbCstrs(), 4);
+        Assert.assertEquals(m.getCstrs()[2].getName(), "ALLDIFFERENT");
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testTableCompressor() {
+        Model model = new Model();
+        IntVar[] vs = model.intVarArray("x", 3, 0, 9);
+        // all tuples but the ones with x[2] = 9, and one out of the domains
+        int[][] tuples = new int[901][];
+        int k = 0;
+        for (int a = 0; a < 10; a++) {
+            for (int b = 0; b < 10; b++) {
+                for (int c = 0; c < 9; c++) {
+                    tuples[k++] = new int[]{a, b, c};
+                }
+            }
+        }
+        tuples[k] = new int[]{0, 0, 10};
+        TableCompressor tables = new TableCompressor();
+        int[][] valid = tables.filter(tuples, vs);
+        Assert.assertEquals(valid.length, 900);
+        Assert.assertNull(tables.compress(valid, vs), "too small to be compressed");
+        int[][] all = Arrays.copyOf(valid, 1000);
+        for (int b = 0; b < 10; b++) {
+            for (int a = 0; a < 10; a++) {
+                all[900 + b * 10 + a] = new int[]{a, b, 9};
+            }
+        }
+        int[][] starred = tables.compress(tables.filter(all, vs), vs);
+        Assert.assertNotNull(starred);
+        Assert.assertEquals(starred.length, 1);
+        Assert.assertEquals(starred[0], new int[]{STAR_INT, STAR_INT, STAR_INT});
+    }
+
     public static final String basics = "xcsp" + File.separator + "basics" + File.separator;
 
     /**